@@ -2,10 +2,12 @@ package com.example.policlicabine;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import javax.xml.transform.Result;
 
 @SpringBootApplication
+@EnableScheduling
 public class PoliclicaBineApplication {
 
     public static void main(String[] args) {
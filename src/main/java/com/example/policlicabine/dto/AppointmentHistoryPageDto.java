@@ -0,0 +1,26 @@
+package com.example.policlicabine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of a patient's appointment history, newest first.
+ * Pass nextCursorDateTime / nextCursorSessionId back to get the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentHistoryPageDto {
+
+    private List<AppointmentSessionSummaryDto> items;
+    private LocalDateTime nextCursorDateTime;
+    private UUID nextCursorSessionId;
+    private boolean hasMore;
+}
@@ -0,0 +1,25 @@
+package com.example.policlicabine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A recurring booking: the series ID and its occurrences in chronological order
+ * (sessionIds.get(i) is scheduled at occurrences.get(i)).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeriesDto {
+
+    private UUID seriesId;
+    private List<UUID> sessionIds;
+    private List<LocalDateTime> occurrences;
+}
@@ -25,9 +25,11 @@ public class AppointmentSessionDto {
     private List<ConsultationDto> consultations;
     private List<DiagnosisDto> diagnoses;
     private List<AnswerDto> answers;
+    private SurgeryRoomDto surgeryRoom;
 
     // Session details
     private LocalDateTime scheduledDateTime;
+    private LocalDateTime scheduledEndDateTime;
     private Boolean isEmergency;
     private SessionStatus status;
     private String freeTextDiagnosis;
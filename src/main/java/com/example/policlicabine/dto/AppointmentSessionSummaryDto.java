@@ -0,0 +1,41 @@
+package com.example.policlicabine.dto;
+
+import com.example.policlicabine.entity.enums.SessionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lightweight session row for lists (history, agendas) - no nested DTO trees.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSessionSummaryDto {
+
+    private UUID sessionId;
+    private UUID patientId;
+    private UUID doctorId;
+    private String doctorName;
+    private LocalDateTime scheduledDateTime;
+    private LocalDateTime scheduledEndDateTime;
+    private SessionStatus status;
+    private Boolean isEmergency;
+    private List<String> consultationNames;
+
+    /**
+     * JPQL constructor-expression target; consultation names are filled in by a second query.
+     */
+    public AppointmentSessionSummaryDto(UUID sessionId, UUID patientId, UUID doctorId, String doctorName,
+                                        LocalDateTime scheduledDateTime, LocalDateTime scheduledEndDateTime,
+                                        SessionStatus status, Boolean isEmergency) {
+        this(sessionId, patientId, doctorId, doctorName, scheduledDateTime, scheduledEndDateTime,
+             status, isEmergency, List.of());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.policlicabine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableSlotDto {
+
+    private UUID doctorId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,21 @@
+package com.example.policlicabine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingLineItemDto {
+
+    private UUID consultationId;
+    private String consultationName;
+    private BigDecimal price;
+    private String currency;
+}
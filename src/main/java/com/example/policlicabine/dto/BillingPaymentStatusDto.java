@@ -0,0 +1,31 @@
+package com.example.policlicabine.dto;
+
+import com.example.policlicabine.entity.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payment state of one session billing (dashboard row - no nested DTO trees).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingPaymentStatusDto {
+
+    private UUID billingId;
+    private UUID sessionId;
+    private UUID patientId;
+    private String patientName;
+    private LocalDateTime scheduledDateTime;
+    private BigDecimal finalAmount;
+    private BigDecimal totalPaid;
+    private BigDecimal outstandingAmount;
+    private PaymentStatus paymentStatus;
+}
@@ -0,0 +1,29 @@
+package com.example.policlicabine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of writing a calendar feed. The feed itself goes to the caller's Writer.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarFeedDto {
+
+    // Quoted entity tag for HTTP ETag / If-None-Match
+    private String etag;
+
+    // Pass back as changedSince for the next incremental sync
+    private LocalDateTime syncToken;
+
+    // True when If-None-Match matched and nothing was written
+    private boolean notModified;
+
+    private int eventCount;
+}
@@ -0,0 +1,27 @@
+package com.example.policlicabine.dto;
+
+import com.example.policlicabine.entity.enums.SessionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorAgendaEntryDto {
+
+    private UUID sessionId;
+    private UUID doctorId;
+    private UUID patientId;
+    private String patientName;
+    private LocalDateTime slotTime;
+    private LocalDateTime slotEndTime;
+    private String consultationNames;
+    private SessionStatus status;
+    private Boolean isEmergency;
+}
@@ -0,0 +1,25 @@
+package com.example.policlicabine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One heatmap row: a doctor's available and booked minutes per day.
+ * Index i of both arrays is the day fromDate + i.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorUtilizationDto {
+
+    private UUID doctorId;
+    private LocalDate fromDate;
+    private int[] availableMinutes;
+    private int[] bookedMinutes;
+}
@@ -30,4 +30,17 @@ public class InvoiceDto {
     private BigDecimal outstandingAmount;
     private PaymentStatus paymentStatus;
     private LocalDateTime createdAt;
+
+    /**
+     * JPQL constructor-expression target for list rows: stored totals only, no billing IDs.
+     */
+    public InvoiceDto(UUID invoiceId, String invoiceNumber, LocalDate invoiceDate, UUID generatedByUserId,
+                      Boolean isProforma, BigDecimal totalAmount, BigDecimal totalPaid,
+                      PaymentStatus paymentStatus, LocalDateTime createdAt) {
+        this(invoiceId, invoiceNumber, invoiceDate, generatedByUserId, null, isProforma, List.of(),
+             totalAmount, totalPaid,
+             (totalAmount != null ? totalAmount : BigDecimal.ZERO)
+                 .subtract(totalPaid != null ? totalPaid : BigDecimal.ZERO),
+             paymentStatus, createdAt);
+    }
 }
\ No newline at end of file
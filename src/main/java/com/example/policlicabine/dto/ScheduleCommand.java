@@ -0,0 +1,27 @@
+package com.example.policlicabine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One booking request in a bulk scheduling call.
+ * Same fields as AppointmentSessionService.scheduleAppointment.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleCommand {
+
+    private UUID patientId;
+    private UUID doctorId;
+    private List<String> consultationNames;
+    private LocalDateTime scheduledDateTime;
+    private boolean isEmergency;
+}
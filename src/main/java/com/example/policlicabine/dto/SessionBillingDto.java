@@ -18,6 +18,7 @@ public class SessionBillingDto {
 
     private UUID billingId;
     private UUID sessionId;
+    private List<BillingLineItemDto> lineItems;
     private BigDecimal subtotalAmount;
     private BigDecimal totalDiscountAmount;
     private BigDecimal finalAmount;
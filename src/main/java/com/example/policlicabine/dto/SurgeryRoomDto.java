@@ -0,0 +1,21 @@
+package com.example.policlicabine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurgeryRoomDto {
+
+    private UUID roomId;
+    private String name;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+}
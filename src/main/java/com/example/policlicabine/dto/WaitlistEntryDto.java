@@ -0,0 +1,37 @@
+package com.example.policlicabine.dto;
+
+import com.example.policlicabine.entity.enums.Specialty;
+import com.example.policlicabine.entity.enums.WaitlistStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntryDto {
+
+    private UUID entryId;
+    private UUID patientId;
+    private UUID doctorId;
+    private Specialty specialty;
+    private LocalDate earliestDate;
+    private LocalDate latestDate;
+    private List<String> consultationNames;
+    private Integer requiredMinutes;
+    private Integer priority;
+    private WaitlistStatus status;
+    private UUID offeredDoctorId;
+    private LocalDateTime offeredSlotStart;
+    private LocalDateTime offeredSlotEnd;
+    private LocalDateTime offeredAt;
+    private UUID bookedSessionId;
+    private LocalDateTime createdAt;
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -15,7 +17,15 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "appointment_sessions")
+@Table(name = "appointment_sessions", indexes = {
+    @Index(name = "idx_session_doctor_time", columnList = "doctor_id, scheduledDateTime"),
+    @Index(name = "idx_session_patient_time", columnList = "patient_id, scheduledDateTime, sessionId"),
+    @Index(name = "idx_session_status_time", columnList = "status, scheduledDateTime, sessionId"),
+    @Index(name = "idx_session_doctor_updated", columnList = "doctor_id, updatedAt"),
+    @Index(name = "idx_session_series_time", columnList = "seriesId, scheduledDateTime")
+})
+// Updates write only changed columns (e.g. version alone when diagnoses change)
+@DynamicUpdate
 @Getter
 @Setter
 @Builder
@@ -26,6 +36,10 @@ public class AppointmentSession {
     @Id
     private UUID sessionId;
 
+    // Optimistic locking: concurrent edits of the same session fail instead of overwriting each other
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private Patient patient;
@@ -37,9 +51,20 @@ public class AppointmentSession {
     @Column(nullable = false)
     private LocalDateTime scheduledDateTime;
 
+    // Start plus the total consultation duration; backs the no-overlap constraint
+    private LocalDateTime scheduledEndDateTime;
+
     @Builder.Default
     private Boolean isEmergency = false;
 
+    // Allocated when any consultation requires a surgery room
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "surgery_room_id")
+    private SurgeryRoom surgeryRoom;
+
+    // Shared by the occurrences of a recurring booking (null for single appointments)
+    private UUID seriesId;
+
     @Enumerated(EnumType.STRING)
     @Builder.Default
     private SessionStatus status = SessionStatus.SCHEDULED;
@@ -66,17 +91,8 @@ public class AppointmentSession {
     @BatchSize(size = 20)
     private List<Answer> answers;
 
-    @Column(columnDefinition = "TEXT")
-    private String freeTextDiagnosis;
-
-    @Column(columnDefinition = "TEXT")
-    private String treatmentInstructions;
-
-    @Column(columnDefinition = "TEXT")
-    private String freeTextObservations;
-
-    @Column(columnDefinition = "TEXT")
-    private String cancellationReason;
+    // Free-text diagnosis, instructions, observations and cancellation reason live in
+    // SessionNotes (session_notes) so scans of this table stay narrow
 
     @Builder.Default
     private Integer contactAttempts = 0;
@@ -92,6 +108,13 @@ public class AppointmentSession {
     private LocalDateTime cancelledAt;
     private LocalDateTime lastContactAttemptAt;
 
+    // Set when a reminder was delivered; cleared when the session moves to a new time
+    private LocalDateTime reminderSentAt;
+
+    // Last change visible in calendar feeds; bulk status UPDATEs set it explicitly
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
     @PrePersist
     void generateId() {
         if (sessionId == null) {
@@ -99,6 +122,15 @@ public class AppointmentSession {
         }
     }
 
+    public int getTotalDurationMinutes() {
+        if (consultations == null || consultations.isEmpty()) {
+            return Consultation.DEFAULT_DURATION_MINUTES;
+        }
+        return consultations.stream()
+            .mapToInt(Consultation::getEffectiveDurationMinutes)
+            .sum();
+    }
+
     public boolean requiresSurgeryRoom() {
         return consultations != null && consultations.stream()
             .anyMatch(Consultation::getRequiresSurgeryRoom);
@@ -116,11 +148,9 @@ public class AppointmentSession {
         return rescheduleCount > 0;
     }
 
-    public boolean hasMedicalData() {
+    public boolean hasMedicalData(SessionNotes notes) {
         return (diagnoses != null && !diagnoses.isEmpty()) ||
-               freeTextDiagnosis != null ||
-               treatmentInstructions != null ||
-               freeTextObservations != null;
+               (notes != null && notes.hasClinicalText());
     }
 
     public BigDecimal getSubtotalAmount() {
@@ -0,0 +1,41 @@
+package com.example.policlicabine.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One consultation as billed: copied from the consultation when the billing is created,
+ * so later price or name changes never alter historic bills.
+ */
+@Embeddable
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingLineItem {
+
+    private UUID consultationId;
+
+    @Column(nullable = false)
+    private String consultationName;
+
+    @Column(precision = 10, scale = 2, nullable = false)
+    private BigDecimal price;
+
+    @Column(length = 3, nullable = false)
+    private String currency;
+
+    @Override
+    public String toString() {
+        return "BillingLineItem{" +
+                "consultationName='" + consultationName + '\'' +
+                ", price=" + price +
+                ", currency='" + currency + '\'' +
+                '}';
+    }
+}
@@ -25,6 +25,11 @@ import java.util.UUID;
 @AllArgsConstructor
 public class Consultation {
 
+    /**
+     * Duration assumed for consultations that have no durationMinutes configured.
+     */
+    public static final int DEFAULT_DURATION_MINUTES = 30;
+
     @Id
     @Column(columnDefinition = "UUID")
     private UUID consultationId;
@@ -74,6 +79,10 @@ public class Consultation {
         return requiresSurgeryRoom != null && requiresSurgeryRoom;
     }
 
+    public int getEffectiveDurationMinutes() {
+        return durationMinutes != null && durationMinutes > 0 ? durationMinutes : DEFAULT_DURATION_MINUTES;
+    }
+
     // Helper method for bidirectional relationship
     public void addQuestion(Question question) {
         questions.add(question);
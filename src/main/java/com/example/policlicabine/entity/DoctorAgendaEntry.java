@@ -0,0 +1,83 @@
+package com.example.policlicabine.entity;
+
+import com.example.policlicabine.entity.enums.SessionStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Denormalized agenda row - one per appointment session.
+ * Read model only: maintained by DoctorAgendaService from session events,
+ * never edited directly. No relationships, so reading an agenda is a single
+ * index scan on (doctor_id, slot_time).
+ */
+@Entity
+@Table(name = "doctor_agenda", indexes = {
+    @Index(name = "idx_agenda_doctor_slot", columnList = "doctor_id, slot_time")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorAgendaEntry {
+
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID sessionId;
+
+    @Column(nullable = false)
+    private UUID doctorId;
+
+    @Column(nullable = false)
+    private UUID patientId;
+
+    @Column(length = 201)
+    private String patientName;
+
+    @Column(nullable = false)
+    private LocalDateTime slotTime;
+
+    private LocalDateTime slotEndTime;
+
+    // Comma-separated, in booking order
+    @Column(columnDefinition = "TEXT")
+    private String consultationNames;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private SessionStatus status;
+
+    @Builder.Default
+    private Boolean isEmergency = false;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DoctorAgendaEntry)) return false;
+        DoctorAgendaEntry that = (DoctorAgendaEntry) o;
+        return sessionId != null && Objects.equals(sessionId, that.sessionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "DoctorAgendaEntry{" +
+                "sessionId=" + sessionId +
+                ", doctorId=" + doctorId +
+                ", slotTime=" + slotTime +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.policlicabine.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Change watermark of a doctor's calendar - one row per doctor.
+ * Bumped by DoctorCalendarService in the same transaction as every session change,
+ * so feed ETags and sync tokens are a primary-key lookup, never a scan of sessions.
+ */
+@Entity
+@Table(name = "doctor_calendar_state")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorCalendarState {
+
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID doctorId;
+
+    @Column(nullable = false)
+    private Long revision;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DoctorCalendarState)) return false;
+        DoctorCalendarState that = (DoctorCalendarState) o;
+        return doctorId != null && Objects.equals(doctorId, that.doctorId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "DoctorCalendarState{" +
+                "doctorId=" + doctorId +
+                ", revision=" + revision +
+                '}';
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.policlicabine.entity;
 
 import com.example.policlicabine.entity.enums.PaymentStatus;
-import com.example.policlicabine.entity.enums.PaymentType;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.BatchSize;
@@ -52,6 +51,21 @@ public class Invoice {
     @BatchSize(size = 10)
     private List<Payment> payments;
 
+    // Materialized totals: written by InvoiceRepository.refreshTotals in the transaction that
+    // changes billings, discounts or payments, and checked nightly against the derived values
+    @Column(precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    // Non-refund payments linked to this invoice
+    @Column(precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private PaymentStatus paymentStatus = PaymentStatus.PENDING;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
@@ -63,44 +77,9 @@ public class Invoice {
         }
     }
 
-    public BigDecimal getTotalAmount() {
-        if (sessionBillings == null || sessionBillings.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        return sessionBillings.stream()
-            .map(SessionBilling::getFinalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    public BigDecimal getTotalPaid() {
-        if (payments == null || payments.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        return payments.stream()
-            .filter(payment -> payment.getPaymentType() != PaymentType.REFUND)
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     public BigDecimal getOutstandingAmount() {
-        return getTotalAmount().subtract(getTotalPaid());
-    }
-
-    public PaymentStatus getPaymentStatus() {
-        if (isProforma) {
-            return PaymentStatus.PENDING;
-        }
-
-        BigDecimal totalPaid = getTotalPaid();
-        BigDecimal totalAmount = getTotalAmount();
-
-        if (totalPaid.compareTo(BigDecimal.ZERO) <= 0) {
-            return PaymentStatus.PENDING;
-        } else if (totalPaid.compareTo(totalAmount) >= 0) {
-            return PaymentStatus.FULLY_PAID;
-        } else {
-            return PaymentStatus.PARTIALLY_PAID;
-        }
+        BigDecimal total = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+        return total.subtract(totalPaid != null ? totalPaid : BigDecimal.ZERO);
     }
 
     public boolean canConvertToFinalInvoice() {
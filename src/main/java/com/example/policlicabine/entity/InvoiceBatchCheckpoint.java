@@ -0,0 +1,87 @@
+package com.example.policlicabine.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Progress of one partition of an end-of-day invoicing run - one row per (business day, partition).
+ * Advanced by BatchInvoicingService in the same transaction as the invoices of each chunk,
+ * so a restarted run continues after the last committed chunk and never invoices a billing twice.
+ */
+@Entity
+@Table(name = "invoice_batch_checkpoints")
+@IdClass(InvoiceBatchCheckpoint.Key.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceBatchCheckpoint {
+
+    @Id
+    private LocalDate runDate;
+
+    @Id
+    private Integer partitionNo;
+
+    // Keyset cursor: last (patient, session day, billing) invoiced
+    @Column(columnDefinition = "UUID", nullable = false)
+    private UUID lastPatientId;
+
+    @Column(nullable = false)
+    private LocalDate lastSessionDate;
+
+    @Column(columnDefinition = "UUID", nullable = false)
+    private UUID lastBillingId;
+
+    @Column(nullable = false)
+    private Integer invoicesCreated;
+
+    @Column(nullable = false)
+    private Integer billingsInvoiced;
+
+    @Column(nullable = false)
+    private Boolean completed;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate runDate;
+        private Integer partitionNo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InvoiceBatchCheckpoint)) return false;
+        InvoiceBatchCheckpoint that = (InvoiceBatchCheckpoint) o;
+        return runDate != null && partitionNo != null
+            && Objects.equals(runDate, that.runDate) && Objects.equals(partitionNo, that.partitionNo);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "InvoiceBatchCheckpoint{" +
+                "runDate=" + runDate +
+                ", partitionNo=" + partitionNo +
+                ", invoicesCreated=" + invoicesCreated +
+                ", completed=" + completed +
+                '}';
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.policlicabine.entity;
+
+import com.example.policlicabine.entity.enums.InvoiceSeries;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Last invoice number handed out per (series, fiscal year) - one row per counter.
+ * Incremented by InvoiceNumberService in the invoice's own transaction, so a rolled-back
+ * invoice also rolls back its number and the series stays gap-free.
+ */
+@Entity
+@Table(name = "invoice_number_series")
+@IdClass(InvoiceNumberSeries.Key.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceNumberSeries {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private InvoiceSeries series;
+
+    @Id
+    private Integer fiscalYear;
+
+    @Column(nullable = false)
+    private Long lastNumber;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private InvoiceSeries series;
+        private Integer fiscalYear;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InvoiceNumberSeries)) return false;
+        InvoiceNumberSeries that = (InvoiceNumberSeries) o;
+        return series != null && fiscalYear != null
+            && series == that.series && Objects.equals(fiscalYear, that.fiscalYear);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "InvoiceNumberSeries{" +
+                "series=" + series +
+                ", fiscalYear=" + fiscalYear +
+                ", lastNumber=" + lastNumber +
+                '}';
+    }
+}
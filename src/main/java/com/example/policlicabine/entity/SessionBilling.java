@@ -1,7 +1,5 @@
 package com.example.policlicabine.entity;
 
-import com.example.policlicabine.entity.enums.PaymentStatus;
-import com.example.policlicabine.entity.enums.PaymentType;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.BatchSize;
@@ -30,6 +28,19 @@ public class SessionBilling {
     @JoinColumn(name = "session_id", nullable = false, unique = true)
     private AppointmentSession session;
 
+    // Consultations as billed, copied at creation; never derived from the session again
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "session_billing_lines", joinColumns = @JoinColumn(name = "billing_id"))
+    @OrderColumn(name = "line_number")
+    @BatchSize(size = 10)
+    @Builder.Default
+    private List<BillingLineItem> lineItems = new ArrayList<>();
+
+    // Sum of the line item prices, stored with them
+    @Column(precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal subtotalAmount = BigDecimal.ZERO;
+
     @OneToMany(mappedBy = "sessionBilling", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @BatchSize(size = 10)
     private List<BillingDiscount> discounts;
@@ -49,10 +60,6 @@ public class SessionBilling {
         }
     }
 
-    public BigDecimal getSubtotalAmount() {
-        return session != null ? session.getSubtotalAmount() : BigDecimal.ZERO;
-    }
-
     public BigDecimal getTotalDiscountAmount() {
         if (discounts == null || discounts.isEmpty()) {
             return BigDecimal.ZERO;
@@ -62,35 +69,12 @@ public class SessionBilling {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
+    // Payment status is query-backed (BillingStatusService) - it needs invoices and payments
+
     public BigDecimal getFinalAmount() {
         return getSubtotalAmount().subtract(getTotalDiscountAmount());
     }
 
-    public PaymentStatus getPaymentStatus() {
-        if (invoices == null || invoices.isEmpty()) {
-            return PaymentStatus.PENDING;
-        }
-
-        // Simplified payment status calculation to avoid circular navigation
-        // Get total amount paid from all related invoices
-        BigDecimal totalPaid = invoices.stream()
-            .filter(invoice -> !invoice.getIsProforma())
-            .flatMap(invoice -> invoice.getPayments() != null ? invoice.getPayments().stream() : java.util.stream.Stream.empty())
-            .filter(payment -> payment.getPaymentType() != PaymentType.REFUND)
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal finalAmount = getFinalAmount();
-
-        if (totalPaid.compareTo(BigDecimal.ZERO) <= 0) {
-            return PaymentStatus.PENDING;
-        } else if (totalPaid.compareTo(finalAmount) >= 0) {
-            return PaymentStatus.FULLY_PAID;
-        } else {
-            return PaymentStatus.PARTIALLY_PAID;
-        }
-    }
-
     public Patient getPatient() {
         return session != null ? session.getPatient() : null;
     }
@@ -0,0 +1,82 @@
+package com.example.policlicabine.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Free-text clinical notes of an appointment session, kept out of appointment_sessions
+ * so agenda, history and access-check scans never read the large TEXT columns.
+ *
+ * Shares the session's primary key (session_id) and owns the association, so the
+ * session side needs no mapping and never triggers a notes lookup. Rows exist only
+ * for sessions that have notes; read them by session ID when a view needs them.
+ *
+ * Dynamic update: an edit rewrites only the columns that changed, so unchanged
+ * large TEXT values are neither re-sent nor re-logged.
+ */
+@Entity
+@DynamicUpdate
+@Table(name = "session_notes")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionNotes {
+
+    @Id
+    private UUID sessionId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id")
+    private AppointmentSession session;
+
+    @Column(columnDefinition = "TEXT")
+    private String freeTextDiagnosis;
+
+    @Column(columnDefinition = "TEXT")
+    private String treatmentInstructions;
+
+    @Column(columnDefinition = "TEXT")
+    private String freeTextObservations;
+
+    @Column(columnDefinition = "TEXT")
+    private String cancellationReason;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public boolean hasClinicalText() {
+        return freeTextDiagnosis != null ||
+               treatmentInstructions != null ||
+               freeTextObservations != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SessionNotes)) return false;
+        SessionNotes that = (SessionNotes) o;
+        return sessionId != null && Objects.equals(sessionId, that.sessionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "SessionNotes{" +
+                "sessionId=" + sessionId +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
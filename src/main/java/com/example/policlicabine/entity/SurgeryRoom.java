@@ -0,0 +1,62 @@
+package com.example.policlicabine.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+@Entity
+@Table(name = "surgery_rooms")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurgeryRoom {
+
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID roomId;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String name;
+
+    @Builder.Default
+    private Boolean isActive = true;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void generateId() {
+        if (roomId == null) {
+            roomId = UUID.randomUUID();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SurgeryRoom)) return false;
+        SurgeryRoom that = (SurgeryRoom) o;
+        return roomId != null && Objects.equals(roomId, that.roomId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "SurgeryRoom{" +
+                "roomId=" + roomId +
+                ", name='" + name + '\'' +
+                ", isActive=" + isActive +
+                '}';
+    }
+}
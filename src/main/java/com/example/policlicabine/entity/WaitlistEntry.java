@@ -0,0 +1,124 @@
+package com.example.policlicabine.entity;
+
+import com.example.policlicabine.entity.enums.Specialty;
+import com.example.policlicabine.entity.enums.WaitlistStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A patient's standing request for an earlier slot, with a specific doctor
+ * or with any doctor of a specialty, within a date window.
+ */
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+    @Index(name = "idx_waitlist_status", columnList = "status"),
+    @Index(name = "idx_waitlist_patient", columnList = "patient_id")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID entryId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+
+    // Either a specific doctor or a specialty (any doctor having it)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id")
+    private Doctor doctor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50)
+    private Specialty specialty;
+
+    @Column(nullable = false)
+    private LocalDate earliestDate;
+
+    @Column(nullable = false)
+    private LocalDate latestDate;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "waitlist_entry_consultations", joinColumns = @JoinColumn(name = "entry_id"))
+    @Column(name = "consultation_name", nullable = false)
+    @Builder.Default
+    private List<String> consultationNames = new ArrayList<>();
+
+    // Total duration of the requested consultations; a freed slot must be at least this long
+    @Column(nullable = false)
+    private Integer requiredMinutes;
+
+    // Higher is served first; ties go to the oldest entry
+    @Builder.Default
+    private Integer priority = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    // Set while an offer is pending (status OFFERED)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "offered_doctor_id")
+    private Doctor offeredDoctor;
+
+    private LocalDateTime offeredSlotStart;
+    private LocalDateTime offeredSlotEnd;
+    private LocalDateTime offeredAt;
+
+    private UUID bookedSessionId;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void generateId() {
+        if (entryId == null) {
+            entryId = UUID.randomUUID();
+        }
+    }
+
+    public boolean isWaiting() {
+        return status == WaitlistStatus.WAITING;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WaitlistEntry)) return false;
+        WaitlistEntry that = (WaitlistEntry) o;
+        return entryId != null && Objects.equals(entryId, that.entryId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "WaitlistEntry{" +
+                "entryId=" + entryId +
+                ", specialty=" + specialty +
+                ", earliestDate=" + earliestDate +
+                ", latestDate=" + latestDate +
+                ", priority=" + priority +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.policlicabine.entity.enums;
+
+/**
+ * Invoice numbering series. Each series is numbered without gaps per fiscal (calendar) year,
+ * e.g. PF-2026-000001 for the first proforma and F-2026-000001 for the first final invoice.
+ */
+public enum InvoiceSeries {
+    PROFORMA("PF"),
+    FINAL("F");
+
+    private final String prefix;
+
+    InvoiceSeries(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String format(int fiscalYear, long number) {
+        return String.format("%s-%d-%06d", prefix, fiscalYear, number);
+    }
+
+    public static InvoiceSeries of(boolean isProforma) {
+        return isProforma ? PROFORMA : FINAL;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.policlicabine.entity.enums;
+
+/**
+ * Clinical note fields of a session that can be edited one at a time.
+ */
+public enum SessionNoteField {
+    FREE_TEXT_DIAGNOSIS, TREATMENT_INSTRUCTIONS, FREE_TEXT_OBSERVATIONS
+}
@@ -0,0 +1,36 @@
+package com.example.policlicabine.entity.enums;
+
+import java.util.List;
+
+/**
+ * Allowed SessionStatus transitions: each transition has one target status and the
+ * statuses it may start from. The source lists are fixed at class load and passed
+ * straight into conditional UPDATE statements (... WHERE status IN :from), so a
+ * transition is checked and applied by the database in one statement.
+ */
+public enum SessionTransition {
+    START(SessionStatus.IN_PROGRESS, SessionStatus.SCHEDULED),
+    COMPLETE(SessionStatus.COMPLETED, SessionStatus.IN_PROGRESS),
+    CANCEL(SessionStatus.CANCELLED, SessionStatus.SCHEDULED, SessionStatus.IN_PROGRESS),
+    MARK_NO_SHOW(SessionStatus.NO_SHOW, SessionStatus.SCHEDULED);
+
+    private final SessionStatus target;
+    private final List<SessionStatus> allowedFrom;
+
+    SessionTransition(SessionStatus target, SessionStatus... allowedFrom) {
+        this.target = target;
+        this.allowedFrom = List.of(allowedFrom);
+    }
+
+    public SessionStatus getTarget() {
+        return target;
+    }
+
+    public List<SessionStatus> getAllowedFrom() {
+        return allowedFrom;
+    }
+
+    public boolean isAllowedFrom(SessionStatus status) {
+        return allowedFrom.contains(status);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.policlicabine.entity.enums;
+
+public enum WaitlistStatus {
+    WAITING, OFFERED, BOOKED, CANCELLED
+}
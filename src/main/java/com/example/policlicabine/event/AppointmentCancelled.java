@@ -1,10 +1,14 @@
 package com.example.policlicabine.event;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public record AppointmentCancelled(
     UUID sessionId,
     UUID patientId,
+    UUID doctorId,
+    LocalDateTime scheduledDateTime,
+    LocalDateTime scheduledEndDateTime,
     String reason,
     boolean wasNoShow
 ) {}
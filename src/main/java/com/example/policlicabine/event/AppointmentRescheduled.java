@@ -0,0 +1,15 @@
+package com.example.policlicabine.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record AppointmentRescheduled(
+    UUID sessionId,
+    UUID patientId,
+    UUID doctorId,
+    LocalDateTime previousDateTime,
+    LocalDateTime previousEndDateTime,
+    LocalDateTime newDateTime,
+    LocalDateTime newEndDateTime,
+    int rescheduleCount
+) {}
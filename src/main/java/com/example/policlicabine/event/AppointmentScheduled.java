@@ -7,8 +7,10 @@ import java.util.UUID;
 public record AppointmentScheduled(
     UUID sessionId,
     UUID patientId,
+    String patientName,
     UUID doctorId,
     LocalDateTime scheduledDateTime,
+    LocalDateTime scheduledEndDateTime,
     List<String> consultationNames,
     boolean isEmergency
 ) {}
@@ -0,0 +1,11 @@
+package com.example.policlicabine.event;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record CompletedConsultation(
+    UUID consultationId,
+    String consultationName,
+    BigDecimal price,
+    String currency
+) {}
@@ -1,11 +1,15 @@
 package com.example.policlicabine.event;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public record ConsultationTypeAdded(
     UUID sessionId,
+    UUID doctorId,
     String consultationName,
     boolean isActive,
-    BigDecimal price
+    BigDecimal price,
+    LocalDateTime scheduledDateTime,
+    LocalDateTime scheduledEndDateTime
 ) {}
@@ -1,5 +1,6 @@
 package com.example.policlicabine.event;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -9,5 +10,7 @@ public record SessionCompleted(
     UUID patientId,
     UUID doctorId,
     LocalDateTime completedAt,
-    List<String> consultationNames
+    List<String> consultationNames,
+    BigDecimal subtotalAmount,
+    List<CompletedConsultation> consultations
 ) {}
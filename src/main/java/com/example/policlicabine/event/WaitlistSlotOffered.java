@@ -0,0 +1,16 @@
+package com.example.policlicabine.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when a slot freed by a cancellation is offered to a waitlisted patient.
+ * The patient accepts or declines through WaitlistService.
+ */
+public record WaitlistSlotOffered(
+    UUID entryId,
+    UUID patientId,
+    UUID doctorId,
+    LocalDateTime slotStart,
+    LocalDateTime slotEnd
+) {}
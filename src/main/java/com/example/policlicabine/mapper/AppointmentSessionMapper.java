@@ -2,14 +2,19 @@ package com.example.policlicabine.mapper;
 
 import com.example.policlicabine.dto.AppointmentSessionDto;
 import com.example.policlicabine.entity.AppointmentSession;
+import com.example.policlicabine.entity.SessionNotes;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 @Mapper(componentModel = "spring", uses = {
     PatientMapper.class,
     DoctorMapper.class,
     ConsultationMapper.class,
     DiagnosisMapper.class,
-    AnswerMapper.class
+    AnswerMapper.class,
+    SurgeryRoomMapper.class
 })
 public interface AppointmentSessionMapper {
 
@@ -22,6 +27,31 @@ public interface AppointmentSessionMapper {
      * - consultations → List<ConsultationDto> (via ConsultationMapper)
      * - diagnoses → List<DiagnosisDto> (via DiagnosisMapper)
      * - answers → List<AnswerDto> (via AnswerMapper)
+     * - surgeryRoom → SurgeryRoomDto (via SurgeryRoomMapper)
+     *
+     * Note fields stay null - they live in SessionNotes, see toDto(session, notes).
      */
+    @Mapping(target = "freeTextDiagnosis", ignore = true)
+    @Mapping(target = "treatmentInstructions", ignore = true)
+    @Mapping(target = "freeTextObservations", ignore = true)
+    @Mapping(target = "cancellationReason", ignore = true)
     AppointmentSessionDto toDto(AppointmentSession session);
+
+    /**
+     * Maps the session and, when present, its clinical notes.
+     */
+    default AppointmentSessionDto toDto(AppointmentSession session, SessionNotes notes) {
+        AppointmentSessionDto dto = toDto(session);
+        if (dto != null && notes != null) {
+            applyNotes(notes, dto);
+        }
+        return dto;
+    }
+
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "freeTextDiagnosis", source = "freeTextDiagnosis")
+    @Mapping(target = "treatmentInstructions", source = "treatmentInstructions")
+    @Mapping(target = "freeTextObservations", source = "freeTextObservations")
+    @Mapping(target = "cancellationReason", source = "cancellationReason")
+    void applyNotes(SessionNotes notes, @MappingTarget AppointmentSessionDto dto);
 }
@@ -0,0 +1,11 @@
+package com.example.policlicabine.mapper;
+
+import com.example.policlicabine.dto.DoctorAgendaEntryDto;
+import com.example.policlicabine.entity.DoctorAgendaEntry;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface DoctorAgendaMapper {
+
+    DoctorAgendaEntryDto toDto(DoctorAgendaEntry entry);
+}
@@ -9,7 +9,6 @@ import org.mapstruct.Mapping;
 public interface SessionBillingMapper {
 
     @Mapping(target = "sessionId", source = "session.sessionId")
-    @Mapping(target = "subtotalAmount", expression = "java(sessionBilling.getSubtotalAmount())")
     @Mapping(target = "totalDiscountAmount", expression = "java(sessionBilling.getTotalDiscountAmount())")
     @Mapping(target = "finalAmount", expression = "java(sessionBilling.getFinalAmount())")
     SessionBillingDto toDto(SessionBilling sessionBilling);
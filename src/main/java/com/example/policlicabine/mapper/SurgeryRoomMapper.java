@@ -0,0 +1,11 @@
+package com.example.policlicabine.mapper;
+
+import com.example.policlicabine.dto.SurgeryRoomDto;
+import com.example.policlicabine.entity.SurgeryRoom;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface SurgeryRoomMapper {
+
+    SurgeryRoomDto toDto(SurgeryRoom surgeryRoom);
+}
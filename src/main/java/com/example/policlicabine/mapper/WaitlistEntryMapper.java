@@ -0,0 +1,15 @@
+package com.example.policlicabine.mapper;
+
+import com.example.policlicabine.dto.WaitlistEntryDto;
+import com.example.policlicabine.entity.WaitlistEntry;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface WaitlistEntryMapper {
+
+    @Mapping(target = "patientId", source = "patient.patientId")
+    @Mapping(target = "doctorId", source = "doctor.doctorId")
+    @Mapping(target = "offeredDoctorId", source = "offeredDoctor.doctorId")
+    WaitlistEntryDto toDto(WaitlistEntry entry);
+}
@@ -1,21 +1,43 @@
 package com.example.policlicabine.repository;
 
+import com.example.policlicabine.dto.AppointmentSessionSummaryDto;
 import com.example.policlicabine.entity.AppointmentSession;
 import com.example.policlicabine.entity.enums.SessionStatus;
+import com.example.policlicabine.repository.projection.BookedInterval;
+import com.example.policlicabine.repository.projection.CalendarEventRow;
+import com.example.policlicabine.repository.projection.DoctorDayUtilization;
+import com.example.policlicabine.repository.projection.PatientAppointment;
+import com.example.policlicabine.repository.projection.ReminderTarget;
+import com.example.policlicabine.repository.projection.SessionConsultationLine;
+import com.example.policlicabine.repository.projection.SessionConsultationName;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentSessionRepository extends JpaRepository<AppointmentSession, UUID> {
 
+    String SUMMARY_SELECT =
+        "SELECT new com.example.policlicabine.dto.AppointmentSessionSummaryDto(" +
+        "a.sessionId, a.patient.patientId, a.doctor.doctorId, a.doctor.user.fullName, " +
+        "a.scheduledDateTime, a.scheduledEndDateTime, a.status, a.isEmergency) " +
+        "FROM AppointmentSession a ";
+
     // ============= EntityGraph Query Methods =============
     // These methods use @EntityGraph to prevent N+1 query problems
     // by eagerly fetching specified relationships in a single query
@@ -27,14 +49,6 @@ public interface AppointmentSessionRepository extends JpaRepository<AppointmentS
     @EntityGraph(attributePaths = {"patient", "doctor"})
     Optional<AppointmentSession> findWithBasicRelationshipsById(UUID sessionId);
 
-    /**
-     * Finds appointment session with all relationships loaded.
-     * Use for DTO mapping where all data is needed.
-     * Includes answers for complete nested DTO mapping.
-     */
-    @EntityGraph(attributePaths = {"patient", "doctor", "consultations", "diagnoses", "answers"})
-    Optional<AppointmentSession> findWithAllRelationshipsById(UUID sessionId);
-
     /**
      * Finds appointment session with consultations loaded.
      * Use when adding consultations to a session.
@@ -42,6 +56,13 @@ public interface AppointmentSessionRepository extends JpaRepository<AppointmentS
     @EntityGraph(attributePaths = {"consultations"})
     Optional<AppointmentSession> findWithConsultationsById(UUID sessionId);
 
+    /**
+     * Finds session with what a reschedule needs: patient and doctor (events),
+     * consultations (duration) and surgery room.
+     */
+    @EntityGraph(attributePaths = {"patient", "doctor", "consultations", "surgeryRoom"})
+    Optional<AppointmentSession> findForRescheduleById(UUID sessionId);
+
     /**
      * Finds patient's appointment history with relationships loaded.
      * Prevents N+1 queries when mapping to DTOs.
@@ -49,6 +70,188 @@ public interface AppointmentSessionRepository extends JpaRepository<AppointmentS
     @EntityGraph(attributePaths = {"patient", "doctor", "consultations"})
     List<AppointmentSession> findWithRelationshipsByPatientPatientIdOrderByScheduledDateTimeDesc(UUID patientId);
 
+    @Query(SUMMARY_SELECT + "WHERE a.sessionId = :sessionId")
+    Optional<AppointmentSessionSummaryDto> findSummaryById(@Param("sessionId") UUID sessionId);
+
+    @Query("SELECT a.status FROM AppointmentSession a WHERE a.sessionId = :sessionId")
+    Optional<SessionStatus> findStatusById(@Param("sessionId") UUID sessionId);
+
+    // ============= CONDITIONAL STATUS TRANSITIONS =============
+    // Each returns the affected row count: 0 means the session is missing or not in an allowed status.
+    // The version is bumped so optimistic-locked editors of the same session see the change.
+    // updatedAt is set by hand (@UpdateTimestamp does not apply to bulk UPDATEs) for calendar sync.
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AppointmentSession a SET a.status = :target, " +
+           "a.version = COALESCE(a.version, 0) + 1, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.sessionId = :sessionId AND a.status IN :allowedFrom")
+    int transitionStatus(
+            @Param("sessionId") UUID sessionId,
+            @Param("target") SessionStatus target,
+            @Param("allowedFrom") Collection<SessionStatus> allowedFrom);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AppointmentSession a SET a.status = :target, a.completedAt = :completedAt, " +
+           "a.version = COALESCE(a.version, 0) + 1, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.sessionId = :sessionId AND a.status IN :allowedFrom")
+    int transitionToCompleted(
+            @Param("sessionId") UUID sessionId,
+            @Param("target") SessionStatus target,
+            @Param("allowedFrom") Collection<SessionStatus> allowedFrom,
+            @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AppointmentSession a SET a.status = :target, a.cancelledAt = :cancelledAt, " +
+           "a.version = COALESCE(a.version, 0) + 1, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.sessionId = :sessionId AND a.status IN :allowedFrom")
+    int transitionToCancelled(
+            @Param("sessionId") UUID sessionId,
+            @Param("target") SessionStatus target,
+            @Param("allowedFrom") Collection<SessionStatus> allowedFrom,
+            @Param("cancelledAt") LocalDateTime cancelledAt);
+
+    /**
+     * Cancels the SCHEDULED occurrences of a series starting at or after fromDate in one statement
+     * (served by idx_session_series_time) and returns the IDs of exactly the rows it changed.
+     * Not @Modifying - the statement returns rows (UPDATE ... RETURNING).
+     */
+    @Query(value = """
+        UPDATE appointment_sessions a
+        SET status = 'CANCELLED', cancelled_at = :cancelledAt,
+            version = COALESCE(a.version, 0) + 1, updated_at = now()
+        WHERE a.series_id = :seriesId AND a.scheduled_date_time >= :fromDate AND a.status = 'SCHEDULED'
+        RETURNING a.session_id
+        """, nativeQuery = true)
+    List<UUID> cancelSeriesFrom(
+            @Param("seriesId") UUID seriesId,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("cancelledAt") LocalDateTime cancelledAt);
+
+    /**
+     * The given sessions as summary rows, in start order.
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.sessionId IN :sessionIds ORDER BY a.scheduledDateTime")
+    List<AppointmentSessionSummaryDto> findSummariesByIds(@Param("sessionIds") Collection<UUID> sessionIds);
+
+    boolean existsBySeriesId(UUID seriesId);
+
+    /**
+     * Doctor's sessions in [fromDate, toDate] as summary rows, excluding the given statuses.
+     * Served by idx_session_doctor_time; no entities are materialized.
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.doctor.doctorId = :doctorId " +
+           "AND a.scheduledDateTime BETWEEN :fromDate AND :toDate AND a.status NOT IN :excludeStatuses " +
+           "ORDER BY a.scheduledDateTime, a.sessionId")
+    List<AppointmentSessionSummaryDto> findDoctorSummariesInRange(
+            @Param("doctorId") UUID doctorId,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
+            @Param("excludeStatuses") Collection<SessionStatus> excludeStatuses);
+
+    /**
+     * First page of a patient's history as summary rows, newest first.
+     * Served by idx_session_patient_time: reads only the rows returned.
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.patient.patientId = :patientId " +
+           "ORDER BY a.scheduledDateTime DESC, a.sessionId DESC")
+    List<AppointmentSessionSummaryDto> findHistoryFirstPage(
+            @Param("patientId") UUID patientId,
+            Limit limit);
+
+    /**
+     * Next page of a patient's history, strictly after the (scheduledDateTime, sessionId) cursor.
+     * Row-value comparison keeps the cursor an index range condition, so every page costs
+     * the same regardless of how deep it is.
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.patient.patientId = :patientId " +
+           "AND (a.scheduledDateTime, a.sessionId) < (:cursorDateTime, :cursorSessionId) " +
+           "ORDER BY a.scheduledDateTime DESC, a.sessionId DESC")
+    List<AppointmentSessionSummaryDto> findHistoryPageAfter(
+            @Param("patientId") UUID patientId,
+            @Param("cursorDateTime") LocalDateTime cursorDateTime,
+            @Param("cursorSessionId") UUID cursorSessionId,
+            Limit limit);
+
+    /**
+     * Claims the next chunk of SCHEDULED sessions due a reminder, in (scheduledDateTime, sessionId)
+     * order after the cursor, by stamping last_contact_attempt_at with :claimedAt.
+     * FOR UPDATE SKIP LOCKED plus the stamp make the claim exclusive across nodes: rows another
+     * node is claiming are skipped, and once committed the stamp keeps them out of every scan
+     * until :retryBefore passes it. Served by idx_session_status_time; returns the claimed IDs.
+     * Not @Modifying - the statement returns rows (UPDATE ... RETURNING).
+     */
+    @Query(value = """
+        UPDATE appointment_sessions a
+        SET last_contact_attempt_at = :claimedAt
+        WHERE a.session_id IN (
+            SELECT s.session_id FROM appointment_sessions s
+            WHERE s.status = 'SCHEDULED' AND s.scheduled_date_time <= :until
+              AND (s.scheduled_date_time, s.session_id) > (:cursorDateTime, :cursorSessionId)
+              AND s.reminder_sent_at IS NULL
+              AND COALESCE(s.contact_attempts, 0) < :maxAttempts
+              AND (s.last_contact_attempt_at IS NULL OR s.last_contact_attempt_at < :retryBefore)
+            ORDER BY s.scheduled_date_time, s.session_id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED)
+        RETURNING a.session_id
+        """, nativeQuery = true)
+    List<UUID> claimReminderTargets(
+            @Param("cursorDateTime") LocalDateTime cursorDateTime,
+            @Param("cursorSessionId") UUID cursorSessionId,
+            @Param("until") LocalDateTime until,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("retryBefore") LocalDateTime retryBefore,
+            @Param("claimedAt") LocalDateTime claimedAt,
+            @Param("limit") int limit);
+
+    /**
+     * Contact details of the given sessions, in (scheduledDateTime, sessionId) order.
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.ReminderTarget(" +
+           "a.sessionId, p.patientId, p.firstName, p.lastName, p.phone, p.email, u.fullName, a.scheduledDateTime) " +
+           "FROM AppointmentSession a JOIN a.patient p JOIN a.doctor d JOIN d.user u " +
+           "WHERE a.sessionId IN :sessionIds " +
+           "ORDER BY a.scheduledDateTime, a.sessionId")
+    List<ReminderTarget> findReminderTargetsByIds(@Param("sessionIds") Collection<UUID> sessionIds);
+
+    /**
+     * Records one contact attempt for many sessions in a single statement.
+     */
+    @Modifying
+    @Query("UPDATE AppointmentSession a SET a.contactAttempts = COALESCE(a.contactAttempts, 0) + 1, " +
+           "a.lastContactAttemptAt = :attemptedAt WHERE a.sessionId IN :sessionIds")
+    int recordContactAttempts(
+            @Param("sessionIds") Collection<UUID> sessionIds,
+            @Param("attemptedAt") LocalDateTime attemptedAt);
+
+    /**
+     * Records a delivered reminder (counts as a contact attempt) for many sessions in a single statement.
+     */
+    @Modifying
+    @Query("UPDATE AppointmentSession a SET a.contactAttempts = COALESCE(a.contactAttempts, 0) + 1, " +
+           "a.lastContactAttemptAt = :attemptedAt, a.reminderSentAt = :attemptedAt " +
+           "WHERE a.sessionId IN :sessionIds")
+    int recordRemindersSent(
+            @Param("sessionIds") Collection<UUID> sessionIds,
+            @Param("attemptedAt") LocalDateTime attemptedAt);
+
+    /**
+     * Consultation names and prices for a set of sessions in one query (completion and billing).
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.SessionConsultationLine(" +
+           "a.sessionId, c.consultationId, c.name, c.price, c.priceCurrency) " +
+           "FROM AppointmentSession a JOIN a.consultations c " +
+           "WHERE a.sessionId IN :sessionIds")
+    List<SessionConsultationLine> findConsultationLines(@Param("sessionIds") Collection<UUID> sessionIds);
+
+    /**
+     * Consultation names for a set of sessions in one query (summary rows carry no collections).
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.SessionConsultationName(" +
+           "a.sessionId, c.name) FROM AppointmentSession a JOIN a.consultations c " +
+           "WHERE a.sessionId IN :sessionIds")
+    List<SessionConsultationName> findConsultationNames(@Param("sessionIds") Collection<UUID> sessionIds);
+
     /**
      * Finds doctor's appointments in date range with patient loaded.
      * Used for medical file access control.
@@ -70,6 +273,20 @@ public interface AppointmentSessionRepository extends JpaRepository<AppointmentS
     boolean existsByDoctorDoctorIdAndPatientPatientIdAndScheduledDateTimeBetweenAndStatusNot(
             UUID doctorId, UUID patientId, LocalDateTime start, LocalDateTime end, SessionStatus status);
 
+    /**
+     * Flat (sessionId, patientId, time) rows for one doctor - no entities, no joins.
+     * Used to warm the in-memory medical file access index.
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.PatientAppointment(" +
+           "a.sessionId, a.patient.patientId, a.scheduledDateTime) " +
+           "FROM AppointmentSession a WHERE a.doctor.doctorId = :doctorId " +
+           "AND a.scheduledDateTime BETWEEN :start AND :end AND a.status <> :status")
+    List<PatientAppointment> findPatientAppointments(
+            @Param("doctorId") UUID doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("status") SessionStatus status);
+
     @Query("SELECT a FROM AppointmentSession a WHERE a.doctor.doctorId = :doctorId " +
            "AND a.scheduledDateTime BETWEEN :start AND :end " +
            "AND a.status = :status")
@@ -80,4 +297,152 @@ public interface AppointmentSessionRepository extends JpaRepository<AppointmentS
             @Param("status") SessionStatus status);
 
     List<AppointmentSession> findByStatus(SessionStatus status);
+
+    // ============= Projection Query Methods =============
+
+    /**
+     * Finds booked sessions as [start, end) intervals for all doctors.
+     * Reads only appointment_sessions - no joins, no entities materialized.
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.BookedInterval(" +
+           "a.sessionId, a.doctor.doctorId, a.scheduledDateTime, a.scheduledEndDateTime) " +
+           "FROM AppointmentSession a " +
+           "WHERE a.scheduledDateTime >= :from AND a.status NOT IN :excludedStatuses")
+    List<BookedInterval> findBookedIntervalsFrom(
+            @Param("from") LocalDateTime from,
+            @Param("excludedStatuses") Collection<SessionStatus> excludedStatuses);
+
+    /**
+     * Same as findBookedIntervalsFrom, restricted to the given doctors.
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.BookedInterval(" +
+           "a.sessionId, a.doctor.doctorId, a.scheduledDateTime, a.scheduledEndDateTime) " +
+           "FROM AppointmentSession a " +
+           "WHERE a.scheduledDateTime >= :from AND a.doctor.doctorId IN :doctorIds " +
+           "AND a.status NOT IN :excludedStatuses")
+    List<BookedInterval> findBookedIntervalsFromForDoctors(
+            @Param("from") LocalDateTime from,
+            @Param("doctorIds") Collection<UUID> doctorIds,
+            @Param("excludedStatuses") Collection<SessionStatus> excludedStatuses);
+
+    /**
+     * One doctor's booked intervals starting in [from, to), ordered by start.
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.BookedInterval(" +
+           "a.sessionId, a.doctor.doctorId, a.scheduledDateTime, a.scheduledEndDateTime) " +
+           "FROM AppointmentSession a " +
+           "WHERE a.doctor.doctorId = :doctorId AND a.scheduledDateTime >= :from AND a.scheduledDateTime < :to " +
+           "AND a.status NOT IN :excludedStatuses ORDER BY a.scheduledDateTime")
+    List<BookedInterval> findBookedIntervalsForDoctorBetween(
+            @Param("doctorId") UUID doctorId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("excludedStatuses") Collection<SessionStatus> excludedStatuses);
+
+    // ============= Calendar Feed =============
+    // One row per (session, consultation), ordered so a session's rows are consecutive.
+    // Streamed with a fetch size: the feed is written while rows arrive, never collected.
+
+    String CALENDAR_SELECT =
+        "SELECT new com.example.policlicabine.repository.projection.CalendarEventRow(" +
+        "a.sessionId, a.scheduledDateTime, a.scheduledEndDateTime, a.status, a.version, " +
+        "a.updatedAt, a.isEmergency, c.name) " +
+        "FROM AppointmentSession a LEFT JOIN a.consultations c ";
+
+    /**
+     * Active sessions of a doctor starting at or after fromDate (full feed).
+     */
+    @Query(CALENDAR_SELECT +
+           "WHERE a.doctor.doctorId = :doctorId AND a.scheduledDateTime >= :fromDate " +
+           "AND a.status NOT IN :excludedStatuses " +
+           "ORDER BY a.scheduledDateTime, a.sessionId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    Stream<CalendarEventRow> streamCalendarEvents(
+            @Param("doctorId") UUID doctorId,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("excludedStatuses") Collection<SessionStatus> excludedStatuses);
+
+    /**
+     * Sessions of a doctor changed after changedSince, in any status (incremental feed).
+     * Served by idx_session_doctor_updated.
+     */
+    @Query(CALENDAR_SELECT +
+           "WHERE a.doctor.doctorId = :doctorId AND a.updatedAt > :changedSince " +
+           "ORDER BY a.scheduledDateTime, a.sessionId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    Stream<CalendarEventRow> streamCalendarChanges(
+            @Param("doctorId") UUID doctorId,
+            @Param("changedSince") LocalDateTime changedSince);
+
+    // ============= Utilization Aggregation =============
+
+    /**
+     * Available versus booked minutes per doctor and day in [fromDate, toDate), in one statement.
+     * Available minutes come from doctor_availability windows clipped to effectiveFrom/effectiveTo;
+     * booked minutes from active sessions' [start, end) (end = start + consultation durations).
+     * With allDoctors = false only doctorIds are aggregated (pass a placeholder, never an empty list).
+     * Only doctor-days with availability or bookings are returned.
+     */
+    @Query(value = """
+        WITH days AS (
+            SELECT CAST(d AS date) AS day
+            FROM generate_series(CAST(:fromDate AS date), CAST(:toDate AS date) - 1, INTERVAL '1 day') d
+        ),
+        available AS (
+            SELECT w.doctor_id, days.day,
+                   SUM(GREATEST(0, EXTRACT(EPOCH FROM (
+                         LEAST(days.day + w.end_time, COALESCE(w.effective_to, 'infinity'::timestamp))
+                       - GREATEST(days.day + w.start_time, COALESCE(w.effective_from, '-infinity'::timestamp))
+                   )) / 60)) AS minutes
+            FROM days
+            JOIN doctor_availability w ON w.day_of_week = to_char(days.day, 'FMDAY')
+            WHERE :allDoctors OR w.doctor_id IN (:doctorIds)
+            GROUP BY w.doctor_id, days.day
+        ),
+        booked AS (
+            SELECT s.doctor_id, CAST(s.scheduled_date_time AS date) AS day,
+                   SUM(EXTRACT(EPOCH FROM (s.scheduled_end_date_time - s.scheduled_date_time)) / 60) AS minutes
+            FROM appointment_sessions s
+            WHERE s.scheduled_date_time >= CAST(:fromDate AS date)
+              AND s.scheduled_date_time < CAST(:toDate AS date)
+              AND s.scheduled_end_date_time IS NOT NULL
+              AND s.status NOT IN ('CANCELLED', 'NO_SHOW')
+              AND (:allDoctors OR s.doctor_id IN (:doctorIds))
+            GROUP BY s.doctor_id, CAST(s.scheduled_date_time AS date)
+        )
+        SELECT COALESCE(a.doctor_id, b.doctor_id) AS "doctorId",
+               COALESCE(a.day, b.day) - CAST(:fromDate AS date) AS "dayIndex",
+               CAST(ROUND(COALESCE(a.minutes, 0)) AS integer) AS "availableMinutes",
+               CAST(ROUND(COALESCE(b.minutes, 0)) AS integer) AS "bookedMinutes"
+        FROM available a
+        FULL JOIN booked b ON b.doctor_id = a.doctor_id AND b.day = a.day
+        """, nativeQuery = true)
+    List<DoctorDayUtilization> findDailyUtilization(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("allDoctors") boolean allDoctors,
+            @Param("doctorIds") Collection<UUID> doctorIds);
+
+    // ============= Overlap Detection =============
+    // Two sessions overlap when each starts before the other ends.
+    // The database enforces the same rule with the ex_session_doctor_no_overlap constraint.
+
+    @Query("SELECT COUNT(a) > 0 FROM AppointmentSession a WHERE a.doctor.doctorId = :doctorId " +
+           "AND a.status NOT IN :excludedStatuses " +
+           "AND a.scheduledDateTime < :end AND a.scheduledEndDateTime > :start")
+    boolean existsOverlappingSession(
+            @Param("doctorId") UUID doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("excludedStatuses") Collection<SessionStatus> excludedStatuses);
+
+    @Query("SELECT COUNT(a) > 0 FROM AppointmentSession a WHERE a.doctor.doctorId = :doctorId " +
+           "AND a.sessionId <> :sessionId AND a.status NOT IN :excludedStatuses " +
+           "AND a.scheduledDateTime < :end AND a.scheduledEndDateTime > :start")
+    boolean existsOverlappingSessionExcluding(
+            @Param("doctorId") UUID doctorId,
+            @Param("sessionId") UUID sessionId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("excludedStatuses") Collection<SessionStatus> excludedStatuses);
 }
@@ -0,0 +1,60 @@
+package com.example.policlicabine.repository;
+
+import com.example.policlicabine.entity.DoctorAgendaEntry;
+import com.example.policlicabine.entity.enums.SessionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DoctorAgendaRepository extends JpaRepository<DoctorAgendaEntry, UUID> {
+
+    /**
+     * Agenda rows for one doctor in [from, to) - served by idx_agenda_doctor_slot.
+     */
+    List<DoctorAgendaEntry> findByDoctorIdAndSlotTimeGreaterThanEqualAndSlotTimeLessThanOrderBySlotTime(
+            UUID doctorId, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("UPDATE DoctorAgendaEntry e SET e.status = :status, e.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE e.sessionId = :sessionId")
+    int updateStatus(@Param("sessionId") UUID sessionId, @Param("status") SessionStatus status);
+
+    @Modifying
+    @Query("UPDATE DoctorAgendaEntry e SET e.slotTime = :slotTime, e.slotEndTime = :slotEndTime, " +
+           "e.updatedAt = CURRENT_TIMESTAMP WHERE e.sessionId = :sessionId")
+    int updateSlot(@Param("sessionId") UUID sessionId,
+                   @Param("slotTime") LocalDateTime slotTime,
+                   @Param("slotEndTime") LocalDateTime slotEndTime);
+
+    @Modifying
+    @Query(value = "DELETE FROM doctor_agenda", nativeQuery = true)
+    int deleteAllRows();
+
+    /**
+     * Repopulates the whole projection from the source tables in one statement.
+     * Consultation names are aggregated in the database, no entities are loaded.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO doctor_agenda (session_id, doctor_id, patient_id, patient_name, slot_time,
+                                   slot_end_time, consultation_names, status, is_emergency, updated_at)
+        SELECT s.session_id, s.doctor_id, s.patient_id,
+               p.first_name || ' ' || p.last_name,
+               s.scheduled_date_time, s.scheduled_end_date_time,
+               (SELECT string_agg(c.name, ', ')
+                  FROM session_consultations sc
+                  JOIN consultations c ON c.consultation_id = sc.consultation_id
+                 WHERE sc.session_id = s.session_id),
+               s.status, COALESCE(s.is_emergency, false), now()
+          FROM appointment_sessions s
+          JOIN patients p ON p.patient_id = s.patient_id
+        """, nativeQuery = true)
+    int insertAllFromSessions();
+}
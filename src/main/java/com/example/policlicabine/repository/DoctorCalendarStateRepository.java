@@ -0,0 +1,28 @@
+package com.example.policlicabine.repository;
+
+import com.example.policlicabine.entity.DoctorCalendarState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface DoctorCalendarStateRepository extends JpaRepository<DoctorCalendarState, UUID> {
+
+    /**
+     * Bumps a doctor's calendar revision, creating the row on the first change.
+     * changed_at is the transaction start time, like the sessions' updated_at.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO doctor_calendar_state (doctor_id, revision, changed_at)
+        VALUES (:doctorId, 1, now())
+        ON CONFLICT (doctor_id) DO UPDATE
+           SET revision = doctor_calendar_state.revision + 1,
+               changed_at = GREATEST(doctor_calendar_state.changed_at, EXCLUDED.changed_at)
+        """, nativeQuery = true)
+    int touch(@Param("doctorId") UUID doctorId);
+}
@@ -2,12 +2,15 @@ package com.example.policlicabine.repository;
 
 import com.example.policlicabine.entity.Doctor;
 import com.example.policlicabine.entity.enums.Specialty;
+import com.example.policlicabine.repository.projection.AvailabilityWindow;
+import com.example.policlicabine.repository.projection.DoctorSpecialty;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,6 +25,9 @@ public interface DoctorRepository extends JpaRepository<Doctor, UUID> {
     @Query("SELECT d FROM Doctor d JOIN d.specialties s WHERE s IN :specialties")
     List<Doctor> findBySpecialtiesIn(@Param("specialties") List<Specialty> specialties);
 
+    @Query("SELECT d.doctorId FROM Doctor d WHERE d.doctorId IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
     // ============= EntityGraph Query Methods =============
 
     /**
@@ -30,4 +36,30 @@ public interface DoctorRepository extends JpaRepository<Doctor, UUID> {
      */
     @EntityGraph(attributePaths = {"user", "weeklyAvailability"})
     Optional<Doctor> findWithUserAndAvailabilityById(UUID doctorId);
+
+    // ============= Projection Query Methods =============
+
+    /**
+     * Finds every WeeklyAvailability row as a flat projection (no entities loaded).
+     * Used to build the in-memory slot index.
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.AvailabilityWindow(" +
+           "w.doctor.doctorId, w.dayOfWeek, w.startTime, w.endTime, w.effectiveFrom, w.effectiveTo) " +
+           "FROM WeeklyAvailability w")
+    List<AvailabilityWindow> findAllAvailabilityWindows();
+
+    /**
+     * Finds one doctor's WeeklyAvailability rows as flat projections (served by idx_avail_doctor).
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.AvailabilityWindow(" +
+           "w.doctor.doctorId, w.dayOfWeek, w.startTime, w.endTime, w.effectiveFrom, w.effectiveTo) " +
+           "FROM WeeklyAvailability w WHERE w.doctor.doctorId = :doctorId")
+    List<AvailabilityWindow> findAvailabilityWindowsByDoctorId(@Param("doctorId") UUID doctorId);
+
+    /**
+     * Finds every (doctor, specialty) pair as a flat projection.
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.DoctorSpecialty(d.doctorId, s) " +
+           "FROM Doctor d JOIN d.specialties s")
+    List<DoctorSpecialty> findAllDoctorSpecialties();
 }
@@ -0,0 +1,45 @@
+package com.example.policlicabine.repository;
+
+import com.example.policlicabine.entity.InvoiceBatchCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceBatchCheckpointRepository
+        extends JpaRepository<InvoiceBatchCheckpoint, InvoiceBatchCheckpoint.Key> {
+
+    /**
+     * Creates a partition's checkpoint at the start of the keyset (nil UUIDs, 1970-01-01)
+     * unless it already exists - a restarted run keeps its progress.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO invoice_batch_checkpoints (run_date, partition_no, last_patient_id, last_session_date,
+                                               last_billing_id, invoices_created, billings_invoiced,
+                                               completed, updated_at)
+        VALUES (:runDate, :partitionNo, '00000000-0000-0000-0000-000000000000', DATE '1970-01-01',
+                '00000000-0000-0000-0000-000000000000', 0, 0, false, now())
+        ON CONFLICT (run_date, partition_no) DO NOTHING
+        """, nativeQuery = true)
+    int ensureExists(@Param("runDate") LocalDate runDate, @Param("partitionNo") int partitionNo);
+
+    /**
+     * Loads a checkpoint with a row lock held until the chunk commits, so two runs of the
+     * same day (e.g. on two nodes) never process the same partition chunk concurrently.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM InvoiceBatchCheckpoint c WHERE c.runDate = :runDate AND c.partitionNo = :partitionNo")
+    Optional<InvoiceBatchCheckpoint> findForUpdate(@Param("runDate") LocalDate runDate,
+                                                   @Param("partitionNo") int partitionNo);
+
+    List<InvoiceBatchCheckpoint> findByRunDateOrderByPartitionNo(LocalDate runDate);
+}
@@ -0,0 +1,29 @@
+package com.example.policlicabine.repository;
+
+import com.example.policlicabine.entity.InvoiceNumberSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InvoiceNumberSeriesRepository
+        extends JpaRepository<InvoiceNumberSeries, InvoiceNumberSeries.Key> {
+
+    /**
+     * Advances a counter by count in one statement, creating it for a new fiscal year,
+     * and returns the last number allocated (the block is last - count + 1 .. last).
+     * The row stays locked until the caller's transaction ends; concurrent first
+     * allocations of a year are resolved by ON CONFLICT instead of failing.
+     */
+    @Query(value = """
+        INSERT INTO invoice_number_series (series, fiscal_year, last_number)
+        VALUES (:series, :fiscalYear, :count)
+        ON CONFLICT (series, fiscal_year) DO UPDATE
+           SET last_number = invoice_number_series.last_number + EXCLUDED.last_number
+        RETURNING last_number
+        """, nativeQuery = true)
+    long allocate(@Param("series") String series,
+                  @Param("fiscalYear") int fiscalYear,
+                  @Param("count") int count);
+}
@@ -1,20 +1,45 @@
 package com.example.policlicabine.repository;
 
+import com.example.policlicabine.dto.InvoiceDto;
 import com.example.policlicabine.entity.Invoice;
+import com.example.policlicabine.repository.fetch.FetchPlan;
+import com.example.policlicabine.repository.fetch.FetchPlanRepository;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
+public interface InvoiceRepository extends JpaRepository<Invoice, UUID>,
+                                           FetchPlanRepository<Invoice, UUID> {
+
+    // Two bags (sessionBillings, payments) - fetched by separate queries, see FetchPlan
+    FetchPlan<Invoice> WITH_BILLINGS_AND_PAYMENTS = FetchPlan.of(Invoice.class, "invoiceId")
+        .join("generatedBy")
+        .fetch("sessionBillings")
+        .fetch("payments");
+
+    FetchPlan<Invoice> WITH_BILLING_SESSIONS = FetchPlan.of(Invoice.class, "invoiceId")
+        .join("generatedBy")
+        .fetch("sessionBillings.session");
 
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
 
-    boolean existsByInvoiceNumber(String invoiceNumber);
+    /**
+     * Loads an invoice and locks its row until the transaction ends (proforma conversion).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Invoice i WHERE i.invoiceId = :invoiceId")
+    Optional<Invoice> findForUpdateByInvoiceId(@Param("invoiceId") UUID invoiceId);
 
     long countByInvoiceIdIn(List<UUID> invoiceIds);
 
@@ -22,9 +47,94 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
     @EntityGraph(attributePaths = {"sessionBillings", "generatedBy"})
     Optional<Invoice> findWithSessionBillingsById(UUID invoiceId);
 
-    @EntityGraph(attributePaths = {"sessionBillings", "payments", "generatedBy"})
-    Optional<Invoice> findWithSessionBillingsAndPaymentsById(UUID invoiceId);
+    default Optional<Invoice> findWithSessionBillingsAndPaymentsById(UUID invoiceId) {
+        return findWithPlan(WITH_BILLINGS_AND_PAYMENTS, invoiceId);
+    }
+
+    default List<Invoice> findAllWithSessionBillingsByIdIn(List<UUID> invoiceIds) {
+        return findAllWithPlan(WITH_BILLING_SESSIONS, invoiceIds);
+    }
+
+    // ============= Materialized Totals =============
+    // total_amount, total_paid and payment_status are derived from billings (stored subtotals
+    // minus discounts) and non-refund payments by DERIVED_TOTALS; the same SQL refreshes and
+    // reconciles them, so the stored columns and the check can never disagree on the rules.
+
+    String DERIVED_TOTALS = """
+        SELECT inv.invoice_id, COALESCE(inv.is_proforma, false) AS is_proforma,
+               COALESCE(billed.total, 0) AS total_amount, COALESCE(paid.total, 0) AS total_paid
+        FROM invoices inv
+        LEFT JOIN LATERAL (
+            SELECT SUM(COALESCE(b.subtotal_amount, 0) - COALESCE(disc.amount, 0)) AS total
+            FROM invoice_session_billings isb
+            JOIN session_billing b ON b.billing_id = isb.billing_id
+            LEFT JOIN LATERAL (
+                SELECT SUM(d.amount) AS amount FROM billing_discounts d
+                WHERE d.session_billing_id = b.billing_id) disc ON true
+            WHERE isb.invoice_id = inv.invoice_id) billed ON true
+        LEFT JOIN LATERAL (
+            SELECT SUM(p.amount) AS total FROM payment_invoices pi
+            JOIN payments p ON p.payment_id = pi.payment_id
+            WHERE pi.invoice_id = inv.invoice_id AND p.payment_type <> 'REFUND') paid ON true
+        """;
+
+    // Proformas are always pending; otherwise paid versus total decides
+    String DERIVED_STATUS = """
+        CASE WHEN t.is_proforma OR t.total_paid <= 0 THEN 'PENDING'
+             WHEN t.total_paid >= t.total_amount THEN 'FULLY_PAID'
+             ELSE 'PARTIALLY_PAID' END
+        """;
+
+    String REFRESH_TOTALS = """
+        UPDATE invoices i
+           SET total_amount = t.total_amount, total_paid = t.total_paid,
+               payment_status = """ + DERIVED_STATUS + """
+        FROM (""" + DERIVED_TOTALS;
+
+    /**
+     * Recomputes the stored totals of the given invoices in one statement.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = REFRESH_TOTALS + """
+        WHERE inv.invoice_id IN (:invoiceIds)) t
+        WHERE i.invoice_id = t.invoice_id
+        """, nativeQuery = true)
+    int refreshTotals(@Param("invoiceIds") Collection<UUID> invoiceIds);
+
+    /**
+     * Recomputes the stored totals of every invoice that includes the billing.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = REFRESH_TOTALS + """
+        WHERE inv.invoice_id IN (SELECT isb.invoice_id FROM invoice_session_billings isb
+                                 WHERE isb.billing_id = :billingId)) t
+        WHERE i.invoice_id = t.invoice_id
+        """, nativeQuery = true)
+    int refreshTotalsForBilling(@Param("billingId") UUID billingId);
+
+    /**
+     * Invoices whose stored totals or status differ from the derived values (nightly reconciliation).
+     */
+    @Query(value = "SELECT t.invoice_id FROM (" + DERIVED_TOTALS + """
+        ) t JOIN invoices i ON i.invoice_id = t.invoice_id
+        WHERE i.total_amount IS DISTINCT FROM t.total_amount
+           OR i.total_paid IS DISTINCT FROM t.total_paid
+           OR i.payment_status IS DISTINCT FROM """ + DERIVED_STATUS, nativeQuery = true)
+    List<UUID> findInvoiceIdsWithStaleTotals();
+
+    /**
+     * Every invoice as a list row read from the invoices table alone (stored totals, no billings).
+     */
+    @Query("SELECT new com.example.policlicabine.dto.InvoiceDto(i.invoiceId, i.invoiceNumber, i.invoiceDate, " +
+           "i.generatedBy.userId, i.isProforma, i.totalAmount, i.totalPaid, i.paymentStatus, i.createdAt) " +
+           "FROM Invoice i ORDER BY i.invoiceDate DESC, i.invoiceNumber DESC")
+    List<InvoiceDto> findAllSummaries();
 
-    @EntityGraph(attributePaths = {"sessionBillings", "sessionBillings.session", "generatedBy"})
-    List<Invoice> findAllWithSessionBillingsByIdIn(List<UUID> invoiceIds);
+    /**
+     * The given invoices as list rows (stored totals, no billings).
+     */
+    @Query("SELECT new com.example.policlicabine.dto.InvoiceDto(i.invoiceId, i.invoiceNumber, i.invoiceDate, " +
+           "i.generatedBy.userId, i.isProforma, i.totalAmount, i.totalPaid, i.paymentStatus, i.createdAt) " +
+           "FROM Invoice i WHERE i.invoiceId IN :invoiceIds")
+    List<InvoiceDto> findSummariesByIdIn(@Param("invoiceIds") Collection<UUID> invoiceIds);
 }
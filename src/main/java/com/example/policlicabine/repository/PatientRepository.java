@@ -1,18 +1,72 @@
 package com.example.policlicabine.repository;
 
+import com.example.policlicabine.dto.PatientDto;
 import com.example.policlicabine.entity.Patient;
+import com.example.policlicabine.entity.enums.SessionStatus;
+import com.example.policlicabine.repository.projection.PatientName;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, UUID> {
 
+    String HAS_DOCTOR_APPOINTMENT =
+        "EXISTS (SELECT 1 FROM AppointmentSession a WHERE a.patient = p " +
+        "AND a.doctor.doctorId = :doctorId " +
+        "AND a.scheduledDateTime >= :start AND a.scheduledDateTime < :end AND a.status <> :status)";
+
+    String PATIENTS_WITH_DOCTOR_APPOINTMENTS =
+        "SELECT new com.example.policlicabine.dto.PatientDto(" +
+        "p.patientId, p.firstName, p.lastName, p.phone, p.email, p.address, " +
+        "p.consentFileUrl, p.registrationDate) " +
+        "FROM Patient p WHERE " + HAS_DOCTOR_APPOINTMENT;
+
     boolean existsByPhone(String phone);
 
     Optional<Patient> findByEmail(String email);
 
     Optional<Patient> findByPhone(String phone);
-}
\ No newline at end of file
+
+    /**
+     * Display names of the given patients; missing IDs are simply absent.
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.PatientName(" +
+           "p.patientId, CONCAT(p.firstName, ' ', p.lastName)) FROM Patient p WHERE p.patientId IN :ids")
+    List<PatientName> findNamesByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Patients with at least one appointment with the doctor in [start, end), excluding a status.
+     * EXISTS instead of a join keeps each patient once without DISTINCT, and rows come back
+     * as flat DTOs - no sessions, doctors or managed entities are loaded.
+     */
+    @Query(PATIENTS_WITH_DOCTOR_APPOINTMENTS + " ORDER BY p.lastName, p.firstName, p.patientId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    Stream<PatientDto> streamPatientsWithDoctorAppointments(
+            @Param("doctorId") UUID doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("status") SessionStatus excludeStatus);
+
+    @Query(value = PATIENTS_WITH_DOCTOR_APPOINTMENTS + " ORDER BY p.lastName, p.firstName, p.patientId",
+           countQuery = "SELECT COUNT(p) FROM Patient p WHERE " + HAS_DOCTOR_APPOINTMENT)
+    Page<PatientDto> findPatientsWithDoctorAppointments(
+            @Param("doctorId") UUID doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("status") SessionStatus excludeStatus,
+            Pageable pageable);
+}
@@ -1,6 +1,8 @@
 package com.example.policlicabine.repository;
 
 import com.example.policlicabine.entity.Payment;
+import com.example.policlicabine.repository.fetch.FetchPlan;
+import com.example.policlicabine.repository.fetch.FetchPlanRepository;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -9,12 +11,19 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+public interface PaymentRepository extends JpaRepository<Payment, UUID>,
+                                           FetchPlanRepository<Payment, UUID> {
+
+    // invoices and invoices.sessionBillings are both bags - one query per level
+    FetchPlan<Payment> WITH_INVOICES_AND_BILLINGS = FetchPlan.of(Payment.class, "paymentId")
+        .join("generatedBy")
+        .fetch("invoices.sessionBillings");
 
     // EntityGraph methods to prevent N+1 queries
     @EntityGraph(attributePaths = {"invoices", "generatedBy"})
     Optional<Payment> findWithInvoicesById(UUID paymentId);
 
-    @EntityGraph(attributePaths = {"invoices", "invoices.sessionBillings", "generatedBy"})
-    Optional<Payment> findWithInvoicesAndBillingsById(UUID paymentId);
+    default Optional<Payment> findWithInvoicesAndBillingsById(UUID paymentId) {
+        return findWithPlan(WITH_INVOICES_AND_BILLINGS, paymentId);
+    }
 }
@@ -1,10 +1,18 @@
 package com.example.policlicabine.repository;
 
 import com.example.policlicabine.entity.SessionBilling;
+import com.example.policlicabine.repository.projection.BillingPaymentRow;
+import com.example.policlicabine.repository.projection.UninvoicedBilling;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,8 +24,8 @@ public interface SessionBillingRepository extends JpaRepository<SessionBilling,
     boolean existsBySessionSessionId(UUID sessionId);
 
     // EntityGraph methods to prevent N+1 queries
-    // Load billing with session and consultations for subtotal calculation and event publishing
-    @EntityGraph(attributePaths = {"session", "session.consultations", "session.patient"})
+    // Load billing with its session, patient and line items - amounts need no consultation join
+    @EntityGraph(attributePaths = {"session", "session.patient", "lineItems"})
     Optional<SessionBilling> findWithSessionBySessionSessionId(UUID sessionId);
 
     /**
@@ -26,4 +34,74 @@ public interface SessionBillingRepository extends JpaRepository<SessionBilling,
      */
     @EntityGraph(attributePaths = {"session", "discounts", "discounts.appliedBy"})
     Optional<SessionBilling> findWithSessionAndDiscountsById(UUID billingId);
+
+    // ============= Payment Status Aggregation =============
+    // Final amount and paid amount per billing in one statement: discounts and payments are
+    // summed by lateral subqueries, so no invoice or payment collection is ever loaded.
+    // Paid = non-refund payments on the final (non-proforma) invoices that include the billing.
+
+    String PAYMENT_ROWS = """
+        SELECT b.billing_id AS "billingId", b.session_id AS "sessionId",
+               a.patient_id AS "patientId", CONCAT_WS(' ', p.first_name, p.last_name) AS "patientName",
+               a.scheduled_date_time AS "scheduledDateTime",
+               COALESCE(b.subtotal_amount, 0) - COALESCE(disc.amount, 0) AS "finalAmount",
+               COALESCE(paid.amount, 0) AS "totalPaid"
+        FROM session_billing b
+        JOIN appointment_sessions a ON a.session_id = b.session_id
+        JOIN patients p ON p.patient_id = a.patient_id
+        LEFT JOIN LATERAL (
+            SELECT SUM(d.amount) AS amount FROM billing_discounts d
+            WHERE d.session_billing_id = b.billing_id) disc ON true
+        LEFT JOIN LATERAL (
+            SELECT SUM(pay.amount) AS amount
+            FROM invoice_session_billings isb
+            JOIN invoices i ON i.invoice_id = isb.invoice_id AND NOT COALESCE(i.is_proforma, false)
+            JOIN payment_invoices pi ON pi.invoice_id = i.invoice_id
+            JOIN payments pay ON pay.payment_id = pi.payment_id AND pay.payment_type <> 'REFUND'
+            WHERE isb.billing_id = b.billing_id) paid ON true
+        """;
+
+    @Query(value = PAYMENT_ROWS + "WHERE b.billing_id IN (:billingIds)", nativeQuery = true)
+    List<BillingPaymentRow> findPaymentRows(@Param("billingIds") Collection<UUID> billingIds);
+
+    /**
+     * Completed sessions in [from, to) whose billing is not fully paid, in schedule order.
+     */
+    @Query(value = PAYMENT_ROWS + """
+        WHERE a.scheduled_date_time >= :from AND a.scheduled_date_time < :to
+          AND a.status = 'COMPLETED'
+          AND COALESCE(paid.amount, 0) < COALESCE(b.subtotal_amount, 0) - COALESCE(disc.amount, 0)
+        ORDER BY a.scheduled_date_time, b.billing_id
+        """, nativeQuery = true)
+    List<BillingPaymentRow> findUnpaidPaymentRowsBetween(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Next chunk of billings with no invoice for sessions before :before, in one partition
+     * (patients hashed into :partitions buckets, so a patient always lands in the same one),
+     * ordered by (patient, session day, billing) strictly after the keyset cursor.
+     * Served by idx_invoice_billings_billing for the NOT EXISTS check.
+     */
+    @Query(value = """
+        SELECT b.billing_id AS "billingId", a.patient_id AS "patientId",
+               CAST(a.scheduled_date_time AS date) AS "sessionDate"
+        FROM session_billing b
+        JOIN appointment_sessions a ON a.session_id = b.session_id
+        WHERE NOT EXISTS (SELECT 1 FROM invoice_session_billings isb WHERE isb.billing_id = b.billing_id)
+          AND a.scheduled_date_time < :before
+          AND ((hashtext(CAST(a.patient_id AS text)) % :partitions) + :partitions) % :partitions = :partition
+          AND (a.patient_id, CAST(a.scheduled_date_time AS date), b.billing_id)
+              > (:cursorPatientId, :cursorSessionDate, :cursorBillingId)
+        ORDER BY a.patient_id, CAST(a.scheduled_date_time AS date), b.billing_id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<UninvoicedBilling> findUninvoicedChunk(
+            @Param("before") LocalDateTime before,
+            @Param("partition") int partition,
+            @Param("partitions") int partitions,
+            @Param("cursorPatientId") UUID cursorPatientId,
+            @Param("cursorSessionDate") LocalDate cursorSessionDate,
+            @Param("cursorBillingId") UUID cursorBillingId,
+            @Param("limit") int limit);
 }
@@ -0,0 +1,90 @@
+package com.example.policlicabine.repository;
+
+import com.example.policlicabine.entity.SessionNotes;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface SessionNotesRepository extends JpaRepository<SessionNotes, UUID> {
+
+    // ============= UPSERTS =============
+    // Single statements that create the notes row on first write - no read beforehand.
+
+    /**
+     * Writes the clinical documentation of a session, keeping any cancellation reason.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO session_notes (session_id, free_text_diagnosis, treatment_instructions,
+                                   free_text_observations, updated_at)
+        VALUES (:sessionId, :freeTextDiagnosis, :treatmentInstructions, :freeTextObservations, now())
+        ON CONFLICT (session_id) DO UPDATE
+           SET free_text_diagnosis = EXCLUDED.free_text_diagnosis,
+               treatment_instructions = EXCLUDED.treatment_instructions,
+               free_text_observations = EXCLUDED.free_text_observations,
+               updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int upsertClinicalNotes(@Param("sessionId") UUID sessionId,
+                            @Param("freeTextDiagnosis") String freeTextDiagnosis,
+                            @Param("treatmentInstructions") String treatmentInstructions,
+                            @Param("freeTextObservations") String freeTextObservations);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO session_notes (session_id, cancellation_reason, updated_at)
+        VALUES (:sessionId, :reason, now())
+        ON CONFLICT (session_id) DO UPDATE
+           SET cancellation_reason = EXCLUDED.cancellation_reason,
+               updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int upsertCancellationReason(@Param("sessionId") UUID sessionId, @Param("reason") String reason);
+
+    /**
+     * Writes the same cancellation reason for many sessions in one statement (series cancellation).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO session_notes (session_id, cancellation_reason, updated_at)
+        SELECT s.session_id, :reason, now() FROM appointment_sessions s WHERE s.session_id IN (:sessionIds)
+        ON CONFLICT (session_id) DO UPDATE
+           SET cancellation_reason = EXCLUDED.cancellation_reason,
+               updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int upsertCancellationReasons(@Param("sessionIds") Collection<UUID> sessionIds, @Param("reason") String reason);
+
+    // ============= SINGLE-FIELD UPSERTS =============
+    // Partial edits: each statement writes exactly one note column (plus updated_at).
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO session_notes (session_id, free_text_diagnosis, updated_at)
+        VALUES (:sessionId, :value, now())
+        ON CONFLICT (session_id) DO UPDATE
+           SET free_text_diagnosis = EXCLUDED.free_text_diagnosis, updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int upsertFreeTextDiagnosis(@Param("sessionId") UUID sessionId, @Param("value") String value);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO session_notes (session_id, treatment_instructions, updated_at)
+        VALUES (:sessionId, :value, now())
+        ON CONFLICT (session_id) DO UPDATE
+           SET treatment_instructions = EXCLUDED.treatment_instructions, updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int upsertTreatmentInstructions(@Param("sessionId") UUID sessionId, @Param("value") String value);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO session_notes (session_id, free_text_observations, updated_at)
+        VALUES (:sessionId, :value, now())
+        ON CONFLICT (session_id) DO UPDATE
+           SET free_text_observations = EXCLUDED.free_text_observations, updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int upsertFreeTextObservations(@Param("sessionId") UUID sessionId, @Param("value") String value);
+}
@@ -0,0 +1,39 @@
+package com.example.policlicabine.repository;
+
+import com.example.policlicabine.entity.SurgeryRoom;
+import com.example.policlicabine.entity.enums.SessionStatus;
+import com.example.policlicabine.repository.projection.RoomBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SurgeryRoomRepository extends JpaRepository<SurgeryRoom, UUID> {
+
+    boolean existsByName(String name);
+
+    List<SurgeryRoom> findByIsActiveTrueOrderByName();
+
+    @Query("SELECT r.roomId FROM SurgeryRoom r WHERE r.isActive = true ORDER BY r.name")
+    List<UUID> findActiveRoomIds();
+
+    /**
+     * Finds every active session holding a room in [from, to), across all rooms.
+     * One query per calendar day loaded - never one per room.
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.RoomBooking(" +
+           "a.sessionId, a.surgeryRoom.roomId, a.scheduledDateTime, a.scheduledEndDateTime) " +
+           "FROM AppointmentSession a WHERE a.surgeryRoom IS NOT NULL " +
+           "AND a.status NOT IN :excludedStatuses " +
+           "AND a.scheduledDateTime < :to AND a.scheduledEndDateTime > :from")
+    List<RoomBooking> findRoomBookings(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("excludedStatuses") Collection<SessionStatus> excludedStatuses);
+}
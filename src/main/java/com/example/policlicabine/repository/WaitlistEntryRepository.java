@@ -0,0 +1,60 @@
+package com.example.policlicabine.repository;
+
+import com.example.policlicabine.entity.WaitlistEntry;
+import com.example.policlicabine.entity.enums.WaitlistStatus;
+import com.example.policlicabine.repository.projection.WaitlistCandidate;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, UUID> {
+
+    /**
+     * Finds entry with patient, doctors and consultation names loaded (for offers and DTO mapping).
+     */
+    @EntityGraph(attributePaths = {"patient", "doctor", "offeredDoctor", "consultationNames"})
+    Optional<WaitlistEntry> findWithRelationshipsByEntryId(UUID entryId);
+
+    @EntityGraph(attributePaths = {"patient", "doctor", "offeredDoctor", "consultationNames"})
+    List<WaitlistEntry> findByPatientPatientIdAndStatusInOrderByCreatedAt(
+            UUID patientId, List<WaitlistStatus> statuses);
+
+    /**
+     * Flat candidates for the in-memory waitlist index (one query, no entities).
+     */
+    @Query("SELECT new com.example.policlicabine.repository.projection.WaitlistCandidate(" +
+           "w.entryId, w.patient.patientId, d.doctorId, w.specialty, w.earliestDate, w.latestDate, " +
+           "w.requiredMinutes, COALESCE(w.priority, 0), w.createdAt) " +
+           "FROM WaitlistEntry w LEFT JOIN w.doctor d " +
+           "WHERE w.status = :status AND w.latestDate >= :today")
+    List<WaitlistCandidate> findCandidates(
+            @Param("status") WaitlistStatus status,
+            @Param("today") LocalDate today);
+
+    /**
+     * Pending offers made before :offeredBefore or whose slot has started, locked for expiry.
+     * SKIP LOCKED: entries being accepted or expired by another node are left to it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT w FROM WaitlistEntry w " +
+           "WHERE w.status = :status AND (w.offeredAt < :offeredBefore OR w.offeredSlotStart <= :now)")
+    List<WaitlistEntry> findStaleOffersForUpdate(
+            @Param("status") WaitlistStatus status,
+            @Param("offeredBefore") LocalDateTime offeredBefore,
+            @Param("now") LocalDateTime now);
+}
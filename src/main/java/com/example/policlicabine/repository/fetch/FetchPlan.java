@@ -0,0 +1,123 @@
+package com.example.policlicabine.repository.fetch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Describes how to load an aggregate root together with several collections
+ * without fetching them all in one join.
+ *
+ * One query loads the roots with their to-one joins, then each collection path
+ * is fetched by its own query into the same persistence context. Rows stay
+ * proportional to the sum of the collection sizes instead of their product,
+ * and Hibernate never has to fetch two bags at once (MultipleBagFetchException).
+ *
+ * Nested paths such as "answers.question" fetch one level per query; shared
+ * prefixes are loaded once. Plans are immutable, so they can be kept as constants.
+ *
+ * @param <T> Root entity type
+ */
+public final class FetchPlan<T> {
+
+    private final Class<T> rootType;
+    private final String idAttribute;
+    private final List<String> joins;
+    private final List<String> paths;
+    private final String rootQuery;
+    private final List<String> stepQueries;
+
+    private FetchPlan(Class<T> rootType, String idAttribute, List<String> joins, List<String> paths) {
+        this.rootType = rootType;
+        this.idAttribute = idAttribute;
+        this.joins = List.copyOf(joins);
+        this.paths = List.copyOf(paths);
+        this.rootQuery = buildRootQuery();
+        this.stepQueries = buildStepQueries();
+    }
+
+    /**
+     * Starts a plan for a root entity.
+     *
+     * @param rootType Root entity class
+     * @param idAttribute Name of the root's @Id attribute
+     */
+    public static <T> FetchPlan<T> of(Class<T> rootType, String idAttribute) {
+        return new FetchPlan<>(rootType, idAttribute, List.of(), List.of());
+    }
+
+    /**
+     * Adds to-one associations fetched together with the root.
+     */
+    public FetchPlan<T> join(String... attributes) {
+        List<String> newJoins = new ArrayList<>(joins);
+        newJoins.addAll(List.of(attributes));
+        return new FetchPlan<>(rootType, idAttribute, newJoins, paths);
+    }
+
+    /**
+     * Adds a collection (or a dotted path through collections) loaded by separate queries.
+     */
+    public FetchPlan<T> fetch(String path) {
+        List<String> newPaths = new ArrayList<>(paths);
+        newPaths.add(path);
+        return new FetchPlan<>(rootType, idAttribute, joins, newPaths);
+    }
+
+    public Class<T> getRootType() {
+        return rootType;
+    }
+
+    /**
+     * JPQL loading the roots and their to-one joins for the :ids parameter.
+     */
+    String rootQuery() {
+        return rootQuery;
+    }
+
+    /**
+     * JPQL statements, in execution order, that each initialize one association level.
+     * For "a.b" that is: roots with a fetched, then the loaded a's with b fetched.
+     */
+    List<String> stepQueries() {
+        return stepQueries;
+    }
+
+    private String buildRootQuery() {
+        StringBuilder jpql = new StringBuilder("SELECT r FROM ").append(rootType.getSimpleName()).append(" r");
+        for (String join : joins) {
+            jpql.append(" LEFT JOIN FETCH r.").append(join);
+        }
+        return jpql.append(" WHERE r.").append(idAttribute).append(" IN :ids").toString();
+    }
+
+    private List<String> buildStepQueries() {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String path : paths) {
+            String[] segments = path.split("\\.");
+            for (int depth = 1; depth <= segments.length; depth++) {
+                prefixes.add(String.join(".", List.of(segments).subList(0, depth)));
+            }
+        }
+
+        List<String> queries = new ArrayList<>(prefixes.size());
+        for (String prefix : prefixes) {
+            queries.add(stepQuery(prefix.split("\\.")));
+        }
+        return List.copyOf(queries);
+    }
+
+    private String stepQuery(String[] segments) {
+        StringBuilder from = new StringBuilder(rootType.getSimpleName()).append(" r");
+        String owner = "r";
+        for (int i = 0; i < segments.length - 1; i++) {
+            String alias = "j" + i;
+            from.append(" JOIN ").append(owner).append('.').append(segments[i]).append(' ').append(alias);
+            owner = alias;
+        }
+        return "SELECT DISTINCT " + owner + " FROM " + from +
+               " LEFT JOIN FETCH " + owner + "." + segments[segments.length - 1] +
+               " WHERE r." + idAttribute + " IN :ids";
+    }
+}
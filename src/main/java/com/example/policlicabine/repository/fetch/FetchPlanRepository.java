@@ -0,0 +1,26 @@
+package com.example.policlicabine.repository.fetch;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository fragment that loads entities according to a FetchPlan.
+ * Extend it from a Spring Data repository to get the implementation for free.
+ *
+ * @param <T> Root entity type
+ * @param <ID> Root identifier type
+ */
+public interface FetchPlanRepository<T, ID> {
+
+    /**
+     * Loads one root and everything the plan names, in 1 + (number of path levels) queries.
+     */
+    Optional<T> findWithPlan(FetchPlan<T> plan, ID id);
+
+    /**
+     * Loads several roots and everything the plan names, using the same number
+     * of queries per chunk of IDs regardless of how many roots are requested.
+     */
+    List<T> findAllWithPlan(FetchPlan<T> plan, Collection<ID> ids);
+}
@@ -0,0 +1,64 @@
+package com.example.policlicabine.repository.fetch;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Spring Data fragment implementation of FetchPlanRepository.
+ *
+ * All queries run against the caller's persistence context, so the step queries
+ * initialize collections on the very instances returned by the root query.
+ * Must therefore be called inside a transaction.
+ */
+public class FetchPlanRepositoryImpl<T, ID> implements FetchPlanRepository<T, ID> {
+
+    // Keeps IN lists well below driver/planner limits
+    static final int ID_CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<T> findWithPlan(FetchPlan<T> plan, ID id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        List<T> roots = load(plan, List.of(id));
+        return roots.isEmpty() ? Optional.empty() : Optional.of(roots.get(0));
+    }
+
+    @Override
+    public List<T> findAllWithPlan(FetchPlan<T> plan, Collection<ID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<ID> distinctIds = ids.stream().distinct().toList();
+        List<T> roots = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += ID_CHUNK_SIZE) {
+            roots.addAll(load(plan, distinctIds.subList(from, Math.min(from + ID_CHUNK_SIZE, distinctIds.size()))));
+        }
+        return roots;
+    }
+
+    private List<T> load(FetchPlan<T> plan, List<ID> ids) {
+        List<T> roots = entityManager.createQuery(plan.rootQuery(), plan.getRootType())
+            .setParameter("ids", ids)
+            .getResultList();
+        if (roots.isEmpty()) {
+            return roots;
+        }
+
+        // Results are discarded - each query only initializes associations of managed instances
+        for (String jpql : plan.stepQueries()) {
+            entityManager.createQuery(jpql)
+                .setParameter("ids", ids)
+                .getResultList();
+        }
+        return roots;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.policlicabine.repository.projection;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a doctor's WeeklyAvailability row.
+ */
+public record AvailabilityWindow(
+    UUID doctorId,
+    DayOfWeek dayOfWeek,
+    LocalTime startTime,
+    LocalTime endTime,
+    LocalDateTime effectiveFrom,
+    LocalDateTime effectiveTo
+) {}
@@ -0,0 +1,32 @@
+package com.example.policlicabine.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of one billing with its final amount and what has been paid against it.
+ * Interface-based because it is produced by a native query.
+ */
+public interface BillingPaymentRow {
+
+    UUID getBillingId();
+
+    UUID getSessionId();
+
+    UUID getPatientId();
+
+    String getPatientName();
+
+    LocalDateTime getScheduledDateTime();
+
+    /**
+     * Stored subtotal minus discounts.
+     */
+    BigDecimal getFinalAmount();
+
+    /**
+     * Non-refund payments on the final (non-proforma) invoices that include the billing.
+     */
+    BigDecimal getTotalPaid();
+}
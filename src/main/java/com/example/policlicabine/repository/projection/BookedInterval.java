@@ -0,0 +1,14 @@
+package com.example.policlicabine.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a booked session as a [start, end) time interval.
+ */
+public record BookedInterval(
+    UUID sessionId,
+    UUID doctorId,
+    LocalDateTime start,
+    LocalDateTime end
+) {}
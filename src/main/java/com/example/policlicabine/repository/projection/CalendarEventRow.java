@@ -0,0 +1,22 @@
+package com.example.policlicabine.repository.projection;
+
+import com.example.policlicabine.entity.enums.SessionStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of one (session, consultation) pair for calendar feeds.
+ * A session with several consultations yields consecutive rows; consultationName
+ * is null for a session without consultations.
+ */
+public record CalendarEventRow(
+    UUID sessionId,
+    LocalDateTime start,
+    LocalDateTime end,
+    SessionStatus status,
+    Long version,
+    LocalDateTime updatedAt,
+    Boolean isEmergency,
+    String consultationName
+) {}
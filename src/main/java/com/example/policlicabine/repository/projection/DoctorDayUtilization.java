@@ -0,0 +1,21 @@
+package com.example.policlicabine.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of one doctor-day of the utilization aggregation.
+ * Interface-based because it is produced by a native query.
+ */
+public interface DoctorDayUtilization {
+
+    UUID getDoctorId();
+
+    /**
+     * Days since the start of the queried range (0 = first day).
+     */
+    int getDayIndex();
+
+    int getAvailableMinutes();
+
+    int getBookedMinutes();
+}
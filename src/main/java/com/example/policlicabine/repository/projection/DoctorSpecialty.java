@@ -0,0 +1,13 @@
+package com.example.policlicabine.repository.projection;
+
+import com.example.policlicabine.entity.enums.Specialty;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of a single (doctor, specialty) pair.
+ */
+public record DoctorSpecialty(
+    UUID doctorId,
+    Specialty specialty
+) {}
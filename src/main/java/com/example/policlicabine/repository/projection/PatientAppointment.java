@@ -0,0 +1,13 @@
+package com.example.policlicabine.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of which patient a session is booked for, and when.
+ */
+public record PatientAppointment(
+    UUID sessionId,
+    UUID patientId,
+    LocalDateTime scheduledDateTime
+) {}
@@ -0,0 +1,11 @@
+package com.example.policlicabine.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of a patient's display name ("first last").
+ */
+public record PatientName(
+    UUID patientId,
+    String fullName
+) {}
@@ -0,0 +1,18 @@
+package com.example.policlicabine.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of everything needed to remind a patient of one session.
+ */
+public record ReminderTarget(
+    UUID sessionId,
+    UUID patientId,
+    String patientFirstName,
+    String patientLastName,
+    String phone,
+    String email,
+    String doctorName,
+    LocalDateTime scheduledDateTime
+) {}
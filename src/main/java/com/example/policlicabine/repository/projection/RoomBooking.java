@@ -0,0 +1,14 @@
+package com.example.policlicabine.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a session that occupies a surgery room.
+ */
+public record RoomBooking(
+    UUID sessionId,
+    UUID roomId,
+    LocalDateTime start,
+    LocalDateTime end
+) {}
@@ -0,0 +1,15 @@
+package com.example.policlicabine.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Read-only projection of one consultation booked in a session, with its current price.
+ */
+public record SessionConsultationLine(
+    UUID sessionId,
+    UUID consultationId,
+    String consultationName,
+    BigDecimal price,
+    String currency
+) {}
@@ -0,0 +1,11 @@
+package com.example.policlicabine.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of one (session, consultation name) pair.
+ */
+public record SessionConsultationName(
+    UUID sessionId,
+    String consultationName
+) {}
@@ -0,0 +1,20 @@
+package com.example.policlicabine.repository.projection;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a session billing not yet on any invoice, keyed for batch invoicing.
+ * Interface-based because it is produced by a native query.
+ */
+public interface UninvoicedBilling {
+
+    UUID getBillingId();
+
+    UUID getPatientId();
+
+    /**
+     * Day the session was scheduled (billings are invoiced per patient and day).
+     */
+    LocalDate getSessionDate();
+}
@@ -0,0 +1,22 @@
+package com.example.policlicabine.repository.projection;
+
+import com.example.policlicabine.entity.enums.Specialty;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a waiting waitlist entry - just what slot matching needs.
+ */
+public record WaitlistCandidate(
+    UUID entryId,
+    UUID patientId,
+    UUID doctorId,
+    Specialty specialty,
+    LocalDate earliestDate,
+    LocalDate latestDate,
+    int requiredMinutes,
+    int priority,
+    LocalDateTime createdAt
+) {}
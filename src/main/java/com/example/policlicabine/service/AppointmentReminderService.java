@@ -0,0 +1,202 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.repository.projection.ReminderTarget;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service for sending appointment reminders and recording contact attempts.
+ *
+ * Architecture:
+ * - No repository of its own - reads and updates sessions via AppointmentSessionService
+ * - Scans upcoming SCHEDULED sessions in keyset chunks over idx_session_status_time
+ * - Each chunk is claimed in the database before sending (FOR UPDATE SKIP LOCKED plus a
+ *   last-attempt stamp), so nodes running concurrently never send the same reminder;
+ *   the running flag only prevents overlapping runs on one node
+ * - Each chunk is sent on virtual threads, at most MAX_CONCURRENT_SENDS in flight,
+ *   then recorded with one UPDATE per outcome (delivered / failed)
+ * - No transaction spans the sends, so slow channels never hold a pooled connection
+ *
+ * Sizing: 10k reminders/minute needs ~170 sends/second; with 200 concurrent sends that
+ * leaves a channel latency budget of about one second per reminder.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentReminderService {
+
+    // Remind patients this long before the appointment
+    static final Duration REMINDER_LEAD_TIME = Duration.ofHours(24);
+
+    // Failed deliveries are retried after this delay, up to MAX_CONTACT_ATTEMPTS in total
+    static final Duration RETRY_DELAY = Duration.ofHours(1);
+    static final int MAX_CONTACT_ATTEMPTS = 3;
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_CONCURRENT_SENDS = 200;
+
+    // Lowest UUID, used as the initial keyset cursor
+    private static final UUID NIL_UUID = new UUID(0L, 0L);
+
+    // Services for data access - service-to-service communication
+    private final AppointmentSessionService appointmentSessionService;
+    private final ReminderChannel reminderChannel;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong runs = new AtomicLong();
+    private volatile RunSummary lastRun;
+
+    /**
+     * Outcome of one dispatch run.
+     */
+    public record RunSummary(LocalDateTime startedAt, int delivered, int failed, long durationMillis) {
+
+        public double remindersPerMinute() {
+            return durationMillis == 0 ? 0.0 : (delivered + failed) * 60_000.0 / durationMillis;
+        }
+    }
+
+    /**
+     * Totals since startup plus the last run.
+     */
+    public record ReminderStats(long delivered, long failed, long runs, RunSummary lastRun) {}
+
+    @Scheduled(fixedDelay = 5, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void dispatchScheduled() {
+        Result<RunSummary> result = dispatchDueReminders();
+        if (result.isFailure()) {
+            log.warn("Reminder run skipped or failed: {}", result.getErrorMessage());
+        }
+    }
+
+    /**
+     * Sends every reminder that is currently due.
+     * Runs are exclusive on this node; a call while a run is active is rejected.
+     *
+     * @return Result containing the run summary or error message
+     */
+    public Result<RunSummary> dispatchDueReminders() {
+        if (!running.compareAndSet(false, true)) {
+            return Result.failure("Reminder run already in progress");
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime until = now.plus(REMINDER_LEAD_TIME);
+            LocalDateTime retryBefore = now.minus(RETRY_DELAY);
+            long started = System.nanoTime();
+
+            int deliveredCount = 0;
+            int failedCount = 0;
+            LocalDateTime cursorDateTime = now;
+            UUID cursorSessionId = NIL_UUID;
+            Semaphore permits = new Semaphore(MAX_CONCURRENT_SENDS);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                while (true) {
+                    List<ReminderTarget> chunk = appointmentSessionService.claimReminderTargets(
+                        cursorDateTime, cursorSessionId, until, MAX_CONTACT_ATTEMPTS, retryBefore,
+                        LocalDateTime.now(), CHUNK_SIZE);
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+
+                    ChunkOutcome outcome = sendChunk(chunk, executor, permits);
+                    LocalDateTime attemptedAt = LocalDateTime.now();
+                    appointmentSessionService.recordContactAttempts(outcome.delivered(), attemptedAt, true);
+                    appointmentSessionService.recordContactAttempts(outcome.failed(), attemptedAt, false);
+
+                    deliveredCount += outcome.delivered().size();
+                    failedCount += outcome.failed().size();
+
+                    ReminderTarget last = chunk.get(chunk.size() - 1);
+                    cursorDateTime = last.scheduledDateTime();
+                    cursorSessionId = last.sessionId();
+                    if (chunk.size() < CHUNK_SIZE) {
+                        break;
+                    }
+                }
+            }
+
+            delivered.add(deliveredCount);
+            failed.add(failedCount);
+            runs.incrementAndGet();
+            RunSummary summary = new RunSummary(now, deliveredCount, failedCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            lastRun = summary;
+
+            if (deliveredCount + failedCount > 0) {
+                log.info("Reminder run: {} delivered, {} failed in {} ms ({} per minute)",
+                    deliveredCount, failedCount, summary.durationMillis(),
+                    Math.round(summary.remindersPerMinute()));
+            }
+
+            return Result.success(summary);
+
+        } catch (Exception e) {
+            log.error("Error dispatching reminders", e);
+            return Result.failure("Failed to dispatch reminders: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Retrieves reminder throughput statistics.
+     *
+     * @return Result containing ReminderStats
+     */
+    public Result<ReminderStats> getStats() {
+        return Result.success(new ReminderStats(delivered.sum(), failed.sum(), runs.get(), lastRun));
+    }
+
+    private ChunkOutcome sendChunk(List<ReminderTarget> chunk, ExecutorService executor, Semaphore permits)
+            throws InterruptedException {
+        Queue<UUID> deliveredIds = new ConcurrentLinkedQueue<>();
+        Queue<UUID> failedIds = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(chunk.size());
+
+        for (ReminderTarget target : chunk) {
+            permits.acquire();
+            executor.execute(() -> {
+                try {
+                    if (reminderChannel.send(target)) {
+                        deliveredIds.add(target.sessionId());
+                    } else {
+                        failedIds.add(target.sessionId());
+                    }
+                } catch (Exception e) {
+                    log.debug("Reminder for session {} failed", target.sessionId(), e);
+                    failedIds.add(target.sessionId());
+                } finally {
+                    permits.release();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+
+        return new ChunkOutcome(List.copyOf(deliveredIds), List.copyOf(failedIds));
+    }
+
+    private record ChunkOutcome(List<UUID> delivered, List<UUID> failed) {}
+}
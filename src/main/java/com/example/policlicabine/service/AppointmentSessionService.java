@@ -1,24 +1,58 @@
 package com.example.policlicabine.service;
 
 import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.AppointmentHistoryPageDto;
+import com.example.policlicabine.dto.AppointmentSeriesDto;
 import com.example.policlicabine.dto.AppointmentSessionDto;
+import com.example.policlicabine.dto.AppointmentSessionSummaryDto;
+import com.example.policlicabine.dto.ScheduleCommand;
 import com.example.policlicabine.entity.*;
+import com.example.policlicabine.entity.enums.SessionNoteField;
 import com.example.policlicabine.entity.enums.SessionStatus;
+import com.example.policlicabine.entity.enums.SessionTransition;
 import com.example.policlicabine.event.*;
 import com.example.policlicabine.mapper.AppointmentSessionMapper;
 import com.example.policlicabine.repository.AppointmentSessionRepository;
+import com.example.policlicabine.repository.projection.AvailabilityWindow;
+import com.example.policlicabine.repository.projection.BookedInterval;
+import com.example.policlicabine.repository.projection.CalendarEventRow;
+import com.example.policlicabine.repository.projection.DoctorDayUtilization;
+import com.example.policlicabine.repository.projection.PatientAppointment;
+import com.example.policlicabine.repository.projection.ReminderTarget;
+import com.example.policlicabine.repository.projection.SessionConsultationLine;
+import com.example.policlicabine.repository.projection.SessionConsultationName;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for managing AppointmentSession entities.
@@ -44,15 +78,47 @@ public class AppointmentSessionService {
     private final DoctorService doctorService;
     private final ConsultationService consultationService;
     private final DiagnosisService diagnosisService;
+    private final SurgeryRoomService surgeryRoomService;
+    private final SessionNotesService sessionNotesService;
 
     // Mapper and event publisher
     private final AppointmentSessionMapper appointmentMapper;
     private final ApplicationEventPublisher eventPublisher;
 
+    // Per-doctor booking serialization (in-process half of double-booking prevention)
+    private final DoctorBookingLocks bookingLocks;
+
+    // Short programmatic transactions for retried operations
+    private final TransactionTemplate transactionTemplate;
+
     // EntityManager for creating entity references without DB hits
     @PersistenceContext
     private EntityManager entityManager;
 
+    // Statuses whose sessions no longer occupy the doctor's time
+    private static final List<SessionStatus> INACTIVE_STATUSES =
+        List.of(SessionStatus.CANCELLED, SessionStatus.NO_SHOW);
+
+    private static final String OVERLAP_MESSAGE = "Doctor already has an appointment in this time slot";
+    private static final String NO_ROOM_MESSAGE = "No surgery room available for this time slot";
+
+    // Upper bound on one recurring series, and the occurrences a series cancellation may touch
+    private static final int MAX_SERIES_OCCURRENCES = 52;
+
+    // Sessions written per flush in bulk scheduling (multiple of hibernate.jdbc.batch_size)
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    // Patient history page sizes
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    // Optimistic-lock retries for rescheduling: attempts and first backoff (doubles per attempt, plus jitter)
+    private static final int MAX_RESCHEDULE_ATTEMPTS = 4;
+    private static final long RESCHEDULE_BACKOFF_MILLIS = 20;
+
+    // Placeholder that matches no doctor, so an IN clause is never empty
+    private static final UUID NO_DOCTOR = new UUID(0L, 0L);
+
     /**
      * Schedules a new appointment session.
      *
@@ -60,6 +126,9 @@ public class AppointmentSessionService {
      * - Uses service validation for patient and doctor (Result pattern for error messages)
      * - Gets consultation entities via ConsultationService
      * - Uses EntityManager.getReference() for Patient/Doctor to avoid DB hits
+     * - Prevents double booking: per-doctor lock held until commit + overlap query,
+     *   backed by the ex_session_doctor_no_overlap exclusion constraint across nodes
+     * - Allocates a surgery room via SurgeryRoomService when any consultation requires one
      * - Publishes AppointmentScheduled event for decoupling
      *
      * @param patientId Patient identifier
@@ -82,10 +151,10 @@ public class AppointmentSessionService {
                 return Result.failure("Scheduled date and time is required");
             }
 
-            // Validate patient exists via PatientService (uses Result for clear error messages)
-            Result<Void> patientCheck = patientService.validatePatientExists(patientId);
-            if (patientCheck.isFailure()) {
-                return Result.failure(patientCheck.getErrorMessage());
+            // Validate patient exists via PatientService; the name travels on AppointmentScheduled
+            Result<String> patientName = patientService.getPatientName(patientId);
+            if (patientName.isFailure()) {
+                return Result.failure(patientName.getErrorMessage());
             }
 
             // Validate doctor exists via DoctorService
@@ -100,45 +169,462 @@ public class AppointmentSessionService {
                 return Result.failure("Some consultations not found or inactive");
             }
 
+            LocalDateTime scheduledEnd = scheduledDateTime.plusMinutes(totalDurationMinutes(consultations));
+
+            // Serialize bookings for this doctor until commit, then check for overlaps
+            bookingLocks.lockUntilTransactionEnds(doctorId);
+            if (appointmentRepository.existsOverlappingSession(
+                    doctorId, scheduledDateTime, scheduledEnd, INACTIVE_STATUSES)) {
+                return Result.failure(OVERLAP_MESSAGE);
+            }
+
+            // Claim a surgery room for the whole session if any consultation needs one
+            SurgeryRoomCalendar.Reservation roomReservation = null;
+            if (consultations.stream().anyMatch(Consultation::getRequiresSurgeryRoom)) {
+                roomReservation = surgeryRoomService.reserveRoom(scheduledDateTime, scheduledEnd).orElse(null);
+                if (roomReservation == null) {
+                    return Result.failure(NO_ROOM_MESSAGE);
+                }
+            }
+
             // Use EntityManager.getReference() to create entity proxies without DB hits
             // JPA will validate foreign keys on flush/commit
             Patient patientRef = entityManager.getReference(Patient.class, patientId);
             Doctor doctorRef = entityManager.getReference(Doctor.class, doctorId);
+            SurgeryRoom roomRef = roomReservation != null
+                ? entityManager.getReference(SurgeryRoom.class, roomReservation.getRoomId()) : null;
 
             // Create appointment session
             AppointmentSession session = AppointmentSession.builder()
                 .patient(patientRef)
                 .doctor(doctorRef)
                 .scheduledDateTime(scheduledDateTime)
+                .scheduledEndDateTime(scheduledEnd)
                 .consultations(consultations)
+                .surgeryRoom(roomRef)
                 .isEmergency(isEmergency)
                 .status(SessionStatus.SCHEDULED)
                 .build();
 
-            AppointmentSession savedSession = appointmentRepository.save(session);
+            // Flush now so the no-overlap constraints fire inside this try block
+            AppointmentSession savedSession = appointmentRepository.saveAndFlush(session);
+            if (roomReservation != null) {
+                surgeryRoomService.attachReservation(roomReservation, savedSession.getSessionId());
+            }
 
             // Publish domain event for cross-service communication
             eventPublisher.publishEvent(new AppointmentScheduled(
-                savedSession.getSessionId(), patientId, doctorId,
-                scheduledDateTime, consultationNames, isEmergency));
+                savedSession.getSessionId(), patientId, patientName.getValue(), doctorId,
+                scheduledDateTime, scheduledEnd, consultationNames, isEmergency));
 
             log.info("Appointment scheduled: {} for patient {} with doctor {} at {}",
                 savedSession.getSessionId(), patientId, doctorId, scheduledDateTime);
 
             return Result.success(appointmentMapper.toDto(savedSession));
 
+        } catch (DataIntegrityViolationException e) {
+            // Another node booked an overlapping slot first (exclusion constraint)
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.warn("Overlapping appointment or room booking rejected by database for doctor {} at {}",
+                doctorId, scheduledDateTime);
+            return Result.failure(OVERLAP_MESSAGE);
         } catch (Exception e) {
             log.error("Error scheduling appointment", e);
             return Result.failure("Failed to schedule appointment: " + e.getMessage());
         }
     }
 
+    /**
+     * Schedules many appointments in one transaction (e.g. importing a paper roster).
+     *
+     * Architecture notes:
+     * - Patients and doctors are validated with one set-based query each
+     * - Consultations are resolved once for all distinct names
+     * - Overlaps are checked in memory against one query of the doctors' booked intervals,
+     *   including earlier commands of the same batch, under the per-doctor booking locks
+     * - Sessions are written in chunks with JDBC batching (hibernate.jdbc.batch_size)
+     * - Invalid commands are skipped with their own failure; an error while writing rolls back
+     *   the whole batch, including chunks already flushed
+     *
+     * @param commands Booking requests
+     * @return Result containing one Result per command (same order): the new session ID or the reason it was skipped
+     */
+    public Result<List<Result<UUID>>> scheduleAppointments(List<ScheduleCommand> commands) {
+        try {
+            if (commands == null || commands.isEmpty()) {
+                return Result.failure("At least one appointment is required");
+            }
+
+            Set<UUID> patientIds = new HashSet<>();
+            Set<UUID> doctorIds = new HashSet<>();
+            Set<String> consultationNames = new HashSet<>();
+            for (ScheduleCommand command : commands) {
+                if (command == null) {
+                    continue;
+                }
+                if (command.getPatientId() != null) {
+                    patientIds.add(command.getPatientId());
+                }
+                if (command.getDoctorId() != null) {
+                    doctorIds.add(command.getDoctorId());
+                }
+                if (command.getConsultationNames() != null) {
+                    consultationNames.addAll(command.getConsultationNames());
+                }
+            }
+
+            // Set-based validation and lookups - a fixed number of queries for the whole batch
+            Map<UUID, String> patientNames = patientService.findNamesByIds(patientIds);
+            Set<UUID> existingDoctors = doctorService.findExistingIds(doctorIds);
+            Map<String, Consultation> consultationsByName = consultationService
+                .getEntitiesByNames(new ArrayList<>(consultationNames)).stream()
+                .collect(Collectors.toMap(Consultation::getName, c -> c, (first, second) -> first));
+
+            bookingLocks.lockAllUntilTransactionEnds(existingDoctors);
+            LocalDateTime earliest = commands.stream()
+                .filter(command -> command != null && command.getScheduledDateTime() != null)
+                .map(ScheduleCommand::getScheduledDateTime)
+                .min(LocalDateTime::compareTo)
+                .orElse(LocalDateTime.now());
+            Map<UUID, NavigableMap<LocalDateTime, LocalDateTime>> busyByDoctor = new HashMap<>();
+            for (BookedInterval interval : getBookedIntervals(
+                    earliest.minusDays(1), existingDoctors.isEmpty() ? List.of(NO_DOCTOR) : existingDoctors)) {
+                if (interval.end() != null) {
+                    busyByDoctor.computeIfAbsent(interval.doctorId(), id -> new TreeMap<>())
+                        .merge(interval.start(), interval.end(), (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+
+            List<Result<UUID>> results = new ArrayList<>(commands.size());
+            List<AppointmentSession> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+            List<SurgeryRoomCalendar.Reservation> chunkReservations = new ArrayList<>(BULK_CHUNK_SIZE);
+            List<ScheduleCommand> chunkCommands = new ArrayList<>(BULK_CHUNK_SIZE);
+            int scheduled = 0;
+
+            for (ScheduleCommand command : commands) {
+                if (command == null) {
+                    results.add(Result.failure("Appointment is required"));
+                    continue;
+                }
+                if (command.getConsultationNames() == null || command.getConsultationNames().isEmpty()) {
+                    results.add(Result.failure("At least one consultation is required"));
+                    continue;
+                }
+                if (command.getScheduledDateTime() == null) {
+                    results.add(Result.failure("Scheduled date and time is required"));
+                    continue;
+                }
+                if (!patientNames.containsKey(command.getPatientId())) {
+                    results.add(Result.failure("Patient not found"));
+                    continue;
+                }
+                if (!existingDoctors.contains(command.getDoctorId())) {
+                    results.add(Result.failure("Doctor not found"));
+                    continue;
+                }
+
+                List<Consultation> consultations = command.getConsultationNames().stream()
+                    .map(consultationsByName::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+                if (consultations.size() != command.getConsultationNames().size()) {
+                    results.add(Result.failure("Some consultations not found or inactive"));
+                    continue;
+                }
+
+                LocalDateTime start = command.getScheduledDateTime();
+                LocalDateTime end = start.plusMinutes(totalDurationMinutes(consultations));
+                NavigableMap<LocalDateTime, LocalDateTime> busy =
+                    busyByDoctor.computeIfAbsent(command.getDoctorId(), id -> new TreeMap<>());
+                if (overlaps(busy, start, end)) {
+                    results.add(Result.failure(OVERLAP_MESSAGE));
+                    continue;
+                }
+
+                SurgeryRoomCalendar.Reservation roomReservation = null;
+                if (consultations.stream().anyMatch(Consultation::getRequiresSurgeryRoom)) {
+                    roomReservation = surgeryRoomService.reserveRoom(start, end).orElse(null);
+                    if (roomReservation == null) {
+                        results.add(Result.failure(NO_ROOM_MESSAGE));
+                        continue;
+                    }
+                }
+                busy.put(start, end);
+
+                chunk.add(AppointmentSession.builder()
+                    .patient(entityManager.getReference(Patient.class, command.getPatientId()))
+                    .doctor(entityManager.getReference(Doctor.class, command.getDoctorId()))
+                    .scheduledDateTime(start)
+                    .scheduledEndDateTime(end)
+                    .consultations(consultations.stream()
+                        .map(c -> entityManager.getReference(Consultation.class, c.getConsultationId()))
+                        .collect(Collectors.toList()))
+                    .surgeryRoom(roomReservation != null
+                        ? entityManager.getReference(SurgeryRoom.class, roomReservation.getRoomId()) : null)
+                    .isEmergency(command.isEmergency())
+                    .status(SessionStatus.SCHEDULED)
+                    .build());
+                chunkReservations.add(roomReservation);
+                chunkCommands.add(command);
+                results.add(null); // filled in when the chunk is written
+
+                if (chunk.size() == BULK_CHUNK_SIZE) {
+                    scheduled += writeScheduledChunk(chunk, chunkReservations, chunkCommands, patientNames, results);
+                }
+            }
+            scheduled += writeScheduledChunk(chunk, chunkReservations, chunkCommands, patientNames, results);
+
+            log.info("Bulk scheduling: {} of {} appointments scheduled", scheduled, commands.size());
+
+            return Result.success(results);
+
+        } catch (DataIntegrityViolationException e) {
+            // Another node booked an overlapping slot while we held only in-process locks
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.warn("Bulk scheduling rejected by database: overlapping appointment or room booking");
+            return Result.failure("Bulk scheduling aborted: " + OVERLAP_MESSAGE);
+        } catch (Exception e) {
+            // Earlier chunks are already flushed - a failure result must not commit them
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.error("Error scheduling appointments in bulk", e);
+            return Result.failure("Failed to schedule appointments: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes one chunk with batched inserts, then detaches it to keep the persistence context small.
+     * Fills the placeholder results (null entries) in order with the new session IDs.
+     */
+    private int writeScheduledChunk(List<AppointmentSession> chunk,
+                                    List<SurgeryRoomCalendar.Reservation> reservations,
+                                    List<ScheduleCommand> chunkCommands,
+                                    Map<UUID, String> patientNames,
+                                    List<Result<UUID>> results) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        List<AppointmentSession> saved = appointmentRepository.saveAll(chunk);
+        appointmentRepository.flush();
+
+        int next = results.indexOf(null);
+        for (int i = 0; i < saved.size(); i++) {
+            AppointmentSession session = saved.get(i);
+            ScheduleCommand command = chunkCommands.get(i);
+            if (reservations.get(i) != null) {
+                surgeryRoomService.attachReservation(reservations.get(i), session.getSessionId());
+            }
+
+            eventPublisher.publishEvent(new AppointmentScheduled(
+                session.getSessionId(), command.getPatientId(), patientNames.get(command.getPatientId()),
+                command.getDoctorId(),
+                command.getScheduledDateTime(), session.getScheduledEndDateTime(),
+                command.getConsultationNames(), command.isEmergency()));
+
+            while (results.get(next) != null) {
+                next++;
+            }
+            results.set(next, Result.success(session.getSessionId()));
+        }
+
+        int written = saved.size();
+        // Listeners may have persisted rows of their own (e.g. agenda entries) - write them before detaching
+        entityManager.flush();
+        entityManager.clear();
+        chunk.clear();
+        reservations.clear();
+        chunkCommands.clear();
+        return written;
+    }
+
+    private static boolean overlaps(NavigableMap<LocalDateTime, LocalDateTime> busy,
+                                    LocalDateTime start, LocalDateTime end) {
+        // Latest interval starting before our end is the only one that can reach into our range
+        Map.Entry<LocalDateTime, LocalDateTime> before = busy.lowerEntry(end);
+        return before != null && before.getValue().isAfter(start);
+    }
+
+    /**
+     * Books a recurring series, e.g. every 2 weeks for 10 sessions.
+     *
+     * Architecture notes:
+     * - Occurrence i starts at firstDateTime + i * interval (no drift for monthly series)
+     * - All occurrences are checked in one pass against the doctor's WeeklyAvailability
+     *   and one query of the doctor's booked intervals, under the doctor's booking lock
+     * - All or nothing: any conflicting occurrence rejects the series and lists every conflict
+     * - Occurrences are written with JDBC batching and share a seriesId
+     *
+     * @param patientId Patient identifier
+     * @param doctorId Doctor identifier
+     * @param consultationNames Consultations of every occurrence
+     * @param firstDateTime Start of the first occurrence
+     * @param interval Recurrence interval (e.g. Period.ofWeeks(2))
+     * @param occurrences Number of occurrences (2..MAX_SERIES_OCCURRENCES)
+     * @param isEmergency Whether the occurrences are emergency appointments
+     * @return Result containing AppointmentSeriesDto or error message
+     */
+    public Result<AppointmentSeriesDto> scheduleSeries(UUID patientId, UUID doctorId,
+                                                       List<String> consultationNames,
+                                                       LocalDateTime firstDateTime, Period interval,
+                                                       int occurrences, boolean isEmergency) {
+        try {
+            if (consultationNames == null || consultationNames.isEmpty()) {
+                return Result.failure("At least one consultation is required");
+            }
+            if (firstDateTime == null) {
+                return Result.failure("Scheduled date and time is required");
+            }
+            if (interval == null || interval.isZero() || interval.isNegative()) {
+                return Result.failure("Recurrence interval must be positive");
+            }
+            if (occurrences < 2 || occurrences > MAX_SERIES_OCCURRENCES) {
+                return Result.failure("Occurrences must be between 2 and " + MAX_SERIES_OCCURRENCES);
+            }
+
+            Result<String> patientName = patientService.getPatientName(patientId);
+            if (patientName.isFailure()) {
+                return Result.failure(patientName.getErrorMessage());
+            }
+            Result<Void> doctorCheck = doctorService.validateDoctorExists(doctorId);
+            if (doctorCheck.isFailure()) {
+                return Result.failure(doctorCheck.getErrorMessage());
+            }
+
+            List<Consultation> consultations = consultationService.getEntitiesByNames(consultationNames);
+            if (consultations.size() != consultationNames.size()) {
+                return Result.failure("Some consultations not found or inactive");
+            }
+            int durationMinutes = totalDurationMinutes(consultations);
+            boolean needsRoom = consultations.stream().anyMatch(Consultation::getRequiresSurgeryRoom);
+
+            List<LocalDateTime> starts = new ArrayList<>(occurrences);
+            for (int i = 0; i < occurrences; i++) {
+                starts.add(firstDateTime.plus(interval.multipliedBy(i)));
+            }
+            LocalDateTime lastEnd = starts.get(occurrences - 1).plusMinutes(durationMinutes);
+
+            // One availability query and one booking query cover the whole series
+            bookingLocks.lockUntilTransactionEnds(doctorId);
+            List<AvailabilityWindow> windows = doctorService.getAvailabilityWindows(doctorId);
+            NavigableMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+            for (BookedInterval booked : appointmentRepository.findBookedIntervalsForDoctorBetween(
+                    doctorId, firstDateTime.minusDays(1), lastEnd, INACTIVE_STATUSES)) {
+                if (booked.end() != null) {
+                    busy.merge(booked.start(), booked.end(), (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+
+            List<String> conflicts = new ArrayList<>();
+            List<SurgeryRoomCalendar.Reservation> reservations = new ArrayList<>(occurrences);
+            for (LocalDateTime start : starts) {
+                LocalDateTime end = start.plusMinutes(durationMinutes);
+                if (!withinAvailability(windows, start, end)) {
+                    conflicts.add(start + " (outside the doctor's availability)");
+                    continue;
+                }
+                if (overlaps(busy, start, end)) {
+                    conflicts.add(start + " (doctor already booked)");
+                    continue;
+                }
+                SurgeryRoomCalendar.Reservation roomReservation = null;
+                if (needsRoom) {
+                    roomReservation = surgeryRoomService.reserveRoom(start, end).orElse(null);
+                    if (roomReservation == null) {
+                        conflicts.add(start + " (no surgery room available)");
+                        continue;
+                    }
+                }
+                busy.put(start, end);
+                reservations.add(roomReservation);
+            }
+            if (!conflicts.isEmpty()) {
+                // Unattached room claims are dropped when the transaction ends
+                return Result.failure("Series not booked, conflicting occurrences: " + String.join(", ", conflicts));
+            }
+
+            UUID seriesId = UUID.randomUUID();
+            List<AppointmentSession> sessions = new ArrayList<>(occurrences);
+            List<ScheduleCommand> commands = new ArrayList<>(occurrences);
+            List<Result<UUID>> results = new ArrayList<>(occurrences);
+            for (int i = 0; i < occurrences; i++) {
+                LocalDateTime start = starts.get(i);
+                SurgeryRoomCalendar.Reservation roomReservation = reservations.get(i);
+                sessions.add(AppointmentSession.builder()
+                    .patient(entityManager.getReference(Patient.class, patientId))
+                    .doctor(entityManager.getReference(Doctor.class, doctorId))
+                    .scheduledDateTime(start)
+                    .scheduledEndDateTime(start.plusMinutes(durationMinutes))
+                    .consultations(new ArrayList<>(consultations))
+                    .surgeryRoom(roomReservation != null
+                        ? entityManager.getReference(SurgeryRoom.class, roomReservation.getRoomId()) : null)
+                    .isEmergency(isEmergency)
+                    .seriesId(seriesId)
+                    .status(SessionStatus.SCHEDULED)
+                    .build());
+                commands.add(ScheduleCommand.builder()
+                    .patientId(patientId)
+                    .doctorId(doctorId)
+                    .consultationNames(consultationNames)
+                    .scheduledDateTime(start)
+                    .isEmergency(isEmergency)
+                    .build());
+                results.add(null);
+            }
+            writeScheduledChunk(sessions, reservations, commands, Map.of(patientId, patientName.getValue()), results);
+
+            log.info("Appointment series {} scheduled: {} occurrences every {} for patient {} with doctor {}",
+                seriesId, occurrences, interval, patientId, doctorId);
+
+            return Result.success(AppointmentSeriesDto.builder()
+                .seriesId(seriesId)
+                .sessionIds(results.stream().map(Result::getValue).collect(Collectors.toList()))
+                .occurrences(starts)
+                .build());
+
+        } catch (DataIntegrityViolationException e) {
+            // Another node booked an overlapping slot while we held only in-process locks
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.warn("Appointment series rejected by database for doctor {}: overlapping booking", doctorId);
+            return Result.failure("Series not booked: " + OVERLAP_MESSAGE);
+        } catch (Exception e) {
+            log.error("Error scheduling appointment series", e);
+            return Result.failure("Failed to schedule appointment series: " + e.getMessage());
+        }
+    }
+
+    /**
+     * True when [start, end) lies inside one availability window of start's weekday,
+     * clipped to the window's effective period (sessions past midnight never fit).
+     */
+    private static boolean withinAvailability(List<AvailabilityWindow> windows,
+                                              LocalDateTime start, LocalDateTime end) {
+        for (AvailabilityWindow window : windows) {
+            if (window.dayOfWeek() != start.getDayOfWeek()) {
+                continue;
+            }
+            LocalDateTime windowStart = start.toLocalDate().atTime(window.startTime());
+            LocalDateTime windowEnd = start.toLocalDate().atTime(window.endTime());
+            if (window.effectiveFrom() != null && windowStart.isBefore(window.effectiveFrom())) {
+                windowStart = window.effectiveFrom();
+            }
+            if (window.effectiveTo() != null && windowEnd.isAfter(window.effectiveTo())) {
+                windowEnd = window.effectiveTo();
+            }
+            if (!start.isBefore(windowStart) && !end.isAfter(windowEnd)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Adds a consultation to an existing session.
      *
      * Architecture notes:
      * - Uses EntityGraph to load session with consultations (prevents N+1 queries)
      * - Gets consultation entity via ConsultationService
+     * - Re-checks overlaps because the session's end time moves
+     * - Extends the surgery room claim (same room), or claims one if the new consultation needs it
      *
      * @param sessionId Session identifier
      * @param consultationName Name of consultation to add
@@ -171,18 +657,57 @@ public class AppointmentSessionService {
                 return Result.failure("Consultation not found or inactive");
             }
 
+            // The session grows by the new consultation's duration - it must still fit
+            UUID doctorId = session.getDoctor().getDoctorId();
+            LocalDateTime newEnd = session.getScheduledDateTime()
+                .plusMinutes(session.getTotalDurationMinutes() + consultation.getEffectiveDurationMinutes());
+
+            bookingLocks.lockUntilTransactionEnds(doctorId);
+            if (appointmentRepository.existsOverlappingSessionExcluding(
+                    doctorId, sessionId, session.getScheduledDateTime(), newEnd, INACTIVE_STATUSES)) {
+                return Result.failure(OVERLAP_MESSAGE);
+            }
+
+            // Keep the surgery room claim in step with the session
+            SurgeryRoomCalendar.Reservation roomReservation = null;
+            if (session.getSurgeryRoom() != null) {
+                // Same room for the extra time so the patient never changes rooms mid-session
+                LocalDateTime currentEnd = session.getScheduledEndDateTime();
+                roomReservation = surgeryRoomService
+                    .reserveRoom(session.getSurgeryRoom().getRoomId(), currentEnd, newEnd).orElse(null);
+                if (roomReservation == null) {
+                    return Result.failure("Surgery room is not available for the extended session");
+                }
+            } else if (consultation.getRequiresSurgeryRoom()) {
+                roomReservation = surgeryRoomService
+                    .reserveRoom(session.getScheduledDateTime(), newEnd).orElse(null);
+                if (roomReservation == null) {
+                    return Result.failure(NO_ROOM_MESSAGE);
+                }
+                session.setSurgeryRoom(entityManager.getReference(SurgeryRoom.class, roomReservation.getRoomId()));
+            }
+
             // Add consultation to session
             session.getConsultations().add(consultation);
-            AppointmentSession savedSession = appointmentRepository.save(session);
+            session.setScheduledEndDateTime(newEnd);
+            AppointmentSession savedSession = appointmentRepository.saveAndFlush(session);
+            if (roomReservation != null) {
+                surgeryRoomService.attachReservation(roomReservation, sessionId);
+            }
 
             // Publish domain event
             eventPublisher.publishEvent(new ConsultationTypeAdded(
-                sessionId, consultationName, true, consultation.getPrice()));
+                sessionId, doctorId, consultationName, true, consultation.getPrice(),
+                session.getScheduledDateTime(), newEnd));
 
             log.info("Consultation {} added to session {}", consultationName, sessionId);
 
-            return Result.success(appointmentMapper.toDto(savedSession));
+            return Result.success(appointmentMapper.toDto(savedSession, sessionNotesService.getNotes(sessionId)));
 
+        } catch (DataIntegrityViolationException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.warn("Extending session {} rejected by database: overlapping appointment", sessionId);
+            return Result.failure(OVERLAP_MESSAGE);
         } catch (Exception e) {
             log.error("Error adding consultation to session", e);
             return Result.failure("Failed to add consultation: " + e.getMessage());
@@ -190,42 +715,155 @@ public class AppointmentSessionService {
     }
 
     /**
-     * Starts an appointment session.
+     * Moves a scheduled appointment to a new start time, keeping its consultations.
      *
      * Architecture notes:
-     * - Uses EntityGraph to load patient and doctor for event publishing
+     * - Each attempt is one short transaction: load, overlap check, room move, save
+     * - Optimistic locking (@Version) detects concurrent edits of the same session;
+     *   the attempt is retried with bounded exponential backoff, re-reading fresh state
+     * - No transaction is held between attempts (NOT_SUPPORTED + TransactionTemplate)
      *
      * @param sessionId Session identifier
+     * @param newDateTime New start time
      * @return Result containing updated AppointmentSessionDto or error message
      */
-    public Result<AppointmentSessionDto> startSession(UUID sessionId) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Result<AppointmentSessionDto> rescheduleAppointment(UUID sessionId, LocalDateTime newDateTime) {
+        if (sessionId == null) {
+            return Result.failure("Session ID is required");
+        }
+        if (newDateTime == null) {
+            return Result.failure("New date and time is required");
+        }
+        if (!newDateTime.isAfter(LocalDateTime.now())) {
+            return Result.failure("Appointment can only be moved to a future time");
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> moveSession(sessionId, newDateTime));
+
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= MAX_RESCHEDULE_ATTEMPTS) {
+                    log.warn("Rescheduling session {} gave up after {} conflicting attempts", sessionId, attempt);
+                    return Result.failure("Session was modified concurrently, please try again");
+                }
+                log.debug("Rescheduling session {} conflicted (attempt {}), retrying", sessionId, attempt);
+                if (!backOff(attempt)) {
+                    return Result.failure("Rescheduling interrupted");
+                }
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Rescheduling session {} rejected by database: overlapping appointment", sessionId);
+                return Result.failure(OVERLAP_MESSAGE);
+            } catch (Exception e) {
+                log.error("Error rescheduling appointment", e);
+                return Result.failure("Failed to reschedule appointment: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * One reschedule attempt, run inside its own transaction.
+     */
+    private Result<AppointmentSessionDto> moveSession(UUID sessionId, LocalDateTime newDateTime) {
+        AppointmentSession session = appointmentRepository.findForRescheduleById(sessionId).orElse(null);
+        if (session == null) {
+            return Result.failure("Session not found");
+        }
+        if (session.getStatus() != SessionStatus.SCHEDULED) {
+            return Result.failure("Only scheduled sessions can be rescheduled");
+        }
+
+        LocalDateTime previousStart = session.getScheduledDateTime();
+        LocalDateTime previousEnd = session.getScheduledEndDateTime();
+        LocalDateTime newEnd = newDateTime.plusMinutes(session.getTotalDurationMinutes());
+        UUID doctorId = session.getDoctor().getDoctorId();
+
+        bookingLocks.lockUntilTransactionEnds(doctorId);
+        if (appointmentRepository.existsOverlappingSessionExcluding(
+                doctorId, sessionId, newDateTime, newEnd, INACTIVE_STATUSES)) {
+            return Result.failure(OVERLAP_MESSAGE);
+        }
+
+        SurgeryRoomCalendar.Reservation roomReservation = null;
+        if (session.getSurgeryRoom() != null) {
+            roomReservation = surgeryRoomService.reserveRoomForMove(
+                sessionId, session.getSurgeryRoom().getRoomId(), newDateTime, newEnd).orElse(null);
+            if (roomReservation == null) {
+                return Result.failure(NO_ROOM_MESSAGE);
+            }
+            if (!roomReservation.getRoomId().equals(session.getSurgeryRoom().getRoomId())) {
+                session.setSurgeryRoom(entityManager.getReference(SurgeryRoom.class, roomReservation.getRoomId()));
+            }
+        }
+
+        int rescheduleCount = (session.getRescheduleCount() != null ? session.getRescheduleCount() : 0) + 1;
+        session.setScheduledDateTime(newDateTime);
+        session.setScheduledEndDateTime(newEnd);
+        session.setRescheduleCount(rescheduleCount);
+        // The patient needs a reminder for the new time
+        session.setReminderSentAt(null);
+        session.setContactAttempts(0);
+        session.setLastContactAttemptAt(null);
+
+        // Flush now so version conflicts and constraint violations surface inside this attempt
+        AppointmentSession savedSession = appointmentRepository.saveAndFlush(session);
+        if (roomReservation != null) {
+            surgeryRoomService.attachReservation(roomReservation, sessionId);
+        }
+
+        eventPublisher.publishEvent(new AppointmentRescheduled(
+            sessionId, session.getPatient().getPatientId(), doctorId,
+            previousStart, previousEnd, newDateTime, newEnd, rescheduleCount));
+
+        log.info("Appointment {} rescheduled from {} to {}", sessionId, previousStart, newDateTime);
+
+        return Result.success(appointmentMapper.toDto(savedSession, sessionNotesService.getNotes(sessionId)));
+    }
+
+    private static boolean backOff(int attempt) {
+        long base = RESCHEDULE_BACKOFF_MILLIS << (attempt - 1);
+        try {
+            Thread.sleep(base + ThreadLocalRandom.current().nextLong(base));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Starts an appointment session.
+     *
+     * Architecture notes:
+     * - SCHEDULED → IN_PROGRESS is applied as one conditional UPDATE (SessionTransition.START);
+     *   a concurrent start or cancel makes it affect 0 rows instead of overwriting
+     * - Only the summary row is read afterwards, for the event and the result
+     *
+     * @param sessionId Session identifier
+     * @return Result containing updated AppointmentSessionSummaryDto or error message
+     */
+    public Result<AppointmentSessionSummaryDto> startSession(UUID sessionId) {
         try {
             if (sessionId == null) {
                 return Result.failure("Session ID is required");
             }
 
-            // Use EntityGraph to load session with basic relationships
-            AppointmentSession session = appointmentRepository.findWithBasicRelationshipsById(sessionId)
-                .orElse(null);
-            if (session == null) {
-                return Result.failure("Session not found");
+            SessionTransition transition = SessionTransition.START;
+            int updated = appointmentRepository.transitionStatus(
+                sessionId, transition.getTarget(), transition.getAllowedFrom());
+            if (updated == 0) {
+                return transitionFailure(sessionId, "Only scheduled sessions can be started");
             }
 
-            if (session.getStatus() != SessionStatus.SCHEDULED) {
-                return Result.failure("Only scheduled sessions can be started");
-            }
-
-            session.setStatus(SessionStatus.IN_PROGRESS);
-            AppointmentSession savedSession = appointmentRepository.save(session);
+            AppointmentSessionSummaryDto summary = appointmentRepository.findSummaryById(sessionId).orElseThrow();
 
-            // Publish domain event (patient and doctor already loaded via EntityGraph)
             eventPublisher.publishEvent(new SessionStarted(
-                sessionId, session.getPatient().getPatientId(),
-                session.getDoctor().getDoctorId(), LocalDateTime.now()));
+                sessionId, summary.getPatientId(), summary.getDoctorId(), LocalDateTime.now()));
 
             log.info("Session started: {}", sessionId);
 
-            return Result.success(appointmentMapper.toDto(savedSession));
+            return Result.success(summary);
 
         } catch (Exception e) {
             log.error("Error starting session", e);
@@ -238,6 +876,8 @@ public class AppointmentSessionService {
      *
      * Architecture notes:
      * - Gets diagnosis entities via DiagnosisService (internal method)
+     * - Writes the text fields via SessionNotesService; @DynamicUpdate limits the
+     *   UPDATE to the note columns that actually changed
      * - No EntityGraph needed here - minimal relationship access
      *
      * @param sessionId Session identifier
@@ -263,10 +903,9 @@ public class AppointmentSessionService {
                 return Result.failure("Can only add medical information to in-progress sessions");
             }
 
-            // Update medical text fields
-            session.setFreeTextDiagnosis(freeTextDiagnosis);
-            session.setTreatmentInstructions(treatmentInstructions);
-            session.setFreeTextObservations(freeTextObservations);
+            // Medical text fields live in session_notes - only changed columns are written
+            SessionNotes notes = sessionNotesService.updateClinicalNotes(
+                sessionId, freeTextDiagnosis, treatmentInstructions, freeTextObservations);
 
             // Get diagnosis entities via DiagnosisService if provided
             if (diagnosisIds != null && !diagnosisIds.isEmpty()) {
@@ -278,7 +917,7 @@ public class AppointmentSessionService {
 
             log.info("Medical information added to session: {}", sessionId);
 
-            return Result.success(appointmentMapper.toDto(savedSession));
+            return Result.success(appointmentMapper.toDto(savedSession, notes));
 
         } catch (Exception e) {
             log.error("Error adding medical information", e);
@@ -286,60 +925,110 @@ public class AppointmentSessionService {
         }
     }
 
+    /**
+     * Updates one clinical note field of an in-progress session.
+     *
+     * Architecture notes:
+     * - Reads only the session status, never the session or its notes
+     * - One upsert that writes just the given column of session_notes,
+     *   so large unchanged fields (e.g. observations) are not rewritten
+     *
+     * @param sessionId Session identifier
+     * @param field Note field to change
+     * @param value New value (null clears the field)
+     * @return Result indicating success or error message
+     */
+    public Result<Void> updateSessionNote(UUID sessionId, SessionNoteField field, String value) {
+        try {
+            if (sessionId == null) {
+                return Result.failure("Session ID is required");
+            }
+            if (field == null) {
+                return Result.failure("Note field is required");
+            }
+
+            SessionStatus status = appointmentRepository.findStatusById(sessionId).orElse(null);
+            if (status == null) {
+                return Result.failure("Session not found");
+            }
+            if (status != SessionStatus.IN_PROGRESS) {
+                return Result.failure("Can only add medical information to in-progress sessions");
+            }
+
+            sessionNotesService.saveNoteField(sessionId, field, value);
+
+            log.info("Note {} updated for session: {}", field, sessionId);
+
+            return Result.success(null);
+
+        } catch (Exception e) {
+            log.error("Error updating session note", e);
+            return Result.failure("Failed to update session note: " + e.getMessage());
+        }
+    }
+
     /**
      * Completes an appointment session with medical documentation.
      *
      * Architecture notes:
-     * - Uses EntityGraph to load all relationships for event publishing and DTO mapping
+     * - IN_PROGRESS → COMPLETED is one conditional UPDATE (SessionTransition.COMPLETE),
+     *   the documentation one upsert into session_notes - no entity graph is loaded
+     * - Reads the summary row and consultation names/prices only for the two events;
+     *   SessionCompleted carries the subtotal so billing does not reload the session
      * - Publishes two events: SessionDocumentationCompleted and SessionCompleted
      *
      * @param sessionId Session identifier
      * @param freeTextDiagnosis Free-text diagnosis
      * @param treatmentInstructions Treatment instructions
      * @param freeTextObservations Additional observations
-     * @return Result containing updated AppointmentSessionDto or error message
+     * @return Result containing updated AppointmentSessionSummaryDto or error message
      */
-    public Result<AppointmentSessionDto> completeSession(UUID sessionId, String freeTextDiagnosis,
-                                                        String treatmentInstructions, String freeTextObservations) {
+    public Result<AppointmentSessionSummaryDto> completeSession(UUID sessionId, String freeTextDiagnosis,
+                                                               String treatmentInstructions,
+                                                               String freeTextObservations) {
         try {
             if (sessionId == null) {
                 return Result.failure("Session ID is required");
             }
 
-            // Use EntityGraph to load all relationships for event publishing
-            AppointmentSession session = appointmentRepository.findWithAllRelationshipsById(sessionId)
-                .orElse(null);
-            if (session == null) {
-                return Result.failure("Session not found");
-            }
-
-            if (session.getStatus() != SessionStatus.IN_PROGRESS) {
-                return Result.failure("Only in-progress sessions can be completed");
+            SessionTransition transition = SessionTransition.COMPLETE;
+            LocalDateTime completedAt = LocalDateTime.now();
+            int updated = appointmentRepository.transitionToCompleted(
+                sessionId, transition.getTarget(), transition.getAllowedFrom(), completedAt);
+            if (updated == 0) {
+                return transitionFailure(sessionId, "Only in-progress sessions can be completed");
             }
 
-            // Update medical information and status
-            session.setFreeTextDiagnosis(freeTextDiagnosis);
-            session.setTreatmentInstructions(treatmentInstructions);
-            session.setFreeTextObservations(freeTextObservations);
-            session.setStatus(SessionStatus.COMPLETED);
-            session.setCompletedAt(LocalDateTime.now());
+            // Documentation goes to session_notes (one upsert, same transaction)
+            sessionNotesService.saveClinicalNotes(
+                sessionId, freeTextDiagnosis, treatmentInstructions, freeTextObservations);
 
-            AppointmentSession savedSession = appointmentRepository.save(session);
+            AppointmentSessionSummaryDto summary = appointmentRepository.findSummaryById(sessionId).orElseThrow();
+            // Names and prices in one query - SessionCompleted carries everything billing needs
+            List<SessionConsultationLine> lines = appointmentRepository.findConsultationLines(List.of(sessionId));
+            List<String> consultationNames = lines.stream()
+                .map(SessionConsultationLine::consultationName)
+                .collect(Collectors.toList());
+            BigDecimal subtotalAmount = lines.stream()
+                .map(line -> line.price() != null ? line.price() : BigDecimal.ZERO)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            summary.setConsultationNames(consultationNames);
 
-            // Publish domain events (relationships already loaded via EntityGraph)
             eventPublisher.publishEvent(new SessionDocumentationCompleted(
-                sessionId, session.getPatient().getPatientId(),
-                session.getDoctor().getDoctorId(), freeTextDiagnosis,
-                treatmentInstructions, getConsultationNames(session)));
+                sessionId, summary.getPatientId(), summary.getDoctorId(),
+                freeTextDiagnosis, treatmentInstructions, consultationNames));
 
+            List<CompletedConsultation> consultations = lines.stream()
+                .map(line -> new CompletedConsultation(
+                    line.consultationId(), line.consultationName(), line.price(), line.currency()))
+                .collect(Collectors.toList());
             eventPublisher.publishEvent(new SessionCompleted(
-                sessionId, session.getPatient().getPatientId(),
-                session.getDoctor().getDoctorId(), LocalDateTime.now(),
-                getConsultationNames(session)));
+                sessionId, summary.getPatientId(), summary.getDoctorId(),
+                completedAt, consultationNames, subtotalAmount, consultations));
 
             log.info("Session completed: {}", sessionId);
 
-            return Result.success(appointmentMapper.toDto(savedSession));
+            return Result.success(summary);
 
         } catch (Exception e) {
             log.error("Error completing session", e);
@@ -351,40 +1040,43 @@ public class AppointmentSessionService {
      * Cancels an appointment.
      *
      * Architecture notes:
-     * - Uses EntityGraph to load patient for event publishing
+     * - Applied as one conditional UPDATE (SessionTransition.CANCEL or MARK_NO_SHOW);
+     *   completed or already cancelled sessions are rejected by the row count
+     * - Reads the summary row only for the event and the result
      *
      * @param sessionId Session identifier
      * @param reason Cancellation reason
      * @param wasNoShow Whether this was a no-show
-     * @return Result containing updated AppointmentSessionDto or error message
+     * @return Result containing updated AppointmentSessionSummaryDto or error message
      */
-    public Result<AppointmentSessionDto> cancelAppointment(UUID sessionId, String reason, boolean wasNoShow) {
+    public Result<AppointmentSessionSummaryDto> cancelAppointment(UUID sessionId, String reason, boolean wasNoShow) {
         try {
             if (sessionId == null) {
                 return Result.failure("Session ID is required");
             }
 
-            // Use EntityGraph to load session with basic relationships
-            AppointmentSession session = appointmentRepository.findWithBasicRelationshipsById(sessionId)
-                .orElse(null);
-            if (session == null) {
-                return Result.failure("Session not found");
+            SessionTransition transition = wasNoShow ? SessionTransition.MARK_NO_SHOW : SessionTransition.CANCEL;
+            int updated = appointmentRepository.transitionToCancelled(
+                sessionId, transition.getTarget(), transition.getAllowedFrom(), LocalDateTime.now());
+            if (updated == 0) {
+                return transitionFailure(sessionId, wasNoShow
+                    ? "Only scheduled sessions can be marked as no-show"
+                    : "Only scheduled or in-progress sessions can be cancelled");
             }
 
-            SessionStatus newStatus = wasNoShow ? SessionStatus.NO_SHOW : SessionStatus.CANCELLED;
-            session.setStatus(newStatus);
-            session.setCancellationReason(reason);
-            session.setCancelledAt(LocalDateTime.now());
+            if (reason != null) {
+                sessionNotesService.saveCancellationReason(sessionId, reason);
+            }
 
-            AppointmentSession savedSession = appointmentRepository.save(session);
+            AppointmentSessionSummaryDto summary = appointmentRepository.findSummaryById(sessionId).orElseThrow();
 
-            // Publish domain event (patient already loaded via EntityGraph)
             eventPublisher.publishEvent(new AppointmentCancelled(
-                sessionId, session.getPatient().getPatientId(), reason, wasNoShow));
+                sessionId, summary.getPatientId(), summary.getDoctorId(),
+                summary.getScheduledDateTime(), summary.getScheduledEndDateTime(), reason, wasNoShow));
 
             log.info("Appointment cancelled: {} (wasNoShow: {})", sessionId, wasNoShow);
 
-            return Result.success(appointmentMapper.toDto(savedSession));
+            return Result.success(summary);
 
         } catch (Exception e) {
             log.error("Error cancelling appointment", e);
@@ -393,11 +1085,81 @@ public class AppointmentSessionService {
     }
 
     /**
-     * Retrieves patient's appointment history.
+     * Cancels the remaining occurrences of a recurring series.
+     *
+     * Architecture notes:
+     * - One bulk UPDATE cancels every SCHEDULED occurrence starting at or after fromDateTime;
+     *   past, in-progress and completed occurrences are left alone
+     * - The UPDATE returns the IDs of the rows it changed (UPDATE ... RETURNING); their summary
+     *   rows are read by ID for the events and the result
+     * - The cancellation reason is written for all of them in one upsert
+     * - AppointmentCancelled is published per occurrence (rooms, waitlist, agenda, calendar, caches)
+     *
+     * @param seriesId Series identifier
+     * @param fromDateTime First start to cancel, or null for now
+     * @param reason Cancellation reason (may be null)
+     * @return Result containing the cancelled occurrences as summary rows (may be empty) or error message
+     */
+    public Result<List<AppointmentSessionSummaryDto>> cancelRemainingSeries(UUID seriesId,
+                                                                            LocalDateTime fromDateTime,
+                                                                            String reason) {
+        try {
+            if (seriesId == null) {
+                return Result.failure("Series ID is required");
+            }
+
+            LocalDateTime cancelledAt = LocalDateTime.now();
+            LocalDateTime from = fromDateTime != null ? fromDateTime : cancelledAt;
+
+            List<UUID> cancelledIds = appointmentRepository.cancelSeriesFrom(seriesId, from, cancelledAt);
+            if (cancelledIds.isEmpty()) {
+                return appointmentRepository.existsBySeriesId(seriesId)
+                    ? Result.success(List.of())
+                    : Result.failure("Appointment series not found");
+            }
+
+            List<AppointmentSessionSummaryDto> cancelled = appointmentRepository.findSummariesByIds(cancelledIds);
+
+            if (reason != null) {
+                sessionNotesService.saveCancellationReasons(cancelled.stream()
+                    .map(AppointmentSessionSummaryDto::getSessionId)
+                    .collect(Collectors.toList()), reason);
+            }
+
+            for (AppointmentSessionSummaryDto summary : cancelled) {
+                eventPublisher.publishEvent(new AppointmentCancelled(
+                    summary.getSessionId(), summary.getPatientId(), summary.getDoctorId(),
+                    summary.getScheduledDateTime(), summary.getScheduledEndDateTime(), reason, false));
+            }
+
+            log.info("Appointment series {} cancelled from {}: {} occurrences", seriesId, from, cancelled.size());
+
+            return Result.success(cancelled);
+
+        } catch (Exception e) {
+            log.error("Error cancelling appointment series", e);
+            return Result.failure("Failed to cancel appointment series: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Explains a conditional UPDATE that matched no row: missing session or illegal transition.
+     * Only runs on the failure path.
+     */
+    private <T> Result<T> transitionFailure(UUID sessionId, String illegalTransitionMessage) {
+        return appointmentRepository.findStatusById(sessionId)
+            .<Result<T>>map(current -> Result.failure(illegalTransitionMessage + " (current status: " + current + ")"))
+            .orElseGet(() -> Result.failure("Session not found"));
+    }
+
+    /**
+     * Retrieves patient's full appointment history.
+     * Loads every session with full DTO trees - prefer getPatientAppointmentHistorySummaries
+     * or the paged getPatientAppointmentHistory(patientId, cursorDateTime, cursorSessionId, pageSize) for lists.
      *
      * Architecture notes:
      * - Uses EntityGraph to load all relationships (prevents N+1 queries - HUGE performance benefit!)
-     * - All data loaded in single query for DTO mapping
+     * - All data loaded in single query for DTO mapping; clinical notes with one more IN query
      *
      * @param patientId Patient identifier
      * @return Result containing list of AppointmentSessionDto or error message
@@ -410,8 +1172,12 @@ public class AppointmentSessionService {
             List<AppointmentSession> sessions = appointmentRepository
                 .findWithRelationshipsByPatientPatientIdOrderByScheduledDateTimeDesc(patientId);
 
+            // Clinical notes for all sessions with one IN query
+            Map<UUID, SessionNotes> notesBySession = sessionNotesService.getNotesBySessionIds(
+                sessions.stream().map(AppointmentSession::getSessionId).collect(Collectors.toList()));
+
             List<AppointmentSessionDto> sessionDtos = sessions.stream()
-                .map(appointmentMapper::toDto)
+                .map(session -> appointmentMapper.toDto(session, notesBySession.get(session.getSessionId())))
                 .collect(Collectors.toList());
 
             return Result.success(sessionDtos);
@@ -422,10 +1188,112 @@ public class AppointmentSessionService {
         }
     }
 
-    private List<String> getConsultationNames(AppointmentSession session) {
-        return session.getConsultations().stream()
-            .map(Consultation::getName)
+    /**
+     * Retrieves a patient's whole appointment history as summary rows, newest first.
+     * Summary variant of getPatientAppointmentHistory(patientId) for list views.
+     *
+     * Architecture notes:
+     * - Constructor projection (SUMMARY_SELECT) - no entities, no nested DTO trees
+     * - Consultation names added with one extra query for all rows
+     *
+     * @param patientId Patient identifier
+     * @return Result containing list of AppointmentSessionSummaryDto or error message
+     */
+    @Transactional(readOnly = true)
+    public Result<List<AppointmentSessionSummaryDto>> getPatientAppointmentHistorySummaries(UUID patientId) {
+        try {
+            if (patientId == null) {
+                return Result.failure("Patient ID is required");
+            }
+
+            List<AppointmentSessionSummaryDto> summaries =
+                appointmentRepository.findHistoryFirstPage(patientId, Limit.unlimited());
+            attachConsultationNames(summaries);
+
+            return Result.success(summaries);
+
+        } catch (Exception e) {
+            log.error("Error getting patient appointment history summaries", e);
+            return Result.failure("Failed to get appointment history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves one page of a patient's appointment history, newest first.
+     *
+     * Architecture notes:
+     * - Keyset pagination on (scheduledDateTime, sessionId) over idx_session_patient_time:
+     *   every page reads only its own rows, however long the history is
+     * - Summary rows come from a constructor projection (no entities, no DTO trees);
+     *   consultation names are added with one extra query for the whole page
+     *
+     * @param patientId Patient identifier
+     * @param cursorDateTime nextCursorDateTime of the previous page (null for the first page)
+     * @param cursorSessionId nextCursorSessionId of the previous page (null for the first page)
+     * @param pageSize Rows per page (1..MAX_HISTORY_PAGE_SIZE; values below 1 use the default)
+     * @return Result containing AppointmentHistoryPageDto or error message
+     */
+    @Transactional(readOnly = true)
+    public Result<AppointmentHistoryPageDto> getPatientAppointmentHistory(UUID patientId,
+                                                                          LocalDateTime cursorDateTime,
+                                                                          UUID cursorSessionId,
+                                                                          int pageSize) {
+        try {
+            if (patientId == null) {
+                return Result.failure("Patient ID is required");
+            }
+            if ((cursorDateTime == null) != (cursorSessionId == null)) {
+                return Result.failure("Cursor requires both date and session ID");
+            }
+
+            int size = pageSize < 1 ? DEFAULT_HISTORY_PAGE_SIZE : Math.min(pageSize, MAX_HISTORY_PAGE_SIZE);
+            // One extra row tells us whether another page exists
+            Limit limit = Limit.of(size + 1);
+
+            List<AppointmentSessionSummaryDto> rows = cursorDateTime == null
+                ? appointmentRepository.findHistoryFirstPage(patientId, limit)
+                : appointmentRepository.findHistoryPageAfter(patientId, cursorDateTime, cursorSessionId, limit);
+
+            boolean hasMore = rows.size() > size;
+            List<AppointmentSessionSummaryDto> items = hasMore ? rows.subList(0, size) : rows;
+            attachConsultationNames(items);
+
+            AppointmentSessionSummaryDto last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+            return Result.success(AppointmentHistoryPageDto.builder()
+                .items(new ArrayList<>(items))
+                .nextCursorDateTime(hasMore ? last.getScheduledDateTime() : null)
+                .nextCursorSessionId(hasMore ? last.getSessionId() : null)
+                .hasMore(hasMore)
+                .build());
+
+        } catch (Exception e) {
+            log.error("Error getting patient appointment history page", e);
+            return Result.failure("Failed to get appointment history: " + e.getMessage());
+        }
+    }
+
+    private void attachConsultationNames(List<AppointmentSessionSummaryDto> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, List<String>> namesBySession = new HashMap<>();
+        List<UUID> sessionIds = summaries.stream()
+            .map(AppointmentSessionSummaryDto::getSessionId)
             .collect(Collectors.toList());
+        for (SessionConsultationName row : appointmentRepository.findConsultationNames(sessionIds)) {
+            namesBySession.computeIfAbsent(row.sessionId(), id -> new ArrayList<>()).add(row.consultationName());
+        }
+
+        summaries.forEach(summary ->
+            summary.setConsultationNames(namesBySession.getOrDefault(summary.getSessionId(), List.of())));
+    }
+
+    private static int totalDurationMinutes(List<Consultation> consultations) {
+        return consultations.stream()
+            .mapToInt(Consultation::getEffectiveDurationMinutes)
+            .sum();
     }
 
     /**
@@ -465,19 +1333,33 @@ public class AppointmentSessionService {
     }
 
     /**
-     * INTERNAL: Gets appointment session entity with all relationships loaded.
-     * Used by other services (e.g., BillingService) when they need session data.
-     * Uses EntityGraph to load all relationships efficiently.
+     * INTERNAL: Gets the summary row of a session (IDs, times, status) without loading the entity.
+     * Used by BillingService when it needs the patient of a session.
      *
      * @param sessionId Session identifier
-     * @return AppointmentSession entity with all relationships or null if not found
+     * @return AppointmentSessionSummaryDto (without consultation names) or null if not found
      */
     @Transactional(readOnly = true)
-    public AppointmentSession getEntityWithAllRelationships(UUID sessionId) {
+    public AppointmentSessionSummaryDto getSessionSummary(UUID sessionId) {
         if (sessionId == null) {
             return null;
         }
-        return appointmentRepository.findWithAllRelationshipsById(sessionId).orElse(null);
+        return appointmentRepository.findSummaryById(sessionId).orElse(null);
+    }
+
+    /**
+     * INTERNAL: Gets the consultations booked in a session with their current prices.
+     * Used by BillingService to snapshot billing line items without loading the session graph.
+     *
+     * @param sessionId Session identifier
+     * @return List of SessionConsultationLine projections (empty if none or not found)
+     */
+    @Transactional(readOnly = true)
+    public List<SessionConsultationLine> getConsultationLines(UUID sessionId) {
+        if (sessionId == null) {
+            return List.of();
+        }
+        return appointmentRepository.findConsultationLines(List.of(sessionId));
     }
 
     /**
@@ -494,18 +1376,40 @@ public class AppointmentSessionService {
             return Result.failure("Session ID is required");
         }
 
-        AppointmentSession session = appointmentRepository.findById(sessionId).orElse(null);
-        if (session == null) {
+        SessionStatus status = appointmentRepository.findStatusById(sessionId).orElse(null);
+        if (status == null) {
             return Result.failure("Session not found");
         }
 
-        if (session.getStatus() != SessionStatus.COMPLETED) {
+        if (status != SessionStatus.COMPLETED) {
             return Result.failure("Can only create billing for completed sessions");
         }
 
         return Result.success(null);
     }
 
+    /**
+     * INTERNAL: Gets (sessionId, patientId, time) for a doctor's appointments in a date range.
+     * Used by MedicalFileAccessIndex to load a doctor without loading any entities.
+     *
+     * @param doctorId Doctor identifier
+     * @param fromDate Start date
+     * @param toDate End date
+     * @param excludeStatus Status to exclude (e.g., CANCELLED)
+     * @return List of PatientAppointment projections
+     */
+    @Transactional(readOnly = true)
+    public List<PatientAppointment> getPatientAppointmentsInRange(UUID doctorId,
+                                                                 LocalDateTime fromDate,
+                                                                 LocalDateTime toDate,
+                                                                 SessionStatus excludeStatus) {
+        if (doctorId == null || fromDate == null || toDate == null) {
+            return List.of();
+        }
+
+        return appointmentRepository.findPatientAppointments(doctorId, fromDate, toDate, excludeStatus);
+    }
+
     /**
      * INTERNAL: Checks if doctor has appointments with patient in date range.
      * Used by MedicalFileAccessService for access control.
@@ -534,6 +1438,7 @@ public class AppointmentSessionService {
      * INTERNAL: Gets all future appointments for a doctor in date range.
      * Used by MedicalFileAccessService to get accessible patients.
      * Uses EntityGraph to load patients efficiently.
+     * For list views use getAppointmentSummariesInRange (no entities).
      *
      * @param doctorId Doctor identifier
      * @param fromDate Start date
@@ -555,4 +1460,150 @@ public class AppointmentSessionService {
             .findWithBasicRelationshipsByDoctorDoctorIdAndScheduledDateTimeBetweenAndStatusNot(
                 doctorId, fromDate, toDate, excludeStatus);
     }
+
+    /**
+     * INTERNAL: Gets a doctor's sessions in a date range as summary rows.
+     * Summary variant of getAppointmentsInRangeWithPatient - no entities are loaded.
+     *
+     * @param doctorId Doctor identifier
+     * @param fromDate Start date
+     * @param toDate End date
+     * @param excludeStatus Status to exclude (e.g., CANCELLED)
+     * @return List of AppointmentSessionSummaryDto with consultation names, ordered by time
+     */
+    @Transactional(readOnly = true)
+    public List<AppointmentSessionSummaryDto> getAppointmentSummariesInRange(UUID doctorId,
+                                                                             LocalDateTime fromDate,
+                                                                             LocalDateTime toDate,
+                                                                             SessionStatus excludeStatus) {
+        if (doctorId == null || fromDate == null || toDate == null || excludeStatus == null) {
+            return List.of();
+        }
+
+        List<AppointmentSessionSummaryDto> summaries = appointmentRepository.findDoctorSummariesInRange(
+            doctorId, fromDate, toDate, List.of(excludeStatus));
+        attachConsultationNames(summaries);
+        return summaries;
+    }
+
+    /**
+     * INTERNAL: Streams a doctor's active sessions from a date on, one row per consultation.
+     * Used by DoctorCalendarService for full calendar feeds. Must be consumed inside the
+     * caller's transaction and closed (try-with-resources).
+     *
+     * @param doctorId Doctor identifier
+     * @param fromDate Only sessions starting at or after this time
+     * @return Stream of CalendarEventRow ordered by start time, session rows consecutive
+     */
+    @Transactional(readOnly = true)
+    public Stream<CalendarEventRow> streamCalendarEvents(UUID doctorId, LocalDateTime fromDate) {
+        return appointmentRepository.streamCalendarEvents(doctorId, fromDate, INACTIVE_STATUSES);
+    }
+
+    /**
+     * INTERNAL: Streams a doctor's sessions changed after a point in time, in any status.
+     * Used by DoctorCalendarService for incremental calendar sync (cancellations included).
+     * Must be consumed inside the caller's transaction and closed (try-with-resources).
+     *
+     * @param doctorId Doctor identifier
+     * @param changedSince Only sessions with updatedAt after this time
+     * @return Stream of CalendarEventRow ordered by start time, session rows consecutive
+     */
+    @Transactional(readOnly = true)
+    public Stream<CalendarEventRow> streamCalendarChanges(UUID doctorId, LocalDateTime changedSince) {
+        return appointmentRepository.streamCalendarChanges(doctorId, changedSince);
+    }
+
+    /**
+     * INTERNAL: Aggregates available versus booked minutes per doctor and day.
+     * Used by DoctorUtilizationService to fill its (doctor, week) cache.
+     * Single native aggregation over doctor_availability and appointment_sessions.
+     *
+     * @param fromDate First day (inclusive)
+     * @param toDate Last day (exclusive)
+     * @param doctorIds Restrict to these doctors, or null for all doctors
+     * @return DoctorDayUtilization rows for doctor-days with availability or bookings
+     */
+    @Transactional(readOnly = true)
+    public List<DoctorDayUtilization> getDailyUtilization(LocalDate fromDate, LocalDate toDate,
+                                                          Collection<UUID> doctorIds) {
+        if (fromDate == null || toDate == null || !toDate.isAfter(fromDate)) {
+            return List.of();
+        }
+        if (doctorIds == null) {
+            return appointmentRepository.findDailyUtilization(fromDate, toDate, true, List.of(NO_DOCTOR));
+        }
+        if (doctorIds.isEmpty()) {
+            return List.of();
+        }
+        return appointmentRepository.findDailyUtilization(fromDate, toDate, false, doctorIds);
+    }
+
+    /**
+     * INTERNAL: Gets booked (non-cancelled) sessions as time intervals.
+     * Used by AppointmentSlotService to build its in-memory availability index.
+     * Single aggregate query - no entities are materialized.
+     *
+     * @param fromDate Only sessions starting at or after this time
+     * @param doctorIds Restrict to these doctors, or null/empty for all doctors
+     * @return List of BookedInterval projections (may be empty, never null)
+     */
+    @Transactional(readOnly = true)
+    public List<BookedInterval> getBookedIntervals(LocalDateTime fromDate, Collection<UUID> doctorIds) {
+        if (fromDate == null) {
+            return List.of();
+        }
+        if (doctorIds == null || doctorIds.isEmpty()) {
+            return appointmentRepository.findBookedIntervalsFrom(fromDate, INACTIVE_STATUSES);
+        }
+        return appointmentRepository.findBookedIntervalsFromForDoctors(fromDate, doctorIds, INACTIVE_STATUSES);
+    }
+
+    /**
+     * INTERNAL: Claims the next chunk of SCHEDULED sessions due a reminder.
+     * Used by AppointmentReminderService to scan upcoming sessions in index order.
+     * The claim commits when this method returns, before anything is sent, so other nodes
+     * skip the claimed sessions; a claim whose sends never get recorded (node crash) is
+     * retried once retryBefore passes claimedAt.
+     *
+     * @param cursorDateTime Scheduled time of the last row of the previous chunk (or the scan start)
+     * @param cursorSessionId Session ID of the last row of the previous chunk (or a nil UUID)
+     * @param until Latest scheduled time to include
+     * @param maxAttempts Sessions with this many attempts are skipped
+     * @param retryBefore Sessions attempted or claimed at or after this time are skipped
+     * @param claimedAt Claim time (stored as the last contact attempt)
+     * @param chunkSize Maximum number of rows
+     * @return List of ReminderTarget projections in (scheduledDateTime, sessionId) order
+     */
+    @Transactional
+    public List<ReminderTarget> claimReminderTargets(LocalDateTime cursorDateTime, UUID cursorSessionId,
+                                                     LocalDateTime until, int maxAttempts,
+                                                     LocalDateTime retryBefore, LocalDateTime claimedAt,
+                                                     int chunkSize) {
+        List<UUID> claimed = appointmentRepository.claimReminderTargets(
+            cursorDateTime, cursorSessionId, until, maxAttempts, retryBefore, claimedAt, chunkSize);
+        if (claimed.isEmpty()) {
+            return List.of();
+        }
+        return appointmentRepository.findReminderTargetsByIds(claimed);
+    }
+
+    /**
+     * INTERNAL: Records one contact attempt for each session with a single UPDATE.
+     * Used by AppointmentReminderService after each chunk of sends.
+     *
+     * @param sessionIds Sessions that were contacted
+     * @param attemptedAt Attempt time
+     * @param delivered Whether the reminder was delivered (stops further reminders)
+     * @return Number of sessions updated
+     */
+    @Transactional
+    public int recordContactAttempts(Collection<UUID> sessionIds, LocalDateTime attemptedAt, boolean delivered) {
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return 0;
+        }
+        return delivered
+            ? appointmentRepository.recordRemindersSent(sessionIds, attemptedAt)
+            : appointmentRepository.recordContactAttempts(sessionIds, attemptedAt);
+    }
 }
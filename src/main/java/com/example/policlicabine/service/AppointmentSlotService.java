@@ -0,0 +1,412 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.AvailableSlotDto;
+import com.example.policlicabine.entity.Consultation;
+import com.example.policlicabine.entity.enums.Specialty;
+import com.example.policlicabine.event.AppointmentCancelled;
+import com.example.policlicabine.event.AppointmentRescheduled;
+import com.example.policlicabine.event.AppointmentScheduled;
+import com.example.policlicabine.event.ConsultationTypeAdded;
+import com.example.policlicabine.event.DoctorProfileCreated;
+import com.example.policlicabine.repository.projection.AvailabilityWindow;
+import com.example.policlicabine.repository.projection.BookedInterval;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for finding free appointment slots.
+ *
+ * Keeps an in-memory interval index per doctor built from WeeklyAvailability
+ * and the booked (non-cancelled) sessions, so a search over all doctors and a
+ * multi-month horizon is pure memory work instead of one query per doctor.
+ *
+ * Architecture:
+ * - No repository of its own - loads flat projections via DoctorService and AppointmentSessionService
+ * - Index is built lazily on first use and can be rebuilt with rebuildIndex()
+ * - AppointmentScheduled / AppointmentCancelled / AppointmentRescheduled mark a single doctor stale; stale doctors
+ *   are reloaded with one query on the next search (after commit, so rollbacks never leak in)
+ * - Those events are local to this node: the whole index is rebuilt on the first search after
+ *   INDEX_REFRESH_SECONDS, so bookings made on other nodes show up within that bound (booking
+ *   itself never trusts the index - a slot taken elsewhere is rejected at scheduling time)
+ * - Times are kept as epoch minutes in sorted, merged arrays (binary search per window)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentSlotService {
+
+    // Services for data access - service-to-service communication
+    private final DoctorService doctorService;
+    private final AppointmentSessionService appointmentSessionService;
+    private final ConsultationService consultationService;
+
+    // Granularity of proposed slot start times
+    private static final int SLOT_STEP_MINUTES = 15;
+
+    // Upper bound on the search range to keep a single call bounded
+    private static final int MAX_SEARCH_DAYS = 366;
+
+    // Age after which the next search rebuilds the index (picks up other nodes' bookings)
+    static final long INDEX_REFRESH_SECONDS = 60;
+
+    private final Object buildLock = new Object();
+    private final Set<UUID> staleDoctors = ConcurrentHashMap.newKeySet();
+    private volatile Map<UUID, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+    private volatile boolean indexBuilt = false;
+    private volatile long builtAtNanos;
+
+    /**
+     * Finds the earliest free slots that can hold all given consultations back to back.
+     *
+     * Architecture notes:
+     * - Uses ConsultationService once to resolve the requested consultations and their durations
+     * - Everything else is answered from the in-memory index
+     *
+     * @param specialty Only doctors with this specialty (null for any doctor)
+     * @param consultationNames Consultations to fit in the slot
+     * @param from Start of the search range (clamped to now)
+     * @param to End of the search range (slots must end by this time)
+     * @param limit Maximum number of slots to return
+     * @return Result containing slots ordered by start time, or error message
+     */
+    @Transactional(readOnly = true)
+    public Result<List<AvailableSlotDto>> findAvailableSlots(Specialty specialty,
+                                                             List<String> consultationNames,
+                                                             LocalDateTime from,
+                                                             LocalDateTime to,
+                                                             int limit) {
+        try {
+            if (consultationNames == null || consultationNames.isEmpty()) {
+                return Result.failure("At least one consultation is required");
+            }
+            if (from == null || to == null) {
+                return Result.failure("Search range is required");
+            }
+            if (!to.isAfter(from)) {
+                return Result.failure("Search range end must be after its start");
+            }
+            if (limit <= 0) {
+                return Result.failure("Limit must be positive");
+            }
+
+            List<Consultation> consultations = consultationService.getEntitiesByNames(consultationNames);
+            if (consultations.size() != consultationNames.size()) {
+                return Result.failure("Some consultations not found or inactive");
+            }
+            int durationMinutes = consultations.stream()
+                .mapToInt(Consultation::getEffectiveDurationMinutes)
+                .sum();
+
+            ensureIndexBuilt();
+            refreshStaleDoctors();
+
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime searchFrom = from.isBefore(now) ? now : from;
+            LocalDateTime searchTo = to.isAfter(searchFrom.plusDays(MAX_SEARCH_DAYS))
+                ? searchFrom.plusDays(MAX_SEARCH_DAYS) : to;
+
+            List<DoctorSchedule> candidates = schedules.values().stream()
+                .filter(schedule -> specialty == null || schedule.specialties.contains(specialty))
+                .toList();
+
+            long fromMinute = toEpochMinute(searchFrom);
+            long toMinute = toEpochMinute(searchTo);
+
+            // Day by day so the earliest slots are found without scanning the whole range
+            List<AvailableSlotDto> slots = new ArrayList<>();
+            List<AvailableSlotDto> daySlots = new ArrayList<>();
+            for (LocalDate date = searchFrom.toLocalDate();
+                 !date.isAfter(searchTo.toLocalDate()) && slots.size() < limit;
+                 date = date.plusDays(1)) {
+
+                daySlots.clear();
+                for (DoctorSchedule schedule : candidates) {
+                    schedule.collectFreeSlots(date, fromMinute, toMinute, durationMinutes, daySlots);
+                }
+                daySlots.sort(Comparator.comparing(AvailableSlotDto::getStart)
+                    .thenComparing(AvailableSlotDto::getDoctorId));
+
+                for (AvailableSlotDto slot : daySlots) {
+                    if (slots.size() >= limit) {
+                        break;
+                    }
+                    slots.add(slot);
+                }
+            }
+
+            return Result.success(slots);
+
+        } catch (Exception e) {
+            log.error("Error finding available slots", e);
+            return Result.failure("Failed to find available slots: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from the database.
+     * Call after bulk changes to WeeklyAvailability.
+     */
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        synchronized (buildLock) {
+            LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
+
+            // Cleared before reading: an invalidation arriving during the reads stays pending
+            // and is reloaded on the next search instead of being lost
+            staleDoctors.clear();
+            long startedAtNanos = System.nanoTime();
+
+            Map<UUID, Set<Specialty>> specialtiesByDoctor = doctorService.getAllDoctorSpecialties();
+            Map<UUID, List<AvailabilityWindow>> windowsByDoctor = new HashMap<>();
+            for (AvailabilityWindow window : doctorService.getAllAvailabilityWindows()) {
+                windowsByDoctor.computeIfAbsent(window.doctorId(), id -> new ArrayList<>()).add(window);
+            }
+            Map<UUID, List<BookedInterval>> bookingsByDoctor =
+                groupByDoctor(appointmentSessionService.getBookedIntervals(startOfToday, null));
+
+            Set<UUID> doctorIds = new HashSet<>(specialtiesByDoctor.keySet());
+            doctorIds.addAll(windowsByDoctor.keySet());
+
+            Map<UUID, DoctorSchedule> rebuilt = new ConcurrentHashMap<>();
+            for (UUID doctorId : doctorIds) {
+                rebuilt.put(doctorId, new DoctorSchedule(
+                    doctorId,
+                    specialtiesByDoctor.getOrDefault(doctorId, Set.of()),
+                    windowsByDoctor.getOrDefault(doctorId, List.of()),
+                    bookingsByDoctor.getOrDefault(doctorId, List.of())));
+            }
+
+            schedules = rebuilt;
+            builtAtNanos = startedAtNanos;
+            indexBuilt = true;
+
+            log.info("Slot index built for {} doctors", rebuilt.size());
+        }
+    }
+
+    /**
+     * Marks a doctor's bookings as out of date; they are reloaded on the next search.
+     *
+     * @param doctorId Doctor identifier
+     */
+    public void invalidateDoctor(UUID doctorId) {
+        if (doctorId != null) {
+            staleDoctors.add(doctorId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentScheduled(AppointmentScheduled event) {
+        invalidateDoctor(event.doctorId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentCancelled(AppointmentCancelled event) {
+        invalidateDoctor(event.doctorId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentRescheduled(AppointmentRescheduled event) {
+        invalidateDoctor(event.doctorId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleConsultationTypeAdded(ConsultationTypeAdded event) {
+        // The session's end time moved
+        invalidateDoctor(event.doctorId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleDoctorProfileCreated(DoctorProfileCreated event) {
+        // New doctors need their specialties and availability - rebuild lazily
+        indexBuilt = false;
+    }
+
+    private void ensureIndexBuilt() {
+        if (!isIndexCurrent()) {
+            synchronized (buildLock) {
+                if (!isIndexCurrent()) {
+                    rebuildIndex();
+                }
+            }
+        }
+    }
+
+    private boolean isIndexCurrent() {
+        return indexBuilt
+            && System.nanoTime() - builtAtNanos < TimeUnit.SECONDS.toNanos(INDEX_REFRESH_SECONDS);
+    }
+
+    private void refreshStaleDoctors() {
+        if (staleDoctors.isEmpty()) {
+            return;
+        }
+
+        // Take a snapshot; doctors invalidated while we reload stay stale for the next search
+        Set<UUID> doctorIds = new HashSet<>(staleDoctors);
+        staleDoctors.removeAll(doctorIds);
+
+        // A rebuild may swap the map in while we read - then our update went to the old
+        // one and the new one may predate our read, so reload against the new map
+        Map<UUID, DoctorSchedule> current;
+        do {
+            current = schedules;
+            Map<UUID, List<BookedInterval>> bookingsByDoctor = groupByDoctor(
+                appointmentSessionService.getBookedIntervals(LocalDate.now().atStartOfDay(), doctorIds));
+
+            for (UUID doctorId : doctorIds) {
+                current.computeIfPresent(doctorId, (id, schedule) ->
+                    schedule.withBookings(bookingsByDoctor.getOrDefault(id, List.of())));
+            }
+        } while (schedules != current);
+    }
+
+    private static Map<UUID, List<BookedInterval>> groupByDoctor(Collection<BookedInterval> intervals) {
+        Map<UUID, List<BookedInterval>> byDoctor = new HashMap<>();
+        for (BookedInterval interval : intervals) {
+            byDoctor.computeIfAbsent(interval.doctorId(), id -> new ArrayList<>()).add(interval);
+        }
+        return byDoctor;
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static long roundUpToStep(long epochMinute) {
+        long remainder = Math.floorMod(epochMinute, SLOT_STEP_MINUTES);
+        return remainder == 0 ? epochMinute : epochMinute + (SLOT_STEP_MINUTES - remainder);
+    }
+
+    /**
+     * Immutable per-doctor snapshot: availability windows by weekday and
+     * busy time as sorted, non-overlapping [start, end) epoch-minute intervals.
+     */
+    private static final class DoctorSchedule {
+
+        private final UUID doctorId;
+        private final Set<Specialty> specialties;
+        private final List<AvailabilityWindow> windows;
+        private final List<List<AvailabilityWindow>> windowsByDay;
+        private final long[] busyStarts;
+        private final long[] busyEnds;
+
+        DoctorSchedule(UUID doctorId, Set<Specialty> specialties,
+                       List<AvailabilityWindow> windows, List<BookedInterval> bookings) {
+            this.doctorId = doctorId;
+            this.specialties = specialties;
+            this.windows = windows;
+            this.windowsByDay = new ArrayList<>(DayOfWeek.values().length);
+            for (int i = 0; i < DayOfWeek.values().length; i++) {
+                windowsByDay.add(new ArrayList<>());
+            }
+            for (AvailabilityWindow window : windows) {
+                windowsByDay.get(window.dayOfWeek().ordinal()).add(window);
+            }
+
+            // Sort and merge overlapping bookings into disjoint busy intervals
+            long[][] raw = bookings.stream()
+                .map(booking -> new long[] {
+                    toEpochMinute(booking.start()),
+                    toEpochMinute(booking.end() != null ? booking.end()
+                        : booking.start().plusMinutes(Consultation.DEFAULT_DURATION_MINUTES))})
+                .sorted(Comparator.comparingLong((long[] interval) -> interval[0]))
+                .toArray(long[][]::new);
+
+            long[] starts = new long[raw.length];
+            long[] ends = new long[raw.length];
+            int count = 0;
+            for (long[] interval : raw) {
+                if (count > 0 && interval[0] <= ends[count - 1]) {
+                    ends[count - 1] = Math.max(ends[count - 1], interval[1]);
+                } else {
+                    starts[count] = interval[0];
+                    ends[count] = interval[1];
+                    count++;
+                }
+            }
+            this.busyStarts = Arrays.copyOf(starts, count);
+            this.busyEnds = Arrays.copyOf(ends, count);
+        }
+
+        DoctorSchedule withBookings(List<BookedInterval> bookings) {
+            return new DoctorSchedule(doctorId, specialties, windows, bookings);
+        }
+
+        void collectFreeSlots(LocalDate date, long fromMinute, long toMinute,
+                              int durationMinutes, List<AvailableSlotDto> out) {
+            for (AvailabilityWindow window : windowsByDay.get(date.getDayOfWeek().ordinal())) {
+                LocalDateTime windowStart = date.atTime(window.startTime());
+                LocalDateTime windowEnd = date.atTime(window.endTime());
+
+                // Clip the window to its effective period
+                if (window.effectiveFrom() != null && windowStart.isBefore(window.effectiveFrom())) {
+                    windowStart = window.effectiveFrom();
+                }
+                if (window.effectiveTo() != null && windowEnd.isAfter(window.effectiveTo())) {
+                    windowEnd = window.effectiveTo();
+                }
+
+                long start = roundUpToStep(Math.max(toEpochMinute(windowStart), fromMinute));
+                long end = Math.min(toEpochMinute(windowEnd), toMinute);
+                int busy = firstBusyEndingAfter(start);
+
+                while (start + durationMinutes <= end) {
+                    while (busy < busyEnds.length && busyEnds[busy] <= start) {
+                        busy++;
+                    }
+                    if (busy < busyStarts.length && busyStarts[busy] < start + durationMinutes) {
+                        // Overlaps a booking - jump past it
+                        start = roundUpToStep(busyEnds[busy]);
+                        continue;
+                    }
+                    out.add(AvailableSlotDto.builder()
+                        .doctorId(doctorId)
+                        .start(fromEpochMinute(start))
+                        .end(fromEpochMinute(start + durationMinutes))
+                        .build());
+                    start += SLOT_STEP_MINUTES;
+                }
+            }
+        }
+
+        private int firstBusyEndingAfter(long minute) {
+            int low = 0;
+            int high = busyEnds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (busyEnds[mid] <= minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
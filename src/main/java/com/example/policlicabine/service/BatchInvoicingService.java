@@ -0,0 +1,277 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.entity.InvoiceBatchCheckpoint;
+import com.example.policlicabine.repository.InvoiceBatchCheckpointRepository;
+import com.example.policlicabine.repository.projection.UninvoicedBilling;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the end-of-day invoicing run: one final invoice per patient and session day
+ * for every billing that is on no invoice yet.
+ *
+ * Architecture:
+ * - Only uses InvoiceBatchCheckpointRepository (single responsibility); billings are read via
+ *   BillingService and invoices are written via InvoiceService
+ * - Patients are hashed into PARTITIONS partitions, processed in parallel on virtual threads
+ *   (a patient's billings always land in the same partition, so no invoice spans two)
+ * - Each partition walks its billings in keyset chunks of CHUNK_SIZE; a chunk is one transaction
+ *   that creates its invoices and advances the partition checkpoint, so a failed or interrupted
+ *   run is restarted by calling it again for the same day
+ * - Invoice numbers come from the shared FINAL counter as one block per chunk; the counter row
+ *   is locked until the chunk commits, so chunk commits are serialized - parallelism overlaps
+ *   the reads and inserts of the other partitions
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchInvoicingService {
+
+    // Parallel partitions; each holds one pooled connection while a chunk runs
+    static final int PARTITIONS = 4;
+
+    // Billings read (and invoiced) per chunk transaction
+    private static final int CHUNK_SIZE = 500;
+
+    // Start of the keyset - the values InvoiceBatchCheckpointRepository.ensureExists writes
+    private static final UUID KEYSET_START_ID = new UUID(0L, 0L);
+    private static final LocalDate KEYSET_START_DATE = LocalDate.of(1970, 1, 1);
+
+    // Only our repository - single responsibility principle
+    private final InvoiceBatchCheckpointRepository checkpointRepository;
+
+    // Services for data access - service-to-service communication
+    private final BillingService billingService;
+    private final InvoiceService invoiceService;
+    private final UserService userService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Outcome of one invoicing run (this call only - chunks committed by an earlier,
+     * interrupted run of the same day are not counted again).
+     */
+    public record RunReport(LocalDate businessDate, int invoicesCreated, int billingsInvoiced,
+                            int failedPartitions, long durationMillis) {
+
+        public double billingsPerSecond() {
+            return durationMillis == 0 ? 0.0 : billingsInvoiced * 1000.0 / durationMillis;
+        }
+    }
+
+    /**
+     * Invoices every billing with no invoice for sessions up to the end of the business day.
+     * Runs are exclusive on this node; a call while a run is active is rejected.
+     *
+     * Architecture notes:
+     * - Invoices are dated businessDate and grouped by (patient, session day)
+     * - Restartable: partitions resume after their last committed chunk
+     * - Re-runnable: a partition that finds nothing after its cursor rescans from the start of
+     *   the keyset, so billings created after (or sorting before) the cursor are still invoiced;
+     *   a completed partition is re-opened the same way, otherwise it costs one probe query
+     * - A failing partition stops at its last committed chunk without affecting the others;
+     *   the report counts it and the run can be repeated
+     * - A patient with more than CHUNK_SIZE billings on one day gets one invoice per chunk
+     *
+     * @param businessDate Day being closed (also the invoice date)
+     * @param generatedByUserId User the invoices are issued by
+     * @return Result containing the run report or error message
+     */
+    public Result<RunReport> runBatchInvoicing(LocalDate businessDate, UUID generatedByUserId) {
+        if (businessDate == null) {
+            return Result.failure("Business date is required");
+        }
+        if (generatedByUserId == null) {
+            return Result.failure("User ID is required");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return Result.failure("Invoicing run already in progress");
+        }
+        try {
+            Result<Void> userValidation = userService.validateUserExists(generatedByUserId);
+            if (userValidation.isFailure()) {
+                return Result.failure(userValidation.getErrorMessage());
+            }
+
+            LocalDateTime before = businessDate.plusDays(1).atStartOfDay();
+            long started = System.nanoTime();
+
+            List<Future<PartitionOutcome>> futures = new ArrayList<>(PARTITIONS);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int partition = 0; partition < PARTITIONS; partition++) {
+                    int partitionNo = partition;
+                    futures.add(executor.submit(() ->
+                        invoicePartition(businessDate, partitionNo, before, generatedByUserId)));
+                }
+            }
+
+            int invoicesCreated = 0;
+            int billingsInvoiced = 0;
+            int failedPartitions = 0;
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                try {
+                    PartitionOutcome outcome = futures.get(partition).get();
+                    invoicesCreated += outcome.invoicesCreated();
+                    billingsInvoiced += outcome.billingsInvoiced();
+                } catch (ExecutionException e) {
+                    failedPartitions++;
+                    log.error("Invoicing partition {} for {} failed; restart the run to resume it",
+                        partition, businessDate, e.getCause());
+                }
+            }
+
+            RunReport report = new RunReport(businessDate, invoicesCreated, billingsInvoiced, failedPartitions,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+            log.info("Invoicing run for {}: {} invoices, {} billings in {} ms ({} billings/s, {} failed partitions)",
+                businessDate, invoicesCreated, billingsInvoiced, report.durationMillis(),
+                Math.round(report.billingsPerSecond()), failedPartitions);
+
+            return Result.success(report);
+
+        } catch (Exception e) {
+            log.error("Error running batch invoicing for {}", businessDate, e);
+            return Result.failure("Failed to run batch invoicing: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Processes one partition chunk by chunk until no billing is left.
+     */
+    private PartitionOutcome invoicePartition(LocalDate runDate, int partition, LocalDateTime before,
+                                              UUID generatedByUserId) {
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.ensureExists(runDate, partition));
+
+        int invoicesCreated = 0;
+        int billingsInvoiced = 0;
+        while (true) {
+            PartitionOutcome chunk = transactionTemplate.execute(status ->
+                invoiceChunk(runDate, partition, before, generatedByUserId));
+            if (chunk == null || chunk.completed()) {
+                break;
+            }
+            invoicesCreated += chunk.invoicesCreated();
+            billingsInvoiced += chunk.billingsInvoiced();
+        }
+        return new PartitionOutcome(invoicesCreated, billingsInvoiced, true);
+    }
+
+    /**
+     * One chunk, run inside its own transaction: lock the checkpoint, read the next billings
+     * after it, invoice them and move the checkpoint past them.
+     */
+    private PartitionOutcome invoiceChunk(LocalDate runDate, int partition, LocalDateTime before,
+                                          UUID generatedByUserId) {
+        InvoiceBatchCheckpoint checkpoint = checkpointRepository.findForUpdate(runDate, partition)
+            .orElseThrow(() -> new IllegalStateException("Missing checkpoint for partition " + partition));
+        if (Boolean.TRUE.equals(checkpoint.getCompleted())) {
+            // Re-opened only by billings that arrived after the partition completed
+            if (!hasUninvoicedFromStart(before, partition)) {
+                return new PartitionOutcome(0, 0, true);
+            }
+            rewind(checkpoint);
+        }
+
+        List<UninvoicedBilling> rows = billingService.getUninvoicedBillings(before, partition, PARTITIONS,
+            checkpoint.getLastPatientId(), checkpoint.getLastSessionDate(), checkpoint.getLastBillingId(),
+            CHUNK_SIZE);
+        if (rows.isEmpty()) {
+            // Late billings may sort before the cursor - rescan from the start before finishing
+            if (!isAtKeysetStart(checkpoint) && hasUninvoicedFromStart(before, partition)) {
+                rewind(checkpoint);
+                return new PartitionOutcome(0, 0, false);
+            }
+            checkpoint.setCompleted(true);
+            return new PartitionOutcome(0, 0, true);
+        }
+
+        List<List<UninvoicedBilling>> groups = groupByPatientAndDay(rows);
+        if (rows.size() == CHUNK_SIZE && groups.size() > 1) {
+            // The last group may continue in the next chunk - leave it whole for that one
+            groups.remove(groups.size() - 1);
+        }
+
+        List<List<UUID>> billingGroups = groups.stream()
+            .map(group -> group.stream().map(UninvoicedBilling::getBillingId).collect(Collectors.toList()))
+            .collect(Collectors.toList());
+        invoiceService.createInvoiceBatch(billingGroups, runDate, generatedByUserId);
+
+        List<UninvoicedBilling> lastGroup = groups.get(groups.size() - 1);
+        UninvoicedBilling last = lastGroup.get(lastGroup.size() - 1);
+        int billingCount = billingGroups.stream().mapToInt(List::size).sum();
+
+        checkpoint.setLastPatientId(last.getPatientId());
+        checkpoint.setLastSessionDate(last.getSessionDate());
+        checkpoint.setLastBillingId(last.getBillingId());
+        checkpoint.setInvoicesCreated(checkpoint.getInvoicesCreated() + groups.size());
+        checkpoint.setBillingsInvoiced(checkpoint.getBillingsInvoiced() + billingCount);
+
+        return new PartitionOutcome(groups.size(), billingCount, false);
+    }
+
+    /**
+     * Whether the partition has any billing left to invoice, regardless of the cursor.
+     * Invoiced billings are excluded by the query, so a rescan never invoices twice.
+     */
+    private boolean hasUninvoicedFromStart(LocalDateTime before, int partition) {
+        return !billingService.getUninvoicedBillings(before, partition, PARTITIONS,
+            KEYSET_START_ID, KEYSET_START_DATE, KEYSET_START_ID, 1).isEmpty();
+    }
+
+    private static boolean isAtKeysetStart(InvoiceBatchCheckpoint checkpoint) {
+        return KEYSET_START_ID.equals(checkpoint.getLastPatientId())
+            && KEYSET_START_DATE.equals(checkpoint.getLastSessionDate())
+            && KEYSET_START_ID.equals(checkpoint.getLastBillingId());
+    }
+
+    private static void rewind(InvoiceBatchCheckpoint checkpoint) {
+        checkpoint.setLastPatientId(KEYSET_START_ID);
+        checkpoint.setLastSessionDate(KEYSET_START_DATE);
+        checkpoint.setLastBillingId(KEYSET_START_ID);
+        checkpoint.setCompleted(false);
+    }
+
+    /**
+     * Splits rows ordered by (patient, day) into runs of the same patient and day.
+     */
+    private static List<List<UninvoicedBilling>> groupByPatientAndDay(List<UninvoicedBilling> rows) {
+        List<List<UninvoicedBilling>> groups = new ArrayList<>();
+        List<UninvoicedBilling> current = null;
+        UninvoicedBilling previous = null;
+
+        for (UninvoicedBilling row : rows) {
+            if (previous == null
+                    || !Objects.equals(previous.getPatientId(), row.getPatientId())
+                    || !Objects.equals(previous.getSessionDate(), row.getSessionDate())) {
+                current = new ArrayList<>();
+                groups.add(current);
+            }
+            current.add(row);
+            previous = row;
+        }
+        return groups;
+    }
+
+    private record PartitionOutcome(int invoicesCreated, int billingsInvoiced, boolean completed) {}
+}
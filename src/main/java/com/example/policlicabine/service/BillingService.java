@@ -1,15 +1,20 @@
 package com.example.policlicabine.service;
 
 import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.AppointmentSessionSummaryDto;
 import com.example.policlicabine.entity.AppointmentSession;
-import com.example.policlicabine.entity.Consultation;
+import com.example.policlicabine.entity.BillingLineItem;
 import com.example.policlicabine.entity.SessionBilling;
 import com.example.policlicabine.entity.User;
 import com.example.policlicabine.entity.enums.SessionStatus;
+import com.example.policlicabine.event.CompletedConsultation;
 import com.example.policlicabine.event.ManualDiscountApplied;
 import com.example.policlicabine.event.SessionBillingCalculated;
 import com.example.policlicabine.event.SessionCompleted;
 import com.example.policlicabine.repository.SessionBillingRepository;
+import com.example.policlicabine.repository.projection.BillingPaymentRow;
+import com.example.policlicabine.repository.projection.SessionConsultationLine;
+import com.example.policlicabine.repository.projection.UninvoicedBilling;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +25,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -32,6 +40,8 @@ import java.util.stream.Collectors;
  * - Only uses SessionBillingRepository (single responsibility)
  * - Calls AppointmentSessionService and UserService for validation and entity access
  * - Uses EntityGraph to prevent N+1 queries
+ * - Billing creation reads projections only (summary row, consultation lines)
+ * - Line items and subtotal are snapshotted at creation, so price changes never alter historic bills
  * - Uses EntityManager.getReference() for FK setting
  * - BigDecimal for all monetary calculations
  * - Defensive programming for financial operations
@@ -51,17 +61,20 @@ public class BillingService {
 
     private final ApplicationEventPublisher eventPublisher;
 
+    // Consultations created without a currency are priced in RON (see ConsultationService)
+    private static final String DEFAULT_CURRENCY = "RON";
+
     // EntityManager for creating entity references without DB hits
     @PersistenceContext
     private EntityManager entityManager;
 
     /**
      * Creates billing record for an appointment session.
-     * Calculates subtotal from consultations.
+     * Copies the session's consultations as line items and stores their subtotal.
      *
      * Architecture notes:
-     * - Uses AppointmentSessionService to validate session is completed
-     * - Gets session entity with relationships loaded for event publishing
+     * - Reads the session summary row (status, patient) via AppointmentSessionService
+     * - Reads consultation IDs, names, prices and currencies as one projection query - no session graph
      * - Uses EntityManager.getReference() for session FK (no DB hit)
      *
      * @param sessionId AppointmentSession identifier
@@ -78,38 +91,19 @@ public class BillingService {
                 return Result.failure("Billing already exists for this session");
             }
 
-            // Validate session is completed via AppointmentSessionService
-            Result<Void> validationResult = appointmentSessionService.validateSessionCompleted(sessionId);
-            if (validationResult.isFailure()) {
-                return Result.failure(validationResult.getErrorMessage());
-            }
-
-            // Get session with all relationships for event publishing (EntityGraph)
-            AppointmentSession session = appointmentSessionService.getEntityWithAllRelationships(sessionId);
-            if (session == null) {
+            // Validate session is completed from its summary row
+            AppointmentSessionSummaryDto summary = appointmentSessionService.getSessionSummary(sessionId);
+            if (summary == null) {
                 return Result.failure("Session not found");
             }
+            if (summary.getStatus() != SessionStatus.COMPLETED) {
+                return Result.failure("Can only create billing for completed sessions");
+            }
 
-            // Use EntityManager.getReference() for session FK (no extra DB hit)
-            AppointmentSession sessionRef = entityManager.getReference(AppointmentSession.class, sessionId);
-
-            SessionBilling billing = SessionBilling.builder()
-                .session(sessionRef)
-                .build();
-
-            SessionBilling savedBilling = sessionBillingRepository.save(billing);
-
-            // Publish domain event (session already loaded with relationships)
-            eventPublisher.publishEvent(new SessionBillingCalculated(
-                savedBilling.getBillingId(), sessionId,
-                session.getPatient().getPatientId(),
-                savedBilling.getSubtotalAmount(), savedBilling.getFinalAmount(),
-                getConsultationNames(session)));
-
-            log.info("Session billing created: {} for session {} with subtotal {}",
-                savedBilling.getBillingId(), sessionId, savedBilling.getSubtotalAmount());
+            List<CompletedConsultation> consultations =
+                toConsultations(appointmentSessionService.getConsultationLines(sessionId));
 
-            return Result.success(savedBilling);
+            return Result.success(saveBilling(sessionId, summary.getPatientId(), consultations));
 
         } catch (Exception e) {
             log.error("Error creating session billing", e);
@@ -123,7 +117,7 @@ public class BillingService {
      *
      * Architecture notes:
      * - Uses UserService to get user entity for discount application
-     * - Uses EntityGraph to load billing with session for subtotal calculation
+     * - Validates against the stored subtotal (no consultation join)
      *
      * @param sessionId Session identifier
      * @param userId User applying the discount
@@ -147,7 +141,7 @@ public class BillingService {
                 return Result.failure("Discount reason is required");
             }
 
-            // Load billing with session for subtotal calculation (EntityGraph)
+            // Load billing with its line items (EntityGraph); discounts load lazily in one batch
             SessionBilling billing = sessionBillingRepository.findWithSessionBySessionSessionId(sessionId)
                 .orElse(null);
             if (billing == null) {
@@ -221,8 +215,8 @@ public class BillingService {
      * Calculates the final amount for a session after discounts.
      *
      * Architecture notes:
-     * - Uses EntityGraph to load billing with session if billing exists
-     * - Falls back to AppointmentSessionService if no billing exists yet
+     * - Uses the billing's stored subtotal if billing exists
+     * - Falls back to the session's consultation prices (projection) if no billing exists yet
      *
      * @param sessionId Session identifier
      * @return Result containing BigDecimal amount or error message
@@ -234,16 +228,15 @@ public class BillingService {
                 return Result.failure("Session ID is required");
             }
 
-            // Try to find billing with session loaded (EntityGraph)
+            // Try to find billing (stored subtotal and line items)
             SessionBilling billing = sessionBillingRepository.findWithSessionBySessionSessionId(sessionId)
                 .orElse(null);
             if (billing == null) {
-                // If no billing exists, get subtotal from session via AppointmentSessionService
-                AppointmentSession session = appointmentSessionService.getEntityWithAllRelationships(sessionId);
-                if (session == null) {
+                // If no billing exists, sum the session's consultation prices via AppointmentSessionService
+                if (appointmentSessionService.getSessionSummary(sessionId) == null) {
                     return Result.failure("Session not found");
                 }
-                return Result.success(session.getSubtotalAmount());
+                return Result.success(sumPrices(appointmentSessionService.getConsultationLines(sessionId)));
             }
 
             return Result.success(billing.getFinalAmount());
@@ -258,21 +251,129 @@ public class BillingService {
      * Event handler to automatically create billing when session is completed.
      * Listens to SessionCompleted events and creates billing records.
      *
+     * Architecture notes:
+     * - The event already carries patient and consultation lines,
+     *   so nothing about the session is read again - one exists check and the inserts
+     *
      * @param event SessionCompleted event
      */
     @EventListener
     public void handleSessionCompleted(SessionCompleted event) {
         try {
             log.info("Received SessionCompleted event for session: {}", event.sessionId());
-            createSessionBilling(event.sessionId());
+            if (sessionBillingRepository.existsBySessionSessionId(event.sessionId())) {
+                log.warn("Billing already exists for completed session: {}", event.sessionId());
+                return;
+            }
+            List<CompletedConsultation> consultations = event.consultations() != null
+                ? event.consultations()
+                : toConsultations(appointmentSessionService.getConsultationLines(event.sessionId()));
+            saveBilling(event.sessionId(), event.patientId(), consultations);
         } catch (Exception e) {
             log.error("Error auto-creating billing for completed session: {}", event.sessionId(), e);
         }
     }
 
-    private List<String> getConsultationNames(AppointmentSession session) {
-        return session.getConsultations().stream()
-            .map(Consultation::getName)
+    // ============= INTERNAL METHODS FOR SERVICE-TO-SERVICE COMMUNICATION =============
+
+    /**
+     * INTERNAL: Gets final and paid amounts for many billings in one aggregate query.
+     * Used by BillingStatusService; unknown IDs are simply absent from the result.
+     *
+     * @param billingIds Billing identifiers
+     * @return List of BillingPaymentRow projections (may be empty, never null)
+     */
+    @Transactional(readOnly = true)
+    public List<BillingPaymentRow> getPaymentRows(Collection<UUID> billingIds) {
+        if (billingIds == null || billingIds.isEmpty()) {
+            return List.of();
+        }
+        return sessionBillingRepository.findPaymentRows(billingIds);
+    }
+
+    /**
+     * INTERNAL: Gets the not fully paid billings of sessions completed in [from, to).
+     * Used by BillingStatusService for the reception dashboard.
+     *
+     * @param from Range start (inclusive)
+     * @param to Range end (exclusive)
+     * @return List of BillingPaymentRow projections in schedule order (may be empty, never null)
+     */
+    @Transactional(readOnly = true)
+    public List<BillingPaymentRow> getUnpaidPaymentRows(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            return List.of();
+        }
+        return sessionBillingRepository.findUnpaidPaymentRowsBetween(from, to);
+    }
+
+    /**
+     * INTERNAL: Gets the next chunk of billings that are on no invoice yet, for one partition.
+     * Used by BatchInvoicingService; pass the last row of the previous chunk as cursor.
+     *
+     * @param before Only sessions scheduled before this time
+     * @param partition Partition number (0..partitions-1)
+     * @param partitions Number of partitions (patients are hashed into them)
+     * @param cursorPatientId Keyset cursor: patient of the last row seen
+     * @param cursorSessionDate Keyset cursor: session day of the last row seen
+     * @param cursorBillingId Keyset cursor: billing of the last row seen
+     * @param limit Maximum rows
+     * @return List of UninvoicedBilling projections in (patient, day, billing) order (may be empty, never null)
+     */
+    @Transactional(readOnly = true)
+    public List<UninvoicedBilling> getUninvoicedBillings(LocalDateTime before, int partition, int partitions,
+                                                         UUID cursorPatientId, LocalDate cursorSessionDate,
+                                                         UUID cursorBillingId, int limit) {
+        return sessionBillingRepository.findUninvoicedChunk(before, partition, partitions,
+            cursorPatientId, cursorSessionDate, cursorBillingId, limit);
+    }
+
+    private SessionBilling saveBilling(UUID sessionId, UUID patientId, List<CompletedConsultation> lines) {
+        // Use EntityManager.getReference() for session FK (no extra DB hit)
+        AppointmentSession sessionRef = entityManager.getReference(AppointmentSession.class, sessionId);
+
+        List<BillingLineItem> lineItems = lines.stream()
+            .map(line -> BillingLineItem.builder()
+                .consultationId(line.consultationId())
+                .consultationName(line.consultationName())
+                .price(line.price() != null ? line.price() : BigDecimal.ZERO)
+                .currency(line.currency() != null ? line.currency() : DEFAULT_CURRENCY)
+                .build())
+            .collect(Collectors.toList());
+        BigDecimal subtotalAmount = sumPrices(lines);
+        List<String> consultationNames = lines.stream()
+            .map(CompletedConsultation::consultationName)
+            .collect(Collectors.toList());
+
+        SessionBilling billing = SessionBilling.builder()
+            .session(sessionRef)
+            .lineItems(lineItems)
+            .subtotalAmount(subtotalAmount)
+            .build();
+
+        SessionBilling savedBilling = sessionBillingRepository.save(billing);
+
+        // A new billing has no discounts yet - final amount equals subtotal
+        eventPublisher.publishEvent(new SessionBillingCalculated(
+            savedBilling.getBillingId(), sessionId, patientId,
+            subtotalAmount, subtotalAmount, consultationNames));
+
+        log.info("Session billing created: {} for session {} with subtotal {}",
+            savedBilling.getBillingId(), sessionId, subtotalAmount);
+
+        return savedBilling;
+    }
+
+    private BigDecimal sumPrices(List<CompletedConsultation> lines) {
+        return lines.stream()
+            .map(line -> line.price() != null ? line.price() : BigDecimal.ZERO)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static List<CompletedConsultation> toConsultations(List<SessionConsultationLine> lines) {
+        return lines.stream()
+            .map(line -> new CompletedConsultation(
+                line.consultationId(), line.consultationName(), line.price(), line.currency()))
             .collect(Collectors.toList());
     }
 }
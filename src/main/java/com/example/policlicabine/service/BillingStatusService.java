@@ -0,0 +1,138 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.BillingPaymentStatusDto;
+import com.example.policlicabine.entity.enums.PaymentStatus;
+import com.example.policlicabine.repository.projection.BillingPaymentRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the payment status of session billings.
+ *
+ * Architecture:
+ * - No repository of its own - amounts come from one aggregate query via BillingService
+ * - Status is derived from two numbers per billing (final amount, paid amount); invoices and
+ *   payments are never loaded as entities
+ * - Payments on proforma invoices and refunds do not count as paid
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class BillingStatusService {
+
+    // Services for data access - service-to-service communication
+    private final BillingService billingService;
+
+    // Billing IDs per aggregate query (bounds the IN list)
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    /**
+     * Gets the payment status of many billings.
+     *
+     * Architecture notes:
+     * - One aggregate query per MAX_IDS_PER_QUERY IDs
+     *
+     * @param billingIds Billing identifiers
+     * @return Result containing a map of billing ID to status (input order; unknown IDs are absent) or error message
+     */
+    public Result<Map<UUID, BillingPaymentStatusDto>> getPaymentStatuses(Collection<UUID> billingIds) {
+        try {
+            if (billingIds == null || billingIds.isEmpty()) {
+                return Result.failure("At least one billing ID is required");
+            }
+
+            List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(billingIds));
+            Map<UUID, BillingPaymentStatusDto> byId = new LinkedHashMap<>();
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                for (BillingPaymentRow row : billingService.getPaymentRows(
+                        ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size())))) {
+                    byId.put(row.getBillingId(), toDto(row));
+                }
+            }
+
+            // Keep the caller's order
+            Map<UUID, BillingPaymentStatusDto> ordered = new LinkedHashMap<>();
+            for (UUID id : ids) {
+                BillingPaymentStatusDto status = byId.get(id);
+                if (status != null) {
+                    ordered.put(id, status);
+                }
+            }
+
+            return Result.success(ordered);
+
+        } catch (Exception e) {
+            log.error("Error getting billing payment statuses", e);
+            return Result.failure("Failed to get payment statuses: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the sessions completed on a day that are not fully paid (reception dashboard).
+     *
+     * Architecture notes:
+     * - One aggregate query over the day's completed sessions; fully paid ones are filtered in SQL
+     *
+     * @param day Day of the sessions
+     * @return Result containing the unpaid billings in schedule order (may be empty) or error message
+     */
+    public Result<List<BillingPaymentStatusDto>> getUnpaidSessionsForDay(LocalDate day) {
+        try {
+            if (day == null) {
+                return Result.failure("Day is required");
+            }
+
+            List<BillingPaymentStatusDto> unpaid = billingService
+                .getUnpaidPaymentRows(day.atStartOfDay(), day.plusDays(1).atStartOfDay()).stream()
+                .map(BillingStatusService::toDto)
+                .collect(Collectors.toList());
+
+            return Result.success(unpaid);
+
+        } catch (Exception e) {
+            log.error("Error getting unpaid sessions for {}", day, e);
+            return Result.failure("Failed to get unpaid sessions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pending until something is paid, fully paid once payments reach the final amount.
+     */
+    static PaymentStatus statusOf(BigDecimal totalPaid, BigDecimal finalAmount) {
+        if (totalPaid.compareTo(BigDecimal.ZERO) <= 0) {
+            return PaymentStatus.PENDING;
+        }
+        return totalPaid.compareTo(finalAmount) >= 0 ? PaymentStatus.FULLY_PAID : PaymentStatus.PARTIALLY_PAID;
+    }
+
+    private static BillingPaymentStatusDto toDto(BillingPaymentRow row) {
+        BigDecimal finalAmount = row.getFinalAmount() != null ? row.getFinalAmount() : BigDecimal.ZERO;
+        BigDecimal totalPaid = row.getTotalPaid() != null ? row.getTotalPaid() : BigDecimal.ZERO;
+        return BillingPaymentStatusDto.builder()
+            .billingId(row.getBillingId())
+            .sessionId(row.getSessionId())
+            .patientId(row.getPatientId())
+            .patientName(row.getPatientName())
+            .scheduledDateTime(row.getScheduledDateTime())
+            .finalAmount(finalAmount)
+            .totalPaid(totalPaid)
+            .outstandingAmount(finalAmount.subtract(totalPaid).max(BigDecimal.ZERO))
+            .paymentStatus(statusOf(totalPaid, finalAmount))
+            .build();
+    }
+}
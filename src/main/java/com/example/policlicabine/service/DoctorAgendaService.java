@@ -0,0 +1,165 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.DoctorAgendaEntryDto;
+import com.example.policlicabine.entity.DoctorAgendaEntry;
+import com.example.policlicabine.entity.enums.SessionStatus;
+import com.example.policlicabine.event.AppointmentCancelled;
+import com.example.policlicabine.event.AppointmentRescheduled;
+import com.example.policlicabine.event.AppointmentScheduled;
+import com.example.policlicabine.event.ConsultationTypeAdded;
+import com.example.policlicabine.event.SessionCompleted;
+import com.example.policlicabine.event.SessionStarted;
+import com.example.policlicabine.mapper.DoctorAgendaMapper;
+import com.example.policlicabine.repository.DoctorAgendaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the doctor day-agenda read model (doctor_agenda table).
+ *
+ * Architecture:
+ * - Only uses DoctorAgendaRepository (single responsibility); patient names arrive on
+ *   AppointmentScheduled, so a booking adds exactly one INSERT (batched on bulk paths)
+ * - Kept current by session event listeners running inside the publishing transaction,
+ *   so the projection commits or rolls back together with the session change
+ * - Agenda reads never touch appointment_sessions, entity graphs or AppointmentSessionMapper
+ * - rebuildAgenda() repopulates the projection from the source tables (after a deploy,
+ *   a manual data fix, or if the read model is suspected to have drifted)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class DoctorAgendaService {
+
+    private final DoctorAgendaRepository agendaRepository;
+    private final DoctorAgendaMapper agendaMapper;
+
+    // New agenda rows are persisted directly (assigned IDs)
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Retrieves a doctor's agenda for one day, ordered by slot time.
+     * Includes cancelled and no-show entries so the day reads as it happened.
+     *
+     * @param doctorId Doctor identifier
+     * @param date Agenda day
+     * @return Result containing list of DoctorAgendaEntryDto or error message
+     */
+    @Transactional(readOnly = true)
+    public Result<List<DoctorAgendaEntryDto>> getDoctorAgenda(UUID doctorId, LocalDate date) {
+        try {
+            if (doctorId == null) {
+                return Result.failure("Doctor ID is required");
+            }
+            if (date == null) {
+                return Result.failure("Date is required");
+            }
+
+            List<DoctorAgendaEntryDto> entries = agendaRepository
+                .findByDoctorIdAndSlotTimeGreaterThanEqualAndSlotTimeLessThanOrderBySlotTime(
+                    doctorId, date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+                .stream()
+                .map(agendaMapper::toDto)
+                .collect(Collectors.toList());
+
+            return Result.success(entries);
+
+        } catch (Exception e) {
+            log.error("Error getting agenda for doctor {}", doctorId, e);
+            return Result.failure("Failed to get doctor agenda: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the whole projection from appointment_sessions in two statements.
+     *
+     * @return Result containing the number of agenda rows written or error message
+     */
+    public Result<Integer> rebuildAgenda() {
+        try {
+            int removed = agendaRepository.deleteAllRows();
+            int inserted = agendaRepository.insertAllFromSessions();
+
+            log.info("Doctor agenda rebuilt: {} rows removed, {} rows written", removed, inserted);
+
+            return Result.success(inserted);
+
+        } catch (Exception e) {
+            log.error("Error rebuilding doctor agenda", e);
+            return Result.failure("Failed to rebuild doctor agenda: " + e.getMessage());
+        }
+    }
+
+    // ============= EVENT LISTENERS (same transaction as the session change) =============
+
+    @EventListener
+    public void handleAppointmentScheduled(AppointmentScheduled event) {
+        DoctorAgendaEntry entry = DoctorAgendaEntry.builder()
+            .sessionId(event.sessionId())
+            .doctorId(event.doctorId())
+            .patientId(event.patientId())
+            .patientName(event.patientName())
+            .slotTime(event.scheduledDateTime())
+            .slotEndTime(event.scheduledEndDateTime())
+            .consultationNames(String.join(", ", event.consultationNames()))
+            .status(SessionStatus.SCHEDULED)
+            .isEmergency(event.isEmergency())
+            .build();
+
+        // persist, not save: the ID is assigned, so save() would merge and SELECT first
+        entityManager.persist(entry);
+    }
+
+    @EventListener
+    public void handleConsultationTypeAdded(ConsultationTypeAdded event) {
+        agendaRepository.findById(event.sessionId()).ifPresent(entry -> {
+            String names = entry.getConsultationNames();
+            entry.setConsultationNames(names == null || names.isEmpty()
+                ? event.consultationName()
+                : names + ", " + event.consultationName());
+            entry.setSlotEndTime(event.scheduledEndDateTime());
+        });
+    }
+
+    @EventListener
+    public void handleAppointmentRescheduled(AppointmentRescheduled event) {
+        if (agendaRepository.updateSlot(event.sessionId(), event.newDateTime(), event.newEndDateTime()) == 0) {
+            log.warn("No agenda entry for rescheduled session {}; run rebuildAgenda()", event.sessionId());
+        }
+    }
+
+    @EventListener
+    public void handleSessionStarted(SessionStarted event) {
+        updateStatus(event.sessionId(), SessionStatus.IN_PROGRESS);
+    }
+
+    @EventListener
+    public void handleSessionCompleted(SessionCompleted event) {
+        updateStatus(event.sessionId(), SessionStatus.COMPLETED);
+    }
+
+    @EventListener
+    public void handleAppointmentCancelled(AppointmentCancelled event) {
+        updateStatus(event.sessionId(), event.wasNoShow() ? SessionStatus.NO_SHOW : SessionStatus.CANCELLED);
+    }
+
+    private void updateStatus(UUID sessionId, SessionStatus status) {
+        if (agendaRepository.updateStatus(sessionId, status) == 0) {
+            // Session predates the projection - rebuildAgenda() will pick it up
+            log.warn("No agenda entry for session {} (status {}); run rebuildAgenda()", sessionId, status);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.policlicabine.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped in-process locks that serialize bookings per doctor.
+ *
+ * A lock is held until the surrounding transaction completes, so a second
+ * booking for the same doctor only runs its overlap check once the first
+ * booking is committed (or rolled back). Bookings for doctors on different
+ * stripes never wait for each other - there is no global lock.
+ *
+ * This only covers a single node; across nodes the ex_session_doctor_no_overlap
+ * exclusion constraint on appointment_sessions is the final guarantee.
+ */
+@Component
+public class DoctorBookingLocks {
+
+    // Power of two so the stripe can be picked with a mask
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public DoctorBookingLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the doctor's stripe until the current transaction commits or rolls back.
+     *
+     * @param doctorId Doctor identifier
+     * @throws IllegalStateException if no transaction synchronization is active
+     */
+    public void lockUntilTransactionEnds(UUID doctorId) {
+        lockStripeUntilTransactionEnds(stripeOf(doctorId));
+    }
+
+    /**
+     * Locks the stripes of several doctors until the current transaction ends.
+     * Stripes are always taken in ascending order so concurrent callers cannot deadlock.
+     *
+     * @param doctorIds Doctor identifiers
+     * @throws IllegalStateException if no transaction synchronization is active
+     */
+    public void lockAllUntilTransactionEnds(Collection<UUID> doctorIds) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (UUID doctorId : doctorIds) {
+            stripes.add(stripeOf(doctorId));
+        }
+        for (int stripe : stripes) {
+            lockStripeUntilTransactionEnds(stripe);
+        }
+    }
+
+    private void lockStripeUntilTransactionEnds(int stripe) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking locks require an active transaction");
+        }
+
+        ReentrantLock lock = locks[stripe];
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    static int stripeOf(UUID doctorId) {
+        int hash = doctorId.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.CalendarFeedDto;
+import com.example.policlicabine.entity.DoctorCalendarState;
+import com.example.policlicabine.event.AppointmentCancelled;
+import com.example.policlicabine.event.AppointmentRescheduled;
+import com.example.policlicabine.event.AppointmentScheduled;
+import com.example.policlicabine.event.ConsultationTypeAdded;
+import com.example.policlicabine.event.SessionCompleted;
+import com.example.policlicabine.event.SessionStarted;
+import com.example.policlicabine.repository.DoctorCalendarStateRepository;
+import com.example.policlicabine.repository.projection.CalendarEventRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Service for per-doctor iCalendar (RFC 5545) feeds.
+ *
+ * Architecture:
+ * - Only uses DoctorCalendarStateRepository (single responsibility); sessions are streamed
+ *   via AppointmentSessionService
+ * - Session event listeners bump the doctor's revision inside the publishing transaction,
+ *   so the ETag and sync token commit or roll back together with the session change
+ * - Unchanged calendars cost one primary-key lookup (If-None-Match against the revision)
+ * - VEVENTs are written while rows stream from the cursor - no list of sessions is built
+ * - Incremental sync returns sessions changed since the client's token, cancellations included
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class DoctorCalendarService {
+
+    // Only our repository - single responsibility principle
+    private final DoctorCalendarStateRepository calendarStateRepository;
+
+    // Services for data access - service-to-service communication
+    private final AppointmentSessionService appointmentSessionService;
+    private final DoctorService doctorService;
+
+    // Session times are clinic-local; feeds are written in UTC
+    static final ZoneId CLINIC_ZONE = ZoneId.of("Europe/Bucharest");
+
+    // Past sessions included in a full feed
+    private static final int FEED_HISTORY_DAYS = 90;
+
+    // Incremental sync re-sends this much before the token: a transaction that started before
+    // the token but committed after it is still picked up (clients dedupe by UID and SEQUENCE)
+    private static final int SYNC_OVERLAP_MINUTES = 10;
+
+    /**
+     * Writes a doctor's calendar feed, or nothing when the client's copy is current.
+     *
+     * Architecture notes:
+     * - Reads the doctor's revision first; a matching If-None-Match returns notModified
+     *   without touching appointment_sessions
+     * - changedSince = null writes the full feed (active sessions from FEED_HISTORY_DAYS ago);
+     *   otherwise only sessions changed since the token, including cancelled ones
+     *
+     * @param doctorId Doctor identifier
+     * @param changedSince syncToken of a previous feed, or null for a full feed
+     * @param ifNoneMatch ETag the client already has (may be null)
+     * @param out Destination of the iCalendar text (not closed)
+     * @return Result containing CalendarFeedDto (ETag, next sync token, event count) or error message
+     */
+    @Transactional(readOnly = true)
+    public Result<CalendarFeedDto> writeDoctorCalendar(UUID doctorId, LocalDateTime changedSince,
+                                                       String ifNoneMatch, Writer out) {
+        try {
+            if (doctorId == null) {
+                return Result.failure("Doctor ID is required");
+            }
+            if (out == null) {
+                return Result.failure("Output writer is required");
+            }
+
+            DoctorCalendarState state = calendarStateRepository.findById(doctorId).orElse(null);
+            long revision = state != null ? state.getRevision() : 0L;
+            String etag = "\"" + doctorId + "-" + revision + "\"";
+            LocalDateTime syncToken = state != null ? state.getChangedAt() : null;
+
+            if (etag.equals(ifNoneMatch)) {
+                return Result.success(CalendarFeedDto.builder()
+                    .etag(etag)
+                    .syncToken(changedSince != null ? changedSince : syncToken)
+                    .notModified(true)
+                    .build());
+            }
+
+            if (state == null) {
+                // No change recorded yet - only then is the doctor itself checked
+                Result<Void> doctorValidation = doctorService.validateDoctorExists(doctorId);
+                if (doctorValidation.isFailure()) {
+                    return Result.failure(doctorValidation.getErrorMessage());
+                }
+                syncToken = LocalDateTime.now();
+            }
+
+            ICalendarWriter calendar = new ICalendarWriter(out, CLINIC_ZONE);
+            calendar.begin("Agenda");
+            int eventCount;
+            try (Stream<CalendarEventRow> rows = changedSince == null
+                    ? appointmentSessionService.streamCalendarEvents(
+                        doctorId, LocalDateTime.now().minusDays(FEED_HISTORY_DAYS))
+                    : appointmentSessionService.streamCalendarChanges(
+                        doctorId, changedSince.minusMinutes(SYNC_OVERLAP_MINUTES))) {
+                eventCount = writeEvents(rows, calendar);
+            }
+            calendar.end();
+
+            log.debug("Calendar feed for doctor {} written: {} events (incremental: {})",
+                doctorId, eventCount, changedSince != null);
+
+            return Result.success(CalendarFeedDto.builder()
+                .etag(etag)
+                .syncToken(syncToken)
+                .notModified(false)
+                .eventCount(eventCount)
+                .build());
+
+        } catch (Exception e) {
+            log.error("Error writing calendar feed for doctor {}", doctorId, e);
+            return Result.failure("Failed to write calendar: " + e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void handleAppointmentScheduled(AppointmentScheduled event) {
+        touch(event.doctorId());
+    }
+
+    @EventListener
+    public void handleConsultationTypeAdded(ConsultationTypeAdded event) {
+        touch(event.doctorId());
+    }
+
+    @EventListener
+    public void handleAppointmentRescheduled(AppointmentRescheduled event) {
+        touch(event.doctorId());
+    }
+
+    @EventListener
+    public void handleSessionStarted(SessionStarted event) {
+        touch(event.doctorId());
+    }
+
+    @EventListener
+    public void handleSessionCompleted(SessionCompleted event) {
+        touch(event.doctorId());
+    }
+
+    @EventListener
+    public void handleAppointmentCancelled(AppointmentCancelled event) {
+        touch(event.doctorId());
+    }
+
+    private void touch(UUID doctorId) {
+        if (doctorId != null) {
+            calendarStateRepository.touch(doctorId);
+        }
+    }
+
+    /**
+     * Groups consecutive rows of the same session into one VEVENT.
+     */
+    private static int writeEvents(Stream<CalendarEventRow> rows, ICalendarWriter calendar) throws IOException {
+        int count = 0;
+        CalendarEventRow current = null;
+        List<String> consultationNames = new ArrayList<>();
+
+        for (CalendarEventRow row : (Iterable<CalendarEventRow>) rows::iterator) {
+            if (current != null && !Objects.equals(current.sessionId(), row.sessionId())) {
+                writeEvent(calendar, current, consultationNames);
+                count++;
+                consultationNames.clear();
+            }
+            current = row;
+            if (row.consultationName() != null) {
+                consultationNames.add(row.consultationName());
+            }
+        }
+        if (current != null) {
+            writeEvent(calendar, current, consultationNames);
+            count++;
+        }
+        return count;
+    }
+
+    private static void writeEvent(ICalendarWriter calendar, CalendarEventRow row,
+                                   List<String> consultationNames) throws IOException {
+        calendar.event(row.sessionId(), row.start(), row.end(), row.status(),
+            row.version() != null ? row.version() : 0L, row.updatedAt(),
+            Boolean.TRUE.equals(row.isEmergency()), consultationNames);
+    }
+}
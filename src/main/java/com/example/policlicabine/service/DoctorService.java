@@ -12,13 +12,21 @@ import com.example.policlicabine.event.DoctorProfileCreated;
 import com.example.policlicabine.mapper.ConsultationMapper;
 import com.example.policlicabine.mapper.DoctorMapper;
 import com.example.policlicabine.repository.DoctorRepository;
+import com.example.policlicabine.repository.projection.AvailabilityWindow;
+import com.example.policlicabine.repository.projection.DoctorSpecialty;
 import com.example.policlicabine.service.base.BaseServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -278,4 +286,59 @@ public class DoctorService extends BaseServiceImpl<Doctor, DoctorDto, UUID> {
     public Result<Void> validateDoctorExists(UUID doctorId) {
         return validateExists(doctorId);
     }
+
+    /**
+     * INTERNAL: Gets all doctors' weekly availability windows as flat projections.
+     * Used by AppointmentSlotService to build its in-memory availability index.
+     *
+     * @return List of AvailabilityWindow projections (may be empty, never null)
+     */
+    @Transactional(readOnly = true)
+    public List<AvailabilityWindow> getAllAvailabilityWindows() {
+        return doctorRepository.findAllAvailabilityWindows();
+    }
+
+    /**
+     * INTERNAL: Gets one doctor's weekly availability windows as flat projections.
+     * Used by AppointmentSessionService to check every occurrence of a recurring booking at once.
+     *
+     * @param doctorId Doctor identifier
+     * @return List of AvailabilityWindow projections (may be empty, never null)
+     */
+    @Transactional(readOnly = true)
+    public List<AvailabilityWindow> getAvailabilityWindows(UUID doctorId) {
+        return doctorRepository.findAvailabilityWindowsByDoctorId(doctorId);
+    }
+
+    /**
+     * INTERNAL: Gets the specialties of every doctor, grouped by doctor.
+     * Used by AppointmentSlotService to filter doctors by specialty in memory.
+     *
+     * @return Map of doctor ID to that doctor's specialties (may be empty, never null)
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Set<Specialty>> getAllDoctorSpecialties() {
+        Map<UUID, Set<Specialty>> specialtiesByDoctor = new HashMap<>();
+        for (DoctorSpecialty row : doctorRepository.findAllDoctorSpecialties()) {
+            specialtiesByDoctor
+                .computeIfAbsent(row.doctorId(), id -> EnumSet.noneOf(Specialty.class))
+                .add(row.specialty());
+        }
+        return specialtiesByDoctor;
+    }
+
+    /**
+     * INTERNAL: Returns which of the given doctor IDs exist, in a single query.
+     * Used by AppointmentSessionService for set-based validation of bulk bookings.
+     *
+     * @param doctorIds Doctor identifiers
+     * @return Set of existing doctor IDs (may be empty, never null)
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> findExistingIds(Collection<UUID> doctorIds) {
+        if (doctorIds == null || doctorIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(doctorRepository.findExistingIds(doctorIds));
+    }
 }
@@ -0,0 +1,289 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.DoctorUtilizationDto;
+import com.example.policlicabine.event.AppointmentCancelled;
+import com.example.policlicabine.event.AppointmentRescheduled;
+import com.example.policlicabine.event.AppointmentScheduled;
+import com.example.policlicabine.event.ConsultationTypeAdded;
+import com.example.policlicabine.event.DoctorProfileCreated;
+import com.example.policlicabine.repository.projection.DoctorDayUtilization;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for the doctor utilization heatmap: available versus booked minutes per doctor and day.
+ *
+ * Architecture:
+ * - No repository of its own - the aggregation is one native query via AppointmentSessionService
+ * - Results are cached per (doctor, Monday-based week); a week missing from the cache is loaded
+ *   for all doctors at once, so a cold 52-week heatmap costs one query
+ * - Scheduling events mark only the affected (doctor, week) stale (after commit, so rollbacks
+ *   never leak in); stale entries are reloaded with one query per request
+ * - Events are local to this node: a cached week is reloaded once it is REFRESH_SECONDS old,
+ *   which bounds how long changes made on other nodes (or to availability) stay invisible
+ * - A warm heatmap is pure memory work: one map lookup per doctor-week
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorUtilizationService {
+
+    // Services for data access - service-to-service communication
+    private final AppointmentSessionService appointmentSessionService;
+
+    // Upper bound on one heatmap request
+    private static final int MAX_WEEKS = 104;
+
+    // How long a loaded week is served from memory before it is read again
+    static final long REFRESH_SECONDS = 5 * 60;
+
+    private final Map<WeekKey, WeekUtilization> weeksByDoctor = new ConcurrentHashMap<>();
+    // Weeks loaded for all doctors, with their load time (System.nanoTime): a doctor without an
+    // entry there has no availability and no bookings
+    private final Map<LocalDate, Long> loadedWeeks = new ConcurrentHashMap<>();
+    private final Set<WeekKey> staleWeeks = ConcurrentHashMap.newKeySet();
+
+    // Bumped on every invalidation; a load that raced with one is not cached
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicInteger loadsInProgress = new AtomicInteger();
+
+    /**
+     * Per-day minutes of one doctor in one week (index 0 = Monday).
+     */
+    private record WeekUtilization(int[] availableMinutes, int[] bookedMinutes) {
+
+        static WeekUtilization empty() {
+            return new WeekUtilization(new int[7], new int[7]);
+        }
+    }
+
+    private record WeekKey(UUID doctorId, LocalDate weekStart) {}
+
+    /**
+     * Builds the utilization heatmap for whole weeks.
+     *
+     * @param fromDate Any day of the first week (rounded down to Monday)
+     * @param weeks Number of weeks (1..MAX_WEEKS)
+     * @param doctorIds Doctors to include, or null for every doctor with availability or bookings
+     * @return Result containing one DoctorUtilizationDto per doctor, or error message
+     */
+    public Result<List<DoctorUtilizationDto>> getUtilizationHeatmap(LocalDate fromDate, int weeks,
+                                                                    Collection<UUID> doctorIds) {
+        try {
+            if (fromDate == null) {
+                return Result.failure("Start date is required");
+            }
+            if (weeks < 1 || weeks > MAX_WEEKS) {
+                return Result.failure("Weeks must be between 1 and " + MAX_WEEKS);
+            }
+
+            LocalDate firstWeek = weekStart(fromDate);
+            List<LocalDate> weekStarts = new ArrayList<>(weeks);
+            for (int week = 0; week < weeks; week++) {
+                weekStarts.add(firstWeek.plusWeeks(week));
+            }
+
+            // Uncached weeks in one query; fresh results are used even if they could not be cached
+            Map<WeekKey, WeekUtilization> loaded = new HashMap<>();
+            loadMissingWeeks(weekStarts, loaded);
+            refreshStaleWeeks(weekStarts, loaded);
+
+            Set<UUID> doctors = doctorIds != null
+                ? new LinkedHashSet<>(doctorIds)
+                : doctorsIn(weekStarts, loaded);
+
+            List<DoctorUtilizationDto> rows = new ArrayList<>(doctors.size());
+            for (UUID doctorId : doctors) {
+                int[] available = new int[weeks * 7];
+                int[] booked = new int[weeks * 7];
+                for (int week = 0; week < weeks; week++) {
+                    WeekKey key = new WeekKey(doctorId, weekStarts.get(week));
+                    WeekUtilization utilization = loaded.containsKey(key) ? loaded.get(key) : weeksByDoctor.get(key);
+                    if (utilization != null) {
+                        System.arraycopy(utilization.availableMinutes(), 0, available, week * 7, 7);
+                        System.arraycopy(utilization.bookedMinutes(), 0, booked, week * 7, 7);
+                    }
+                }
+                rows.add(DoctorUtilizationDto.builder()
+                    .doctorId(doctorId)
+                    .fromDate(firstWeek)
+                    .availableMinutes(available)
+                    .bookedMinutes(booked)
+                    .build());
+            }
+
+            return Result.success(rows);
+
+        } catch (Exception e) {
+            log.error("Error building utilization heatmap", e);
+            return Result.failure("Failed to get utilization: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops every cached week, e.g. after availability changes.
+     */
+    public void invalidateAll() {
+        changes.incrementAndGet();
+        loadedWeeks.clear();
+        weeksByDoctor.clear();
+        staleWeeks.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentScheduled(AppointmentScheduled event) {
+        invalidate(event.doctorId(), event.scheduledDateTime());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleConsultationTypeAdded(ConsultationTypeAdded event) {
+        invalidate(event.doctorId(), event.scheduledDateTime());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentCancelled(AppointmentCancelled event) {
+        invalidate(event.doctorId(), event.scheduledDateTime());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentRescheduled(AppointmentRescheduled event) {
+        invalidate(event.doctorId(), event.previousDateTime());
+        invalidate(event.doctorId(), event.newDateTime());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleDoctorProfileCreated(DoctorProfileCreated event) {
+        // New doctors come with availability - cached weeks would report them as empty
+        invalidateAll();
+    }
+
+    private void invalidate(UUID doctorId, LocalDateTime dateTime) {
+        if (doctorId == null || dateTime == null) {
+            return;
+        }
+        changes.incrementAndGet();
+        LocalDate week = weekStart(dateTime.toLocalDate());
+        // Weeks nobody has loaded need no marker - they are read fresh when first requested
+        if (loadedWeeks.containsKey(week) || loadsInProgress.get() > 0) {
+            staleWeeks.add(new WeekKey(doctorId, week));
+        }
+    }
+
+    private void loadMissingWeeks(List<LocalDate> weekStarts, Map<WeekKey, WeekUtilization> loaded) {
+        long now = System.nanoTime();
+        List<LocalDate> missing = weekStarts.stream()
+            .filter(week -> !isFresh(loadedWeeks.get(week), now))
+            .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        LocalDate from = missing.get(0);
+        LocalDate to = missing.get(missing.size() - 1).plusWeeks(1);
+
+        loadsInProgress.incrementAndGet();
+        try {
+            long seen = changes.get();
+            Map<WeekKey, WeekUtilization> fresh = aggregate(from, to, null);
+            // Weeks in the range that were already cached are skipped
+            Set<LocalDate> missingWeeks = new HashSet<>(missing);
+            fresh.keySet().removeIf(key -> !missingWeeks.contains(key.weekStart()));
+            loaded.putAll(fresh);
+
+            if (changes.get() == seen) {
+                weeksByDoctor.putAll(fresh);
+                // Doctors that had an entry in an expired week but no longer have rows
+                weeksByDoctor.keySet().removeIf(key ->
+                    missingWeeks.contains(key.weekStart()) && !fresh.containsKey(key));
+                missing.forEach(week -> loadedWeeks.put(week, now));
+            }
+            log.debug("Utilization loaded for {} weeks from {} ({} doctor-weeks)", missing.size(), from, fresh.size());
+        } finally {
+            loadsInProgress.decrementAndGet();
+        }
+    }
+
+    private void refreshStaleWeeks(List<LocalDate> weekStarts, Map<WeekKey, WeekUtilization> loaded) {
+        Set<LocalDate> requested = new HashSet<>(weekStarts);
+        List<WeekKey> stale = staleWeeks.stream()
+            .filter(key -> requested.contains(key.weekStart()))
+            .toList();
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        // Take a snapshot; entries invalidated while we reload stay stale for the next request
+        stale.forEach(staleWeeks::remove);
+
+        Set<UUID> doctorIds = new HashSet<>();
+        LocalDate from = null;
+        LocalDate to = null;
+        for (WeekKey key : stale) {
+            doctorIds.add(key.doctorId());
+            from = from == null || key.weekStart().isBefore(from) ? key.weekStart() : from;
+            LocalDate end = key.weekStart().plusWeeks(1);
+            to = to == null || end.isAfter(to) ? end : to;
+        }
+
+        Map<WeekKey, WeekUtilization> fresh = aggregate(from, to, doctorIds);
+        for (WeekKey key : stale) {
+            WeekUtilization utilization = fresh.getOrDefault(key, WeekUtilization.empty());
+            loaded.put(key, utilization);
+            weeksByDoctor.put(key, utilization);
+        }
+    }
+
+    private static boolean isFresh(Long loadedAt, long now) {
+        return loadedAt != null && now - loadedAt < TimeUnit.SECONDS.toNanos(REFRESH_SECONDS);
+    }
+
+    private Map<WeekKey, WeekUtilization> aggregate(LocalDate from, LocalDate to, Collection<UUID> doctorIds) {
+        Map<WeekKey, WeekUtilization> result = new HashMap<>();
+        for (DoctorDayUtilization row : appointmentSessionService.getDailyUtilization(from, to, doctorIds)) {
+            LocalDate day = from.plusDays(row.getDayIndex());
+            WeekUtilization week = result.computeIfAbsent(
+                new WeekKey(row.getDoctorId(), weekStart(day)), key -> WeekUtilization.empty());
+            int dayOfWeek = day.getDayOfWeek().ordinal();
+            week.availableMinutes()[dayOfWeek] = row.getAvailableMinutes();
+            week.bookedMinutes()[dayOfWeek] = row.getBookedMinutes();
+        }
+        return result;
+    }
+
+    private Set<UUID> doctorsIn(List<LocalDate> weekStarts, Map<WeekKey, WeekUtilization> loaded) {
+        Set<LocalDate> requested = new HashSet<>(weekStarts);
+        Set<UUID> doctors = new LinkedHashSet<>();
+        for (WeekKey key : weeksByDoctor.keySet()) {
+            if (requested.contains(key.weekStart())) {
+                doctors.add(key.doctorId());
+            }
+        }
+        loaded.keySet().forEach(key -> doctors.add(key.doctorId()));
+        return doctors;
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
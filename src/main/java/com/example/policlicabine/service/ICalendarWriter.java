@@ -0,0 +1,116 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.enums.SessionStatus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Minimal RFC 5545 writer: one VCALENDAR with VEVENTs, written straight to a Writer.
+ *
+ * Times are converted from clinic-local time to UTC ("Z" form), so no VTIMEZONE is needed.
+ * Lines end with CRLF and are folded at 75 octets; text values are escaped.
+ */
+final class ICalendarWriter {
+
+    private static final String CRLF = "\r\n";
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter UTC_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final Writer out;
+    private final ZoneId zone;
+
+    ICalendarWriter(Writer out, ZoneId zone) {
+        this.out = out;
+        this.zone = zone;
+    }
+
+    void begin(String calendarName) throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//Policlinica Bine//Doctor Agenda//RO");
+        line("CALSCALE:GREGORIAN");
+        line("METHOD:PUBLISH");
+        line("X-WR-CALNAME:" + escape(calendarName));
+    }
+
+    void event(UUID sessionId, LocalDateTime start, LocalDateTime end, SessionStatus status, long sequence,
+               LocalDateTime stamp, boolean emergency, List<String> consultationNames) throws IOException {
+        String summary = consultationNames.isEmpty() ? "Appointment" : String.join(", ", consultationNames);
+        if (emergency) {
+            summary = "[URGENT] " + summary;
+        }
+
+        line("BEGIN:VEVENT");
+        line("UID:" + sessionId + "@policlica-bine");
+        line("SEQUENCE:" + sequence);
+        line("DTSTAMP:" + utc(stamp != null ? stamp : LocalDateTime.now()));
+        line("DTSTART:" + utc(start));
+        if (end != null) {
+            line("DTEND:" + utc(end));
+        }
+        line("SUMMARY:" + escape(summary));
+        line("STATUS:" + eventStatus(status));
+        if (status != SessionStatus.SCHEDULED) {
+            line("X-SESSION-STATUS:" + status.name());
+        }
+        line("END:VEVENT");
+    }
+
+    void end() throws IOException {
+        line("END:VCALENDAR");
+        out.flush();
+    }
+
+    private static String eventStatus(SessionStatus status) {
+        return status == SessionStatus.CANCELLED || status == SessionStatus.NO_SHOW ? "CANCELLED" : "CONFIRMED";
+    }
+
+    private String utc(LocalDateTime dateTime) {
+        return dateTime.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).format(UTC_FORMAT);
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\")
+            .replace(";", "\\;")
+            .replace(",", "\\,")
+            .replace("\r\n", "\\n")
+            .replace("\n", "\\n");
+    }
+
+    /**
+     * Writes a content line, folding it into 75-octet chunks (continuations start with a space).
+     */
+    private void line(String content) throws IOException {
+        int octets = 0;
+        int limit = MAX_LINE_OCTETS;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int size = utf8Length(codePoint);
+            if (octets + size > limit) {
+                out.write(CRLF);
+                out.write(' ');
+                octets = 0;
+                // The leading space counts towards the next line
+                limit = MAX_LINE_OCTETS - 1;
+            }
+            out.write(content, i, Character.charCount(codePoint));
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        out.write(CRLF);
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) return 1;
+        if (codePoint < 0x800) return 2;
+        if (codePoint < 0x10000) return 3;
+        return 4;
+    }
+}
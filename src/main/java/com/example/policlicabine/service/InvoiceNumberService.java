@@ -0,0 +1,77 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.enums.InvoiceSeries;
+import com.example.policlicabine.repository.InvoiceNumberSeriesRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for allocating invoice numbers.
+ *
+ * Architecture:
+ * - Only uses InvoiceNumberSeriesRepository (single responsibility)
+ * - One counter row per (series, fiscal year); an allocation is a single upsert ... RETURNING,
+ *   so there is no read-then-write race and no separate existence check
+ * - Gap-free: allocations must run inside the transaction that writes the invoices
+ *   (Propagation.MANDATORY) - a rollback returns the numbers with it
+ * - The counter row stays locked until that transaction commits: callers allocate as their
+ *   last step before inserting, and batches take one block instead of one number per invoice
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(propagation = Propagation.MANDATORY)
+public class InvoiceNumberService {
+
+    // Only our repository - single responsibility principle
+    private final InvoiceNumberSeriesRepository seriesRepository;
+
+    /**
+     * INTERNAL: Allocates the next number of a series.
+     * Used by InvoiceService when creating invoices and converting proformas.
+     *
+     * @param series Numbering series
+     * @param issueDate Issue date; its year selects the fiscal-year counter
+     * @return Formatted invoice number, e.g. F-2026-000042
+     */
+    public String allocate(InvoiceSeries series, LocalDate issueDate) {
+        return allocateBlock(series, issueDate, 1).get(0);
+    }
+
+    /**
+     * INTERNAL: Allocates count consecutive numbers of a series with one statement.
+     * Every number must be used by the same transaction, or the series gets a gap.
+     *
+     * @param series Numbering series
+     * @param issueDate Issue date; its year selects the fiscal-year counter
+     * @param count How many numbers (at least 1)
+     * @return Formatted invoice numbers in ascending order
+     */
+    public List<String> allocateBlock(InvoiceSeries series, LocalDate issueDate, int count) {
+        if (series == null || issueDate == null) {
+            throw new IllegalArgumentException("Series and issue date are required");
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one invoice number must be allocated");
+        }
+
+        int fiscalYear = issueDate.getYear();
+        long last = seriesRepository.allocate(series.name(), fiscalYear, count);
+
+        List<String> numbers = new ArrayList<>(count);
+        for (long number = last - count + 1; number <= last; number++) {
+            numbers.add(series.format(fiscalYear, number));
+        }
+
+        log.debug("Allocated {} {} invoice numbers for {}: {}..{}",
+            count, series, fiscalYear, numbers.get(0), numbers.get(count - 1));
+        return numbers;
+    }
+}
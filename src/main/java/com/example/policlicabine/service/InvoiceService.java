@@ -5,8 +5,11 @@ import com.example.policlicabine.dto.InvoiceDto;
 import com.example.policlicabine.entity.Invoice;
 import com.example.policlicabine.entity.SessionBilling;
 import com.example.policlicabine.entity.User;
+import com.example.policlicabine.entity.enums.InvoiceSeries;
 import com.example.policlicabine.event.InvoiceConvertedToFinal;
 import com.example.policlicabine.event.InvoiceCreated;
+import com.example.policlicabine.event.ManualDiscountApplied;
+import com.example.policlicabine.event.PaymentProcessed;
 import com.example.policlicabine.mapper.InvoiceMapper;
 import com.example.policlicabine.repository.InvoiceRepository;
 import com.example.policlicabine.service.base.BaseServiceImpl;
@@ -14,11 +17,18 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,7 +39,10 @@ import java.util.stream.Collectors;
  * - Extends BaseServiceImpl for common CRUD operations (getEntityById, validateExists, etc.)
  * - Only uses InvoiceRepository (single responsibility)
  * - Calls UserService for user validation and entity access
+ * - Calls InvoiceNumberService for gap-free PF-/F- numbers, inside the invoice's transaction
  * - Uses EntityGraph to prevent N+1 queries
+ * - Keeps the stored totals (total_amount, total_paid, payment_status) current with one native
+ *   UPDATE in the transaction that changes billings, discounts or payments; lists read only them
  * - Follows service-to-service communication pattern
  *
  * Inherited Methods (from BaseServiceImpl):
@@ -49,23 +62,29 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
     // Only our repository - single responsibility principle
     private final InvoiceRepository invoiceRepository;
 
-    // Service for user validation and entity access
+    // Services for user validation, entity access and invoice numbering
     private final UserService userService;
+    private final InvoiceNumberService invoiceNumberService;
 
     private final InvoiceMapper invoiceMapper;
     private final ApplicationEventPublisher eventPublisher;
 
+    // Stale invoices repaired per UPDATE during reconciliation
+    private static final int RECONCILE_CHUNK_SIZE = 500;
+
     // EntityManager for creating entity references without DB hits
     @PersistenceContext
     private EntityManager entityManager;
 
     public InvoiceService(InvoiceRepository invoiceRepository,
                          UserService userService,
+                         InvoiceNumberService invoiceNumberService,
                          InvoiceMapper invoiceMapper,
                          ApplicationEventPublisher eventPublisher) {
         super(invoiceRepository, invoiceMapper);
         this.invoiceRepository = invoiceRepository;
         this.userService = userService;
+        this.invoiceNumberService = invoiceNumberService;
         this.invoiceMapper = invoiceMapper;
         this.eventPublisher = eventPublisher;
     }
@@ -106,7 +125,7 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
                 return Result.failure("Invoice ID is required");
             }
 
-            // Use EntityGraph to load invoice with sessionBillings and payments
+            // Fetch plan: invoice, then sessionBillings and payments in separate queries
             Invoice invoice = invoiceRepository.findWithSessionBillingsAndPaymentsById(invoiceId)
                 .orElse(null);
             if (invoice == null) {
@@ -127,21 +146,22 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
      * Architecture notes:
      * - Uses UserService to get user entity
      * - Uses EntityManager.getReference() for SessionBilling FKs
+     * - The number comes from InvoiceNumberService (PF- or F- series of the invoice date's year),
+     *   allocated as the last step before the insert
+     * - The counter row stays locked until commit; in that window run only the invoice and
+     *   invoice_session_billings inserts, one totals UPDATE over the billings and one summary
+     *   row read - the DTO is filled from data loaded before the allocation
+     * - InvoiceCreated is published after commit, so its listeners never run under the lock
      *
-     * @param invoiceNumber Invoice number (must be unique)
      * @param invoiceDate Invoice date
      * @param generatedByUserId User who generated the invoice
      * @param isProforma Whether this is a proforma invoice
      * @param sessionBillingIds List of session billing IDs to include
      * @return Result containing InvoiceDto or error message
      */
-    public Result<InvoiceDto> createInvoice(String invoiceNumber, LocalDate invoiceDate,
-                                           UUID generatedByUserId, Boolean isProforma,
-                                           List<UUID> sessionBillingIds) {
+    public Result<InvoiceDto> createInvoice(LocalDate invoiceDate, UUID generatedByUserId,
+                                           Boolean isProforma, List<UUID> sessionBillingIds) {
         try {
-            if (invoiceNumber == null || invoiceNumber.trim().isEmpty()) {
-                return Result.failure("Invoice number is required");
-            }
             if (invoiceDate == null) {
                 return Result.failure("Invoice date is required");
             }
@@ -152,11 +172,6 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
                 return Result.failure("At least one session billing is required");
             }
 
-            // Check for duplicate invoice number
-            if (invoiceRepository.existsByInvoiceNumber(invoiceNumber.trim())) {
-                return Result.failure("Invoice number already exists");
-            }
-
             // Get user entity via UserService
             User user = userService.getEntityById(generatedByUserId);
             if (user == null) {
@@ -168,32 +183,40 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
                 .map(id -> entityManager.getReference(SessionBilling.class, id))
                 .collect(Collectors.toList());
 
+            boolean proforma = isProforma != null ? isProforma : false;
+            String invoiceNumber = invoiceNumberService.allocate(InvoiceSeries.of(proforma), invoiceDate);
+
             Invoice invoice = Invoice.builder()
-                .invoiceNumber(invoiceNumber.trim())
+                .invoiceNumber(invoiceNumber)
                 .invoiceDate(invoiceDate)
                 .generatedBy(user)
-                .isProforma(isProforma != null ? isProforma : false)
+                .isProforma(proforma)
                 .sessionBillings(sessionBillings)
                 .build();
 
             Invoice savedInvoice = invoiceRepository.save(invoice);
 
-            // Publish domain event
-            eventPublisher.publishEvent(new InvoiceCreated(
-                savedInvoice.getInvoiceId(),
-                savedInvoice.getInvoiceNumber(),
-                savedInvoice.getInvoiceDate(),
-                savedInvoice.getGeneratedBy().getUserId(),
-                savedInvoice.getIsProforma(),
-                sessionBillingIds,
-                savedInvoice.getTotalAmount()
+            // Derive the stored totals from the billings in SQL, then read the row back
+            InvoiceDto created = refreshAndReadRow(savedInvoice.getInvoiceId(), user.getUsername(),
+                List.copyOf(sessionBillingIds));
+
+            publishAfterCommit(new InvoiceCreated(
+                created.getInvoiceId(),
+                created.getInvoiceNumber(),
+                created.getInvoiceDate(),
+                generatedByUserId,
+                created.getIsProforma(),
+                created.getSessionBillingIds(),
+                created.getTotalAmount()
             ));
 
-            log.info("Invoice created: {} (proforma: {})", invoiceNumber, isProforma);
+            log.info("Invoice created: {} (proforma: {})", invoiceNumber, proforma);
 
-            return Result.success(invoiceMapper.toDto(savedInvoice));
+            return Result.success(created);
 
         } catch (Exception e) {
+            // An allocated number must not commit without its invoice (the series would get a gap)
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             log.error("Error creating invoice", e);
             return Result.failure("Failed to create invoice: " + e.getMessage());
         }
@@ -239,20 +262,18 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
     }
 
     /**
-     * Retrieves all invoices.
+     * Retrieves all invoices as list rows.
+     *
+     * Architecture notes:
+     * - One scan of the invoices table using the stored totals; billings, sessions and
+     *   payments are not loaded (sessionBillingIds and generatedByUsername are left empty)
      *
      * @return Result containing list of InvoiceDto or error message
      */
     @Transactional(readOnly = true)
     public Result<List<InvoiceDto>> getAllInvoices() {
         try {
-            List<Invoice> invoices = invoiceRepository.findAll();
-
-            List<InvoiceDto> invoiceDtos = invoices.stream()
-                .map(invoiceMapper::toDto)
-                .collect(Collectors.toList());
-
-            return Result.success(invoiceDtos);
+            return Result.success(invoiceRepository.findAllSummaries());
 
         } catch (Exception e) {
             log.error("Error getting all invoices", e);
@@ -263,54 +284,134 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
     /**
      * Converts a proforma invoice to a final invoice.
      *
+     * Architecture notes:
+     * - The proforma row is locked first, so concurrent conversions of the same proforma
+     *   cannot both allocate a final number
+     * - The final invoice is issued today: it takes today's date and the next number of
+     *   today's F- series, allocated only after every check has passed
+     * - The billing IDs and issuer are loaded before the allocation; while the counter row is
+     *   locked only the invoice UPDATE, one totals UPDATE and one summary row read run
+     * - InvoiceConvertedToFinal is published after commit, so its listeners never run under the lock
+     *
      * @param invoiceId Invoice identifier
-     * @param newInvoiceNumber New invoice number for the final invoice
      * @return Result containing updated InvoiceDto or error message
      */
-    public Result<InvoiceDto> convertProformaToFinal(UUID invoiceId, String newInvoiceNumber) {
+    public Result<InvoiceDto> convertProformaToFinal(UUID invoiceId) {
         try {
             if (invoiceId == null) {
                 return Result.failure("Invoice ID is required");
             }
-            if (newInvoiceNumber == null || newInvoiceNumber.trim().isEmpty()) {
-                return Result.failure("New invoice number is required");
-            }
 
-            // Check if new invoice number already exists
-            if (invoiceRepository.existsByInvoiceNumber(newInvoiceNumber.trim())) {
-                return Result.failure("Invoice number already exists");
-            }
-
-            Invoice invoice = invoiceRepository.findById(invoiceId).orElse(null);
+            Invoice invoice = invoiceRepository.findForUpdateByInvoiceId(invoiceId).orElse(null);
             if (invoice == null) {
                 return Result.failure("Invoice not found");
             }
+            if (!invoice.canConvertToFinalInvoice()) {
+                return Result.failure(invoice.getIsProforma()
+                    ? "Cannot convert proforma to final invoice: invoice has existing payments"
+                    : "Cannot convert proforma to final invoice: invoice is not proforma");
+            }
 
             // Store old invoice number for event
             String oldInvoiceNumber = invoice.getInvoiceNumber();
 
+            // Load what the DTO needs before the counter row is locked
+            List<UUID> sessionBillingIds = invoiceMapper.mapSessionBillingsToIds(invoice.getSessionBillings());
+            String generatedByUsername = invoice.getGeneratedBy().getUsername();
+
+            LocalDate issueDate = LocalDate.now();
+            String newInvoiceNumber = invoiceNumberService.allocate(InvoiceSeries.FINAL, issueDate);
+
             // Use entity method for business logic
-            invoice.convertToFinalInvoice(newInvoiceNumber.trim());
+            invoice.convertToFinalInvoice(newInvoiceNumber);
+            invoice.setInvoiceDate(issueDate);
             Invoice savedInvoice = invoiceRepository.save(invoice);
 
-            // Publish domain event
-            eventPublisher.publishEvent(new InvoiceConvertedToFinal(
-                invoiceId, oldInvoiceNumber, newInvoiceNumber.trim()
+            // Final invoices take their payment status from the payments (proformas are always pending)
+            InvoiceDto converted = refreshAndReadRow(savedInvoice.getInvoiceId(), generatedByUsername, sessionBillingIds);
+
+            publishAfterCommit(new InvoiceConvertedToFinal(
+                invoiceId, oldInvoiceNumber, newInvoiceNumber
             ));
 
             log.info("Proforma invoice {} converted to final invoice {}",
                 invoiceId, newInvoiceNumber);
 
-            return Result.success(invoiceMapper.toDto(savedInvoice));
+            return Result.success(converted);
 
-        } catch (IllegalStateException e) {
-            return Result.failure(e.getMessage());
         } catch (Exception e) {
+            // An allocated number must not commit without its invoice (the series would get a gap)
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             log.error("Error converting proforma to final invoice", e);
             return Result.failure("Failed to convert invoice: " + e.getMessage());
         }
     }
 
+    /**
+     * Verifies every invoice's stored totals against the values derived from billings,
+     * discounts and payments, and repairs the ones that drifted.
+     *
+     * Architecture notes:
+     * - One query finds the mismatches; repairs run in chunks of RECONCILE_CHUNK_SIZE
+     * - Any mismatch means a change bypassed the transactional refresh - it is logged as a warning
+     *
+     * @return Result containing the number of invoices repaired or error message
+     */
+    public Result<Integer> reconcileTotals() {
+        try {
+            List<UUID> staleIds = invoiceRepository.findInvoiceIdsWithStaleTotals();
+            for (int from = 0; from < staleIds.size(); from += RECONCILE_CHUNK_SIZE) {
+                invoiceRepository.refreshTotals(
+                    staleIds.subList(from, Math.min(from + RECONCILE_CHUNK_SIZE, staleIds.size())));
+            }
+
+            if (staleIds.isEmpty()) {
+                log.info("Invoice totals reconciled: all stored totals match");
+            } else {
+                log.warn("Invoice totals reconciled: {} invoices had stale totals and were repaired (first: {})",
+                    staleIds.size(), staleIds.get(0));
+            }
+
+            return Result.success(staleIds.size());
+
+        } catch (Exception e) {
+            log.error("Error reconciling invoice totals", e);
+            return Result.failure("Failed to reconcile invoice totals: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "0 30 2 * * *")
+    public void reconcileTotalsNightly() {
+        Result<Integer> result = reconcileTotals();
+        if (result.isFailure()) {
+            log.warn("Nightly invoice reconciliation failed: {}", result.getErrorMessage());
+        }
+    }
+
+    /**
+     * Keeps the totals of invoices containing the billing current.
+     * Runs in the discount's transaction; a failure rolls the discount back with it.
+     *
+     * @param event ManualDiscountApplied event
+     */
+    @EventListener
+    public void handleManualDiscountApplied(ManualDiscountApplied event) {
+        invoiceRepository.refreshTotalsForBilling(event.billingId());
+    }
+
+    /**
+     * Keeps the paid amount and payment status of the paid invoices current.
+     * Runs in the payment's transaction; a failure rolls the payment back with it.
+     *
+     * @param event PaymentProcessed event
+     */
+    @EventListener
+    public void handlePaymentProcessed(PaymentProcessed event) {
+        if (event.invoiceIds() != null && !event.invoiceIds().isEmpty()) {
+            invoiceRepository.refreshTotals(event.invoiceIds());
+        }
+    }
+
     // ============= INTERNAL METHODS FOR SERVICE-TO-SERVICE COMMUNICATION =============
     // Note: The following methods are inherited from BaseServiceImpl:
     // - getEntityById(UUID) → Invoice (simple lookup without EntityGraph)
@@ -319,7 +420,7 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
 
     /**
      * INTERNAL: Gets invoice entities with sessionBillings loaded.
-     * Uses EntityGraph to prevent N+1 queries.
+     * Uses a fetch plan (one query per collection level) to prevent N+1 queries.
      * Used by other services when they need invoices with billing data.
      *
      * @param invoiceIds List of invoice identifiers
@@ -333,6 +434,66 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
         return invoiceRepository.findAllWithSessionBillingsByIdIn(invoiceIds);
     }
 
+    /**
+     * INTERNAL: Creates one final invoice per group of billings, all in the caller's transaction.
+     * Used by BatchInvoicingService for end-of-day invoicing.
+     *
+     * Architecture notes:
+     * - Numbers are taken as one block (one counter statement for the whole batch), right
+     *   before the inserts, so the counter row is locked for the inserts and commit only
+     * - Invoices and invoice_session_billings rows are written with JDBC batching
+     *   (hibernate.jdbc.batch_size, order_inserts); billings and the user are references only
+     * - Totals are derived for the whole batch with one UPDATE
+     * - InvoiceCreated events are published after commit, outside the counter lock
+     *
+     * @param billingGroups Billing IDs per invoice (each group non-empty, no billing on any invoice yet)
+     * @param invoiceDate Issue date (selects the F- series fiscal year)
+     * @param generatedByUserId User the invoices are issued by (must exist)
+     * @return Created invoices as list rows, in the order of the groups
+     */
+    public List<InvoiceDto> createInvoiceBatch(List<List<UUID>> billingGroups, LocalDate invoiceDate,
+                                               UUID generatedByUserId) {
+        if (billingGroups == null || billingGroups.isEmpty()) {
+            return List.of();
+        }
+
+        User userRef = entityManager.getReference(User.class, generatedByUserId);
+        List<String> numbers = invoiceNumberService.allocateBlock(
+            InvoiceSeries.FINAL, invoiceDate, billingGroups.size());
+
+        List<Invoice> invoices = new ArrayList<>(billingGroups.size());
+        for (int i = 0; i < billingGroups.size(); i++) {
+            invoices.add(Invoice.builder()
+                .invoiceNumber(numbers.get(i))
+                .invoiceDate(invoiceDate)
+                .generatedBy(userRef)
+                .isProforma(false)
+                .sessionBillings(billingGroups.get(i).stream()
+                    .map(id -> entityManager.getReference(SessionBilling.class, id))
+                    .collect(Collectors.toList()))
+                .build());
+        }
+        invoiceRepository.saveAll(invoices);
+
+        List<UUID> invoiceIds = invoices.stream().map(Invoice::getInvoiceId).collect(Collectors.toList());
+        invoiceRepository.refreshTotals(invoiceIds);
+
+        Map<UUID, InvoiceDto> rows = invoiceRepository.findSummariesByIdIn(invoiceIds).stream()
+            .collect(Collectors.toMap(InvoiceDto::getInvoiceId, row -> row));
+        List<InvoiceDto> created = new ArrayList<>(invoices.size());
+        for (int i = 0; i < invoices.size(); i++) {
+            InvoiceDto row = rows.get(invoiceIds.get(i));
+            created.add(row);
+            publishAfterCommit(new InvoiceCreated(
+                row.getInvoiceId(), row.getInvoiceNumber(), row.getInvoiceDate(), generatedByUserId,
+                false, billingGroups.get(i), row.getTotalAmount()));
+        }
+
+        log.debug("Invoice batch created: {} invoices ({}..{})",
+            created.size(), numbers.get(0), numbers.get(numbers.size() - 1));
+        return created;
+    }
+
     /**
      * INTERNAL: Validates that all invoices exist.
      * Used by other services (e.g., PaymentService) to validate invoice references.
@@ -354,4 +515,34 @@ public class InvoiceService extends BaseServiceImpl<Invoice, InvoiceDto, UUID> {
 
         return Result.success(null);
     }
+
+    /**
+     * Derives the stored totals of one invoice in SQL and reads it back as a DTO row.
+     * Username and billing IDs are passed in so nothing lazy is loaded here.
+     */
+    private InvoiceDto refreshAndReadRow(UUID invoiceId, String generatedByUsername, List<UUID> sessionBillingIds) {
+        invoiceRepository.refreshTotals(List.of(invoiceId));
+        InvoiceDto row = invoiceRepository.findSummariesByIdIn(List.of(invoiceId)).get(0);
+        row.setGeneratedByUsername(generatedByUsername);
+        row.setSessionBillingIds(sessionBillingIds);
+        return row;
+    }
+
+    /**
+     * Publishes an event once the transaction has committed and released the invoice counter row.
+     * Listeners therefore run without a transaction; @TransactionalEventListener listeners of these
+     * events need fallbackExecution = true.
+     */
+    private void publishAfterCommit(Object event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventPublisher.publishEvent(event);
+            }
+        });
+    }
 }
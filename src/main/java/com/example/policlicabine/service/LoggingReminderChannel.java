@@ -0,0 +1,26 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.repository.projection.ReminderTarget;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local stand-in for a real reminder provider: writes each reminder to the
+ * "reminders" logger (route it to a file via logging configuration).
+ * A real provider replaces it by being declared @Primary.
+ */
+@Component
+@Slf4j(topic = "reminders")
+public class LoggingReminderChannel implements ReminderChannel {
+
+    @Override
+    public boolean send(ReminderTarget target) {
+        if (target.phone() == null && target.email() == null) {
+            return false;
+        }
+        log.info("Reminder for session {}: {} {} ({}, {}) - appointment with {} at {}",
+            target.sessionId(), target.patientFirstName(), target.patientLastName(),
+            target.phone(), target.email(), target.doctorName(), target.scheduledDateTime());
+        return true;
+    }
+}
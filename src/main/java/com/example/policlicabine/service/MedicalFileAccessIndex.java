@@ -0,0 +1,214 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.enums.SessionStatus;
+import com.example.policlicabine.event.AppointmentCancelled;
+import com.example.policlicabine.event.AppointmentRescheduled;
+import com.example.policlicabine.event.AppointmentScheduled;
+import com.example.policlicabine.repository.projection.PatientAppointment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory index answering "may this doctor open this patient's file right now?".
+ *
+ * Per doctor it keeps an immutable snapshot: patient ID -> sorted appointment times
+ * (local wall-clock as epoch seconds). A check - grant or denial - is two hash lookups
+ * and a binary search: no query, no allocation.
+ *
+ * Consistency:
+ * - A doctor is loaded from the database on first use (one projection query) and
+ *   reloaded after REFRESH_SECONDS, so the sliding ACCESS_WINDOW_DAYS window never
+ *   runs past the loaded range
+ * - Changes made on this node apply at once (events below); changes made on another
+ *   node are seen at the next reload, so a grant outlives a remote cancellation by at
+ *   most REFRESH_SECONDS
+ * - AppointmentScheduled / AppointmentCancelled / AppointmentRescheduled patch loaded
+ *   doctors after commit; a load that overlaps an event is used once but not cached
+ * - No-shows keep access, matching the database rule (only CANCELLED is excluded)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MedicalFileAccessIndex {
+
+    // How long a loaded doctor is kept before it is read again - the upper bound on how
+    // stale a grant or denial can be after a change made on another node
+    static final long REFRESH_SECONDS = 5 * 60;
+
+    private static final long WINDOW_SECONDS = MedicalFileAccessService.ACCESS_WINDOW_DAYS * 24L * 60 * 60;
+
+    private final AppointmentSessionService appointmentSessionService;
+
+    private final Map<UUID, DoctorAccess> accessByDoctor = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Hit/miss counters since startup. A miss is a check that had to load the doctor.
+     */
+    public record Stats(long hits, long misses, int cachedDoctors) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * Checks whether the doctor has a non-cancelled appointment with the patient
+     * between now and now + ACCESS_WINDOW_DAYS.
+     *
+     * @param doctorId Doctor identifier
+     * @param patientId Patient identifier
+     * @return true if access is granted
+     */
+    public boolean canAccess(UUID doctorId, UUID patientId) {
+        long now = nowSeconds();
+        DoctorAccess access = accessByDoctor.get(doctorId);
+        if (access == null || now >= access.expiresAt) {
+            misses.increment();
+            return load(doctorId, now).hasAppointment(patientId, now, now + WINDOW_SECONDS);
+        }
+
+        hits.increment();
+        return access.hasAppointment(patientId, now, now + WINDOW_SECONDS);
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), accessByDoctor.size());
+    }
+
+    /**
+     * Drops every cached doctor; each is reloaded on its next check.
+     */
+    public void clear() {
+        changes.incrementAndGet();
+        accessByDoctor.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentScheduled(AppointmentScheduled event) {
+        changes.incrementAndGet();
+        accessByDoctor.computeIfPresent(event.doctorId(), (id, access) ->
+            access.with(new PatientAppointment(event.sessionId(), event.patientId(), event.scheduledDateTime())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentRescheduled(AppointmentRescheduled event) {
+        changes.incrementAndGet();
+        // Same session ID - replaces the old time
+        accessByDoctor.computeIfPresent(event.doctorId(), (id, access) ->
+            access.with(new PatientAppointment(event.sessionId(), event.patientId(), event.newDateTime())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentCancelled(AppointmentCancelled event) {
+        if (event.wasNoShow()) {
+            return;
+        }
+        changes.incrementAndGet();
+        accessByDoctor.computeIfPresent(event.doctorId(), (id, access) -> access.without(event.sessionId()));
+    }
+
+    private DoctorAccess load(UUID doctorId, long now) {
+        long changesBefore = changes.get();
+        LocalDateTime from = toDateTime(now);
+        List<PatientAppointment> appointments = appointmentSessionService.getPatientAppointmentsInRange(
+            doctorId, from, from.plusSeconds(WINDOW_SECONDS + REFRESH_SECONDS), SessionStatus.CANCELLED);
+        DoctorAccess access = DoctorAccess.of(appointments, now + REFRESH_SECONDS);
+
+        if (changes.get() == changesBefore) {
+            accessByDoctor.put(doctorId, access);
+        }
+        log.debug("Access index loaded for doctor {} ({} appointments)", doctorId, appointments.size());
+        return access;
+    }
+
+    private static long nowSeconds() {
+        return toSeconds(LocalDateTime.now());
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Immutable per-doctor snapshot. Events produce a patched copy.
+     */
+    private static final class DoctorAccess {
+        private final Map<UUID, long[]> timesByPatient;
+        private final Map<UUID, PatientAppointment> appointmentsBySession;
+        private final long expiresAt;
+
+        private DoctorAccess(Map<UUID, PatientAppointment> appointmentsBySession, long expiresAt) {
+            this.appointmentsBySession = appointmentsBySession;
+            this.expiresAt = expiresAt;
+
+            Map<UUID, List<PatientAppointment>> byPatient = new HashMap<>();
+            for (PatientAppointment appointment : appointmentsBySession.values()) {
+                byPatient.computeIfAbsent(appointment.patientId(), id -> new ArrayList<>()).add(appointment);
+            }
+            Map<UUID, long[]> times = new HashMap<>(byPatient.size() * 2);
+            byPatient.forEach((patientId, list) -> {
+                long[] sorted = list.stream().mapToLong(a -> toSeconds(a.scheduledDateTime())).toArray();
+                Arrays.sort(sorted);
+                times.put(patientId, sorted);
+            });
+            this.timesByPatient = times;
+        }
+
+        static DoctorAccess of(List<PatientAppointment> appointments, long expiresAt) {
+            Map<UUID, PatientAppointment> bySession = new HashMap<>(appointments.size() * 2);
+            for (PatientAppointment appointment : appointments) {
+                bySession.put(appointment.sessionId(), appointment);
+            }
+            return new DoctorAccess(bySession, expiresAt);
+        }
+
+        boolean hasAppointment(UUID patientId, long from, long to) {
+            long[] times = timesByPatient.get(patientId);
+            if (times == null) {
+                return false;
+            }
+            int index = Arrays.binarySearch(times, from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < times.length && times[index] <= to;
+        }
+
+        DoctorAccess with(PatientAppointment appointment) {
+            Map<UUID, PatientAppointment> copy = new HashMap<>(appointmentsBySession);
+            copy.put(appointment.sessionId(), appointment);
+            return new DoctorAccess(copy, expiresAt);
+        }
+
+        DoctorAccess without(UUID sessionId) {
+            if (!appointmentsBySession.containsKey(sessionId)) {
+                return this;
+            }
+            Map<UUID, PatientAppointment> copy = new HashMap<>(appointmentsBySession);
+            copy.remove(sessionId);
+            return new DoctorAccess(copy, expiresAt);
+        }
+    }
+}
@@ -2,18 +2,21 @@ package com.example.policlicabine.service;
 
 import com.example.policlicabine.common.Result;
 import com.example.policlicabine.dto.PatientDto;
-import com.example.policlicabine.entity.AppointmentSession;
 import com.example.policlicabine.entity.enums.SessionStatus;
-import com.example.policlicabine.mapper.PatientMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service for managing medical file access control.
@@ -25,7 +28,9 @@ import java.util.stream.Collectors;
  * - Cancelled appointments don't grant access
  *
  * Architecture:
- * - Uses AppointmentSessionService for all appointment queries
+ * - Uses AppointmentSessionService for appointment queries, PatientService for patient lists
+ * - Per-record access checks are answered by MedicalFileAccessIndex (in memory,
+ *   loaded from AppointmentSessionService on cold start, kept warm by events)
  * - Read-only operations focused on access control
  * - Follows service-to-service communication pattern
  */
@@ -35,23 +40,29 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class MedicalFileAccessService {
 
-    // Service for appointment data access
+    // Services for data access
     private final AppointmentSessionService appointmentSessionService;
-    private final PatientMapper patientMapper;
+    private final PatientService patientService;
 
-    private static final int ACCESS_WINDOW_DAYS = 30;
+    // In-memory answer for canDoctorAccessMedicalData (the hottest read)
+    private final MedicalFileAccessIndex accessIndex;
+
+    static final int ACCESS_WINDOW_DAYS = 30;
 
     /**
      * Checks if a doctor can access a patient's medical records.
      * Access is granted if there are future appointments within the access window.
      *
      * Architecture notes:
-     * - Uses AppointmentSessionService for appointment existence check
+     * - Answered by MedicalFileAccessIndex from memory; changes made on other nodes are
+     *   seen within MedicalFileAccessIndex.REFRESH_SECONDS
+     * - No transaction of its own, so cache hits never borrow a pooled connection
      *
      * @param doctorId Doctor identifier
      * @param patientId Patient identifier
      * @return Result containing Boolean access flag or error message
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Result<Boolean> canDoctorAccessMedicalData(UUID doctorId, UUID patientId) {
         try {
             if (doctorId == null) {
@@ -61,12 +72,8 @@ public class MedicalFileAccessService {
                 return Result.failure("Patient ID is required");
             }
 
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime futureLimit = now.plusDays(ACCESS_WINDOW_DAYS);
-
-            // Check for future appointments (not cancelled) via AppointmentSessionService
-            boolean hasAccess = appointmentSessionService.hasAppointmentsInRange(
-                doctorId, patientId, now, futureLimit, SessionStatus.CANCELLED);
+            // Future appointments (not cancelled) within the access window
+            boolean hasAccess = accessIndex.canAccess(doctorId, patientId);
 
             if (hasAccess) {
                 log.debug("Doctor {} has access to patient {} medical records", doctorId, patientId);
@@ -87,34 +94,87 @@ public class MedicalFileAccessService {
      * Returns patients with future appointments within the access window.
      *
      * Architecture notes:
-     * - Uses AppointmentSessionService to get appointments with patients loaded (EntityGraph)
+     * - Uses PatientService to stream distinct patient rows straight from the database
+     *   (EXISTS subquery) - no sessions are loaded and nothing is deduplicated in Java
      *
      * @param doctorId Doctor identifier
      * @return Result containing list of PatientDto or error message
      */
     public Result<List<PatientDto>> getPatientsAccessibleToDoctor(UUID doctorId) {
+        List<PatientDto> patients = new ArrayList<>();
+        Result<Integer> result = forEachPatientAccessibleToDoctor(doctorId, patients::add);
+        if (result.isFailure()) {
+            return Result.failure(result.getErrorMessage());
+        }
+
+        log.info("Doctor {} has access to {} patients", doctorId, patients.size());
+
+        return Result.success(patients);
+    }
+
+    /**
+     * Retrieves one page of the patients that a doctor can currently access, ordered by name.
+     *
+     * Architecture notes:
+     * - Uses PatientService paged projection query (distinct rows, count query on patients)
+     *
+     * @param doctorId Doctor identifier
+     * @param pageable Page request
+     * @return Result containing page of PatientDto or error message
+     */
+    public Result<Page<PatientDto>> getPatientsAccessibleToDoctor(UUID doctorId, Pageable pageable) {
         try {
             if (doctorId == null) {
                 return Result.failure("Doctor ID is required");
             }
+            if (pageable == null) {
+                return Result.failure("Page request is required");
+            }
 
             LocalDateTime now = LocalDateTime.now();
             LocalDateTime futureLimit = now.plusDays(ACCESS_WINDOW_DAYS);
 
-            // Get all future appointments (not cancelled) with patients loaded via AppointmentSessionService
-            List<AppointmentSession> futureAppointments = appointmentSessionService
-                .getAppointmentsInRangeWithPatient(doctorId, now, futureLimit, SessionStatus.CANCELLED);
+            Page<PatientDto> page = patientService.findPatientsWithDoctorAppointments(
+                doctorId, now, futureLimit, SessionStatus.CANCELLED, pageable);
+
+            return Result.success(page);
+
+        } catch (Exception e) {
+            log.error("Error getting accessible patients page", e);
+            return Result.failure("Failed to get accessible patients: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the patients that a doctor can currently access to a consumer, ordered by name.
+     * Rows are fetched in chunks, so memory stays flat however many patients match.
+     *
+     * @param doctorId Doctor identifier
+     * @param consumer Receives each PatientDto (runs inside the read transaction)
+     * @return Result containing the number of patients streamed or error message
+     */
+    public Result<Integer> forEachPatientAccessibleToDoctor(UUID doctorId, Consumer<PatientDto> consumer) {
+        try {
+            if (doctorId == null) {
+                return Result.failure("Doctor ID is required");
+            }
+            if (consumer == null) {
+                return Result.failure("Consumer is required");
+            }
 
-            // Extract unique patients
-            List<PatientDto> patients = futureAppointments.stream()
-                .map(AppointmentSession::getPatient)
-                .distinct()
-                .map(patientMapper::toDto)
-                .collect(Collectors.toList());
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime futureLimit = now.plusDays(ACCESS_WINDOW_DAYS);
 
-            log.info("Doctor {} has access to {} patients", doctorId, patients.size());
+            int count = 0;
+            try (Stream<PatientDto> patients = patientService.streamPatientsWithDoctorAppointments(
+                    doctorId, now, futureLimit, SessionStatus.CANCELLED)) {
+                for (PatientDto patient : (Iterable<PatientDto>) patients::iterator) {
+                    consumer.accept(patient);
+                    count++;
+                }
+            }
 
-            return Result.success(patients);
+            return Result.success(count);
 
         } catch (Exception e) {
             log.error("Error getting accessible patients", e);
@@ -156,4 +216,14 @@ public class MedicalFileAccessService {
             return Result.failure("Failed to check appointments: " + e.getMessage());
         }
     }
+
+    /**
+     * Retrieves hit/miss statistics of the in-memory access index.
+     *
+     * @return Result containing index statistics
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Result<MedicalFileAccessIndex.Stats> getAccessIndexStats() {
+        return Result.success(accessIndex.getStats());
+    }
 }
@@ -3,19 +3,29 @@ package com.example.policlicabine.service;
 import com.example.policlicabine.common.Result;
 import com.example.policlicabine.dto.PatientDto;
 import com.example.policlicabine.entity.Patient;
+import com.example.policlicabine.entity.enums.SessionStatus;
 import com.example.policlicabine.event.PatientConsentStatusChanged;
 import com.example.policlicabine.event.PatientPersonalInfoUpdated;
 import com.example.policlicabine.event.PatientRegistered;
 import com.example.policlicabine.mapper.PatientMapper;
 import com.example.policlicabine.repository.PatientRepository;
+import com.example.policlicabine.repository.projection.PatientName;
 import com.example.policlicabine.service.base.BaseServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Service for managing Patient entities.
@@ -282,4 +292,81 @@ public class PatientService extends BaseServiceImpl<Patient, PatientDto, UUID> {
     public Result<Void> validatePatientExists(UUID patientId) {
         return validateExists(patientId);
     }
+
+    /**
+     * INTERNAL: Gets a patient's display name, validating that the patient exists.
+     * Used by AppointmentSessionService so bookings carry the name on AppointmentScheduled
+     * (one query, like validatePatientExists).
+     *
+     * @param patientId Patient identifier
+     * @return Result containing "first last" or failure if the patient does not exist
+     */
+    @Transactional(readOnly = true)
+    public Result<String> getPatientName(UUID patientId) {
+        if (patientId == null) {
+            return Result.failure("Patient ID is required");
+        }
+        String name = findNamesByIds(List.of(patientId)).get(patientId);
+        return name != null ? Result.success(name) : Result.failure("Patient not found");
+    }
+
+    /**
+     * INTERNAL: Gets the display names of the given patients in a single query.
+     * Used by AppointmentSessionService for set-based validation of bulk bookings
+     * (missing patients are absent from the map).
+     *
+     * @param patientIds Patient identifiers
+     * @return Map of patient ID to "first last" for the patients that exist (never null)
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, String> findNamesByIds(Collection<UUID> patientIds) {
+        if (patientIds == null || patientIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, String> names = new HashMap<>();
+        for (PatientName row : patientRepository.findNamesByIds(patientIds)) {
+            names.put(row.patientId(), row.fullName());
+        }
+        return names;
+    }
+
+    /**
+     * INTERNAL: Streams patients having an appointment with the doctor in a date range.
+     * Used by MedicalFileAccessService. Must be consumed inside the caller's transaction
+     * and closed (try-with-resources).
+     *
+     * @param doctorId Doctor identifier
+     * @param fromDate Start date
+     * @param toDate End date (exclusive)
+     * @param excludeStatus Status to exclude (e.g., CANCELLED)
+     * @return Stream of distinct PatientDto ordered by name
+     */
+    @Transactional(readOnly = true)
+    public Stream<PatientDto> streamPatientsWithDoctorAppointments(UUID doctorId,
+                                                                   LocalDateTime fromDate,
+                                                                   LocalDateTime toDate,
+                                                                   SessionStatus excludeStatus) {
+        return patientRepository.streamPatientsWithDoctorAppointments(doctorId, fromDate, toDate, excludeStatus);
+    }
+
+    /**
+     * INTERNAL: One page of patients having an appointment with the doctor in a date range.
+     * Used by MedicalFileAccessService.
+     *
+     * @param doctorId Doctor identifier
+     * @param fromDate Start date
+     * @param toDate End date (exclusive)
+     * @param excludeStatus Status to exclude (e.g., CANCELLED)
+     * @param pageable Page request (sort is fixed to last name, first name)
+     * @return Page of distinct PatientDto
+     */
+    @Transactional(readOnly = true)
+    public Page<PatientDto> findPatientsWithDoctorAppointments(UUID doctorId,
+                                                               LocalDateTime fromDate,
+                                                               LocalDateTime toDate,
+                                                               SessionStatus excludeStatus,
+                                                               Pageable pageable) {
+        return patientRepository.findPatientsWithDoctorAppointments(
+            doctorId, fromDate, toDate, excludeStatus, pageable);
+    }
 }
@@ -28,6 +28,7 @@ import java.util.stream.Collectors;
  * - Only uses PaymentRepository (single responsibility)
  * - Calls InvoiceService and UserService for validation and entity access
  * - Uses EntityGraph to prevent N+1 queries
+ * - PaymentProcessed refreshes the paid invoices' stored totals (InvoiceService) in this transaction
  * - BigDecimal for all monetary calculations
  * - Defensive programming for financial operations
  */
@@ -92,7 +93,7 @@ public class PaymentService {
                 return Result.failure("User not found");
             }
 
-            // Validate payment amount against invoice totals
+            // Validate payment amount against the stored invoice totals
             BigDecimal totalInvoiceAmount = invoices.stream()
                 .map(Invoice::getTotalAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -148,7 +149,7 @@ public class PaymentService {
                 return Result.failure("Payment ID is required");
             }
 
-            // Use EntityGraph to load payment with invoices and their sessionBillings
+            // Fetch plan: payment, its invoices, then their sessionBillings - one query per level
             Payment payment = paymentRepository.findWithInvoicesAndBillingsById(paymentId)
                 .orElse(null);
             if (payment == null) {
@@ -0,0 +1,21 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.repository.projection.ReminderTarget;
+
+/**
+ * Delivery channel for appointment reminders (SMS, e-mail, ...).
+ *
+ * Implementations are called concurrently from many virtual threads and may block
+ * on I/O. Return false or throw to report a failed delivery; the session is retried
+ * on a later run until the attempt limit is reached.
+ */
+public interface ReminderChannel {
+
+    /**
+     * Sends one reminder.
+     *
+     * @param target Session and patient contact details
+     * @return true if the reminder was delivered
+     */
+    boolean send(ReminderTarget target) throws Exception;
+}
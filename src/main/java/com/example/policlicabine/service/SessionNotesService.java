@@ -0,0 +1,151 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.SessionNotes;
+import com.example.policlicabine.entity.enums.SessionNoteField;
+import com.example.policlicabine.repository.SessionNotesRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the free-text clinical notes of appointment sessions.
+ *
+ * Architecture:
+ * - Only uses SessionNotesRepository (single responsibility)
+ * - Notes live in session_notes (shared primary key with the session), so session
+ *   scans never read the large TEXT columns
+ * - Writes are single upsert statements or dirty-checked edits of a @DynamicUpdate
+ *   entity, so only changed note columns are written
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class SessionNotesService {
+
+    // Only our repository - single responsibility principle
+    private final SessionNotesRepository sessionNotesRepository;
+
+    // ============= INTERNAL METHODS FOR SERVICE-TO-SERVICE COMMUNICATION =============
+
+    /**
+     * INTERNAL: Gets the notes of a session.
+     * Used by AppointmentSessionService when building full session DTOs.
+     *
+     * @param sessionId Session identifier
+     * @return SessionNotes or null if the session has no notes
+     */
+    @Transactional(readOnly = true)
+    public SessionNotes getNotes(UUID sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        return sessionNotesRepository.findById(sessionId).orElse(null);
+    }
+
+    /**
+     * INTERNAL: Gets the notes of many sessions with one IN query.
+     * Used by AppointmentSessionService when building full DTOs for a list of sessions.
+     *
+     * @param sessionIds Session identifiers
+     * @return Map of session ID to notes (sessions without notes are absent, never null)
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, SessionNotes> getNotesBySessionIds(Collection<UUID> sessionIds) {
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return Map.of();
+        }
+        return sessionNotesRepository.findAllById(sessionIds).stream()
+            .collect(Collectors.toMap(SessionNotes::getSessionId, notes -> notes));
+    }
+
+    /**
+     * INTERNAL: Writes diagnosis, treatment instructions and observations of a session.
+     * Used by AppointmentSessionService when documenting and completing sessions.
+     *
+     * @param sessionId Session identifier (must exist)
+     * @param freeTextDiagnosis Free-text diagnosis
+     * @param treatmentInstructions Treatment instructions
+     * @param freeTextObservations Additional observations
+     */
+    public void saveClinicalNotes(UUID sessionId, String freeTextDiagnosis,
+                                  String treatmentInstructions, String freeTextObservations) {
+        sessionNotesRepository.upsertClinicalNotes(
+            sessionId, freeTextDiagnosis, treatmentInstructions, freeTextObservations);
+        log.debug("Clinical notes saved for session: {}", sessionId);
+    }
+
+    /**
+     * INTERNAL: Edits the clinical notes of a session, writing only the fields whose value changed.
+     * Used by AppointmentSessionService.addMedicalInformation. Unlike saveClinicalNotes this
+     * reads the current notes first; dirty checking plus @DynamicUpdate then skips unchanged
+     * columns (or the whole UPDATE when nothing changed).
+     *
+     * @param sessionId Session identifier (must exist)
+     * @param freeTextDiagnosis Free-text diagnosis
+     * @param treatmentInstructions Treatment instructions
+     * @param freeTextObservations Additional observations
+     * @return The managed SessionNotes after the edit
+     */
+    public SessionNotes updateClinicalNotes(UUID sessionId, String freeTextDiagnosis,
+                                            String treatmentInstructions, String freeTextObservations) {
+        SessionNotes notes = sessionNotesRepository.findById(sessionId).orElse(null);
+        if (notes == null) {
+            saveClinicalNotes(sessionId, freeTextDiagnosis, treatmentInstructions, freeTextObservations);
+            return sessionNotesRepository.findById(sessionId).orElseThrow();
+        }
+
+        notes.setFreeTextDiagnosis(freeTextDiagnosis);
+        notes.setTreatmentInstructions(treatmentInstructions);
+        notes.setFreeTextObservations(freeTextObservations);
+        return notes;
+    }
+
+    /**
+     * INTERNAL: Writes a single note field, leaving the others untouched and unread.
+     * Used by AppointmentSessionService.updateSessionNote.
+     *
+     * @param sessionId Session identifier (must exist)
+     * @param field Field to write
+     * @param value New value (null clears the field)
+     */
+    public void saveNoteField(UUID sessionId, SessionNoteField field, String value) {
+        switch (field) {
+            case FREE_TEXT_DIAGNOSIS -> sessionNotesRepository.upsertFreeTextDiagnosis(sessionId, value);
+            case TREATMENT_INSTRUCTIONS -> sessionNotesRepository.upsertTreatmentInstructions(sessionId, value);
+            case FREE_TEXT_OBSERVATIONS -> sessionNotesRepository.upsertFreeTextObservations(sessionId, value);
+        }
+        log.debug("Note field {} saved for session: {}", field, sessionId);
+    }
+
+    /**
+     * INTERNAL: Records why a session was cancelled.
+     * Used by AppointmentSessionService when cancelling appointments.
+     *
+     * @param sessionId Session identifier (must exist)
+     * @param reason Cancellation reason
+     */
+    public void saveCancellationReason(UUID sessionId, String reason) {
+        sessionNotesRepository.upsertCancellationReason(sessionId, reason);
+    }
+
+    /**
+     * INTERNAL: Records the same cancellation reason for many sessions in one statement.
+     * Used by AppointmentSessionService when cancelling the rest of a recurring series.
+     *
+     * @param sessionIds Session identifiers (must exist)
+     * @param reason Cancellation reason
+     */
+    public void saveCancellationReasons(Collection<UUID> sessionIds, String reason) {
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return;
+        }
+        sessionNotesRepository.upsertCancellationReasons(sessionIds, reason);
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.enums.SessionStatus;
+import com.example.policlicabine.event.AppointmentCancelled;
+import com.example.policlicabine.repository.SurgeryRoomRepository;
+import com.example.policlicabine.repository.projection.RoomBooking;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-memory occupancy calendar for surgery rooms.
+ *
+ * Each loaded day holds one BitSet per room with a bit per 5-minute bucket,
+ * so checking or claiming a room is a nextSetBit/set over the session's
+ * buckets - O(slots), no query per room. A day is loaded from the database
+ * with a single query the first time it is needed.
+ *
+ * Reservations are tied to the caller's transaction: they are released again
+ * unless the transaction commits AND the reservation was attached to a session.
+ * The ex_session_room_no_overlap constraint guards against other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SurgeryRoomCalendar {
+
+    static final int BUCKET_MINUTES = 5;
+
+    private static final List<SessionStatus> INACTIVE_STATUSES =
+        List.of(SessionStatus.CANCELLED, SessionStatus.NO_SHOW);
+
+    private final SurgeryRoomRepository surgeryRoomRepository;
+
+    // All mutable state below is guarded by "this"
+    private final Map<LocalDate, Map<UUID, BitSet>> occupancyByDay = new HashMap<>();
+    private final Map<UUID, List<Reservation>> reservationsBySession = new HashMap<>();
+    private List<UUID> activeRoomIds;
+
+    /**
+     * A claimed [start, end) range in one room. Identity-based on purpose:
+     * the same range may be claimed, released and claimed again.
+     */
+    @Getter
+    public static final class Reservation {
+        private final UUID roomId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private UUID sessionId;
+
+        private Reservation(UUID roomId, LocalDateTime start, LocalDateTime end) {
+            this.roomId = roomId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Claims the first active room that is free for the whole range.
+     *
+     * @param start Range start
+     * @param end Range end (exclusive)
+     * @return The reservation, or empty if every room is taken
+     */
+    public Optional<Reservation> reserveAnyRoom(LocalDateTime start, LocalDateTime end) {
+        requireTransaction();
+        ensureDaysLoaded(start, end);
+        Reservation reservation = null;
+        synchronized (this) {
+            for (UUID roomId : getActiveRoomIds()) {
+                if (isFree(roomId, start, end)) {
+                    reservation = new Reservation(roomId, start, end);
+                    mark(reservation, true);
+                    break;
+                }
+            }
+        }
+        return Optional.ofNullable(reservation).map(this::releaseUnlessKept);
+    }
+
+    /**
+     * Claims a specific room for the range, e.g. to extend an existing booking.
+     *
+     * @param roomId Room identifier
+     * @param start Range start
+     * @param end Range end (exclusive)
+     * @return The reservation, or empty if the room is taken
+     */
+    public Optional<Reservation> reserveRoom(UUID roomId, LocalDateTime start, LocalDateTime end) {
+        requireTransaction();
+        ensureDaysLoaded(start, end);
+        Reservation reservation = null;
+        synchronized (this) {
+            if (isFree(roomId, start, end)) {
+                reservation = new Reservation(roomId, start, end);
+                mark(reservation, true);
+            }
+        }
+        return Optional.ofNullable(reservation).map(this::releaseUnlessKept);
+    }
+
+    /**
+     * Claims a room for a session that moves to a new range, ignoring the session's
+     * own current ranges (so it may move onto time it already holds). Prefers the
+     * session's current room.
+     *
+     * The old ranges are freed when the transaction commits and the new reservation
+     * was attached; on rollback the session keeps exactly what it held before.
+     *
+     * @param sessionId Session being moved
+     * @param preferredRoomId Room to try first (usually the current one)
+     * @param start New range start
+     * @param end New range end (exclusive)
+     * @return The reservation, or empty if no room is free for the new range
+     */
+    public Optional<Reservation> reserveForMove(UUID sessionId, UUID preferredRoomId,
+                                                LocalDateTime start, LocalDateTime end) {
+        requireTransaction();
+        ensureDaysLoaded(start, end);
+        Reservation reservation = null;
+        List<Reservation> previous;
+        synchronized (this) {
+            previous = List.copyOf(reservationsBySession.getOrDefault(sessionId, List.of()));
+            previous.forEach(held -> mark(held, false));
+
+            List<UUID> candidates = new ArrayList<>();
+            if (preferredRoomId != null) {
+                candidates.add(preferredRoomId);
+            }
+            candidates.addAll(getActiveRoomIds());
+            for (UUID roomId : candidates) {
+                if (isFree(roomId, start, end)) {
+                    reservation = new Reservation(roomId, start, end);
+                    mark(reservation, true);
+                    break;
+                }
+            }
+
+            // Until commit the session still holds its old ranges
+            previous.forEach(held -> mark(held, true));
+        }
+        if (reservation == null) {
+            return Optional.empty();
+        }
+
+        Reservation moved = releaseUnlessKept(reservation);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (SurgeryRoomCalendar.this) {
+                    if (status == STATUS_COMMITTED && moved.sessionId != null) {
+                        List<Reservation> held = reservationsBySession.get(sessionId);
+                        for (Reservation old : previous) {
+                            mark(old, false);
+                            if (held != null) {
+                                held.remove(old);
+                            }
+                        }
+                        // Old and new ranges may share buckets
+                        mark(moved, true);
+                    } else {
+                        // The new claim was just released - restore buckets it shared with the old ranges
+                        previous.forEach(old -> mark(old, true));
+                    }
+                }
+            }
+        });
+        return Optional.of(moved);
+    }
+
+    /**
+     * Binds a reservation to the session that now holds the room.
+     * Only attached reservations survive the transaction commit.
+     *
+     * @param reservation Reservation returned by reserveAnyRoom/reserveRoom
+     * @param sessionId Session identifier
+     */
+    public synchronized void attach(Reservation reservation, UUID sessionId) {
+        reservation.sessionId = sessionId;
+        reservationsBySession.computeIfAbsent(sessionId, id -> new ArrayList<>()).add(reservation);
+    }
+
+    /**
+     * Frees every range held by a session.
+     *
+     * @param sessionId Session identifier
+     */
+    public synchronized void releaseSession(UUID sessionId) {
+        List<Reservation> reservations = reservationsBySession.remove(sessionId);
+        if (reservations != null) {
+            reservations.forEach(reservation -> mark(reservation, false));
+        }
+    }
+
+    /**
+     * Reloads the list of active rooms (after a room is added or deactivated).
+     */
+    public synchronized void refreshRooms() {
+        activeRoomIds = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAppointmentCancelled(AppointmentCancelled event) {
+        releaseSession(event.sessionId());
+    }
+
+    /**
+     * Checked before anything is marked: a claim without a transaction to release it
+     * would keep its buckets occupied for good.
+     */
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Room reservations require an active transaction");
+        }
+    }
+
+    private Reservation releaseUnlessKept(Reservation reservation) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (SurgeryRoomCalendar.this) {
+                    if (status != STATUS_COMMITTED || reservation.sessionId == null) {
+                        mark(reservation, false);
+                        if (reservation.sessionId != null) {
+                            List<Reservation> held = reservationsBySession.get(reservation.sessionId);
+                            if (held != null) {
+                                held.remove(reservation);
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        return reservation;
+    }
+
+    private List<UUID> getActiveRoomIds() {
+        if (activeRoomIds == null) {
+            activeRoomIds = List.copyOf(surgeryRoomRepository.findActiveRoomIds());
+        }
+        return activeRoomIds;
+    }
+
+    private void ensureDaysLoaded(LocalDateTime start, LocalDateTime end) {
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            boolean loaded;
+            synchronized (this) {
+                loaded = occupancyByDay.containsKey(day);
+            }
+            if (!loaded) {
+                loadDay(day);
+            }
+        }
+    }
+
+    private void loadDay(LocalDate day) {
+        // Query outside the lock; first loader wins
+        List<RoomBooking> bookings = surgeryRoomRepository.findRoomBookings(
+            day.atStartOfDay(), day.plusDays(1).atStartOfDay(), INACTIVE_STATUSES);
+
+        synchronized (this) {
+            if (occupancyByDay.containsKey(day)) {
+                return;
+            }
+            evictPastDays();
+            occupancyByDay.put(day, new HashMap<>());
+
+            for (RoomBooking booking : bookings) {
+                if (booking.end() == null) {
+                    continue;
+                }
+                Reservation reservation = new Reservation(booking.roomId(), booking.start(), booking.end());
+                reservation.sessionId = booking.sessionId();
+                mark(reservation, true);
+                // Multi-day bookings are seen once per day - keep a single handle for release
+                reservationsBySession.computeIfAbsent(booking.sessionId(), id -> new ArrayList<>());
+                List<Reservation> held = reservationsBySession.get(booking.sessionId());
+                if (held.isEmpty()) {
+                    held.add(reservation);
+                }
+            }
+            log.debug("Surgery room occupancy loaded for {} ({} bookings)", day, bookings.size());
+        }
+    }
+
+    private void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        occupancyByDay.keySet().removeIf(day -> day.isBefore(today));
+        reservationsBySession.values().removeIf(held ->
+            held.stream().allMatch(reservation -> reservation.end.toLocalDate().isBefore(today)));
+    }
+
+    private boolean isFree(UUID roomId, LocalDateTime start, LocalDateTime end) {
+        for (Segment segment : segments(start, end)) {
+            Map<UUID, BitSet> rooms = occupancyByDay.get(segment.day());
+            BitSet buckets = rooms != null ? rooms.get(roomId) : null;
+            if (buckets != null) {
+                int next = buckets.nextSetBit(segment.fromBucket());
+                if (next >= 0 && next < segment.toBucket()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void mark(Reservation reservation, boolean occupied) {
+        for (Segment segment : segments(reservation.start, reservation.end)) {
+            Map<UUID, BitSet> rooms = occupancyByDay.get(segment.day());
+            if (rooms == null) {
+                // Day was evicted or never loaded - the database is the source of truth there
+                continue;
+            }
+            BitSet buckets = rooms.computeIfAbsent(reservation.roomId, id -> new BitSet());
+            buckets.set(segment.fromBucket(), segment.toBucket(), occupied);
+        }
+    }
+
+    /**
+     * Splits [start, end) into per-day bucket ranges, rounding outwards to whole buckets.
+     */
+    private static List<Segment> segments(LocalDateTime start, LocalDateTime end) {
+        List<Segment> segments = new ArrayList<>(1);
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+            LocalDateTime segmentStart = start.isAfter(dayStart) ? start : dayStart;
+            LocalDateTime segmentEnd = end.isBefore(dayEnd) ? end : dayEnd;
+
+            int fromBucket = (int) (Duration.between(dayStart, segmentStart).toMinutes() / BUCKET_MINUTES);
+            int toBucket = (int) Math.ceilDiv(Duration.between(dayStart, segmentEnd).toMinutes(), BUCKET_MINUTES);
+            if (toBucket > fromBucket) {
+                segments.add(new Segment(day, fromBucket, toBucket));
+            }
+        }
+        return segments;
+    }
+
+    private record Segment(LocalDate day, int fromBucket, int toBucket) {}
+}
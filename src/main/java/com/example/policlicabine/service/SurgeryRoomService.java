@@ -0,0 +1,206 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.SurgeryRoomDto;
+import com.example.policlicabine.entity.SurgeryRoom;
+import com.example.policlicabine.mapper.SurgeryRoomMapper;
+import com.example.policlicabine.repository.SurgeryRoomRepository;
+import com.example.policlicabine.service.base.BaseServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service for managing SurgeryRoom entities and room allocation.
+ *
+ * Architecture:
+ * - Extends BaseServiceImpl for common CRUD operations (findById, validateExists, getEntityById)
+ * - Only uses SurgeryRoomRepository (single responsibility)
+ * - Allocation is answered by SurgeryRoomCalendar (in-memory per-day occupancy bitsets)
+ *
+ * Inherited Methods (from BaseServiceImpl):
+ * - findById(UUID) → Result&lt;SurgeryRoomDto&gt;
+ * - validateExists(UUID) → Result&lt;Void&gt;
+ * - getEntityById(UUID) → SurgeryRoom
+ * - getEntitiesByIds(List&lt;UUID&gt;) → List&lt;SurgeryRoom&gt;
+ * - findAll() → Result&lt;List&lt;SurgeryRoomDto&gt;&gt;
+ */
+@Service
+@Slf4j
+@Transactional
+public class SurgeryRoomService extends BaseServiceImpl<SurgeryRoom, SurgeryRoomDto, UUID> {
+
+    private final SurgeryRoomRepository surgeryRoomRepository;
+    private final SurgeryRoomMapper surgeryRoomMapper;
+    private final SurgeryRoomCalendar surgeryRoomCalendar;
+
+    public SurgeryRoomService(SurgeryRoomRepository surgeryRoomRepository,
+                              SurgeryRoomMapper surgeryRoomMapper,
+                              SurgeryRoomCalendar surgeryRoomCalendar) {
+        super(surgeryRoomRepository, surgeryRoomMapper);
+        this.surgeryRoomRepository = surgeryRoomRepository;
+        this.surgeryRoomMapper = surgeryRoomMapper;
+        this.surgeryRoomCalendar = surgeryRoomCalendar;
+    }
+
+    @Override
+    protected SurgeryRoomDto toDto(SurgeryRoom entity) {
+        return surgeryRoomMapper.toDto(entity);
+    }
+
+    @Override
+    protected String getEntityName() {
+        return "Surgery room";
+    }
+
+    @Override
+    protected void updateEntityFromDto(SurgeryRoom entity, SurgeryRoomDto dto) {
+        if (dto.getName() != null && !dto.getName().trim().isEmpty()) {
+            entity.setName(dto.getName().trim());
+        }
+        // Don't update: isActive (use activate/deactivate so the calendar is refreshed)
+    }
+
+    /**
+     * Creates a new surgery room, increasing allocation capacity.
+     *
+     * @param name Unique room name
+     * @return Result containing SurgeryRoomDto or error message
+     */
+    public Result<SurgeryRoomDto> createRoom(String name) {
+        try {
+            if (name == null || name.trim().isEmpty()) {
+                return Result.failure("Room name is required");
+            }
+            if (surgeryRoomRepository.existsByName(name.trim())) {
+                return Result.failure("Surgery room already exists with this name");
+            }
+
+            SurgeryRoom room = SurgeryRoom.builder()
+                .name(name.trim())
+                .build();
+
+            SurgeryRoom savedRoom = surgeryRoomRepository.save(room);
+            surgeryRoomCalendar.refreshRooms();
+
+            log.info("Surgery room created: {} ({})", savedRoom.getRoomId(), savedRoom.getName());
+
+            return Result.success(surgeryRoomMapper.toDto(savedRoom));
+
+        } catch (Exception e) {
+            log.error("Error creating surgery room", e);
+            return Result.failure("Failed to create surgery room: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Takes a room out of allocation. Existing bookings keep their room.
+     *
+     * @param roomId Room identifier
+     * @return Result containing updated SurgeryRoomDto or error message
+     */
+    public Result<SurgeryRoomDto> deactivateRoom(UUID roomId) {
+        try {
+            if (roomId == null) {
+                return Result.failure("Room ID is required");
+            }
+
+            SurgeryRoom room = surgeryRoomRepository.findById(roomId).orElse(null);
+            if (room == null) {
+                return Result.failure("Surgery room not found");
+            }
+
+            room.setIsActive(false);
+            SurgeryRoom savedRoom = surgeryRoomRepository.save(room);
+            surgeryRoomCalendar.refreshRooms();
+
+            log.info("Surgery room deactivated: {}", roomId);
+
+            return Result.success(surgeryRoomMapper.toDto(savedRoom));
+
+        } catch (Exception e) {
+            log.error("Error deactivating surgery room", e);
+            return Result.failure("Failed to deactivate surgery room: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves all rooms currently available for allocation.
+     *
+     * @return Result containing list of SurgeryRoomDto or error message
+     */
+    @Transactional(readOnly = true)
+    public Result<List<SurgeryRoomDto>> getActiveRooms() {
+        try {
+            List<SurgeryRoomDto> rooms = surgeryRoomRepository.findByIsActiveTrueOrderByName().stream()
+                .map(surgeryRoomMapper::toDto)
+                .collect(Collectors.toList());
+
+            return Result.success(rooms);
+
+        } catch (Exception e) {
+            log.error("Error getting active surgery rooms", e);
+            return Result.failure("Failed to get surgery rooms: " + e.getMessage());
+        }
+    }
+
+    // ============= INTERNAL METHODS FOR SERVICE-TO-SERVICE COMMUNICATION =============
+
+    /**
+     * INTERNAL: Claims any free room for [start, end).
+     * Used by AppointmentSessionService when booking sessions that need a room.
+     * The claim is dropped automatically unless the transaction commits and
+     * attachReservation() was called.
+     *
+     * @param start Range start
+     * @param end Range end (exclusive)
+     * @return Reservation or empty if all rooms are occupied
+     */
+    public Optional<SurgeryRoomCalendar.Reservation> reserveRoom(LocalDateTime start, LocalDateTime end) {
+        return surgeryRoomCalendar.reserveAnyRoom(start, end);
+    }
+
+    /**
+     * INTERNAL: Claims a specific room for [start, end), e.g. when a session grows longer.
+     *
+     * @param roomId Room identifier
+     * @param start Range start
+     * @param end Range end (exclusive)
+     * @return Reservation or empty if the room is occupied
+     */
+    public Optional<SurgeryRoomCalendar.Reservation> reserveRoom(UUID roomId, LocalDateTime start, LocalDateTime end) {
+        return surgeryRoomCalendar.reserveRoom(roomId, start, end);
+    }
+
+    /**
+     * INTERNAL: Claims a room for a session moving to [start, end), preferring its current room.
+     * Used by AppointmentSessionService when rescheduling. The session's old ranges are
+     * freed on commit once attachReservation() was called for the new one.
+     *
+     * @param sessionId Session being moved
+     * @param currentRoomId Current room (tried first, may be null)
+     * @param start New range start
+     * @param end New range end (exclusive)
+     * @return Reservation or empty if no room is free
+     */
+    public Optional<SurgeryRoomCalendar.Reservation> reserveRoomForMove(UUID sessionId, UUID currentRoomId,
+                                                                        LocalDateTime start, LocalDateTime end) {
+        return surgeryRoomCalendar.reserveForMove(sessionId, currentRoomId, start, end);
+    }
+
+    /**
+     * INTERNAL: Binds a reservation to the session that was saved with the room.
+     *
+     * @param reservation Reservation from reserveRoom()
+     * @param sessionId Session identifier
+     */
+    public void attachReservation(SurgeryRoomCalendar.Reservation reservation, UUID sessionId) {
+        surgeryRoomCalendar.attach(reservation, sessionId);
+    }
+}
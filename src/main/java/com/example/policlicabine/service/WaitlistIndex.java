@@ -0,0 +1,140 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.enums.Specialty;
+import com.example.policlicabine.repository.projection.WaitlistCandidate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * In-memory priority index of waiting waitlist entries.
+ *
+ * Entries are kept in priority order (priority desc, then oldest first) in one
+ * sorted set per requested doctor and one per requested specialty. Matching a
+ * freed slot walks only the doctor's set and the sets of the doctor's specialties,
+ * best first, and stops at the first fitting entry in each - no query.
+ *
+ * claimBest() removes the winner atomically, so cancellations arriving in bursts
+ * (even concurrently) never offer the same entry twice. Callers put the candidate
+ * back with add() if the offer cannot be recorded.
+ */
+@Component
+public class WaitlistIndex {
+
+    static final Comparator<WaitlistCandidate> BEST_FIRST = Comparator
+        .comparingInt(WaitlistCandidate::priority).reversed()
+        .thenComparing(WaitlistCandidate::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(WaitlistCandidate::entryId);
+
+    // All state below is guarded by "this"
+    private final Map<UUID, NavigableSet<WaitlistCandidate>> byDoctor = new HashMap<>();
+    private final Map<Specialty, NavigableSet<WaitlistCandidate>> bySpecialty = new EnumMap<>(Specialty.class);
+    private final Map<UUID, WaitlistCandidate> byEntry = new HashMap<>();
+
+    /**
+     * Replaces the whole index (startup / rebuild).
+     *
+     * @param candidates All waiting entries
+     */
+    public synchronized void replaceAll(Collection<WaitlistCandidate> candidates) {
+        byDoctor.clear();
+        bySpecialty.clear();
+        byEntry.clear();
+        candidates.forEach(this::addInternal);
+    }
+
+    public synchronized void add(WaitlistCandidate candidate) {
+        remove(candidate.entryId());
+        addInternal(candidate);
+    }
+
+    public synchronized void remove(UUID entryId) {
+        WaitlistCandidate candidate = byEntry.remove(entryId);
+        if (candidate != null) {
+            setFor(candidate).remove(candidate);
+        }
+    }
+
+    public synchronized int size() {
+        return byEntry.size();
+    }
+
+    /**
+     * Finds and removes the best entry that fits a freed slot.
+     *
+     * @param doctorId Doctor whose slot was freed
+     * @param doctorSpecialties That doctor's specialties
+     * @param slotStart Slot start
+     * @param slotEnd Slot end
+     * @param excludedPatientId Patient who cancelled (never offered their own slot back)
+     * @return The claimed candidate, or empty if nobody fits
+     */
+    public synchronized Optional<WaitlistCandidate> claimBest(UUID doctorId, Set<Specialty> doctorSpecialties,
+                                                              LocalDateTime slotStart, LocalDateTime slotEnd,
+                                                              UUID excludedPatientId) {
+        LocalDate day = slotStart.toLocalDate();
+        long slotMinutes = Duration.between(slotStart, slotEnd).toMinutes();
+
+        WaitlistCandidate best = firstFit(byDoctor.get(doctorId), day, slotMinutes, excludedPatientId);
+        for (Specialty specialty : doctorSpecialties) {
+            WaitlistCandidate candidate = firstFit(bySpecialty.get(specialty), day, slotMinutes, excludedPatientId);
+            if (candidate != null && (best == null || BEST_FIRST.compare(candidate, best) < 0)) {
+                best = candidate;
+            }
+        }
+
+        if (best != null) {
+            remove(best.entryId());
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private WaitlistCandidate firstFit(NavigableSet<WaitlistCandidate> candidates, LocalDate day,
+                                       long slotMinutes, UUID excludedPatientId) {
+        if (candidates == null) {
+            return null;
+        }
+        LocalDate today = LocalDate.now();
+        Iterator<WaitlistCandidate> iterator = candidates.iterator();
+        while (iterator.hasNext()) {
+            WaitlistCandidate candidate = iterator.next();
+            if (candidate.latestDate().isBefore(today)) {
+                // Window has passed - drop it here instead of scanning it again
+                iterator.remove();
+                byEntry.remove(candidate.entryId());
+                continue;
+            }
+            if (!day.isBefore(candidate.earliestDate())
+                    && !day.isAfter(candidate.latestDate())
+                    && candidate.requiredMinutes() <= slotMinutes
+                    && !candidate.patientId().equals(excludedPatientId)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void addInternal(WaitlistCandidate candidate) {
+        byEntry.put(candidate.entryId(), candidate);
+        setFor(candidate).add(candidate);
+    }
+
+    private NavigableSet<WaitlistCandidate> setFor(WaitlistCandidate candidate) {
+        return candidate.doctorId() != null
+            ? byDoctor.computeIfAbsent(candidate.doctorId(), id -> new TreeSet<>(BEST_FIRST))
+            : bySpecialty.computeIfAbsent(candidate.specialty(), specialty -> new TreeSet<>(BEST_FIRST));
+    }
+}
@@ -0,0 +1,575 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.AppointmentSessionDto;
+import com.example.policlicabine.dto.WaitlistEntryDto;
+import com.example.policlicabine.entity.Consultation;
+import com.example.policlicabine.entity.Doctor;
+import com.example.policlicabine.entity.Patient;
+import com.example.policlicabine.entity.WaitlistEntry;
+import com.example.policlicabine.entity.enums.Specialty;
+import com.example.policlicabine.entity.enums.WaitlistStatus;
+import com.example.policlicabine.event.AppointmentCancelled;
+import com.example.policlicabine.event.WaitlistSlotOffered;
+import com.example.policlicabine.mapper.WaitlistEntryMapper;
+import com.example.policlicabine.repository.WaitlistEntryRepository;
+import com.example.policlicabine.repository.projection.WaitlistCandidate;
+import com.example.policlicabine.service.base.BaseServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the appointment waitlist.
+ *
+ * Patients register interest in an earlier slot (a doctor or a specialty, a date
+ * window and consultations). When an appointment is cancelled, the freed slot is
+ * offered to the best waiting patient, who then accepts or declines.
+ *
+ * Architecture:
+ * - Extends BaseServiceImpl for common CRUD operations (findById, validateExists, getEntityById)
+ * - Only uses WaitlistEntryRepository plus other services (single responsibility)
+ * - Matching is answered by WaitlistIndex (in memory), rebuilt from the database on startup
+ * - The index only changes after the database change commits (afterCommit hooks),
+ *   so rolled-back registrations never become offers
+ * - Offers expire after OFFER_TTL (checked every minute); the slot then goes to the next patient
+ *
+ * Inherited Methods (from BaseServiceImpl):
+ * - findById(UUID) → Result&lt;WaitlistEntryDto&gt;
+ * - validateExists(UUID) → Result&lt;Void&gt;
+ * - getEntityById(UUID) → WaitlistEntry
+ */
+@Service
+@Slf4j
+@Transactional
+public class WaitlistService extends BaseServiceImpl<WaitlistEntry, WaitlistEntryDto, UUID> {
+
+    // Stale index entries tolerated per cancellation before giving up
+    private static final int MAX_CLAIM_ATTEMPTS = 5;
+
+    // Unanswered offers go back to waiting after this long, freeing the slot for the next patient
+    static final Duration OFFER_TTL = Duration.ofMinutes(30);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final WaitlistEntryMapper waitlistMapper;
+    private final WaitlistIndex waitlistIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Services for data access - service-to-service communication
+    private final PatientService patientService;
+    private final DoctorService doctorService;
+    private final ConsultationService consultationService;
+    private final AppointmentSessionService appointmentSessionService;
+
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate bookingTransaction;
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository,
+                           WaitlistEntryMapper waitlistMapper,
+                           WaitlistIndex waitlistIndex,
+                           ApplicationEventPublisher eventPublisher,
+                           PatientService patientService,
+                           DoctorService doctorService,
+                           ConsultationService consultationService,
+                           AppointmentSessionService appointmentSessionService,
+                           PlatformTransactionManager transactionManager) {
+        super(waitlistRepository, waitlistMapper);
+        this.waitlistRepository = waitlistRepository;
+        this.waitlistMapper = waitlistMapper;
+        this.waitlistIndex = waitlistIndex;
+        this.eventPublisher = eventPublisher;
+        this.patientService = patientService;
+        this.doctorService = doctorService;
+        this.consultationService = consultationService;
+        this.appointmentSessionService = appointmentSessionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookingTransaction = new TransactionTemplate(transactionManager);
+        this.bookingTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    protected WaitlistEntryDto toDto(WaitlistEntry entity) {
+        return waitlistMapper.toDto(entity);
+    }
+
+    @Override
+    protected String getEntityName() {
+        return "Waitlist entry";
+    }
+
+    @Override
+    protected void updateEntityFromDto(WaitlistEntry entity, WaitlistEntryDto dto) {
+        // Entries are immutable apart from their lifecycle (join / offer / accept / decline / leave)
+    }
+
+    /**
+     * Registers a patient on the waitlist.
+     *
+     * Architecture notes:
+     * - Uses PatientService / DoctorService for validation
+     * - Uses ConsultationService to resolve consultations and the required slot length
+     *
+     * @param patientId Patient identifier
+     * @param doctorId Specific doctor (null to accept any doctor of the specialty)
+     * @param specialty Specialty (used only when doctorId is null)
+     * @param earliestDate First acceptable day
+     * @param latestDate Last acceptable day
+     * @param consultationNames Consultations to book
+     * @param priority Higher is served first (null for 0)
+     * @return Result containing WaitlistEntryDto or error message
+     */
+    public Result<WaitlistEntryDto> joinWaitlist(UUID patientId, UUID doctorId, Specialty specialty,
+                                                 LocalDate earliestDate, LocalDate latestDate,
+                                                 List<String> consultationNames, Integer priority) {
+        try {
+            Result<Void> patientValidation = patientService.validatePatientExists(patientId);
+            if (patientValidation.isFailure()) {
+                return Result.failure(patientValidation.getErrorMessage());
+            }
+            if (doctorId == null && specialty == null) {
+                return Result.failure("Doctor or specialty is required");
+            }
+            if (doctorId != null) {
+                Result<Void> doctorValidation = doctorService.validateExists(doctorId);
+                if (doctorValidation.isFailure()) {
+                    return Result.failure(doctorValidation.getErrorMessage());
+                }
+            }
+            if (earliestDate == null || latestDate == null || latestDate.isBefore(earliestDate)) {
+                return Result.failure("A valid date window is required");
+            }
+            if (latestDate.isBefore(LocalDate.now())) {
+                return Result.failure("Date window is in the past");
+            }
+            if (consultationNames == null || consultationNames.isEmpty()) {
+                return Result.failure("At least one consultation is required");
+            }
+
+            List<Consultation> consultations = consultationService.getEntitiesByNames(consultationNames);
+            if (consultations.size() != consultationNames.size()) {
+                return Result.failure("Some consultations not found or inactive");
+            }
+
+            WaitlistEntry entry = WaitlistEntry.builder()
+                .patient(patientService.getEntityById(patientId))
+                .doctor(doctorId != null ? doctorService.getEntityById(doctorId) : null)
+                .specialty(doctorId == null ? specialty : null)
+                .earliestDate(earliestDate)
+                .latestDate(latestDate)
+                .consultationNames(new ArrayList<>(consultationNames))
+                .requiredMinutes(consultations.stream().mapToInt(Consultation::getEffectiveDurationMinutes).sum())
+                .priority(priority != null ? priority : 0)
+                .build();
+
+            WaitlistEntry savedEntry = waitlistRepository.save(entry);
+            indexAfterCommit(savedEntry);
+
+            log.info("Patient {} joined waitlist: {}", patientId, savedEntry.getEntryId());
+
+            return Result.success(waitlistMapper.toDto(savedEntry));
+
+        } catch (Exception e) {
+            log.error("Error joining waitlist", e);
+            return Result.failure("Failed to join waitlist: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes a patient's entry from the waitlist (waiting or offered).
+     *
+     * @param entryId Entry identifier
+     * @return Result containing updated WaitlistEntryDto or error message
+     */
+    public Result<WaitlistEntryDto> leaveWaitlist(UUID entryId) {
+        try {
+            WaitlistEntry entry = waitlistRepository.findWithRelationshipsByEntryId(entryId).orElse(null);
+            if (entry == null) {
+                return Result.failure("Waitlist entry not found");
+            }
+            if (entry.getStatus() == WaitlistStatus.BOOKED || entry.getStatus() == WaitlistStatus.CANCELLED) {
+                return Result.failure("Waitlist entry is already closed");
+            }
+
+            entry.setStatus(WaitlistStatus.CANCELLED);
+            clearOffer(entry);
+            WaitlistEntry savedEntry = waitlistRepository.save(entry);
+            afterCommit(() -> waitlistIndex.remove(entryId));
+
+            log.info("Waitlist entry cancelled: {}", entryId);
+
+            return Result.success(waitlistMapper.toDto(savedEntry));
+
+        } catch (Exception e) {
+            log.error("Error leaving waitlist", e);
+            return Result.failure("Failed to leave waitlist: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Accepts a pending offer by booking the offered slot.
+     *
+     * Architecture notes:
+     * - Uses AppointmentSessionService.scheduleAppointment (overlap and room checks apply);
+     *   if the slot is gone the entry goes back to waiting
+     * - Three short transactions: read the offer, book (REQUIRES_NEW, so a booking rejected by
+     *   the database rolls back only itself), then record the outcome on the entry
+     * - Expired offers (OFFER_TTL, or slot already started) are rejected
+     *
+     * @param entryId Entry identifier
+     * @return Result containing the booked AppointmentSessionDto or error message
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Result<AppointmentSessionDto> acceptOffer(UUID entryId) {
+        try {
+            Result<PendingOffer> pending = transactionTemplate.execute(status -> readPendingOffer(entryId));
+            if (pending.isFailure()) {
+                return Result.failure(pending.getErrorMessage());
+            }
+            PendingOffer offer = pending.getValue();
+
+            Result<AppointmentSessionDto> booking;
+            try {
+                booking = bookingTransaction.execute(status -> {
+                    Result<AppointmentSessionDto> result = appointmentSessionService.scheduleAppointment(
+                        offer.patientId(), offer.doctorId(), offer.consultationNames(), offer.slotStart(), false);
+                    if (result.isFailure()) {
+                        // Roll back quietly (scheduleAppointment may have marked it rollback-only)
+                        status.setRollbackOnly();
+                    }
+                    return result;
+                });
+            } catch (Exception e) {
+                log.warn("Booking offered slot for waitlist entry {} failed", entryId, e);
+                booking = Result.failure(e.getMessage());
+            }
+
+            Result<AppointmentSessionDto> outcome = booking;
+            transactionTemplate.executeWithoutResult(status -> recordAcceptOutcome(entryId, offer, outcome));
+
+            if (booking.isFailure()) {
+                return Result.failure("Offered slot is no longer available: " + booking.getErrorMessage());
+            }
+
+            log.info("Waitlist entry {} booked as session {}", entryId, booking.getValue().getSessionId());
+
+            return booking;
+
+        } catch (Exception e) {
+            log.error("Error accepting waitlist offer", e);
+            return Result.failure("Failed to accept offer: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Declines a pending offer; the entry keeps its place in the waitlist.
+     *
+     * @param entryId Entry identifier
+     * @return Result containing updated WaitlistEntryDto or error message
+     */
+    public Result<WaitlistEntryDto> declineOffer(UUID entryId) {
+        try {
+            WaitlistEntry entry = waitlistRepository.findWithRelationshipsByEntryId(entryId).orElse(null);
+            if (entry == null) {
+                return Result.failure("Waitlist entry not found");
+            }
+            if (entry.getStatus() != WaitlistStatus.OFFERED) {
+                return Result.failure("Waitlist entry has no pending offer");
+            }
+
+            returnToWaiting(entry);
+
+            return Result.success(waitlistMapper.toDto(entry));
+
+        } catch (Exception e) {
+            log.error("Error declining waitlist offer", e);
+            return Result.failure("Failed to decline offer: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void expireOffersScheduled() {
+        Result<Integer> result = expireStaleOffers();
+        if (result.isFailure()) {
+            log.warn("Waitlist offer expiry failed: {}", result.getErrorMessage());
+        }
+    }
+
+    /**
+     * Returns unanswered offers to waiting and offers their slots to the next patient.
+     * An offer expires OFFER_TTL after it was made, or when its slot starts.
+     *
+     * Architecture notes:
+     * - Stale offers are locked with SKIP LOCKED, so nodes running this concurrently
+     *   never expire the same entry twice
+     * - The expired patient is not offered the same slot again
+     *
+     * @return Result containing the number of expired offers or error message
+     */
+    public Result<Integer> expireStaleOffers() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<WaitlistEntry> stale = waitlistRepository.findStaleOffersForUpdate(
+                WaitlistStatus.OFFERED, now.minus(OFFER_TTL), now);
+
+            for (WaitlistEntry entry : stale) {
+                UUID doctorId = entry.getOfferedDoctor().getDoctorId();
+                LocalDateTime slotStart = entry.getOfferedSlotStart();
+                LocalDateTime slotEnd = entry.getOfferedSlotEnd();
+                UUID patientId = entry.getPatient().getPatientId();
+
+                returnToWaiting(entry);
+                if (slotStart.isAfter(now)) {
+                    offerSlot(doctorId, slotStart, slotEnd, patientId);
+                }
+            }
+
+            if (!stale.isEmpty()) {
+                log.info("Expired {} unanswered waitlist offers", stale.size());
+            }
+
+            return Result.success(stale.size());
+
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.error("Error expiring waitlist offers", e);
+            return Result.failure("Failed to expire offers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves a patient's open waitlist entries (waiting or offered).
+     *
+     * @param patientId Patient identifier
+     * @return Result containing list of WaitlistEntryDto or error message
+     */
+    @Transactional(readOnly = true)
+    public Result<List<WaitlistEntryDto>> getPatientEntries(UUID patientId) {
+        try {
+            if (patientId == null) {
+                return Result.failure("Patient ID is required");
+            }
+
+            List<WaitlistEntryDto> entries = waitlistRepository
+                .findByPatientPatientIdAndStatusInOrderByCreatedAt(
+                    patientId, List.of(WaitlistStatus.WAITING, WaitlistStatus.OFFERED))
+                .stream()
+                .map(waitlistMapper::toDto)
+                .collect(Collectors.toList());
+
+            return Result.success(entries);
+
+        } catch (Exception e) {
+            log.error("Error getting waitlist entries", e);
+            return Result.failure("Failed to get waitlist entries: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the in-memory index from all waiting entries.
+     * Runs on startup; can be called again after manual data fixes.
+     *
+     * @return Result containing the number of indexed entries or error message
+     */
+    @Transactional(readOnly = true)
+    public Result<Integer> rebuildIndex() {
+        try {
+            List<WaitlistCandidate> candidates =
+                waitlistRepository.findCandidates(WaitlistStatus.WAITING, LocalDate.now());
+            waitlistIndex.replaceAll(candidates);
+
+            log.info("Waitlist index rebuilt with {} entries", candidates.size());
+
+            return Result.success(candidates.size());
+
+        } catch (Exception e) {
+            log.error("Error rebuilding waitlist index", e);
+            return Result.failure("Failed to rebuild waitlist index: " + e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void handleApplicationReady() {
+        rebuildIndex();
+    }
+
+    /**
+     * Offers the slot freed by a cancellation to the best waiting patient.
+     * Runs after the cancellation commits, in its own transaction.
+     *
+     * @param event AppointmentCancelled event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void handleAppointmentCancelled(AppointmentCancelled event) {
+        // No-shows free nothing; slots already started cannot be offered
+        if (event.wasNoShow() || event.scheduledDateTime() == null || event.scheduledEndDateTime() == null
+                || !event.scheduledDateTime().isAfter(LocalDateTime.now())) {
+            return;
+        }
+
+        try {
+            offerSlot(event.doctorId(), event.scheduledDateTime(), event.scheduledEndDateTime(), event.patientId());
+        } catch (Exception e) {
+            log.error("Error offering slot freed by session {}", event.sessionId(), e);
+        }
+    }
+
+    /**
+     * Offers a free slot to the best waiting patient, skipping stale index entries.
+     */
+    private void offerSlot(UUID doctorId, LocalDateTime slotStart, LocalDateTime slotEnd, UUID excludedPatientId) {
+        Doctor doctor = doctorService.getEntityById(doctorId);
+        Set<Specialty> specialties = doctor != null && !doctor.getSpecialties().isEmpty()
+            ? EnumSet.copyOf(doctor.getSpecialties())
+            : EnumSet.noneOf(Specialty.class);
+
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            Optional<WaitlistCandidate> claimed = waitlistIndex.claimBest(doctorId, specialties,
+                slotStart, slotEnd, excludedPatientId);
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            WaitlistEntry entry = waitlistRepository.findById(claimed.get().entryId()).orElse(null);
+            if (entry == null || !entry.isWaiting()) {
+                continue; // Index was stale for this entry - it is already removed, try the next one
+            }
+
+            entry.setStatus(WaitlistStatus.OFFERED);
+            entry.setOfferedDoctor(doctor);
+            entry.setOfferedSlotStart(slotStart);
+            entry.setOfferedSlotEnd(slotEnd);
+            entry.setOfferedAt(LocalDateTime.now());
+            waitlistRepository.save(entry);
+
+            // Put the candidate back if the offer does not commit
+            WaitlistCandidate candidate = claimed.get();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        waitlistIndex.add(candidate);
+                    }
+                }
+            });
+
+            eventPublisher.publishEvent(new WaitlistSlotOffered(entry.getEntryId(),
+                candidate.patientId(), doctorId, slotStart, slotEnd));
+
+            log.info("Slot {} - {} with doctor {} offered to waitlist entry {}",
+                slotStart, slotEnd, doctorId, entry.getEntryId());
+            return;
+        }
+    }
+
+    /**
+     * First step of acceptOffer: checks the entry has a live offer and captures it.
+     */
+    private Result<PendingOffer> readPendingOffer(UUID entryId) {
+        WaitlistEntry entry = waitlistRepository.findWithRelationshipsByEntryId(entryId).orElse(null);
+        if (entry == null) {
+            return Result.failure("Waitlist entry not found");
+        }
+        if (entry.getStatus() != WaitlistStatus.OFFERED) {
+            return Result.failure("Waitlist entry has no pending offer");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (entry.getOfferedAt().plus(OFFER_TTL).isBefore(now) || !entry.getOfferedSlotStart().isAfter(now)) {
+            return Result.failure("Offer has expired");
+        }
+        return Result.success(new PendingOffer(entry.getPatient().getPatientId(),
+            entry.getOfferedDoctor().getDoctorId(), new ArrayList<>(entry.getConsultationNames()),
+            entry.getOfferedSlotStart()));
+    }
+
+    /**
+     * Last step of acceptOffer. A booked slot always marks the entry BOOKED (even if the offer
+     * expired meanwhile); a failed booking returns the entry to waiting only while it still
+     * holds the same offer.
+     */
+    private void recordAcceptOutcome(UUID entryId, PendingOffer offer, Result<AppointmentSessionDto> booking) {
+        WaitlistEntry entry = waitlistRepository.findWithRelationshipsByEntryId(entryId).orElse(null);
+        if (entry == null) {
+            return;
+        }
+        if (booking.isSuccess()) {
+            entry.setStatus(WaitlistStatus.BOOKED);
+            entry.setBookedSessionId(booking.getValue().getSessionId());
+            waitlistRepository.save(entry);
+            afterCommit(() -> waitlistIndex.remove(entryId));
+        } else if (entry.getStatus() == WaitlistStatus.OFFERED
+                && Objects.equals(entry.getOfferedSlotStart(), offer.slotStart())) {
+            returnToWaiting(entry);
+        }
+    }
+
+    private void returnToWaiting(WaitlistEntry entry) {
+        entry.setStatus(WaitlistStatus.WAITING);
+        clearOffer(entry);
+        waitlistRepository.save(entry);
+        indexAfterCommit(entry);
+    }
+
+    private static void clearOffer(WaitlistEntry entry) {
+        entry.setOfferedDoctor(null);
+        entry.setOfferedSlotStart(null);
+        entry.setOfferedSlotEnd(null);
+        entry.setOfferedAt(null);
+    }
+
+    private void indexAfterCommit(WaitlistEntry entry) {
+        WaitlistCandidate candidate = new WaitlistCandidate(
+            entry.getEntryId(),
+            entry.getPatient().getPatientId(),
+            entry.getDoctor() != null ? entry.getDoctor().getDoctorId() : null,
+            entry.getSpecialty(),
+            entry.getEarliestDate(),
+            entry.getLatestDate(),
+            entry.getRequiredMinutes(),
+            entry.getPriority() != null ? entry.getPriority() : 0,
+            entry.getCreatedAt() != null ? entry.getCreatedAt() : LocalDateTime.now());
+        afterCommit(() -> waitlistIndex.add(candidate));
+    }
+
+    private record PendingOffer(UUID patientId, UUID doctorId, List<String> consultationNames,
+                                LocalDateTime slotStart) {}
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
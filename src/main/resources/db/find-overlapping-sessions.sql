@@ -0,0 +1,30 @@
+-- Lists the active sessions that prevent ex_session_doctor_no_overlap / ex_session_room_no_overlap
+-- from being created (schema-extensions.sql fails startup while any pair exists).
+-- Read-only; run manually with psql. Cancel or move one session of each pair, then restart.
+-- Same predicates as the constraints: [start, end) ranges, CANCELLED and NO_SHOW ignored.
+
+SELECT 'doctor' AS resource, a.doctor_id AS resource_id,
+       a.session_id, a.scheduled_date_time, a.scheduled_end_date_time, a.status,
+       b.session_id AS conflicting_session_id, b.scheduled_date_time AS conflicting_start,
+       b.scheduled_end_date_time AS conflicting_end, b.status AS conflicting_status
+FROM appointment_sessions a
+JOIN appointment_sessions b
+  ON b.doctor_id = a.doctor_id
+ AND b.session_id > a.session_id
+ AND tsrange(a.scheduled_date_time, a.scheduled_end_date_time) && tsrange(b.scheduled_date_time, b.scheduled_end_date_time)
+WHERE a.status NOT IN ('CANCELLED', 'NO_SHOW') AND b.status NOT IN ('CANCELLED', 'NO_SHOW')
+
+UNION ALL
+
+SELECT 'surgery_room', a.surgery_room_id,
+       a.session_id, a.scheduled_date_time, a.scheduled_end_date_time, a.status,
+       b.session_id, b.scheduled_date_time, b.scheduled_end_date_time, b.status
+FROM appointment_sessions a
+JOIN appointment_sessions b
+  ON b.surgery_room_id = a.surgery_room_id
+ AND b.session_id > a.session_id
+ AND tsrange(a.scheduled_date_time, a.scheduled_end_date_time) && tsrange(b.scheduled_date_time, b.scheduled_end_date_time)
+WHERE a.surgery_room_id IS NOT NULL
+  AND a.status NOT IN ('CANCELLED', 'NO_SHOW') AND b.status NOT IN ('CANCELLED', 'NO_SHOW')
+
+ORDER BY 1, 2, 4;
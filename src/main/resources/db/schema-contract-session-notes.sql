@@ -0,0 +1,42 @@
+-- Clinical notes move, contract step: drops the old note columns of appointment_sessions
+-- and the trigger that mirrored them into session_notes.
+-- Not applied yet. Add it to spring.sql.init.schema-locations after schema-extensions.sql
+-- only in a release whose predecessor already reads and writes session_notes, i.e. once
+-- no running node uses the old columns. Idempotent.
+-- The columns are only dropped when no old value is missing from session_notes: every
+-- non-null old value must either equal its session_notes value or be older than the
+-- session_notes row (changed there later by the new code). Otherwise the drop is skipped
+-- with a WARNING naming the number of sessions to reconcile by hand.
+DO $$
+DECLARE
+    unsynced integer;
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'appointment_sessions' AND column_name = 'free_text_diagnosis') THEN
+        SELECT COUNT(*) INTO unsynced
+        FROM appointment_sessions a
+        LEFT JOIN session_notes n ON n.session_id = a.session_id
+        WHERE (a.free_text_diagnosis IS NOT NULL OR a.treatment_instructions IS NOT NULL
+               OR a.free_text_observations IS NOT NULL OR a.cancellation_reason IS NOT NULL)
+          AND (n.session_id IS NULL
+               OR ((a.free_text_diagnosis IS NOT NULL AND a.free_text_diagnosis IS DISTINCT FROM n.free_text_diagnosis
+                    OR a.treatment_instructions IS NOT NULL AND a.treatment_instructions IS DISTINCT FROM n.treatment_instructions
+                    OR a.free_text_observations IS NOT NULL AND a.free_text_observations IS DISTINCT FROM n.free_text_observations
+                    OR a.cancellation_reason IS NOT NULL AND a.cancellation_reason IS DISTINCT FROM n.cancellation_reason)
+                   AND (n.updated_at IS NULL OR a.updated_at IS NULL OR n.updated_at < a.updated_at)));
+
+        IF unsynced > 0 THEN
+            RAISE WARNING 'appointment_sessions note columns not dropped: % sessions have old notes not in session_notes',
+                unsynced;
+        ELSE
+            DROP TRIGGER IF EXISTS trg_session_notes_legacy_sync ON appointment_sessions;
+            DROP FUNCTION IF EXISTS sync_session_notes_from_legacy();
+            ALTER TABLE appointment_sessions
+                DROP COLUMN free_text_diagnosis,
+                DROP COLUMN treatment_instructions,
+                DROP COLUMN free_text_observations,
+                DROP COLUMN cancellation_reason;
+        END IF;
+    END IF;
+END
+$$@@
@@ -0,0 +1,209 @@
+-- Schema objects that Hibernate's ddl-auto=update cannot express.
+-- Runs after Hibernate on every startup (spring.jpa.defer-datasource-initialization),
+-- so every statement must be idempotent. Statements are separated by @@ because
+-- PL/pgSQL blocks contain semicolons.
+
+-- Needed for "doctor_id WITH =" inside a GiST exclusion constraint
+CREATE EXTENSION IF NOT EXISTS btree_gist@@
+
+-- Backfill end times for sessions booked before scheduled_end_date_time existed
+UPDATE appointment_sessions a
+SET scheduled_end_date_time = a.scheduled_date_time + COALESCE((
+        SELECT SUM(COALESCE(c.duration_minutes, 30))
+        FROM session_consultations sc
+        JOIN consultations c ON c.consultation_id = sc.consultation_id
+        WHERE sc.session_id = a.session_id), 30) * INTERVAL '1 minute'
+WHERE a.scheduled_end_date_time IS NULL@@
+
+-- A doctor can never have two active sessions whose [start, end) ranges intersect.
+-- Final guarantee against double booking across application nodes - the services rely on
+-- it, so startup fails if existing sessions overlap: resolve the pairs listed by
+-- db/find-overlapping-sessions.sql, then restart.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_session_doctor_no_overlap') THEN
+        ALTER TABLE appointment_sessions
+            ADD CONSTRAINT ex_session_doctor_no_overlap
+            EXCLUDE USING gist (
+                doctor_id WITH =,
+                tsrange(scheduled_date_time, scheduled_end_date_time) WITH &&
+            ) WHERE (status NOT IN ('CANCELLED', 'NO_SHOW'));
+    END IF;
+EXCEPTION
+    WHEN exclusion_violation THEN
+        RAISE EXCEPTION 'ex_session_doctor_no_overlap not created: existing sessions overlap'
+            USING HINT = 'List the conflicting sessions with db/find-overlapping-sessions.sql';
+END
+$$@@
+
+-- A surgery room can only hold one active session at a time. Startup fails on overlaps, as above.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_session_room_no_overlap') THEN
+        ALTER TABLE appointment_sessions
+            ADD CONSTRAINT ex_session_room_no_overlap
+            EXCLUDE USING gist (
+                surgery_room_id WITH =,
+                tsrange(scheduled_date_time, scheduled_end_date_time) WITH &&
+            ) WHERE (surgery_room_id IS NOT NULL AND status NOT IN ('CANCELLED', 'NO_SHOW'));
+    END IF;
+EXCEPTION
+    WHEN exclusion_violation THEN
+        RAISE EXCEPTION 'ex_session_room_no_overlap not created: existing room bookings overlap'
+            USING HINT = 'List the conflicting sessions with db/find-overlapping-sessions.sql';
+END
+$$@@
+
+-- Sessions created before optimistic locking start at version 0
+UPDATE appointment_sessions SET version = 0 WHERE version IS NULL@@
+
+-- Clinical notes move from appointment_sessions into session_notes (expand step).
+-- While nodes of the previous release still write the old columns, a trigger mirrors
+-- every such write into session_notes, column by column, so edits made on old nodes
+-- reach the new readers even for sessions that already have a notes row. Created before
+-- the copy below, so no old-node write falls between the two. Dropped by the contract step.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'appointment_sessions' AND column_name = 'free_text_diagnosis') THEN
+        CREATE OR REPLACE FUNCTION sync_session_notes_from_legacy() RETURNS trigger AS $fn$
+        BEGIN
+            IF TG_OP = 'INSERT' THEN
+                IF NEW.free_text_diagnosis IS NULL AND NEW.treatment_instructions IS NULL
+                   AND NEW.free_text_observations IS NULL AND NEW.cancellation_reason IS NULL THEN
+                    RETURN NEW;
+                END IF;
+                INSERT INTO session_notes (session_id, free_text_diagnosis, treatment_instructions,
+                                           free_text_observations, cancellation_reason, updated_at)
+                VALUES (NEW.session_id, NEW.free_text_diagnosis, NEW.treatment_instructions,
+                        NEW.free_text_observations, NEW.cancellation_reason, now())
+                ON CONFLICT (session_id) DO UPDATE
+                   SET free_text_diagnosis = COALESCE(EXCLUDED.free_text_diagnosis, session_notes.free_text_diagnosis),
+                       treatment_instructions = COALESCE(EXCLUDED.treatment_instructions, session_notes.treatment_instructions),
+                       free_text_observations = COALESCE(EXCLUDED.free_text_observations, session_notes.free_text_observations),
+                       cancellation_reason = COALESCE(EXCLUDED.cancellation_reason, session_notes.cancellation_reason),
+                       updated_at = now();
+                RETURN NEW;
+            END IF;
+
+            -- UPDATE: copy only the columns this statement changed, keep the rest of session_notes
+            INSERT INTO session_notes (session_id, free_text_diagnosis, treatment_instructions,
+                                       free_text_observations, cancellation_reason, updated_at)
+            VALUES (NEW.session_id, NEW.free_text_diagnosis, NEW.treatment_instructions,
+                    NEW.free_text_observations, NEW.cancellation_reason, now())
+            ON CONFLICT (session_id) DO UPDATE
+               SET free_text_diagnosis = CASE WHEN NEW.free_text_diagnosis IS DISTINCT FROM OLD.free_text_diagnosis
+                                              THEN NEW.free_text_diagnosis ELSE session_notes.free_text_diagnosis END,
+                   treatment_instructions = CASE WHEN NEW.treatment_instructions IS DISTINCT FROM OLD.treatment_instructions
+                                                 THEN NEW.treatment_instructions ELSE session_notes.treatment_instructions END,
+                   free_text_observations = CASE WHEN NEW.free_text_observations IS DISTINCT FROM OLD.free_text_observations
+                                                 THEN NEW.free_text_observations ELSE session_notes.free_text_observations END,
+                   cancellation_reason = CASE WHEN NEW.cancellation_reason IS DISTINCT FROM OLD.cancellation_reason
+                                              THEN NEW.cancellation_reason ELSE session_notes.cancellation_reason END,
+                   updated_at = now();
+            RETURN NEW;
+        END
+        $fn$ LANGUAGE plpgsql;
+
+        IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'trg_session_notes_legacy_sync') THEN
+            CREATE TRIGGER trg_session_notes_legacy_sync
+                AFTER INSERT OR UPDATE OF free_text_diagnosis, treatment_instructions,
+                                          free_text_observations, cancellation_reason
+                ON appointment_sessions
+                FOR EACH ROW
+                EXECUTE FUNCTION sync_session_notes_from_legacy();
+        END IF;
+    END IF;
+END
+$$@@
+
+-- Copies in chunks of 5000 rows, committing after each chunk so locks stay short and a
+-- restart resumes where it stopped. Rows that already have notes keep them: they were
+-- written by the new code or mirrored by the trigger above. The old columns stay in
+-- place, so nodes of the previous release keep working during a rolling deploy and a
+-- rollback needs no schema change; they are dropped by
+-- db/schema-contract-session-notes.sql in a later release.
+-- COMMIT inside DO needs the block to run outside a transaction block: spring.sql.init
+-- executes each statement in autocommit, and a manual run must do the same (no BEGIN).
+DO $$
+DECLARE
+    moved integer;
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'appointment_sessions' AND column_name = 'free_text_diagnosis') THEN
+        LOOP
+            INSERT INTO session_notes (session_id, free_text_diagnosis, treatment_instructions,
+                                       free_text_observations, cancellation_reason, updated_at)
+            SELECT a.session_id, a.free_text_diagnosis, a.treatment_instructions,
+                   a.free_text_observations, a.cancellation_reason, now()
+            FROM appointment_sessions a
+            WHERE (a.free_text_diagnosis IS NOT NULL OR a.treatment_instructions IS NOT NULL
+                   OR a.free_text_observations IS NOT NULL OR a.cancellation_reason IS NOT NULL)
+              AND NOT EXISTS (SELECT 1 FROM session_notes n WHERE n.session_id = a.session_id)
+            LIMIT 5000
+            ON CONFLICT (session_id) DO NOTHING;
+            GET DIAGNOSTICS moved = ROW_COUNT;
+            EXIT WHEN moved = 0;
+            COMMIT;
+        END LOOP;
+    END IF;
+END
+$$@@
+
+-- Sessions created before calendar sync get their last known change time
+UPDATE appointment_sessions
+SET updated_at = COALESCE(cancelled_at, completed_at, created_at, now())
+WHERE updated_at IS NULL@@
+
+-- Billings created before line items were stored: snapshot the session's consultations as they are now
+INSERT INTO session_billing_lines (billing_id, line_number, consultation_id, consultation_name, price, currency)
+SELECT b.billing_id,
+       ROW_NUMBER() OVER (PARTITION BY b.billing_id ORDER BY c.name, c.consultation_id) - 1,
+       c.consultation_id, c.name, COALESCE(c.price, 0), COALESCE(c.price_currency, 'RON')
+FROM session_billing b
+JOIN session_consultations sc ON sc.session_id = b.session_id
+JOIN consultations c ON c.consultation_id = sc.consultation_id
+WHERE NOT EXISTS (SELECT 1 FROM session_billing_lines l WHERE l.billing_id = b.billing_id)@@
+
+UPDATE session_billing b
+SET subtotal_amount = COALESCE((SELECT SUM(l.price) FROM session_billing_lines l WHERE l.billing_id = b.billing_id), 0)
+WHERE b.subtotal_amount IS NULL@@
+
+-- Invoices created before totals were stored: derive them once (same rules as InvoiceRepository.DERIVED_TOTALS)
+UPDATE invoices i
+SET total_amount = t.total_amount,
+    total_paid = t.total_paid,
+    payment_status = CASE WHEN t.is_proforma OR t.total_paid <= 0 THEN 'PENDING'
+                          WHEN t.total_paid >= t.total_amount THEN 'FULLY_PAID'
+                          ELSE 'PARTIALLY_PAID' END
+FROM (
+    SELECT inv.invoice_id, COALESCE(inv.is_proforma, false) AS is_proforma,
+           COALESCE(billed.total, 0) AS total_amount, COALESCE(paid.total, 0) AS total_paid
+    FROM invoices inv
+    LEFT JOIN LATERAL (
+        SELECT SUM(COALESCE(b.subtotal_amount, 0) - COALESCE(disc.amount, 0)) AS total
+        FROM invoice_session_billings isb
+        JOIN session_billing b ON b.billing_id = isb.billing_id
+        LEFT JOIN LATERAL (
+            SELECT SUM(d.amount) AS amount FROM billing_discounts d
+            WHERE d.session_billing_id = b.billing_id) disc ON true
+        WHERE isb.invoice_id = inv.invoice_id) billed ON true
+    LEFT JOIN LATERAL (
+        SELECT SUM(p.amount) AS total FROM payment_invoices pi
+        JOIN payments p ON p.payment_id = pi.payment_id
+        WHERE pi.invoice_id = inv.invoice_id AND p.payment_type <> 'REFUND') paid ON true
+    WHERE inv.total_amount IS NULL
+) t
+WHERE i.invoice_id = t.invoice_id@@
+
+-- Invoice number counters continue after any existing numbers already in PF-/F-yyyy-n form
+INSERT INTO invoice_number_series (series, fiscal_year, last_number)
+SELECT CASE WHEN m[1] = 'PF' THEN 'PROFORMA' ELSE 'FINAL' END, CAST(m[2] AS integer), MAX(CAST(m[3] AS bigint))
+FROM (SELECT regexp_match(invoice_number, '^(PF|F)-(\d{4})-(\d+)$') AS m FROM invoices) numbered
+WHERE m IS NOT NULL
+GROUP BY 1, 2
+ON CONFLICT (series, fiscal_year) DO UPDATE
+   SET last_number = GREATEST(invoice_number_series.last_number, EXCLUDED.last_number)@@
+
+-- Batch invoicing checks "is this billing on any invoice" per billing; the join table has no index on billing_id
+CREATE INDEX IF NOT EXISTS idx_invoice_billings_billing ON invoice_session_billings (billing_id)@@
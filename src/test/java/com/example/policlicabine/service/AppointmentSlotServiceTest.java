@@ -0,0 +1,118 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.AvailableSlotDto;
+import com.example.policlicabine.entity.Consultation;
+import com.example.policlicabine.entity.enums.Specialty;
+import com.example.policlicabine.repository.projection.AvailabilityWindow;
+import com.example.policlicabine.repository.projection.BookedInterval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * AppointmentSlotService index maintenance against mocked services.
+ */
+class AppointmentSlotServiceTest {
+
+    private static final String CONSULTATION = "Consult";
+
+    private final UUID doctorId = UUID.randomUUID();
+    private final LocalDate day = LocalDate.now().plusDays(7);
+    private final BookedInterval eightOClock =
+        new BookedInterval(UUID.randomUUID(), doctorId, day.atTime(8, 0), day.atTime(8, 30));
+
+    private DoctorService doctorService;
+    private AppointmentSessionService appointmentSessionService;
+    private AppointmentSlotService slotService;
+
+    @BeforeEach
+    void setUp() {
+        doctorService = mock(DoctorService.class);
+        appointmentSessionService = mock(AppointmentSessionService.class);
+        ConsultationService consultationService = mock(ConsultationService.class);
+
+        when(consultationService.getEntitiesByNames(List.of(CONSULTATION)))
+            .thenReturn(List.of(Consultation.builder().name(CONSULTATION).durationMinutes(30).build()));
+        when(doctorService.getAllDoctorSpecialties()).thenReturn(Map.of(doctorId, Set.of(Specialty.FACE)));
+        // 08:00-09:00 every day
+        when(doctorService.getAllAvailabilityWindows()).thenReturn(Arrays.stream(DayOfWeek.values())
+            .map(dayOfWeek -> new AvailabilityWindow(doctorId, dayOfWeek, LocalTime.of(8, 0), LocalTime.of(9, 0),
+                null, null))
+            .toList());
+        when(appointmentSessionService.getBookedIntervals(any(), isNull())).thenReturn(List.of());
+        when(appointmentSessionService.getBookedIntervals(any(), anyCollection())).thenReturn(List.of());
+
+        slotService = new AppointmentSlotService(doctorService, appointmentSessionService, consultationService);
+    }
+
+    @Test
+    void searchesAreAnsweredFromTheIndexUntilItIsInvalidated() {
+        assertThat(slotStarts()).containsExactly(at(8, 0), at(8, 15), at(8, 30));
+        assertThat(slotStarts()).containsExactly(at(8, 0), at(8, 15), at(8, 30));
+
+        when(appointmentSessionService.getBookedIntervals(any(), anyCollection())).thenReturn(List.of(eightOClock));
+        slotService.invalidateDoctor(doctorId);
+
+        assertThat(slotStarts()).containsExactly(at(8, 30));
+        verify(appointmentSessionService, times(1)).getBookedIntervals(any(), isNull());
+        verify(appointmentSessionService, times(1)).getBookedIntervals(any(), anyCollection());
+    }
+
+    @Test
+    void invalidationDuringRebuildIsNotLost() {
+        // The booking commits (and its event fires) after the rebuild read the bookings
+        when(appointmentSessionService.getBookedIntervals(any(), isNull())).thenAnswer(invocation -> {
+            slotService.invalidateDoctor(doctorId);
+            return List.of();
+        });
+        when(appointmentSessionService.getBookedIntervals(any(), anyCollection())).thenReturn(List.of(eightOClock));
+
+        assertThat(slotStarts()).containsExactly(at(8, 30));
+    }
+
+    @Test
+    void refreshRacingARebuildIsRetriedAgainstTheNewIndex() {
+        assertThat(slotStarts()).hasSize(3);
+
+        // The per-doctor reload sees the booking, but a rebuild built from older reads
+        // swaps the index in before the reload is applied
+        when(appointmentSessionService.getBookedIntervals(any(), anyCollection())).thenAnswer(invocation -> {
+            slotService.rebuildIndex();
+            return List.of(eightOClock);
+        }).thenReturn(List.of(eightOClock));
+        slotService.invalidateDoctor(doctorId);
+
+        assertThat(slotStarts()).containsExactly(at(8, 30));
+        verify(appointmentSessionService, times(2)).getBookedIntervals(any(), anyCollection());
+    }
+
+    private List<LocalDateTime> slotStarts() {
+        Result<List<AvailableSlotDto>> result = slotService.findAvailableSlots(
+            Specialty.FACE, List.of(CONSULTATION), at(8, 0), at(9, 0), 10);
+        assertThat(result.isSuccess()).isTrue();
+        return result.getValue().stream().map(AvailableSlotDto::getStart).toList();
+    }
+
+    private LocalDateTime at(int hour, int minute) {
+        return day.atTime(hour, minute);
+    }
+}
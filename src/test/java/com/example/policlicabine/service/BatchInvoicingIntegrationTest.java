@@ -0,0 +1,103 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.dto.ScheduleCommand;
+import com.example.policlicabine.entity.enums.UserRole;
+import com.example.policlicabine.service.BatchInvoicingService.RunReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-of-day invoicing of 5,000 sessions against PostgreSQL.
+ */
+class BatchInvoicingIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int DOCTORS = 10;
+    private static final int PATIENTS = 100;
+    private static final int SESSIONS = 5000;
+
+    @Autowired
+    private BatchInvoicingService batchInvoicingService;
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void invoicesEveryBillingOnceWithinSeconds() {
+        // A past business day no other test uses - only this test's sessions fall before it
+        LocalDate businessDate = LocalDate.of(ThreadLocalRandom.current().nextInt(1990, 2000), 6, 30);
+        LocalDateTime firstSession = businessDate.minusDays(30).atStartOfDay();
+
+        List<UUID> doctors = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            doctors.add(newDoctor());
+        }
+        List<UUID> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            patients.add(newPatient());
+        }
+        String consultation = newConsultation(30);
+
+        List<ScheduleCommand> commands = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            commands.add(ScheduleCommand.builder()
+                .patientId(patients.get(i % PATIENTS))
+                .doctorId(doctors.get(i % DOCTORS))
+                .consultationNames(List.of(consultation))
+                .scheduledDateTime(firstSession.plusMinutes(30L * (i / DOCTORS)))
+                .build());
+        }
+        assertThat(success(appointmentSessionService.scheduleAppointments(commands)))
+            .allSatisfy(result -> assertThat(result.isSuccess()).isTrue());
+        // Billings as completion writes them; completing 5,000 sessions one by one is not what is measured
+        NamedParameterJdbcTemplate jdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+        Map<String, Object> ours = Map.of("doctorIds", doctors);
+        jdbc.update("""
+            INSERT INTO session_billing (billing_id, session_id, subtotal_amount, created_at)
+            SELECT gen_random_uuid(), session_id, 150.00, now() FROM appointment_sessions
+            WHERE doctor_id IN (:doctorIds)
+            """, ours);
+
+        UUID userId = success(userService.createUser("billing-" + UUID.randomUUID(), "Billing", UserRole.MANAGER))
+            .getUserId();
+
+        RunReport report = success(batchInvoicingService.runBatchInvoicing(businessDate, userId));
+        System.out.printf("Batch invoicing: %d billings, %d invoices in %d ms (%.0f billings/s)%n",
+            report.billingsInvoiced(), report.invoicesCreated(), report.durationMillis(), report.billingsPerSecond());
+
+        assertThat(report.failedPartitions()).isZero();
+        assertThat(report.billingsInvoiced()).isEqualTo(SESSIONS);
+        assertThat(report.durationMillis()).isLessThan(10_000);
+
+        // Every billing is on exactly one invoice, grouped by patient and session day
+        Integer linked = jdbc.queryForObject("""
+            SELECT COUNT(*) FROM invoice_session_billings isb
+            JOIN session_billing b ON b.billing_id = isb.billing_id
+            JOIN appointment_sessions a ON a.session_id = b.session_id
+            WHERE a.doctor_id IN (:doctorIds)
+            """, ours, Integer.class);
+        Integer patientDays = jdbc.queryForObject("""
+            SELECT COUNT(DISTINCT (patient_id, CAST(scheduled_date_time AS date))) FROM appointment_sessions
+            WHERE doctor_id IN (:doctorIds)
+            """, ours, Integer.class);
+        assertThat(linked).isEqualTo(SESSIONS);
+        assertThat(report.invoicesCreated()).isEqualTo(patientDays);
+
+        // Re-running the day finds nothing left
+        RunReport rerun = success(batchInvoicingService.runBatchInvoicing(businessDate, userId));
+        assertThat(rerun.billingsInvoiced()).isZero();
+    }
+}
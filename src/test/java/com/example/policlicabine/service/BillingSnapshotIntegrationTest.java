@@ -0,0 +1,72 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.BillingLineItem;
+import com.example.policlicabine.entity.SessionBilling;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Billing line items snapshotted at session completion, against PostgreSQL: later price
+ * changes never alter a written bill, and reading a bill needs no consultation join.
+ */
+class BillingSnapshotIntegrationTest extends PostgresIntegrationTest {
+
+    private static final Pattern CONSULTATIONS_TABLE = Pattern.compile("(?i)\\bconsultations\\b");
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private ConsultationService consultationService;
+
+    @Test
+    void priceChangesDoNotAlterWrittenBills() {
+        String peel = newConsultation(30);
+        String mask = newConsultation(30);
+        UUID peelId = consultationId(peel);
+        UUID billedBefore = newCompletedSession(List.of(peel, mask), 2);
+
+        success(consultationService.updatePrice(peelId, new BigDecimal("400.00")));
+
+        List<String> statements = RecordingStatementInspector.record(() -> {
+            SessionBilling billing = success(billingService.getBillingForSession(billedBefore));
+            assertThat(billing.getSubtotalAmount()).isEqualByComparingTo("300.00");
+            assertThat(billing.getLineItems())
+                .extracting(BillingLineItem::getConsultationName, BillingLineItem::getCurrency)
+                .containsExactlyInAnyOrder(tuple(peel, "RON"), tuple(mask, "RON"));
+            assertThat(billing.getLineItems())
+                .allSatisfy(item -> assertThat(item.getPrice()).isEqualByComparingTo("150.00"));
+        });
+        assertThat(statements).noneMatch(sql -> CONSULTATIONS_TABLE.matcher(sql).find());
+
+        // Sessions completed after the change are billed at the new price
+        UUID billedAfter = newCompletedSession(List.of(peel), 3);
+        assertThat(success(billingService.getBillingForSession(billedAfter)).getSubtotalAmount())
+            .isEqualByComparingTo("400.00");
+    }
+
+    private UUID consultationId(String name) {
+        return jdbcTemplate.queryForObject(
+            "SELECT consultation_id FROM consultations WHERE name = ?", UUID.class, name);
+    }
+
+    private UUID newCompletedSession(List<String> consultations, int daysAhead) {
+        UUID sessionId = success(appointmentSessionService.scheduleAppointment(newPatient(), newDoctor(),
+            consultations, LocalDate.now().plusDays(daysAhead).atTime(12, 0), false)).getSessionId();
+        success(appointmentSessionService.startSession(sessionId));
+        success(appointmentSessionService.completeSession(sessionId, "Diagnosis", "Treatment", "Observations"));
+        return sessionId;
+    }
+}
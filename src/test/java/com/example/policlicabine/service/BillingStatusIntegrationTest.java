@@ -0,0 +1,119 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.dto.BillingPaymentStatusDto;
+import com.example.policlicabine.entity.enums.PaymentStatus;
+import com.example.policlicabine.entity.enums.PaymentType;
+import com.example.policlicabine.entity.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BillingStatusService against PostgreSQL: payment status per billing from one aggregate
+ * statement, counting only non-refund payments on final invoices, and the day's unpaid
+ * completed sessions for the reception dashboard.
+ */
+class BillingStatusIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private BillingStatusService billingStatusService;
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void statusCountsOnlyNonRefundPaymentsOnFinalInvoices() {
+        // A day far enough out that no other test completes sessions on it
+        LocalDate day = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(1000, 5000));
+        UUID userId = success(userService.createUser("reception-" + UUID.randomUUID(), "Reception",
+            UserRole.MANAGER)).getUserId();
+        UUID patientId = newPatient();
+        UUID doctorId = newDoctor();
+        String consultation = newConsultation(30);
+
+        UUID notInvoiced = completedBilling(patientId, doctorId, consultation, day, 9);
+        UUID partlyPaid = completedBilling(patientId, doctorId, consultation, day, 10);
+        UUID paid = completedBilling(patientId, doctorId, consultation, day, 11);
+        UUID paidOnProforma = completedBilling(patientId, doctorId, consultation, day, 12);
+        UUID discountedAndPaid = completedBilling(patientId, doctorId, consultation, day, 13);
+
+        pay(invoice(userId, partlyPaid, false), "50.00", PaymentType.ADVANCE, userId);
+        UUID paidInvoice = invoice(userId, paid, false);
+        pay(paidInvoice, "150.00", PaymentType.FULL, userId);
+        pay(paidInvoice, "20.00", PaymentType.REFUND, userId);
+        pay(invoice(userId, paidOnProforma, true), "150.00", PaymentType.FULL, userId);
+        UUID discountedSession = jdbcTemplate.queryForObject(
+            "SELECT session_id FROM session_billing WHERE billing_id = ?", UUID.class, discountedAndPaid);
+        success(billingService.applyDiscount(discountedSession, userId, new BigDecimal("30.00"), "Loyalty"));
+        pay(invoice(userId, discountedAndPaid, false), "120.00", PaymentType.FULL, userId);
+
+        List<UUID> requested = List.of(discountedAndPaid, notInvoiced, paid, UUID.randomUUID(), partlyPaid,
+            paidOnProforma);
+        List<String> statements = RecordingStatementInspector.record(
+            () -> billingStatusService.getPaymentStatuses(requested));
+        assertThat(statements).hasSize(1);
+
+        Map<UUID, BillingPaymentStatusDto> statuses = success(billingStatusService.getPaymentStatuses(requested));
+        // Caller's order, unknown IDs left out
+        assertThat(statuses.keySet())
+            .containsExactly(discountedAndPaid, notInvoiced, paid, partlyPaid, paidOnProforma);
+        assertStatus(statuses.get(notInvoiced), PaymentStatus.PENDING, "150.00", "0");
+        assertStatus(statuses.get(partlyPaid), PaymentStatus.PARTIALLY_PAID, "150.00", "50.00");
+        assertStatus(statuses.get(paid), PaymentStatus.FULLY_PAID, "150.00", "150.00");
+        assertStatus(statuses.get(paidOnProforma), PaymentStatus.PENDING, "150.00", "0");
+        assertStatus(statuses.get(discountedAndPaid), PaymentStatus.FULLY_PAID, "120.00", "120.00");
+
+        // Reception dashboard: the day's sessions not fully paid, in schedule order
+        assertThat(success(billingStatusService.getUnpaidSessionsForDay(day)))
+            .extracting(BillingPaymentStatusDto::getBillingId)
+            .containsExactly(notInvoiced, partlyPaid, paidOnProforma);
+        assertThat(success(billingStatusService.getUnpaidSessionsForDay(day.plusDays(1)))).isEmpty();
+    }
+
+    private static void assertStatus(BillingPaymentStatusDto status, PaymentStatus expected,
+                                     String finalAmount, String totalPaid) {
+        assertThat(status.getPaymentStatus()).isEqualTo(expected);
+        assertThat(status.getFinalAmount()).isEqualByComparingTo(finalAmount);
+        assertThat(status.getTotalPaid()).isEqualByComparingTo(totalPaid);
+        assertThat(status.getOutstandingAmount())
+            .isEqualByComparingTo(new BigDecimal(finalAmount).subtract(new BigDecimal(totalPaid)));
+    }
+
+    // Completion writes the billing: one 150.00 RON consultation
+    private UUID completedBilling(UUID patientId, UUID doctorId, String consultation, LocalDate day, int hour) {
+        UUID sessionId = success(appointmentSessionService.scheduleAppointment(
+            patientId, doctorId, List.of(consultation), day.atTime(hour, 0), false)).getSessionId();
+        success(appointmentSessionService.startSession(sessionId));
+        success(appointmentSessionService.completeSession(sessionId, "Diagnosis", "Treatment", "Observations"));
+        return success(billingService.getBillingForSession(sessionId)).getBillingId();
+    }
+
+    private UUID invoice(UUID userId, UUID billingId, boolean proforma) {
+        return success(invoiceService.createInvoice(LocalDate.now(), userId, proforma, List.of(billingId)))
+            .getInvoiceId();
+    }
+
+    private void pay(UUID invoiceId, String amount, PaymentType type, UUID userId) {
+        success(paymentService.processPayment(List.of(invoiceId), new BigDecimal(amount), type, userId, null));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.ScheduleCommand;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AppointmentSessionService.scheduleAppointments against PostgreSQL.
+ */
+class BulkSchedulingIntegrationTest extends PostgresIntegrationTest {
+
+    // More than two BULK_CHUNK_SIZE chunks
+    private static final int ROSTER_SIZE = 1200;
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Test
+    void conflictingCommandsAreSkippedAndTheRestAreBooked() {
+        UUID doctorId = newDoctor();
+        UUID patientId = newPatient();
+        String consultation = newConsultation(30);
+        LocalDate day = LocalDate.now().plusDays(40);
+        success(appointmentSessionService.scheduleAppointment(
+            patientId, doctorId, List.of(consultation), day.atTime(9, 0), false));
+
+        List<Result<UUID>> results = success(appointmentSessionService.scheduleAppointments(List.of(
+            command(patientId, doctorId, consultation, day.atTime(8, 0)),
+            command(patientId, doctorId, consultation, day.atTime(9, 15)),
+            command(patientId, doctorId, consultation, day.atTime(8, 15)),
+            command(UUID.randomUUID(), doctorId, consultation, day.atTime(11, 0)),
+            command(patientId, doctorId, consultation, day.atTime(10, 0)))));
+
+        assertThat(results).hasSize(5);
+        assertThat(results.get(0).isSuccess()).isTrue();
+        // Overlaps the booking made before the batch
+        assertThat(results.get(1).getErrorMessage()).contains("already has an appointment");
+        // Overlaps command 0 of the same batch
+        assertThat(results.get(2).getErrorMessage()).contains("already has an appointment");
+        assertThat(results.get(3).getErrorMessage()).isEqualTo("Patient not found");
+        assertThat(results.get(4).isSuccess()).isTrue();
+
+        List<UUID> stored = jdbcTemplate.queryForList(
+            "SELECT session_id FROM appointment_sessions WHERE doctor_id = ? ORDER BY scheduled_date_time",
+            UUID.class, doctorId);
+        assertThat(stored).hasSize(3)
+            .contains(results.get(0).getValue(), results.get(4).getValue());
+    }
+
+    @Test
+    void rosterSpanningSeveralChunksIsBookedInCommandOrder() {
+        UUID doctorId = newDoctor();
+        UUID patientId = newPatient();
+        String consultation = newConsultation(30);
+        LocalDateTime first = LocalDate.now().plusDays(60).atStartOfDay();
+
+        List<ScheduleCommand> commands = new ArrayList<>(ROSTER_SIZE);
+        for (int i = 0; i < ROSTER_SIZE; i++) {
+            commands.add(command(patientId, doctorId, consultation, first.plusMinutes(30L * i)));
+        }
+
+        long start = System.nanoTime();
+        List<Result<UUID>> results = success(appointmentSessionService.scheduleAppointments(commands));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Bulk scheduling: %d appointments in %d ms%n", ROSTER_SIZE, millis);
+
+        assertThat(results).hasSize(ROSTER_SIZE).allSatisfy(result -> assertThat(result.isSuccess()).isTrue());
+        List<UUID> stored = jdbcTemplate.queryForList(
+            "SELECT session_id FROM appointment_sessions WHERE doctor_id = ? ORDER BY scheduled_date_time",
+            UUID.class, doctorId);
+        assertThat(stored).containsExactlyElementsOf(results.stream().map(Result::getValue).toList());
+    }
+
+    private static ScheduleCommand command(UUID patientId, UUID doctorId, String consultation,
+                                           LocalDateTime scheduledDateTime) {
+        return ScheduleCommand.builder()
+            .patientId(patientId)
+            .doctorId(doctorId)
+            .consultationNames(List.of(consultation))
+            .scheduledDateTime(scheduledDateTime)
+            .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.AppointmentSessionDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AppointmentSessionService.scheduleAppointment from many threads against PostgreSQL:
+ * booking locks, the overlap query and the exclusion constraints together.
+ */
+class ConcurrentSchedulingIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 64;
+    private static final int DOCTORS = 4;
+    private static final int SLOTS_PER_DOCTOR = 10;
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Test
+    void concurrentBookingsNeverDoubleBookADoctor() throws Exception {
+        List<UUID> doctors = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            doctors.add(newDoctor());
+        }
+        UUID patientId = newPatient();
+        String consultation = newConsultation(30);
+        LocalDateTime firstSlot = LocalDate.now().plusDays(30).atTime(8, 0);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                UUID doctorId = doctors.get(t % DOCTORS);
+                // Slots are 30 minutes long but start every 15 minutes, so neighbours overlap too
+                int offset = t % 2;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int slot = 0; slot < SLOTS_PER_DOCTOR; slot++) {
+                        Result<AppointmentSessionDto> result = appointmentSessionService.scheduleAppointment(
+                            patientId, doctorId, List.of(consultation),
+                            firstSlot.plusMinutes((2L * slot + offset) * 15), false);
+                        if (result.isSuccess()) {
+                            succeeded.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        }
+
+        List<UUID> booked = jdbcTemplate.queryForList(
+            "SELECT doctor_id FROM appointment_sessions WHERE doctor_id IN (?, ?, ?, ?) AND status = 'SCHEDULED'",
+            UUID.class, doctors.toArray());
+        assertThat(booked).hasSize(succeeded.get());
+        // Every doctor's first slot was contested, so each doctor has at least one booking
+        assertThat(booked).containsAll(doctors);
+
+        String overlapQuery = new ClassPathResource("db/find-overlapping-sessions.sql")
+            .getContentAsString(StandardCharsets.UTF_8);
+        assertThat(jdbcTemplate.queryForList(overlapQuery)).isEmpty();
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.policlicabine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_COMMITTED;
+
+/**
+ * DoctorBookingLocks without a database: transactions are simulated with
+ * TestTransactions, bookings with an in-memory check-then-insert.
+ */
+class DoctorBookingLocksTest {
+
+    private static final int THREADS = 64;
+    private static final int DOCTORS = 4;
+    private static final int SLOTS_PER_DOCTOR = 10;
+
+    private final DoctorBookingLocks locks = new DoctorBookingLocks();
+
+    @Test
+    void lockingOutsideTransactionIsRejected() {
+        assertThatThrownBy(() -> locks.lockUntilTransactionEnds(UUID.randomUUID()))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void concurrentBookingsNeverDoubleBookASlot() throws Exception {
+        List<UUID> doctors = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            doctors.add(UUID.randomUUID());
+        }
+        // Simulated appointment table: "doctor@slot" -> number of bookings
+        Map<String, AtomicInteger> bookings = new ConcurrentHashMap<>();
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                UUID doctorId = doctors.get(t % DOCTORS);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int slot = 0; slot < SLOTS_PER_DOCTOR; slot++) {
+                        String key = doctorId + "@" + slot;
+                        boolean booked = TestTransactions.run(() -> {
+                            locks.lockUntilTransactionEnds(doctorId);
+                            if (bookings.containsKey(key)) {
+                                return false;
+                            }
+                            // Widen the check-then-insert window so an unserialized race shows up
+                            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                            bookings.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                            return true;
+                        }, STATUS_COMMITTED);
+                        if (booked) {
+                            succeeded.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(bookings).hasSize(DOCTORS * SLOTS_PER_DOCTOR);
+        assertThat(bookings.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+        assertThat(succeeded.get()).isEqualTo(DOCTORS * SLOTS_PER_DOCTOR);
+    }
+
+    @Test
+    void lockIsHeldUntilTransactionCompletes() throws Exception {
+        UUID doctorId = UUID.randomUUID();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> holder = executor.submit(() -> {
+                TestTransactions.commit(() -> {
+                    locks.lockUntilTransactionEnds(doctorId);
+                    locked.countDown();
+                    await(finish);
+                });
+                return null;
+            });
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<?> waiter = executor.submit(() -> {
+                TestTransactions.commit(() -> locks.lockUntilTransactionEnds(doctorId));
+                return null;
+            });
+            assertThatThrownBy(() -> waiter.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+            finish.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void rollbackReleasesTheLock() throws Exception {
+        UUID doctorId = UUID.randomUUID();
+
+        TestTransactions.rollback(() -> locks.lockUntilTransactionEnds(doctorId));
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> other = executor.submit(() -> {
+                TestTransactions.commit(() -> locks.lockUntilTransactionEnds(doctorId));
+                return null;
+            });
+            other.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void doctorsOnDifferentStripesDoNotWaitForEachOther() throws Exception {
+        UUID[] doctors = twoDoctorsOnDifferentStripes();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> holder = executor.submit(() -> {
+                TestTransactions.commit(() -> {
+                    locks.lockUntilTransactionEnds(doctors[0]);
+                    locked.countDown();
+                    await(finish);
+                });
+                return null;
+            });
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<?> other = executor.submit(() -> {
+                TestTransactions.commit(() -> locks.lockUntilTransactionEnds(doctors[1]));
+                return null;
+            });
+            other.get(5, TimeUnit.SECONDS);
+
+            finish.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void lockingSeveralDoctorsInOppositeOrdersDoesNotDeadlock() throws Exception {
+        UUID[] doctors = twoDoctorsOnDifferentStripes();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> forward = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    TestTransactions.commit(() -> locks.lockAllUntilTransactionEnds(List.of(doctors[0], doctors[1])));
+                }
+                return null;
+            });
+            Future<?> backward = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    TestTransactions.commit(() -> locks.lockAllUntilTransactionEnds(List.of(doctors[1], doctors[0])));
+                }
+                return null;
+            });
+            start.countDown();
+            forward.get(10, TimeUnit.SECONDS);
+            backward.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static UUID[] twoDoctorsOnDifferentStripes() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        while (DoctorBookingLocks.stripeOf(second) == DoctorBookingLocks.stripeOf(first)) {
+            second = UUID.randomUUID();
+        }
+        return new UUID[] {first, second};
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.DoctorUtilizationDto;
+import com.example.policlicabine.event.AppointmentScheduled;
+import com.example.policlicabine.repository.projection.DoctorDayUtilization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * DoctorUtilizationService caching against a mocked AppointmentSessionService.
+ */
+class DoctorUtilizationServiceTest {
+
+    private static final int DOCTORS = 200;
+    private static final int WEEKS = 52;
+
+    private final LocalDate firstWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    private final List<UUID> doctors = new ArrayList<>();
+
+    private AppointmentSessionService appointmentSessionService;
+    private DoctorUtilizationService utilizationService;
+
+    private record Row(UUID getDoctorId, int getDayIndex, int getAvailableMinutes, int getBookedMinutes)
+        implements DoctorDayUtilization {}
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < DOCTORS; i++) {
+            doctors.add(UUID.randomUUID());
+        }
+        appointmentSessionService = mock(AppointmentSessionService.class);
+        // Every doctor works 8 hours on weekdays and is half booked
+        when(appointmentSessionService.getDailyUtilization(any(), any(), isNull())).thenAnswer(invocation -> {
+            LocalDate from = invocation.getArgument(0);
+            LocalDate to = invocation.getArgument(1);
+            List<DoctorDayUtilization> rows = new ArrayList<>();
+            for (int day = 0; day < ChronoUnit.DAYS.between(from, to); day++) {
+                if (from.plusDays(day).getDayOfWeek().getValue() <= 5) {
+                    for (UUID doctorId : doctors) {
+                        rows.add(new Row(doctorId, day, 480, 240));
+                    }
+                }
+            }
+            return rows;
+        });
+        utilizationService = new DoctorUtilizationService(appointmentSessionService);
+    }
+
+    @Test
+    void warmYearHeatmapIsServedFromMemoryWithinBudget() {
+        List<DoctorUtilizationDto> cold = heatmap();
+        assertThat(cold).hasSize(DOCTORS);
+        assertThat(cold.get(0).getAvailableMinutes()).hasSize(WEEKS * 7);
+        assertThat(Arrays.stream(cold.get(0).getBookedMinutes()).sum()).isEqualTo(WEEKS * 5 * 240);
+
+        // Let the JIT settle before timing
+        for (int i = 0; i < 20; i++) {
+            heatmap();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            heatmap();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long bestMillis = TimeUnit.NANOSECONDS.toMillis(best);
+        System.out.printf("Warm %d-week heatmap for %d doctors: %d ms%n", WEEKS, DOCTORS, bestMillis);
+
+        assertThat(bestMillis).isLessThan(100);
+        verify(appointmentSessionService, times(1)).getDailyUtilization(any(), any(), any());
+    }
+
+    @Test
+    void bookingReloadsOnlyTheAffectedDoctorWeek() {
+        heatmap();
+        UUID doctorId = doctors.get(0);
+        LocalDate week = firstWeek.plusWeeks(3);
+        when(appointmentSessionService.getDailyUtilization(week, week.plusWeeks(1), Set.of(doctorId)))
+            .thenReturn(List.of(new Row(doctorId, 2, 480, 480)));
+
+        LocalDateTime start = week.plusDays(2).atTime(10, 0);
+        utilizationService.handleAppointmentScheduled(new AppointmentScheduled(
+            UUID.randomUUID(), UUID.randomUUID(), "Ana Pop", doctorId, start, start.plusMinutes(30), List.of(), false));
+
+        DoctorUtilizationDto row = heatmap().stream()
+            .filter(dto -> dto.getDoctorId().equals(doctorId))
+            .findFirst()
+            .orElseThrow();
+        assertThat(row.getBookedMinutes()[3 * 7 + 2]).isEqualTo(480);
+        // The rest of that week now comes from the reload, which had no rows for those days
+        assertThat(row.getBookedMinutes()[3 * 7]).isZero();
+        assertThat(row.getBookedMinutes()[4 * 7]).isEqualTo(240);
+
+        verify(appointmentSessionService, times(1)).getDailyUtilization(any(), any(), isNull());
+        verify(appointmentSessionService, times(1))
+            .getDailyUtilization(eq(week), eq(week.plusWeeks(1)), eq(Set.of(doctorId)));
+    }
+
+    private List<DoctorUtilizationDto> heatmap() {
+        Result<List<DoctorUtilizationDto>> result = utilizationService.getUtilizationHeatmap(firstWeek, WEEKS, null);
+        assertThat(result.isSuccess()).isTrue();
+        return result.getValue();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.AppointmentSession;
+import com.example.policlicabine.repository.fetch.FetchPlan;
+import com.example.policlicabine.repository.fetch.FetchPlanRepositoryImpl;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loading a session with its consultations, diagnoses and answers through a FetchPlan,
+ * against PostgreSQL, for growing numbers of answers. The plan must issue the same
+ * statements however many answers there are; the single-join row count is printed
+ * next to it for comparison.
+ */
+class FetchPlanManyAnswersIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int CONSULTATIONS = 3;
+    private static final int DIAGNOSES = 3;
+    private static final int QUESTIONS_PER_CONSULTATION = 10;
+    private static final int TIMED_RUNS = 5;
+
+    // The shape the removed all-relationships session loader used
+    private static final FetchPlan<AppointmentSession> SESSION_WITH_ANSWERS =
+        FetchPlan.of(AppointmentSession.class, "sessionId")
+            .join("patient", "doctor")
+            .fetch("consultations")
+            .fetch("diagnoses")
+            .fetch("answers.question");
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private DiagnosisService diagnosisService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private FetchPlanRepositoryImpl<AppointmentSession, UUID> sessions;
+
+    @BeforeEach
+    void createRepository() {
+        sessions = new FetchPlanRepositoryImpl<>();
+        beanFactory.autowireBean(sessions);
+    }
+
+    @Test
+    void statementsDoNotGrowWithTheNumberOfAnswers() {
+        List<Integer> statementCounts = new ArrayList<>();
+        for (int answers : List.of(10, 100, 1000)) {
+            UUID sessionId = newSessionWithAnswers(answers);
+
+            List<String> statements = RecordingStatementInspector.record(() -> transactionTemplate.executeWithoutResult(
+                status -> assertFullyLoaded(sessions.findWithPlan(SESSION_WITH_ANSWERS, sessionId).orElseThrow(), answers)));
+            statementCounts.add(statements.size());
+
+            long bestNanos = Long.MAX_VALUE;
+            for (int run = 0; run < TIMED_RUNS; run++) {
+                long startedAt = System.nanoTime();
+                transactionTemplate.executeWithoutResult(
+                    status -> sessions.findWithPlan(SESSION_WITH_ANSWERS, sessionId).orElseThrow().getAnswers().size());
+                bestNanos = Math.min(bestNanos, System.nanoTime() - startedAt);
+            }
+
+            System.out.printf("Fetch plan, %d answers: %d statements, %d rows, %.2f ms (single join: %d rows)%n",
+                answers, statements.size(), 1 + CONSULTATIONS + DIAGNOSES + 2 * answers, bestNanos / 1e6,
+                singleJoinRows(sessionId));
+        }
+
+        // Root with patient and doctor, consultations, diagnoses, answers, their questions
+        assertThat(statementCounts).containsOnly(5);
+    }
+
+    private void assertFullyLoaded(AppointmentSession session, int answers) {
+        assertThat(Hibernate.isInitialized(session.getPatient())).isTrue();
+        assertThat(Hibernate.isInitialized(session.getDoctor())).isTrue();
+        assertThat(Hibernate.isInitialized(session.getConsultations())).isTrue();
+        assertThat(Hibernate.isInitialized(session.getDiagnoses())).isTrue();
+        assertThat(Hibernate.isInitialized(session.getAnswers())).isTrue();
+
+        assertThat(session.getConsultations()).hasSize(CONSULTATIONS);
+        assertThat(session.getDiagnoses()).hasSize(DIAGNOSES);
+        // No duplicates from the joins: every answer exactly once
+        assertThat(session.getAnswers()).hasSize(answers).doesNotHaveDuplicates();
+        assertThat(session.getAnswers()).allSatisfy(
+            answer -> assertThat(Hibernate.isInitialized(answer.getQuestion())).isTrue());
+    }
+
+    private UUID newSessionWithAnswers(int answers) {
+        List<String> consultations = new ArrayList<>();
+        List<UUID> questions = new ArrayList<>();
+        for (int c = 0; c < CONSULTATIONS; c++) {
+            String consultation = newConsultation(20);
+            consultations.add(consultation);
+            for (int q = 0; q < QUESTIONS_PER_CONSULTATION; q++) {
+                questions.add(success(questionService.createQuestion(consultation, "Question " + q)).getQuestionId());
+            }
+        }
+        UUID sessionId = success(appointmentSessionService.scheduleAppointment(newPatient(), newDoctor(),
+            consultations, LocalDate.now().plusDays(40).atTime(10, 0), false)).getSessionId();
+
+        for (int d = 0; d < DIAGNOSES; d++) {
+            String code = "Z" + ThreadLocalRandom.current().nextInt(1_000_000, 10_000_000);
+            UUID diagnosisId = success(diagnosisService.createDiagnosis(code, "Diagnosis " + code)).getDiagnosisId();
+            jdbcTemplate.update("INSERT INTO session_diagnoses (session_id, diagnosis_id) VALUES (?, ?)",
+                sessionId, diagnosisId);
+        }
+
+        // Answers written directly: saving them one by one through AnswerService is not what is measured
+        List<Object[]> rows = new ArrayList<>(answers);
+        for (int a = 0; a < answers; a++) {
+            rows.add(new Object[] {sessionId, "Answer " + a, questions.get(a % questions.size())});
+        }
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO session_answers (answer_id, session_id, question_id, consultation_id, answer_text, created_at)
+            SELECT gen_random_uuid(), ?, q.question_id, q.consultation_id, ?, now() FROM questions q
+            WHERE q.question_id = ?
+            """, rows);
+        return sessionId;
+    }
+
+    /**
+     * Rows one query joining all three collections would return.
+     */
+    private int singleJoinRows(UUID sessionId) {
+        return jdbcTemplate.queryForObject("""
+            SELECT COUNT(*) FROM appointment_sessions s
+            JOIN session_consultations sc ON sc.session_id = s.session_id
+            JOIN session_diagnoses sd ON sd.session_id = s.session_id
+            JOIN session_answers a ON a.session_id = s.session_id
+            WHERE s.session_id = ?
+            """, Integer.class, sessionId);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.enums.InvoiceSeries;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * InvoiceNumberService from many threads against PostgreSQL: every (series, fiscal year)
+ * must come out without duplicates or gaps, also when transactions roll back.
+ */
+class InvoiceNumberAllocationIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 32;
+    private static final int TRANSACTIONS_PER_THREAD = 100;
+    private static final int BLOCK_SIZE = 5;
+
+    @Autowired
+    private InvoiceNumberService invoiceNumberService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentAllocationsAreUniqueAndGapFreePerSeriesAndYear() throws Exception {
+        // Years no other test uses, so every counter starts at 1
+        int firstYear = ThreadLocalRandom.current().nextInt(3000, 9000);
+        List<LocalDate> issueDates = List.of(LocalDate.of(firstYear, 3, 1), LocalDate.of(firstYear + 1, 3, 1));
+
+        Map<String, Queue<String>> committed = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        long startedAt;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                        InvoiceSeries series = InvoiceSeries.values()[(thread + i) % 2];
+                        LocalDate issueDate = issueDates.get(i % 2);
+                        int count = i % 3 == 0 ? BLOCK_SIZE : 1;
+                        // Every 10th transaction rolls back - its numbers must be handed out again
+                        boolean rollback = i % 10 == 9;
+                        List<String> numbers = transactionTemplate.execute(status -> {
+                            List<String> allocated = invoiceNumberService.allocateBlock(series, issueDate, count);
+                            if (rollback) {
+                                status.setRollbackOnly();
+                            }
+                            return allocated;
+                        });
+                        if (!rollback) {
+                            committed.computeIfAbsent(series + "@" + issueDate.getYear(),
+                                key -> new ConcurrentLinkedQueue<>()).addAll(numbers);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        long allocations = committed.values().stream().mapToLong(Queue::size).sum();
+        System.out.printf("Invoice numbers: %d transactions, %d committed numbers in %.2f s (%.0f transactions/s)%n",
+            THREADS * TRANSACTIONS_PER_THREAD, allocations, seconds, THREADS * TRANSACTIONS_PER_THREAD / seconds);
+
+        assertThat(committed).hasSize(4);
+        for (InvoiceSeries series : InvoiceSeries.values()) {
+            for (LocalDate issueDate : issueDates) {
+                int year = issueDate.getYear();
+                Queue<String> numbers = committed.get(series + "@" + year);
+                List<String> expected = LongStream.rangeClosed(1, numbers.size())
+                    .mapToObj(number -> series.format(year, number))
+                    .toList();
+                assertThat(numbers).as("%s %d", series, year)
+                    .doesNotHaveDuplicates()
+                    .containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.dto.InvoiceDto;
+import com.example.policlicabine.entity.enums.PaymentStatus;
+import com.example.policlicabine.entity.enums.PaymentType;
+import com.example.policlicabine.entity.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stored invoice totals and payment status against PostgreSQL: kept current in the
+ * transaction of every discount and payment, read back by the list query without
+ * touching billings, and repaired by the reconciliation when they drift.
+ */
+class InvoiceTotalsIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void storedTotalsFollowDiscountsAndPayments() {
+        UUID userId = newManager();
+        UUID firstSession = newCompletedSession();
+        UUID secondSession = newCompletedSession();
+        List<UUID> billingIds = List.of(
+            success(billingService.getBillingForSession(firstSession)).getBillingId(),
+            success(billingService.getBillingForSession(secondSession)).getBillingId());
+
+        UUID invoiceId = success(invoiceService.createInvoice(LocalDate.now(), userId, false, billingIds))
+            .getInvoiceId();
+        assertTotals(invoiceId, "300.00", "0", PaymentStatus.PENDING);
+
+        success(billingService.applyDiscount(firstSession, userId, new BigDecimal("50.00"), "Loyalty"));
+        assertTotals(invoiceId, "250.00", "0", PaymentStatus.PENDING);
+
+        success(paymentService.processPayment(List.of(invoiceId), new BigDecimal("100.00"),
+            PaymentType.ADVANCE, userId, null));
+        assertTotals(invoiceId, "250.00", "100.00", PaymentStatus.PARTIALLY_PAID);
+
+        success(paymentService.processPayment(List.of(invoiceId), new BigDecimal("150.00"),
+            PaymentType.FULL, userId, null));
+        assertTotals(invoiceId, "250.00", "250.00", PaymentStatus.FULLY_PAID);
+
+        // Refunds do not count as paid
+        success(paymentService.processPayment(List.of(invoiceId), new BigDecimal("20.00"),
+            PaymentType.REFUND, userId, "Overcharged"));
+        assertTotals(invoiceId, "250.00", "250.00", PaymentStatus.FULLY_PAID);
+
+        // The list is served from the stored columns
+        assertThat(success(invoiceService.getAllInvoices()))
+            .filteredOn(invoice -> invoice.getInvoiceId().equals(invoiceId))
+            .singleElement()
+            .satisfies(invoice -> {
+                assertThat(invoice.getTotalAmount()).isEqualByComparingTo("250.00");
+                assertThat(invoice.getPaymentStatus()).isEqualTo(PaymentStatus.FULLY_PAID);
+            });
+    }
+
+    @Test
+    void reconciliationRepairsDriftedTotals() {
+        UUID userId = newManager();
+        UUID sessionId = newCompletedSession();
+        UUID billingId = success(billingService.getBillingForSession(sessionId)).getBillingId();
+        UUID invoiceId = success(invoiceService.createInvoice(LocalDate.now(), userId, false, List.of(billingId)))
+            .getInvoiceId();
+
+        // A write that bypassed the transactional refresh
+        jdbcTemplate.update("UPDATE invoices SET total_amount = 1, payment_status = 'FULLY_PAID' WHERE invoice_id = ?",
+            invoiceId);
+
+        assertThat(success(invoiceService.reconcileTotals())).isPositive();
+        assertTotals(invoiceId, "150.00", "0", PaymentStatus.PENDING);
+        assertThat(success(invoiceService.reconcileTotals())).isZero();
+    }
+
+    private void assertTotals(UUID invoiceId, String total, String paid, PaymentStatus status) {
+        InvoiceDto invoice = success(invoiceService.findInvoiceById(invoiceId));
+        assertThat(invoice.getTotalAmount()).isEqualByComparingTo(total);
+        assertThat(invoice.getTotalPaid()).isEqualByComparingTo(paid);
+        assertThat(invoice.getPaymentStatus()).isEqualTo(status);
+    }
+
+    private UUID newManager() {
+        return success(userService.createUser("manager-" + UUID.randomUUID(), "Manager", UserRole.MANAGER))
+            .getUserId();
+    }
+
+    // Completion writes the billing: one 150.00 RON consultation
+    private UUID newCompletedSession() {
+        UUID sessionId = success(appointmentSessionService.scheduleAppointment(newPatient(), newDoctor(),
+            List.of(newConsultation(30)), LocalDate.now().plusDays(2).atTime(11, 0), false)).getSessionId();
+        success(appointmentSessionService.startSession(sessionId));
+        success(appointmentSessionService.completeSession(sessionId, "Diagnosis", "Treatment", "Observations"));
+        return sessionId;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.enums.SessionStatus;
+import com.example.policlicabine.event.AppointmentCancelled;
+import com.example.policlicabine.event.AppointmentScheduled;
+import com.example.policlicabine.repository.projection.PatientAppointment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MedicalFileAccessIndexTest {
+
+    private final UUID doctorId = UUID.randomUUID();
+    private final UUID patientId = UUID.randomUUID();
+    private final UUID sessionId = UUID.randomUUID();
+
+    private AppointmentSessionService appointmentSessionService;
+    private MedicalFileAccessIndex index;
+
+    @BeforeEach
+    void setUp() {
+        appointmentSessionService = mock(AppointmentSessionService.class);
+        index = new MedicalFileAccessIndex(appointmentSessionService);
+    }
+
+    @Test
+    void grantsAndDenialsAreAnsweredFromMemoryAfterTheFirstLoad() {
+        givenAppointments(new PatientAppointment(sessionId, patientId, LocalDateTime.now().plusDays(2)));
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(index.canAccess(doctorId, patientId)).isTrue();
+            assertThat(index.canAccess(doctorId, UUID.randomUUID())).isFalse();
+        }
+
+        verify(appointmentSessionService, times(1))
+            .getPatientAppointmentsInRange(eq(doctorId), any(), any(), eq(SessionStatus.CANCELLED));
+        assertThat(index.getStats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void appointmentsOutsideTheWindowDoNotGrantAccess() {
+        givenAppointments(new PatientAppointment(sessionId, patientId,
+            LocalDateTime.now().plusDays(MedicalFileAccessService.ACCESS_WINDOW_DAYS + 1)));
+
+        assertThat(index.canAccess(doctorId, patientId)).isFalse();
+    }
+
+    @Test
+    void localCancellationRevokesAccessImmediately() {
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        givenAppointments(new PatientAppointment(sessionId, patientId, start));
+        assertThat(index.canAccess(doctorId, patientId)).isTrue();
+
+        index.handleAppointmentCancelled(new AppointmentCancelled(
+            sessionId, patientId, doctorId, start, start.plusMinutes(30), null, false));
+
+        assertThat(index.canAccess(doctorId, patientId)).isFalse();
+    }
+
+    @Test
+    void noShowKeepsAccess() {
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        givenAppointments(new PatientAppointment(sessionId, patientId, start));
+        assertThat(index.canAccess(doctorId, patientId)).isTrue();
+
+        index.handleAppointmentCancelled(new AppointmentCancelled(
+            sessionId, patientId, doctorId, start, start.plusMinutes(30), null, true));
+
+        assertThat(index.canAccess(doctorId, patientId)).isTrue();
+    }
+
+    @Test
+    void localBookingGrantsAccessWithoutReload() {
+        givenAppointments();
+        assertThat(index.canAccess(doctorId, patientId)).isFalse();
+
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        index.handleAppointmentScheduled(new AppointmentScheduled(
+            sessionId, patientId, "Ana Pop", doctorId, start, start.plusMinutes(30), List.of(), false));
+
+        assertThat(index.canAccess(doctorId, patientId)).isTrue();
+        verify(appointmentSessionService, times(1))
+            .getPatientAppointmentsInRange(eq(doctorId), any(), any(), eq(SessionStatus.CANCELLED));
+    }
+
+    @Test
+    void clearForcesReload() {
+        givenAppointments(new PatientAppointment(sessionId, patientId, LocalDateTime.now().plusDays(2)));
+        assertThat(index.canAccess(doctorId, patientId)).isTrue();
+
+        // Cancelled on another node: only a reload can see it
+        givenAppointments();
+        index.clear();
+
+        assertThat(index.canAccess(doctorId, patientId)).isFalse();
+    }
+
+    private void givenAppointments(PatientAppointment... appointments) {
+        when(appointmentSessionService.getPatientAppointmentsInRange(eq(doctorId), any(), any(),
+            eq(SessionStatus.CANCELLED))).thenReturn(List.of(appointments));
+    }
+}
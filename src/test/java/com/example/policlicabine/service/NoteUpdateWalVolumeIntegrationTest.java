@@ -0,0 +1,100 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.SessionNotes;
+import com.example.policlicabine.entity.enums.SessionNoteField;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * WAL written by clinical-note edits on sessions with large observations, against
+ * PostgreSQL: changing the treatment instructions through updateSessionNote and
+ * addMedicalInformation next to the full rewrite of every note column.
+ */
+class NoteUpdateWalVolumeIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int SESSIONS = 20;
+    private static final int OBSERVATIONS_CHARS = 200_000;
+    private static final String DIAGNOSIS = "Acne vulgaris";
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Autowired
+    private SessionNotesService sessionNotesService;
+
+    @Test
+    void partialNoteEditsWriteAFractionOfTheWal() {
+        UUID doctorId = newDoctor();
+        String consultation = newConsultation(30);
+        LocalDateTime first = LocalDateTime.now().plusDays(50).toLocalDate().atStartOfDay();
+        List<UUID> sessions = new ArrayList<>();
+        List<String> observations = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            UUID sessionId = success(appointmentSessionService.scheduleAppointment(
+                newPatient(), doctorId, List.of(consultation), first.plusMinutes(30L * i), false)).getSessionId();
+            success(appointmentSessionService.startSession(sessionId));
+            String text = largeObservations();
+            sessionNotesService.saveClinicalNotes(sessionId, DIAGNOSIS, "Initial treatment", text);
+            sessions.add(sessionId);
+            observations.add(text);
+        }
+
+        // Before the change: every note column written back, large or not
+        long fullRewrite = walBytes("saveClinicalNotes", sessions, observations, (sessionId, treatment, text) ->
+            sessionNotesService.saveClinicalNotes(sessionId, DIAGNOSIS, treatment, text));
+        // Dirty-checked edit of the @DynamicUpdate notes entity
+        long dynamicUpdate = walBytes("addMedicalInformation", sessions, observations, (sessionId, treatment, text) ->
+            success(appointmentSessionService.addMedicalInformation(sessionId, null, DIAGNOSIS, treatment, text)));
+        // Single-column upsert
+        long singleField = walBytes("updateSessionNote", sessions, observations, (sessionId, treatment, text) ->
+            success(appointmentSessionService.updateSessionNote(
+                sessionId, SessionNoteField.TREATMENT_INSTRUCTIONS, treatment)));
+
+        System.out.printf("WAL per treatment edit with %d KB observations: full rewrite %d B, "
+                + "addMedicalInformation %d B, updateSessionNote %d B%n",
+            OBSERVATIONS_CHARS / 1000, fullRewrite / SESSIONS, dynamicUpdate / SESSIONS, singleField / SESSIONS);
+
+        assertThat(dynamicUpdate).isLessThan(fullRewrite / 10);
+        assertThat(singleField).isLessThan(fullRewrite / 10);
+
+        // The edits changed the treatment and nothing else
+        for (int i = 0; i < SESSIONS; i++) {
+            SessionNotes notes = sessionNotesService.getNotes(sessions.get(i));
+            assertThat(notes.getTreatmentInstructions()).isEqualTo("Treatment " + i + " via updateSessionNote");
+            assertThat(notes.getFreeTextDiagnosis()).isEqualTo(DIAGNOSIS);
+            assertThat(notes.getFreeTextObservations()).isEqualTo(observations.get(i));
+        }
+    }
+
+    private interface NoteEdit {
+        void apply(UUID sessionId, String treatment, String observations);
+    }
+
+    /**
+     * Sets a new treatment on every session through the given edit and returns the WAL bytes written.
+     */
+    private long walBytes(String via, List<UUID> sessions, List<String> observations, NoteEdit edit) {
+        String startLsn = jdbcTemplate.queryForObject("SELECT CAST(pg_current_wal_insert_lsn() AS text)", String.class);
+        for (int i = 0; i < sessions.size(); i++) {
+            edit.apply(sessions.get(i), "Treatment " + i + " via " + via, observations.get(i));
+        }
+        return jdbcTemplate.queryForObject(
+            "SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), CAST(? AS pg_lsn))", Long.class, startLsn);
+    }
+
+    // Observations that TOAST compression cannot shrink much
+    private static String largeObservations() {
+        StringBuilder text = new StringBuilder(OBSERVATIONS_CHARS + 36);
+        while (text.length() < OBSERVATIONS_CHARS) {
+            text.append(UUID.randomUUID());
+        }
+        return text.toString();
+    }
+}
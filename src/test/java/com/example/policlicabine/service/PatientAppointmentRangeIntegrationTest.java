@@ -0,0 +1,81 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.dto.PatientDto;
+import com.example.policlicabine.entity.enums.SessionStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PatientService range lookups used by MedicalFileAccessService, against PostgreSQL.
+ */
+class PatientAppointmentRangeIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void rangeIsHalfOpenAndEachPatientIsListedOnce() {
+        UUID doctorId = newDoctor();
+        UUID patientId = newPatient();
+        String consultation = newConsultation(30);
+        LocalDateTime at = LocalDate.now().plusDays(5).atTime(10, 0);
+        success(appointmentSessionService.scheduleAppointment(patientId, doctorId, List.of(consultation), at, false));
+        success(appointmentSessionService.scheduleAppointment(
+            patientId, doctorId, List.of(consultation), at.plusHours(1), false));
+
+        // End is exclusive, start inclusive
+        assertThat(page(doctorId, at.minusHours(1), at)).isEmpty();
+        assertThat(page(doctorId, at, at.plusMinutes(1))).extracting(PatientDto::getPatientId)
+            .containsExactly(patientId);
+        assertThat(page(doctorId, at.minusDays(1), at.plusDays(1))).extracting(PatientDto::getPatientId)
+            .containsExactly(patientId);
+
+        assertThat(stream(doctorId, at.minusHours(1), at)).isEmpty();
+        assertThat(stream(doctorId, at.minusDays(1), at.plusDays(1))).extracting(PatientDto::getPatientId)
+            .containsExactly(patientId);
+    }
+
+    @Test
+    void excludedStatusDoesNotCount() {
+        UUID doctorId = newDoctor();
+        UUID patientId = newPatient();
+        String consultation = newConsultation(30);
+        LocalDateTime at = LocalDate.now().plusDays(6).atTime(10, 0);
+        UUID sessionId = success(appointmentSessionService.scheduleAppointment(
+            patientId, doctorId, List.of(consultation), at, false)).getSessionId();
+        success(appointmentSessionService.cancelAppointment(sessionId, "Patient request", false));
+
+        assertThat(page(doctorId, at.minusDays(1), at.plusDays(1))).isEmpty();
+    }
+
+    private List<PatientDto> page(UUID doctorId, LocalDateTime from, LocalDateTime to) {
+        return patientService.findPatientsWithDoctorAppointments(
+            doctorId, from, to, SessionStatus.CANCELLED, PageRequest.of(0, 10)).getContent();
+    }
+
+    private List<PatientDto> stream(UUID doctorId, LocalDateTime from, LocalDateTime to) {
+        // The stream must be consumed inside the caller's transaction
+        return transactionTemplate.execute(status -> {
+            try (Stream<PatientDto> patients = patientService.streamPatientsWithDoctorAppointments(
+                    doctorId, from, to, SessionStatus.CANCELLED)) {
+                return patients.toList();
+            }
+        });
+    }
+}
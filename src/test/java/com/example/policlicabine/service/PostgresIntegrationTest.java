@@ -0,0 +1,80 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.entity.enums.Specialty;
+import com.example.policlicabine.entity.enums.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base for tests that need the real schema: the application context against a
+ * PostgreSQL container (Hibernate DDL plus db/schema-extensions.sql).
+ *
+ * One container is shared by every subclass and the cached context, so fixtures
+ * use unique names instead of cleaning up. Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=INFO",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.policlicabine.service.RecordingStatementInspector"
+})
+@Testcontainers(disabledWithoutDocker = true)
+abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    static final PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private ConsultationService consultationService;
+
+    protected UUID newDoctor() {
+        String username = "doctor-" + UUID.randomUUID();
+        UUID userId = success(userService.createUser(username, "Dr " + username, UserRole.DOCTOR)).getUserId();
+        return success(doctorService.createDoctor(userId, List.of(Specialty.FACE))).getDoctorId();
+    }
+
+    protected UUID newPatient() {
+        String phone = "07" + ThreadLocalRandom.current().nextLong(10_000_000L, 100_000_000L);
+        return success(patientService.registerNewPatient("Ana", "Pop", phone, null, null)).getPatientId();
+    }
+
+    /**
+     * Creates an active consultation and returns its (unique) name.
+     */
+    protected String newConsultation(int durationMinutes) {
+        String name = "Consultation " + UUID.randomUUID();
+        success(consultationService.createConsultation(name, Specialty.FACE, new BigDecimal("150.00"), "RON",
+            durationMinutes, false));
+        return name;
+    }
+
+    protected static <T> T success(Result<T> result) {
+        assertThat(result.isSuccess()).as("%s", result.getErrors()).isTrue();
+        return result.getValue();
+    }
+}
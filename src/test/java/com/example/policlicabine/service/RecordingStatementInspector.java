@@ -0,0 +1,37 @@
+package com.example.policlicabine.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares on the current thread while record() runs.
+ * One entry per prepared statement, so a JDBC batch counts once.
+ *
+ * Public because Hibernate instantiates it from hibernate.session_factory.statement_inspector.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> recorded = new ThreadLocal<>();
+
+    static List<String> record(Runnable work) {
+        List<String> statements = new ArrayList<>();
+        recorded.set(statements);
+        try {
+            work.run();
+        } finally {
+            recorded.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = recorded.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
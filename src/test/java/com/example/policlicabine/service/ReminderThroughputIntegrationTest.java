@@ -0,0 +1,90 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.dto.ScheduleCommand;
+import com.example.policlicabine.service.AppointmentReminderService.RunSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reminder dispatch for 10,000 due sessions against PostgreSQL, through a channel
+ * with simulated network latency.
+ */
+class ReminderThroughputIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int DOCTORS = 40;
+    private static final int SESSIONS_PER_DOCTOR = 250;
+    private static final int SESSIONS = DOCTORS * SESSIONS_PER_DOCTOR;
+    private static final long CHANNEL_LATENCY_MILLIS = 20;
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Test
+    void dispatchesTenThousandRemindersPerMinute() {
+        List<UUID> doctors = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            doctors.add(newDoctor());
+        }
+        UUID patientId = newPatient();
+        String consultation = newConsultation(5);
+        // 5-minute sessions from one hour from now: all inside the 24-hour reminder window
+        LocalDateTime first = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MINUTES);
+        List<ScheduleCommand> commands = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            commands.add(ScheduleCommand.builder()
+                .patientId(patientId)
+                .doctorId(doctors.get(i % DOCTORS))
+                .consultationNames(List.of(consultation))
+                .scheduledDateTime(first.plusMinutes(5L * (i / DOCTORS)))
+                .build());
+        }
+        assertThat(success(appointmentSessionService.scheduleAppointments(commands)))
+            .allSatisfy(result -> assertThat(result.isSuccess()).isTrue());
+
+        LongAdder sent = new LongAdder();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ReminderChannel channel = target -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(CHANNEL_LATENCY_MILLIS);
+                sent.increment();
+                return true;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+        AppointmentReminderService reminderService = new AppointmentReminderService(appointmentSessionService, channel);
+
+        RunSummary summary = success(reminderService.dispatchDueReminders());
+        System.out.printf("Reminders: %d delivered in %d ms (%.0f per minute, %d concurrent sends at most)%n",
+            summary.delivered(), summary.durationMillis(), summary.remindersPerMinute(), maxInFlight.get());
+
+        assertThat(summary.failed()).isZero();
+        assertThat(summary.delivered()).isEqualTo(sent.intValue());
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(200);
+        assertThat(summary.remindersPerMinute()).isGreaterThanOrEqualTo(10_000);
+
+        // Every session got exactly one recorded attempt, from this run or a concurrent scheduled one
+        Integer reminded = new NamedParameterJdbcTemplate(jdbcTemplate).queryForObject("""
+            SELECT COUNT(*) FROM appointment_sessions
+            WHERE doctor_id IN (:doctorIds) AND contact_attempts = 1 AND reminder_sent_at IS NOT NULL
+            """, Map.of("doctorIds", doctors), Integer.class);
+        assertThat(reminded).isEqualTo(SESSIONS);
+
+        // A second run finds nothing due
+        assertThat(success(reminderService.dispatchDueReminders()).delivered()).isZero();
+    }
+}
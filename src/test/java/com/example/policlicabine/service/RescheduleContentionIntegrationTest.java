@@ -0,0 +1,127 @@
+package com.example.policlicabine.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads moving the same session, against PostgreSQL: rescheduleAppointment
+ * (optimistic locking with bounded retries) next to a pessimistic baseline that
+ * serializes on SELECT ... FOR UPDATE. Both report moves per second; the optimistic
+ * path must never lose an update.
+ */
+class RescheduleContentionIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final int MOVES_PER_THREAD = 20;
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void optimisticReschedulingUnderContentionLosesNoUpdates() throws Exception {
+        UUID sessionId = newSession();
+        AtomicInteger moved = new AtomicInteger();
+        AtomicInteger gaveUp = new AtomicInteger();
+
+        double seconds = contend((thread, move) -> {
+            if (appointmentSessionService.rescheduleAppointment(sessionId, target(thread, move)).isSuccess()) {
+                moved.incrementAndGet();
+            } else {
+                gaveUp.incrementAndGet();
+            }
+        });
+        System.out.printf("Optimistic reschedule: %d moved, %d gave up after retries, %.0f moves/s%n",
+            moved.get(), gaveUp.get(), moved.get() / seconds);
+
+        assertThat(moved.get() + gaveUp.get()).isEqualTo(THREADS * MOVES_PER_THREAD);
+        assertThat(moved.get()).isPositive();
+        // Every successful move was counted exactly once - nothing was overwritten
+        assertThat(rescheduleCount(sessionId)).isEqualTo(moved.get());
+    }
+
+    @Test
+    void pessimisticBaselineForComparison() throws Exception {
+        UUID sessionId = newSession();
+
+        double seconds = contend((thread, move) -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject(
+                "SELECT reschedule_count FROM appointment_sessions WHERE session_id = ? FOR UPDATE",
+                Integer.class, sessionId);
+            LocalDateTime start = target(thread, move);
+            jdbcTemplate.update("""
+                UPDATE appointment_sessions
+                   SET scheduled_date_time = ?, scheduled_end_date_time = ?,
+                       reschedule_count = reschedule_count + 1, version = version + 1
+                 WHERE session_id = ?
+                """, start, start.plusMinutes(30), sessionId);
+        }));
+        System.out.printf("Pessimistic baseline: %d moved, %.0f moves/s%n",
+            THREADS * MOVES_PER_THREAD, THREADS * MOVES_PER_THREAD / seconds);
+
+        assertThat(rescheduleCount(sessionId)).isEqualTo(THREADS * MOVES_PER_THREAD);
+    }
+
+    private interface Move {
+        void run(int thread, int move);
+    }
+
+    /**
+     * Runs every move from THREADS threads at once and returns the elapsed seconds.
+     */
+    private double contend(Move work) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        long startedAt;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int move = 0; move < MOVES_PER_THREAD; move++) {
+                        work.run(thread, move);
+                    }
+                    return null;
+                }));
+            }
+            startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        }
+        return (System.nanoTime() - startedAt) / 1e9;
+    }
+
+    private UUID newSession() {
+        return success(appointmentSessionService.scheduleAppointment(newPatient(), newDoctor(),
+            List.of(newConsultation(30)), LocalDate.now().plusDays(20).atTime(8, 0), false)).getSessionId();
+    }
+
+    // Every move goes to its own hour, so moves never overlap each other
+    private static LocalDateTime target(int thread, int move) {
+        return LocalDate.now().plusDays(30).atStartOfDay().plusHours((long) thread * MOVES_PER_THREAD + move);
+    }
+
+    private int rescheduleCount(UUID sessionId) {
+        return jdbcTemplate.queryForObject(
+            "SELECT reschedule_count FROM appointment_sessions WHERE session_id = ?", Integer.class, sessionId);
+    }
+}
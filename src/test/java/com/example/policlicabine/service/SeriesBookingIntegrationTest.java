@@ -0,0 +1,135 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.common.Result;
+import com.example.policlicabine.dto.AppointmentSeriesDto;
+import com.example.policlicabine.dto.AppointmentSessionSummaryDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recurring series booking and bulk cancellation against PostgreSQL: a series is booked
+ * whole or not at all, and cancelling the rest touches only scheduled future occurrences.
+ */
+class SeriesBookingIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Test
+    void everyOccurrenceIsBookedUnderOneSeries() {
+        UUID doctorId = newDoctor();
+        addAvailability(doctorId, DayOfWeek.values());
+        LocalDateTime first = nextMonday().atTime(10, 0);
+
+        AppointmentSeriesDto series = success(appointmentSessionService.scheduleSeries(
+            newPatient(), doctorId, List.of(newConsultation(30)), first, Period.ofWeeks(2), 10, false));
+
+        assertThat(series.getSessionIds()).hasSize(10).doesNotHaveDuplicates();
+        assertThat(series.getOccurrences()).hasSize(10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(series.getOccurrences().get(i)).isEqualTo(first.plusWeeks(2L * i));
+        }
+        assertThat(jdbcTemplate.queryForList("""
+            SELECT session_id FROM appointment_sessions WHERE series_id = ? AND status = 'SCHEDULED'
+            ORDER BY scheduled_date_time
+            """, UUID.class, series.getSeriesId())).containsExactlyElementsOf(series.getSessionIds());
+    }
+
+    @Test
+    void aConflictingOccurrenceRejectsTheWholeSeries() {
+        UUID doctorId = newDoctor();
+        addAvailability(doctorId, DayOfWeek.values());
+        LocalDateTime first = nextMonday().atTime(10, 0);
+        String consultation = newConsultation(30);
+        // The doctor is already busy at the fifth occurrence
+        success(appointmentSessionService.scheduleAppointment(
+            newPatient(), doctorId, List.of(consultation), first.plusWeeks(4).plusMinutes(15), false));
+
+        Result<AppointmentSeriesDto> result = appointmentSessionService.scheduleSeries(
+            newPatient(), doctorId, List.of(consultation), first, Period.ofWeeks(1), 8, false);
+
+        assertThat(result.isFailure()).isTrue();
+        assertThat(result.getErrorMessage()).contains(first.plusWeeks(4) + " (doctor already booked)");
+        assertThat(doctorSessions(doctorId)).isEqualTo(1);
+    }
+
+    @Test
+    void occurrencesOutsideWeeklyAvailabilityRejectTheWholeSeries() {
+        UUID doctorId = newDoctor();
+        addAvailability(doctorId, DayOfWeek.MONDAY);
+        LocalDateTime first = nextMonday().atTime(10, 0);
+
+        // Every 10 days: only the first occurrence falls on a Monday
+        Result<AppointmentSeriesDto> result = appointmentSessionService.scheduleSeries(
+            newPatient(), doctorId, List.of(newConsultation(30)), first, Period.ofDays(10), 3, false);
+
+        assertThat(result.isFailure()).isTrue();
+        assertThat(result.getErrorMessage())
+            .contains(first.plusDays(10) + " (outside the doctor's availability)")
+            .contains(first.plusDays(20) + " (outside the doctor's availability)")
+            .doesNotContain(first + " (");
+        assertThat(doctorSessions(doctorId)).isZero();
+    }
+
+    @Test
+    void cancellingTheRestLeavesEarlierAndStartedOccurrences() {
+        UUID doctorId = newDoctor();
+        addAvailability(doctorId, DayOfWeek.values());
+        LocalDateTime first = nextMonday().atTime(10, 0);
+        AppointmentSeriesDto series = success(appointmentSessionService.scheduleSeries(
+            newPatient(), doctorId, List.of(newConsultation(30)), first, Period.ofWeeks(1), 8, false));
+        List<UUID> sessions = series.getSessionIds();
+        success(appointmentSessionService.startSession(sessions.get(5)));
+
+        List<AppointmentSessionSummaryDto> cancelled = success(appointmentSessionService.cancelRemainingSeries(
+            series.getSeriesId(), series.getOccurrences().get(3), "Treatment plan changed"));
+
+        // Occurrences 3, 4, 6 and 7; 0-2 are earlier and 5 is in progress
+        assertThat(cancelled).extracting(AppointmentSessionSummaryDto::getSessionId)
+            .containsExactlyInAnyOrder(sessions.get(3), sessions.get(4), sessions.get(6), sessions.get(7));
+        assertThat(jdbcTemplate.queryForList("""
+            SELECT status FROM appointment_sessions WHERE series_id = ? ORDER BY scheduled_date_time
+            """, String.class, series.getSeriesId())).containsExactly(
+            "SCHEDULED", "SCHEDULED", "SCHEDULED", "CANCELLED", "CANCELLED", "IN_PROGRESS", "CANCELLED", "CANCELLED");
+        assertThat(jdbcTemplate.queryForList("""
+            SELECT n.cancellation_reason FROM session_notes n
+            JOIN appointment_sessions a ON a.session_id = n.session_id
+            WHERE a.series_id = ? AND a.status = 'CANCELLED'
+            """, String.class, series.getSeriesId())).hasSize(4).containsOnly("Treatment plan changed");
+
+        // Nothing left to cancel
+        assertThat(success(appointmentSessionService.cancelRemainingSeries(
+            series.getSeriesId(), series.getOccurrences().get(3), null))).isEmpty();
+        assertThat(appointmentSessionService.cancelRemainingSeries(UUID.randomUUID(), null, null).isFailure())
+            .isTrue();
+    }
+
+    private void addAvailability(UUID doctorId, DayOfWeek... days) {
+        for (DayOfWeek day : days) {
+            jdbcTemplate.update("""
+                INSERT INTO doctor_availability (id, doctor_id, day_of_week, start_time, end_time)
+                VALUES (?, ?, ?, ?, ?)
+                """, UUID.randomUUID(), doctorId, day.name(), LocalTime.of(8, 0), LocalTime.of(18, 0));
+        }
+    }
+
+    private static LocalDate nextMonday() {
+        return LocalDate.now().plusDays(7).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
+    private int doctorSessions(UUID doctorId) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM appointment_sessions WHERE doctor_id = ?", Integer.class, doctorId);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.policlicabine.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements issued by AppointmentSessionService.completeSession, including the billing
+ * written by its SessionCompleted listeners, against PostgreSQL.
+ */
+class SessionCompletionStatementsIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Test
+    void completionAndBillingUseAFixedNumberOfStatements() {
+        List<String> oneConsultation = completeSessionWith(1);
+        List<String> threeConsultations = completeSessionWith(3);
+
+        List<String> expected = List.of(
+            "update appointment_sessions",      // IN_PROGRESS -> COMPLETED
+            "insert session_notes",             // notes upsert
+            "select appointment_sessions",      // summary row
+            "select appointment_sessions",      // consultation names and prices
+            "insert doctor_calendar_state",     // calendar revision
+            "update doctor_agenda",             // agenda status
+            "select session_billing",           // billing already exists?
+            "insert session_billing",
+            "insert session_billing_lines");    // one batch for all lines
+        assertThat(oneConsultation).as("%s", oneConsultation).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(threeConsultations).as("%s", threeConsultations).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private List<String> completeSessionWith(int consultationCount) {
+        UUID doctorId = newDoctor();
+        UUID patientId = newPatient();
+        List<String> consultations = new ArrayList<>();
+        for (int i = 0; i < consultationCount; i++) {
+            consultations.add(newConsultation(20));
+        }
+        UUID sessionId = success(appointmentSessionService.scheduleAppointment(
+            patientId, doctorId, consultations, LocalDate.now().plusDays(3).atTime(9, 0), false)).getSessionId();
+        success(appointmentSessionService.startSession(sessionId));
+
+        List<String> statements = RecordingStatementInspector.record(() ->
+            success(appointmentSessionService.completeSession(sessionId, "Diagnosis", "Treatment", "Observations")));
+
+        // Billing was written with every line
+        assertThat(success(billingService.getBillingForSession(sessionId)).getSubtotalAmount())
+            .isEqualByComparingTo(new BigDecimal("150.00").multiply(BigDecimal.valueOf(consultationCount)));
+
+        return statements.stream().map(SessionCompletionStatementsIntegrationTest::kind).toList();
+    }
+
+    /**
+     * "verb table" of a statement, e.g. "insert session_notes".
+     */
+    private static String kind(String sql) {
+        String[] words = sql.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        String verb = words[0];
+        String table = switch (verb) {
+            case "insert" -> words[2];
+            case "update" -> words[1];
+            default -> words[List.of(words).indexOf("from") + 1];
+        };
+        return verb + " " + table.replace("(", "");
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.policlicabine.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The session_notes migration scripts against a pre-migration appointment_sessions table,
+ * rebuilt in a throwaway PostgreSQL schema: the expand step copies old notes and mirrors
+ * old-node writes column by column, and the contract step drops the old columns only
+ * once no old value is missing from session_notes.
+ */
+class SessionNotesMigrationIntegrationTest extends PostgresIntegrationTest {
+
+    private static final String LEGACY_TABLES = """
+        CREATE TABLE appointment_sessions (
+            session_id uuid PRIMARY KEY,
+            free_text_diagnosis text,
+            treatment_instructions text,
+            free_text_observations text,
+            cancellation_reason text,
+            updated_at timestamp
+        );
+        CREATE TABLE session_notes (
+            session_id uuid PRIMARY KEY,
+            free_text_diagnosis text,
+            treatment_instructions text,
+            free_text_observations text,
+            cancellation_reason text,
+            updated_at timestamp
+        )
+        """;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void noOldNoteIsLostBetweenExpandAndContract() throws Exception {
+        String schema = "legacy_" + UUID.randomUUID().toString().replace("-", "");
+        UUID documented = UUID.randomUUID();
+        UUID withoutNotes = UUID.randomUUID();
+        UUID cancelled = UUID.randomUUID();
+        UUID bookedByOldNode = UUID.randomUUID();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            try {
+                jdbc.execute("CREATE SCHEMA " + schema);
+                jdbc.execute("SET search_path TO " + schema);
+                jdbc.execute(LEGACY_TABLES);
+                jdbc.update("""
+                    INSERT INTO appointment_sessions (session_id, free_text_diagnosis, free_text_observations,
+                                                      cancellation_reason, updated_at)
+                    VALUES (?, 'Rosacea', 'Redness on both cheeks', NULL, now()),
+                           (?, NULL, NULL, NULL, now()),
+                           (?, NULL, NULL, 'Patient ill', now())
+                    """, documented, withoutNotes, cancelled);
+
+                // Expand: existing notes are copied, sessions without notes get no row
+                runStatements(jdbc, "db/schema-extensions.sql", "session_notes");
+                assertThat(notes(jdbc, documented))
+                    .containsEntry("free_text_diagnosis", "Rosacea")
+                    .containsEntry("free_text_observations", "Redness on both cheeks");
+                assertThat(notes(jdbc, cancelled)).containsEntry("cancellation_reason", "Patient ill");
+                assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM session_notes WHERE session_id = ?",
+                    Integer.class, withoutNotes)).isZero();
+
+                // New code edits one note, then an old node edits another through the old column
+                jdbc.update("UPDATE session_notes SET treatment_instructions = 'Azelaic acid', updated_at = now() "
+                    + "WHERE session_id = ?", documented);
+                jdbc.update("UPDATE appointment_sessions SET free_text_observations = 'Redness fading', "
+                    + "updated_at = now() WHERE session_id = ?", documented);
+                assertThat(notes(jdbc, documented))
+                    .containsEntry("free_text_diagnosis", "Rosacea")
+                    .containsEntry("treatment_instructions", "Azelaic acid")
+                    .containsEntry("free_text_observations", "Redness fading");
+
+                // Sessions an old node creates with notes are mirrored as well
+                jdbc.update("INSERT INTO appointment_sessions (session_id, free_text_diagnosis, updated_at) "
+                    + "VALUES (?, 'Melasma', now())", bookedByOldNode);
+                assertThat(notes(jdbc, bookedByOldNode)).containsEntry("free_text_diagnosis", "Melasma");
+
+                // An old value that never reached session_notes blocks the contract step
+                jdbc.execute("ALTER TABLE appointment_sessions DISABLE TRIGGER trg_session_notes_legacy_sync");
+                jdbc.update("UPDATE appointment_sessions SET free_text_diagnosis = 'Rosacea, papulopustular', "
+                    + "updated_at = now() + interval '1 hour' WHERE session_id = ?", documented);
+                jdbc.execute("ALTER TABLE appointment_sessions ENABLE TRIGGER trg_session_notes_legacy_sync");
+                runStatements(jdbc, "db/schema-contract-session-notes.sql", "DROP COLUMN");
+                assertThat(legacyNoteColumns(jdbc, schema)).isEqualTo(4);
+
+                // Once reconciled, the old columns and the trigger go
+                jdbc.update("UPDATE session_notes SET free_text_diagnosis = 'Rosacea, papulopustular', "
+                    + "updated_at = now() WHERE session_id = ?", documented);
+                runStatements(jdbc, "db/schema-contract-session-notes.sql", "DROP COLUMN");
+                assertThat(legacyNoteColumns(jdbc, schema)).isZero();
+                assertThat(jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM pg_trigger WHERE tgname = 'trg_session_notes_legacy_sync'",
+                    Integer.class)).isZero();
+            } finally {
+                // The connection goes back to the pool
+                jdbc.execute("RESET search_path");
+                jdbc.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            }
+        }
+    }
+
+    /**
+     * Runs the statements of a schema script that mention the marker, as spring.sql.init would.
+     */
+    private static void runStatements(JdbcTemplate jdbc, String script, String marker) throws IOException {
+        String sql = StreamUtils.copyToString(new ClassPathResource(script).getInputStream(), StandardCharsets.UTF_8);
+        List<String> statements = Arrays.stream(sql.split("@@"))
+            .filter(statement -> statement.contains(marker))
+            .toList();
+        assertThat(statements).as(script).isNotEmpty();
+        statements.forEach(jdbc::execute);
+    }
+
+    private static Map<String, Object> notes(JdbcTemplate jdbc, UUID sessionId) {
+        return jdbc.queryForMap("SELECT * FROM session_notes WHERE session_id = ?", sessionId);
+    }
+
+    private static int legacyNoteColumns(JdbcTemplate jdbc, String schema) {
+        return jdbc.queryForObject("""
+            SELECT COUNT(*) FROM information_schema.columns
+            WHERE table_schema = ? AND table_name = 'appointment_sessions'
+              AND column_name IN ('free_text_diagnosis', 'treatment_instructions',
+                                  'free_text_observations', 'cancellation_reason')
+            """, Integer.class, schema);
+    }
+}
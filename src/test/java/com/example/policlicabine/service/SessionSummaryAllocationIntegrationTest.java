@@ -0,0 +1,95 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.dto.AppointmentSessionDto;
+import com.example.policlicabine.dto.AppointmentSessionSummaryDto;
+import com.example.policlicabine.dto.ScheduleCommand;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap allocated on the calling thread by a patient's appointment history as full DTO
+ * trees (getPatientAppointmentHistory) and as summary rows
+ * (getPatientAppointmentHistorySummaries), against PostgreSQL.
+ */
+class SessionSummaryAllocationIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int SESSIONS = 500;
+    private static final int WARMUP_RUNS = 10;
+    private static final int MEASURED_RUNS = 10;
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private AppointmentSessionService appointmentSessionService;
+
+    @Test
+    void summaryHistoryAllocatesLessThanHalfOfTheFullHistory() {
+        UUID patientId = newPatient();
+        UUID doctorId = newDoctor();
+        List<String> consultations = List.of(newConsultation(15), newConsultation(15));
+        LocalDateTime first = LocalDateTime.now().plusDays(70).toLocalDate().atStartOfDay();
+        List<ScheduleCommand> commands = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            commands.add(ScheduleCommand.builder()
+                .patientId(patientId)
+                .doctorId(doctorId)
+                .consultationNames(consultations)
+                .scheduledDateTime(first.plusMinutes(30L * i))
+                .build());
+        }
+        assertThat(success(appointmentSessionService.scheduleAppointments(commands)))
+            .allSatisfy(result -> assertThat(result.isSuccess()).isTrue());
+        // Typical documentation on every session - the full DTO carries it, the summary does not
+        jdbcTemplate.update("""
+            INSERT INTO session_notes (session_id, free_text_diagnosis, treatment_instructions,
+                                       free_text_observations, updated_at)
+            SELECT session_id, 'Acne vulgaris', repeat('Apply twice daily. ', 20), repeat('Observed. ', 100), now()
+            FROM appointment_sessions WHERE patient_id = ?
+            """, patientId);
+
+        List<AppointmentSessionDto> full = success(appointmentSessionService.getPatientAppointmentHistory(patientId));
+        List<AppointmentSessionSummaryDto> summaries =
+            success(appointmentSessionService.getPatientAppointmentHistorySummaries(patientId));
+        // Same sessions, same order
+        assertThat(summaries).extracting(AppointmentSessionSummaryDto::getSessionId)
+            .containsExactlyElementsOf(full.stream().map(AppointmentSessionDto::getSessionId).toList());
+        assertThat(summaries).hasSize(SESSIONS)
+            .allSatisfy(summary -> assertThat(summary.getConsultationNames()).hasSize(consultations.size()));
+
+        long fullBytes = allocatedBytes(() -> appointmentSessionService.getPatientAppointmentHistory(patientId));
+        long summaryBytes = allocatedBytes(
+            () -> appointmentSessionService.getPatientAppointmentHistorySummaries(patientId));
+        System.out.printf("History of %d sessions: full DTOs %d KB, summaries %d KB (%.1fx less)%n",
+            SESSIONS, fullBytes / 1024, summaryBytes / 1024, (double) fullBytes / summaryBytes);
+
+        assertThat(summaryBytes).isLessThan(fullBytes / 2);
+    }
+
+    /**
+     * Median bytes allocated by the current thread for one call, after warm-up.
+     */
+    private static long allocatedBytes(Supplier<?> call) {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            call.get();
+        }
+        long[] bytes = new long[MEASURED_RUNS];
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            call.get();
+            bytes[run] = THREADS.getCurrentThreadAllocatedBytes() - before;
+        }
+        Arrays.sort(bytes);
+        return bytes[MEASURED_RUNS / 2];
+    }
+}
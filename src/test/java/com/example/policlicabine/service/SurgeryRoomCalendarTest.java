@@ -0,0 +1,164 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.repository.SurgeryRoomRepository;
+import com.example.policlicabine.repository.projection.RoomBooking;
+import com.example.policlicabine.service.SurgeryRoomCalendar.Reservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * SurgeryRoomCalendar against a mocked repository; transactions are simulated
+ * with TestTransactions.
+ */
+class SurgeryRoomCalendarTest {
+
+    private static final UUID ROOM_A = UUID.randomUUID();
+    private static final UUID ROOM_B = UUID.randomUUID();
+
+    private final LocalDate day = LocalDate.now().plusDays(10);
+
+    private SurgeryRoomRepository repository;
+    private SurgeryRoomCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SurgeryRoomRepository.class);
+        when(repository.findActiveRoomIds()).thenReturn(List.of(ROOM_A, ROOM_B));
+        when(repository.findRoomBookings(any(), any(), anyCollection())).thenReturn(List.of());
+        calendar = new SurgeryRoomCalendar(repository);
+    }
+
+    @Test
+    void reservingOutsideTransactionIsRejected() {
+        assertThatThrownBy(() -> calendar.reserveRoom(ROOM_A, at(10, 0), at(11, 0)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> calendar.reserveAnyRoom(at(10, 0), at(11, 0)))
+            .isInstanceOf(IllegalStateException.class);
+
+        // Nothing was claimed by the rejected calls
+        TestTransactions.commit(() -> {
+            assertThat(calendar.reserveRoom(ROOM_A, at(10, 0), at(11, 0))).isPresent();
+            assertThat(calendar.reserveRoom(ROOM_B, at(10, 0), at(11, 0))).isPresent();
+        });
+    }
+
+    @Test
+    void rangesAreRoundedOutwardsToWholeBuckets() {
+        TestTransactions.commit(() -> {
+            // 10:02-10:08 occupies the 10:00 and 10:05 buckets
+            assertThat(calendar.reserveRoom(ROOM_A, at(10, 2), at(10, 8))).isPresent();
+
+            assertThat(calendar.reserveRoom(ROOM_A, at(10, 8), at(10, 12))).isEmpty();
+            assertThat(calendar.reserveRoom(ROOM_A, at(9, 58), at(10, 1))).isEmpty();
+            assertThat(calendar.reserveRoom(ROOM_A, at(9, 55), at(10, 0))).isPresent();
+            assertThat(calendar.reserveRoom(ROOM_A, at(10, 10), at(10, 20))).isPresent();
+        });
+    }
+
+    @Test
+    void multiDayReservationsOccupyEveryDay() {
+        LocalDateTime start = at(22, 0);
+        LocalDateTime end = day.plusDays(1).atTime(2, 0);
+        reserveAndAttach(ROOM_A, start, end, UUID.randomUUID());
+
+        TestTransactions.commit(() -> {
+            assertThat(calendar.reserveRoom(ROOM_A, at(23, 55), day.plusDays(1).atTime(0, 5))).isEmpty();
+            assertThat(calendar.reserveRoom(ROOM_A, day.plusDays(1).atTime(1, 55), day.plusDays(1).atTime(2, 5)))
+                .isEmpty();
+            assertThat(calendar.reserveRoom(ROOM_A, day.plusDays(1).atTime(2, 0), day.plusDays(1).atTime(3, 0)))
+                .isPresent();
+            assertThat(calendar.reserveRoom(ROOM_A, at(21, 0), at(22, 0))).isPresent();
+        });
+
+        // One query per day, never per room or per reservation
+        verify(repository, times(1)).findRoomBookings(eq(day.atStartOfDay()), any(), anyCollection());
+        verify(repository, times(1)).findRoomBookings(eq(day.plusDays(1).atStartOfDay()), any(), anyCollection());
+    }
+
+    @Test
+    void attachedReservationSurvivesCommit() {
+        reserveAndAttach(ROOM_A, at(10, 0), at(11, 0), UUID.randomUUID());
+
+        TestTransactions.commit(() -> {
+            assertThat(calendar.reserveRoom(ROOM_A, at(10, 30), at(10, 45))).isEmpty();
+            assertThat(calendar.reserveAnyRoom(at(10, 0), at(11, 0)))
+                .map(Reservation::getRoomId)
+                .contains(ROOM_B);
+        });
+    }
+
+    @Test
+    void rollbackReleasesReservation() {
+        TestTransactions.rollback(() -> {
+            Optional<Reservation> reservation = calendar.reserveRoom(ROOM_A, at(10, 0), at(11, 0));
+            assertThat(reservation).isPresent();
+            calendar.attach(reservation.get(), UUID.randomUUID());
+        });
+
+        TestTransactions.commit(() ->
+            assertThat(calendar.reserveRoom(ROOM_A, at(10, 0), at(11, 0))).isPresent());
+    }
+
+    @Test
+    void unattachedReservationIsReleasedOnCommit() {
+        TestTransactions.commit(() ->
+            assertThat(calendar.reserveRoom(ROOM_A, at(10, 0), at(11, 0))).isPresent());
+
+        TestTransactions.commit(() ->
+            assertThat(calendar.reserveRoom(ROOM_A, at(10, 0), at(11, 0))).isPresent());
+    }
+
+    @Test
+    void releaseSessionFreesItsRooms() {
+        UUID sessionId = UUID.randomUUID();
+        reserveAndAttach(ROOM_A, at(10, 0), at(11, 0), sessionId);
+
+        calendar.releaseSession(sessionId);
+
+        TestTransactions.commit(() ->
+            assertThat(calendar.reserveRoom(ROOM_A, at(10, 0), at(11, 0))).isPresent());
+    }
+
+    @Test
+    void bookingsLoadedFromDatabaseBlockTheRoom() {
+        when(repository.findRoomBookings(eq(day.atStartOfDay()), any(), anyCollection()))
+            .thenReturn(List.of(new RoomBooking(UUID.randomUUID(), ROOM_A, at(10, 0), at(11, 0))));
+
+        TestTransactions.commit(() -> {
+            assertThat(calendar.reserveAnyRoom(at(10, 30), at(11, 30)))
+                .map(Reservation::getRoomId)
+                .contains(ROOM_B);
+            assertThat(calendar.reserveAnyRoom(at(10, 30), at(11, 30))).isEmpty();
+            assertThat(calendar.reserveRoom(ROOM_A, at(11, 0), at(12, 0))).isPresent();
+        });
+    }
+
+    private void reserveAndAttach(UUID roomId, LocalDateTime start, LocalDateTime end, UUID sessionId) {
+        TestTransactions.commit(() -> {
+            Optional<Reservation> reservation = calendar.reserveRoom(roomId, start, end);
+            assertThat(reservation).isPresent();
+            calendar.attach(reservation.get(), sessionId);
+        });
+    }
+
+    private LocalDateTime at(int hour, int minute) {
+        return day.atTime(LocalTime.of(hour, minute));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.policlicabine.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs code with transaction synchronization active on the current thread and then
+ * completes the "transaction" with the given status - enough for components that
+ * tie state to afterCompletion hooks, without a database or transaction manager.
+ */
+final class TestTransactions {
+
+    private TestTransactions() {
+    }
+
+    static void commit(Runnable work) {
+        run(() -> {
+            work.run();
+            return null;
+        }, TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    static void rollback(Runnable work) {
+        run(() -> {
+            work.run();
+            return null;
+        }, TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    static <T> T run(Supplier<T> work, int completionStatus) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            return work.get();
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, completionStatus);
+        }
+    }
+}
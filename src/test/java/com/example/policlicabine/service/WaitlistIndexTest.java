@@ -0,0 +1,132 @@
+package com.example.policlicabine.service;
+
+import com.example.policlicabine.entity.enums.Specialty;
+import com.example.policlicabine.repository.projection.WaitlistCandidate;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WaitlistIndexTest {
+
+    private static final int THREADS = 64;
+    private static final int CANDIDATES = 200;
+
+    private final UUID doctorId = UUID.randomUUID();
+    private final LocalDate day = LocalDate.now().plusDays(3);
+    private final LocalDateTime slotStart = day.atTime(10, 0);
+    private final LocalDateTime slotEnd = day.atTime(10, 30);
+
+    private final WaitlistIndex index = new WaitlistIndex();
+
+    @Test
+    void concurrentClaimsNeverReturnTheSameEntryTwice() throws Exception {
+        List<WaitlistCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < CANDIDATES; i++) {
+            // Half wait for this doctor, half for one of the doctor's specialties
+            candidates.add(i % 2 == 0
+                ? candidate(doctorId, null, i % 3, 30)
+                : candidate(null, Specialty.MOLES, i % 3, 30));
+        }
+        index.replaceAll(candidates);
+
+        Queue<UUID> claimed = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    Optional<WaitlistCandidate> next;
+                    while ((next = index.claimBest(doctorId, Set.of(Specialty.MOLES), slotStart, slotEnd, null))
+                            .isPresent()) {
+                        claimed.add(next.get().entryId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(claimed).hasSize(CANDIDATES).doesNotHaveDuplicates();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void claimsHighestPriorityThenOldestFirst() {
+        WaitlistCandidate lowOld = candidate(doctorId, null, 0, 30, day.minusDays(30).atStartOfDay());
+        WaitlistCandidate highNew = candidate(doctorId, null, 5, 30, day.minusDays(1).atStartOfDay());
+        WaitlistCandidate highOld = candidate(null, Specialty.FACE, 5, 30, day.minusDays(2).atStartOfDay());
+        index.replaceAll(List.of(lowOld, highNew, highOld));
+
+        assertThat(claim(Set.of(Specialty.FACE), null)).contains(highOld);
+        assertThat(claim(Set.of(Specialty.FACE), null)).contains(highNew);
+        assertThat(claim(Set.of(Specialty.FACE), null)).contains(lowOld);
+        assertThat(claim(Set.of(Specialty.FACE), null)).isEmpty();
+    }
+
+    @Test
+    void skipsEntriesThatDoNotFitTheSlot() {
+        WaitlistCandidate tooLong = candidate(doctorId, null, 9, 45);
+        WaitlistCandidate laterWindow = new WaitlistCandidate(UUID.randomUUID(), UUID.randomUUID(), doctorId, null,
+            day.plusDays(1), day.plusDays(5), 30, 9, LocalDateTime.now());
+        WaitlistCandidate otherSpecialty = candidate(null, Specialty.NECK, 9, 30);
+        WaitlistCandidate fits = candidate(doctorId, null, 0, 30);
+        index.replaceAll(List.of(tooLong, laterWindow, otherSpecialty, fits));
+
+        assertThat(claim(Set.of(Specialty.FACE), null)).contains(fits);
+        assertThat(claim(Set.of(Specialty.FACE), null)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void neverOffersTheSlotBackToTheCancellingPatient() {
+        WaitlistCandidate cancelling = candidate(doctorId, null, 9, 30);
+        WaitlistCandidate other = candidate(doctorId, null, 0, 30);
+        index.replaceAll(List.of(cancelling, other));
+
+        assertThat(claim(Set.of(), cancelling.patientId())).contains(other);
+        assertThat(claim(Set.of(), cancelling.patientId())).isEmpty();
+    }
+
+    @Test
+    void dropsEntriesWhoseWindowHasPassed() {
+        WaitlistCandidate expired = new WaitlistCandidate(UUID.randomUUID(), UUID.randomUUID(), doctorId, null,
+            LocalDate.now().minusDays(10), LocalDate.now().minusDays(1), 30, 9, LocalDateTime.now());
+        index.replaceAll(List.of(expired));
+
+        assertThat(claim(Set.of(), null)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    private Optional<WaitlistCandidate> claim(Set<Specialty> specialties, UUID excludedPatientId) {
+        return index.claimBest(doctorId, specialties, slotStart, slotEnd, excludedPatientId);
+    }
+
+    private WaitlistCandidate candidate(UUID doctor, Specialty specialty, int priority, int requiredMinutes) {
+        return candidate(doctor, specialty, priority, requiredMinutes, LocalDateTime.now());
+    }
+
+    private WaitlistCandidate candidate(UUID doctor, Specialty specialty, int priority, int requiredMinutes,
+                                        LocalDateTime createdAt) {
+        return new WaitlistCandidate(UUID.randomUUID(), UUID.randomUUID(), doctor, specialty,
+            day.minusDays(1), day.plusDays(1), requiredMinutes, priority, createdAt);
+    }
+}